@@ -267,6 +267,24 @@ public interface BlobStore {
      */
     boolean readBlob(String key, Path dest) throws IOException;
 
+    /**
+     * Starts reading a blob based on its key into the given file, returning as soon as the beginning of the blob can
+     * be read from the returned {@link PartialFile} while the rest is being fetched.
+     * <p>
+     * Note that this method is best-effort, it may return unknown if the store cannot fetch this blob progressively,
+     * in which case {@link #readBlob} should be used.
+     *
+     * @param key the blob key
+     * @param dest the file to use to store the fetched data
+     * @return the file being fetched, or empty if the blob cannot be found, or unknown if the blob cannot be fetched
+     *         progressively
+     * @since 11.5
+     */
+    @NotNull
+    default OptionalOrUnknown<PartialFile> readBlobAsync(String key, Path dest) throws IOException {
+        return OptionalOrUnknown.unknown();
+    }
+
     /**
      * Sets properties on a blob.
      *
@@ -0,0 +1,475 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.blob;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * In-memory index of the files of a {@link CachingBlobStore}, holding their size and last access time.
+ * <p>
+ * The index is kept in access order, so that the files to evict are found without listing the cache directory.
+ * <p>
+ * Two eviction policies are available:
+ * <ul>
+ * <li>{@value #LRU}: the least recently used files are evicted first,</li>
+ * <li>{@value #TINY_LFU}: among a small sample of the least recently used files, the least frequently used are evicted
+ * first, frequencies being estimated by a count-min sketch that is periodically aged.</li>
+ * </ul>
+ * The index can be saved to a snapshot file and reloaded on startup, to avoid reading the attributes of all the files
+ * of the cache directory. The loaded snapshot is reconciled with a listing of the directory, as files may have been
+ * added or deleted after it was saved.
+ *
+ * @since 11.5
+ */
+public class CachingBlobIndex {
+
+    private static final Logger log = LogManager.getLogger(CachingBlobIndex.class);
+
+    // static because caches sharing a directory must share the same index
+    protected static final Map<Path, CachingBlobIndex> INDEXES = new ConcurrentHashMap<>();
+
+    public static final String LRU = "lru";
+
+    public static final String TINY_LFU = "tinylfu";
+
+    protected static final int SNAPSHOT_MAGIC = 0x4E584249; // NXBI
+
+    protected static final int SNAPSHOT_VERSION = 1;
+
+    protected static final int LFU_SAMPLE_SIZE = 8;
+
+    protected final Path dir;
+
+    // access-ordered, eldest first
+    protected final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    protected final FrequencySketch sketch;
+
+    protected long size;
+
+    // number of caches using this index, protected by INDEXES
+    protected int refs;
+
+    // completed when the index has been loaded from its snapshot or from the directory content
+    protected final CompletableFuture<Void> initialized = new CompletableFuture<>();
+
+    public CachingBlobIndex(Path dir, String eviction, long maxCount) {
+        this.dir = dir;
+        sketch = TINY_LFU.equals(eviction) ? new FrequencySketch(maxCount) : null;
+    }
+
+    /**
+     * Gets the index of a cache directory, initializing it from its snapshot if any, or from the directory content.
+     * <p>
+     * Each call must be balanced by a call to {@link #release}.
+     */
+    public static CachingBlobIndex getIndex(CachingConfiguration config, PathStrategy pathStrategy) {
+        boolean[] created = new boolean[1];
+        CachingBlobIndex index = INDEXES.compute(config.dir, (dir, idx) -> {
+            if (idx == null) {
+                idx = new CachingBlobIndex(dir, config.eviction, config.maxCount);
+                created[0] = true;
+            }
+            idx.refs++;
+            return idx;
+        });
+        if (created[0]) {
+            // read the snapshot or the directory outside of the map lock
+            try {
+                index.init(config.indexSnapshot, pathStrategy);
+            } finally {
+                index.initialized.complete(null);
+            }
+        } else {
+            index.initialized.join();
+        }
+        return index;
+    }
+
+    /**
+     * Releases the index obtained from {@link #getIndex}. When it's not used anymore, the index is saved to the given
+     * snapshot file, if any, and forgotten.
+     */
+    public void release(Path snapshot) {
+        boolean[] unused = new boolean[1];
+        INDEXES.computeIfPresent(dir, (d, index) -> {
+            if (index == this && --refs == 0) {
+                unused[0] = true;
+            }
+            return index;
+        });
+        if (!unused[0]) {
+            return;
+        }
+        // write the snapshot outside of the map lock, the index stays available to a concurrent getIndex meanwhile
+        if (snapshot != null) {
+            try {
+                save(snapshot);
+                log.debug("Saved cache index of {} with {} files to snapshot: {}", dir, getCount(), snapshot);
+            } catch (IOException e) {
+                log.warn("Cannot save cache index snapshot: {}", snapshot, e);
+            }
+        }
+        INDEXES.computeIfPresent(dir, (d, index) -> index == this && refs == 0 ? null : index);
+    }
+
+    /**
+     * Removes a file from the index of its cache directory, if any.
+     */
+    public static void removeFile(Path path) {
+        CachingBlobIndex index = INDEXES.get(path.getParent());
+        if (index != null) {
+            index.remove(path);
+        }
+    }
+
+    protected void init(Path snapshot, PathStrategy pathStrategy) {
+        if (snapshot != null) {
+            try {
+                if (load(snapshot)) {
+                    log.debug("Loaded cache index of {} with {} files from snapshot: {}", dir, getCount(), snapshot);
+                    reconcile(pathStrategy);
+                    return;
+                }
+            } catch (IOException e) {
+                log.warn("Cannot load cache index snapshot: {}, scanning cache directory", snapshot, e);
+            }
+        }
+        scan(pathStrategy);
+    }
+
+    /**
+     * Rebuilds the index from the content of the cache directory, using the file modification time as access time.
+     */
+    public void scan(PathStrategy pathStrategy) {
+        List<Map.Entry<Path, Entry>> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path path : ds) {
+                if (pathStrategy.isTempFile(path)) {
+                    continue;
+                }
+                try {
+                    Entry entry = new Entry(Files.size(path), Files.getLastModifiedTime(path).toMillis());
+                    files.add(Map.entry(path, entry));
+                } catch (NoSuchFileException e) {
+                    // deleted concurrently
+                } catch (IOException e) {
+                    log.warn(e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn(e.getMessage());
+        }
+        // least recently used first
+        files.sort(Comparator.comparingLong(es -> es.getValue().time));
+        synchronized (this) {
+            clear();
+            files.forEach(es -> put(es.getKey(), es.getValue().size, es.getValue().time));
+        }
+        log.debug("Scanned cache directory {}: {} files", dir, files.size());
+    }
+
+    /**
+     * Reconciles the index with the list of files of the cache directory: files missing from the index are added, using
+     * their modification time as access time, and the files that don't exist anymore are removed.
+     * <p>
+     * Unlike {@link #scan}, the attributes of the already indexed files are not read.
+     */
+    public void reconcile(PathStrategy pathStrategy) {
+        Set<Path> missing;
+        synchronized (this) {
+            missing = new HashSet<>(entries.keySet());
+        }
+        List<Map.Entry<Path, Entry>> added = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path path : ds) {
+                if (pathStrategy.isTempFile(path) || missing.remove(path)) {
+                    continue;
+                }
+                try {
+                    Entry entry = new Entry(Files.size(path), Files.getLastModifiedTime(path).toMillis());
+                    added.add(Map.entry(path, entry));
+                } catch (NoSuchFileException e) {
+                    // deleted concurrently
+                } catch (IOException e) {
+                    log.warn(e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn(e.getMessage());
+            return;
+        }
+        added.sort(Comparator.comparingLong(es -> es.getValue().time));
+        synchronized (this) {
+            missing.forEach(this::remove);
+            added.forEach(es -> put(es.getKey(), es.getValue().size, es.getValue().time));
+        }
+        log.debug("Reconciled cache index of {}: {} files added, {} files removed", dir, added.size(), missing.size());
+    }
+
+    protected static class Entry {
+
+        protected long size;
+
+        protected long time;
+
+        protected Entry(long size, long time) {
+            this.size = size;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Adds a file to the index, or updates it if it's already present.
+     */
+    public synchronized void put(Path path, long fileSize, long time) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            entries.put(path, new Entry(fileSize, time));
+        } else {
+            size -= entry.size;
+            entry.size = fileSize;
+            entry.time = time;
+        }
+        size += fileSize;
+        recordFrequency(path);
+    }
+
+    /**
+     * Records an access to an indexed file.
+     *
+     * @return {@code false} if the file is not in the index
+     */
+    public synchronized boolean touch(Path path, long time) {
+        Entry entry = entries.get(path); // moves the entry to the most recent position
+        if (entry == null) {
+            return false;
+        }
+        entry.time = Math.max(entry.time, time);
+        recordFrequency(path);
+        return true;
+    }
+
+    public synchronized void remove(Path path) {
+        Entry entry = entries.remove(path);
+        if (entry != null) {
+            size -= entry.size;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized long getCount() {
+        return entries.size();
+    }
+
+    public synchronized boolean isOverLimits(long maxSize, long maxCount) {
+        return size > maxSize || entries.size() > maxCount;
+    }
+
+    protected void recordFrequency(Path path) {
+        if (sketch != null) {
+            sketch.increment(path.hashCode());
+        }
+    }
+
+    /**
+     * Gets the files to delete so that the cache fits the given limits. Only the files not accessed since the given
+     * threshold are candidates.
+     * <p>
+     * Files are not removed from the index, the caller is expected to call {@link #remove} for the files actually
+     * deleted.
+     */
+    public synchronized List<Path> getEvictionCandidates(long maxSize, long maxCount, long threshold) {
+        List<Path> candidates = new ArrayList<>();
+        long remainingSize = size;
+        long remainingCount = entries.size();
+        List<Map.Entry<Path, Entry>> sample = new ArrayList<>(LFU_SAMPLE_SIZE);
+        Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+        while (remainingSize > maxSize || remainingCount > maxCount) {
+            // fill the sample with the next eldest files old enough to be deleted
+            int sampleSize = sketch == null ? 1 : LFU_SAMPLE_SIZE;
+            while (sample.size() < sampleSize && it.hasNext()) {
+                Map.Entry<Path, Entry> es = it.next();
+                if (es.getValue().time < threshold) {
+                    sample.add(es);
+                }
+            }
+            if (sample.isEmpty()) {
+                break; // only recent files remain
+            }
+            Map.Entry<Path, Entry> victim;
+            if (sketch == null) {
+                victim = sample.remove(0);
+            } else {
+                victim = sample.stream()
+                               .min(Comparator.comparingInt(es -> sketch.frequency(es.getKey().hashCode())))
+                               .get();
+                sample.remove(victim);
+            }
+            candidates.add(victim.getKey());
+            remainingSize -= victim.getValue().size;
+            remainingCount--;
+        }
+        return candidates;
+    }
+
+    /**
+     * Saves the index to a snapshot file, least recently used files first.
+     */
+    public void save(Path snapshot) throws IOException {
+        List<Map.Entry<Path, Entry>> copy;
+        synchronized (this) {
+            copy = new ArrayList<>(entries.size());
+            entries.forEach((path, entry) -> copy.add(Map.entry(path, new Entry(entry.size, entry.time))));
+        }
+        Path tmp = Files.createTempFile(snapshot.getParent(), "bin_", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(copy.size());
+                for (Map.Entry<Path, Entry> es : copy) {
+                    out.writeUTF(es.getKey().getFileName().toString());
+                    out.writeLong(es.getValue().size);
+                    out.writeLong(es.getValue().time);
+                }
+            }
+            Files.move(tmp, snapshot, ATOMIC_MOVE, REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Loads the index from a snapshot file, replacing its current content.
+     *
+     * @return {@code false} if the snapshot does not exist or is not readable
+     */
+    public boolean load(Path snapshot) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                return false;
+            }
+            int n = in.readInt();
+            synchronized (this) {
+                clear();
+                for (int i = 0; i < n; i++) {
+                    Path path = dir.resolve(in.readUTF());
+                    long fileSize = in.readLong();
+                    long time = in.readLong();
+                    put(path, fileSize, time);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A count-min sketch of 4 rows estimating the access frequency of the files. Counters are halved when the number
+     * of recorded accesses reaches 10 times the width of the sketch, so that past popularity fades.
+     */
+    protected static class FrequencySketch {
+
+        protected static final int MAX_WIDTH = 1 << 20;
+
+        protected static final int[] SEEDS = { 0x97CB3127, 0xB4B82E9D, 0x8D2A4C8B, 0xC1A8D6E3 };
+
+        protected final int[][] table;
+
+        protected final int mask;
+
+        protected final int sampleSize;
+
+        protected int additions;
+
+        protected FrequencySketch(long maxCount) {
+            int width = Integer.highestOneBit((int) Math.max(16, Math.min(MAX_WIDTH, maxCount)));
+            table = new int[SEEDS.length][width];
+            mask = width - 1;
+            sampleSize = 10 * width;
+        }
+
+        protected int index(int hash, int row) {
+            int h = (hash ^ (hash >>> 16)) * SEEDS[row];
+            return (h ^ (h >>> 15)) & mask;
+        }
+
+        protected void increment(int hash) {
+            for (int row = 0; row < table.length; row++) {
+                table[row][index(hash, row)]++;
+            }
+            if (++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        protected int frequency(int hash) {
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < table.length; row++) {
+                frequency = Math.min(frequency, table[row][index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        protected void reset() {
+            for (int[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+
+}
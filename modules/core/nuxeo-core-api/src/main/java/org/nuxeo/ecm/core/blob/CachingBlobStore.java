@@ -22,15 +22,12 @@ import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.time.Clock;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -63,6 +60,9 @@ public class CachingBlobStore extends AbstractBlobStore {
 
     protected final BinaryGarbageCollector gc;
 
+    /** @since 11.5 */
+    protected final CachingBlobIndex index;
+
     // lock to avoid doing redundant work in parallel, and protect access to clearOldBlobsLastTime
     protected final Lock clearOldBlobsLock = new ReentrantLock();
 
@@ -71,6 +71,15 @@ public class CachingBlobStore extends AbstractBlobStore {
     // not a constant for tests
     protected long clearOldBlobsInterval = Duration.ofMinutes(1).toMillis();
 
+    // @since 11.5, false if the last clear could not fit the cache in its limits because of recent files
+    protected boolean clearOldBlobsUnderLimits = true;
+
+    // @since 11.5
+    protected long indexSnapshotLastTime;
+
+    // @since 11.5, not a constant for tests
+    protected long indexSnapshotInterval = Duration.ofMinutes(10).toMillis();
+
     // not a constant for tests
     protected Clock clock = Clock.systemUTC();
 
@@ -86,6 +95,7 @@ public class CachingBlobStore extends AbstractBlobStore {
         this.store = store;
         this.cacheConfig = config;
         cacheStore = new LocalBlobStore(name, store.getKeyStrategy(), new PathStrategyFlat(config.dir));
+        index = CachingBlobIndex.getIndex(config, cacheStore.pathStrategy);
         gc = new CachingBinaryGarbageCollector();
     }
 
@@ -119,7 +129,10 @@ public class CachingBlobStore extends AbstractBlobStore {
             throw new IllegalStateException("File disappeared after copy/move: " + destKey);
         }
         Path path = fileOpt.get();
-        recordBlobAccess(path);
+        if (atomicMove) {
+            CachingBlobIndex.removeFile(sourceStore.pathStrategy.getPathForKey(sourceKey));
+        }
+        recordBlobAccess(path, true);
         clearOldBlobs();
         return path;
     }
@@ -165,7 +178,7 @@ public class CachingBlobStore extends AbstractBlobStore {
         String returnedKey = store.copyOrMoveBlob(key, sourceStore, sourceKey, atomicMove);
         if (returnedKey != null && atomicMove && sourceCacheStore != null) {
             // clear source cache
-            sourceCacheStore.deleteBlob(sourceKey);
+            ((CachingBlobStore) sourceStore).deleteCachedBlob(sourceKey);
         }
         return returnedKey;
     }
@@ -210,7 +223,11 @@ public class CachingBlobStore extends AbstractBlobStore {
         if (fileOpt.isPresent()) {
             path = fileOpt.get();
         } else {
-            // fetch file from storage into the cache
+            // fetch file from storage into the cache, serving it while it's being fetched if possible
+            OptionalOrUnknown<InputStream> streamOpt = getStreamWhileFetching(key);
+            if (streamOpt.isKnown()) {
+                return streamOpt;
+            }
             // go through a tmp file for atomicity
             String tmpKey = cacheStore.copyOrMoveBlob(randomString(), store, key, false);
             if (tmpKey == null) {
@@ -221,6 +238,37 @@ public class CachingBlobStore extends AbstractBlobStore {
         return OptionalOrUnknown.of(Files.newInputStream(path));
     }
 
+    /**
+     * Starts fetching a blob from storage into a tmp file of the cache, and returns a stream reading this file while
+     * it's being written. The tmp file is renamed to the blob key once fully fetched.
+     *
+     * @return the stream, or empty if the blob cannot be found, or unknown if the storage cannot fetch it progressively
+     * @since 11.5
+     */
+    protected OptionalOrUnknown<InputStream> getStreamWhileFetching(String key) throws IOException {
+        String tmpKey = randomString();
+        Path tmp = cacheStore.pathStrategy.getPathForKey(tmpKey);
+        OptionalOrUnknown<PartialFile> partialOpt = store.readBlobAsync(key, tmp);
+        if (!partialOpt.isPresent()) {
+            return partialOpt.isMissing() ? OptionalOrUnknown.missing() : OptionalOrUnknown.unknown();
+        }
+        PartialFile partial = partialOpt.get();
+        partial.getCompletion().whenComplete((path, e) -> {
+            // readers keep their open file across the rename
+            try {
+                if (e == null) {
+                    renameCachedBlob(tmpKey, key);
+                } else {
+                    log.debug("Failed to fetch blob: {}", key, e);
+                    cacheStore.deleteBlob(tmpKey);
+                }
+            } catch (IOException | RuntimeException ee) {
+                log.error("Failed to cache blob: {}", key, ee);
+            }
+        });
+        return OptionalOrUnknown.of(partial.newInputStream());
+    }
+
     @Override
     public boolean readBlob(String key, Path dest) throws IOException {
         OptionalOrUnknown<InputStream> streamOpt = getStream(key);
@@ -240,28 +288,48 @@ public class CachingBlobStore extends AbstractBlobStore {
 
     @Override
     public void deleteBlob(String key) {
-        cacheStore.deleteBlob(key);
+        deleteCachedBlob(key);
         store.deleteBlob(key);
     }
 
+    /**
+     * Deletes a blob from the cache only.
+     *
+     * @since 11.5
+     */
+    protected void deleteCachedBlob(String key) {
+        cacheStore.deleteBlob(key);
+        index.remove(cacheStore.pathStrategy.getPathForKey(key));
+    }
+
     @Override
     public void clear() {
         cacheStore.clear();
+        index.clear();
         store.clear();
     }
 
     /**
-     * Clear old blobs from the cache, but not too often (as doing directory listings has a cost).
+     * Clear old blobs from the cache when it exceeds its limits.
+     * <p>
+     * If the previous clear could not fit the cache in its limits because its files were too recent, the next clear is
+     * not done before the clear interval, to avoid walking the same recent files over and over.
      *
      * @since 11.5
      */
     protected void clearOldBlobs() {
         if (clearOldBlobsLock.tryLock()) {
             try {
-                if (clock.millis() > clearOldBlobsLastTime + clearOldBlobsInterval) {
+                long now = clock.millis();
+                if (index.isOverLimits(cacheConfig.maxSize, cacheConfig.maxCount)
+                        && (clearOldBlobsUnderLimits || now > clearOldBlobsLastTime + clearOldBlobsInterval)) {
                     clearOldBlobsNow();
                     clearOldBlobsLastTime = clock.millis();
                 }
+                if (cacheConfig.indexSnapshot != null && now > indexSnapshotLastTime + indexSnapshotInterval) {
+                    saveIndexSnapshot();
+                    indexSnapshotLastTime = clock.millis();
+                }
             } finally {
                 clearOldBlobsLock.unlock();
             }
@@ -274,6 +342,8 @@ public class CachingBlobStore extends AbstractBlobStore {
      * <p>
      * A blob is deleted if it has not been recently created or accessed (minimum age), and if in addition it would be
      * too big for the maximum cache size in bytes, or if the cache would contain too many blobs.
+     * <p>
+     * The blobs to delete are found using the cache index, without listing the cache directory.
      *
      * @since 11.5
      */
@@ -285,105 +355,75 @@ public class CachingBlobStore extends AbstractBlobStore {
         log.debug("clearOldBlobs starting, dir={} maxSize={}, maxCount={}, minAge={}s, threshold={}", cacheConfig.dir,
                 maxSize, maxCount, cacheConfig.minAge, threshold);
 
-        List<PathInfo> files = new ArrayList<>();
-        try (DirectoryStream<Path> ds = Files.newDirectoryStream(cacheConfig.dir)) {
-            for (Path path : ds) {
-                PathInfo pi;
+        List<Path> candidates = index.getEvictionCandidates(maxSize, maxCount, threshold);
+        log.debug("clearOldBlobs {} files to delete", candidates.size());
+        long deletedCount = 0;
+        long recentCount = 0;
+        for (Path path : candidates) {
+            if (tryLock(path)) {
                 try {
-                    pi = new PathInfo(path);
+                    // re-check file age under lock
+                    long time = Files.getLastModifiedTime(path).toMillis();
+                    if (time < threshold) {
+                        // delete the file
+                        log.trace("clearOldBlobs DELETING file: {} (timestamp {})", path, time);
+                        Files.delete(path);
+                        index.remove(path);
+                        deletedCount++;
+                    } else {
+                        recentCount++;
+                        index.touch(path, time);
+                        log.trace("clearOldBlobs keeping file: {} because it's recent (timestamp {})", path, time);
+                    }
                 } catch (NoSuchFileException e) {
-                    log.trace("clearOldBlobs ignoring missing file: {}", path);
-                    continue;
+                    // deleted without going through the index
+                    index.remove(path);
                 } catch (IOException e) {
                     log.warn(e.getMessage());
-                    continue;
-                }
-                if (cacheStore.pathStrategy.isTempFile(path)) {
-                    log.trace("clearOldBlobs ignoring temporary file: {} (timestamp {})", path, pi.time);
-                    continue;
-                }
-                files.add(pi);
-            }
-        } catch (IOException e) {
-            log.warn(e.getMessage());
-        }
-        Collections.sort(files); // sort by most recent first
-
-        log.debug("clearOldBlobs {} files to check", files.size());
-        long size = 0;
-        long count = 0;
-        long recentCount = 0;
-        for (PathInfo pi : files) {
-            size += pi.size;
-            count++;
-            // are there too many files, or do they occupy too much space?
-            if (count > maxCount || size > maxSize) {
-                // is the file old enough to be a candidate for deletion?
-                if (pi.time < threshold) {
-                    if (tryLock(pi.path)) {
-                        try {
-                            // re-check file age under lock
-                            long time = Files.getLastModifiedTime(pi.path).toMillis();
-                            if (time < threshold) {
-                                // delete the file
-                                log.trace(
-                                        "clearOldBlobs DELETING file: {} (timestamp {}, cumulative count {}, cumulative size {})",
-                                        pi.path, time, count, size);
-                                Files.delete(pi.path);
-                                size -= pi.size;
-                                count--;
-                            } else {
-                                recentCount++;
-                                log.trace("clearOldBlobs keeping file: {} because it's recent (timestamp {})", pi.path,
-                                        time);
-                            }
-                        } catch (IOException e) {
-                            log.warn(e.getMessage());
-                        } finally {
-                            unlock(pi.path);
-                        }
-                    } else {
-                        log.trace("clearOldBlobs skipping file: {} because it's already locked", pi.path);
-                    }
-                } else {
-                    recentCount++;
-                    log.trace("clearOldBlobs keeping file: {} because it's recent (timestamp {})", pi.path, pi.time);
+                } finally {
+                    unlock(path);
                 }
             } else {
-                log.trace("clearOldBlobs keeping file: {}", pi.path);
+                log.trace("clearOldBlobs skipping file: {} because it's already locked", path);
             }
         }
+        clearOldBlobsUnderLimits = !index.isOverLimits(maxSize, maxCount);
         if (log.isDebugEnabled()) {
             if (maxSize == 0) {
                 maxSize = 1; // shouldn't happen, but don't divide by zero
             }
             log.debug(String.format(
-                    "clearOldBlobs done (keeping %d files out of %d (including %d recent), cache fill ratio now %.1f%%)",
-                    count, files.size(), recentCount, 100d * size / maxSize));
+                    "clearOldBlobs done (deleted %d files, keeping %d (including %d recent), cache fill ratio now %.1f%%)",
+                    deletedCount, index.getCount(), recentCount, 100d * index.getSize() / maxSize));
         }
     }
 
-    protected static class PathInfo implements Comparable<PathInfo> {
-
-        protected final Path path;
-
-        protected final long time;
-
-        protected final long size;
-
-        public PathInfo(Path path) throws IOException {
-            this.path = path;
-            this.time = Files.getLastModifiedTime(path).toMillis();
-            this.size = Files.size(path);
+    /**
+     * Saves the cache index so that it's reloaded on restart instead of scanning the cache directory.
+     *
+     * @since 11.5
+     */
+    public void saveIndexSnapshot() {
+        if (cacheConfig.indexSnapshot == null) {
+            return;
         }
-
-        @Override
-        public int compareTo(PathInfo other) { // NOSONAR no need for equals
-            // compare in reverse order (most recent first)
-            return Long.compare(other.time, time);
+        try {
+            index.save(cacheConfig.indexSnapshot);
+            log.debug("Saved cache index snapshot: {}", cacheConfig.indexSnapshot);
+        } catch (IOException e) {
+            log.warn("Cannot save cache index snapshot: {}", cacheConfig.indexSnapshot, e);
         }
     }
 
+    /**
+     * Releases the cache index, which is saved to its snapshot if this was the last cache using it.
+     *
+     * @since 11.5
+     */
+    public void close() {
+        index.release(cacheConfig.indexSnapshot);
+    }
+
     protected void recordBlobAccess(LocalBlobStore localBlobStore, String key) {
         recordBlobAccess(localBlobStore.pathStrategy.getPathForKey(key));
     }
@@ -396,10 +436,21 @@ public class CachingBlobStore extends AbstractBlobStore {
      * @since 11.5
      */
     protected void recordBlobAccess(Path path) {
+        recordBlobAccess(path, false);
+    }
+
+    /**
+     * Records access to a file by changing its modification time, and adds it to the cache index if requested.
+     *
+     * @since 11.5
+     */
+    protected void recordBlobAccess(Path path, boolean addToIndex) {
         if (tryLock(path)) {
             try {
                 // note that the filesystem may round the time
-                Files.setLastModifiedTime(path, FileTime.fromMillis(clock.millis()));
+                long time = clock.millis();
+                Files.setLastModifiedTime(path, FileTime.fromMillis(time));
+                indexBlobAccess(path, time, addToIndex);
             } catch (NoSuchFileException e) {
                 // ignore
             } catch (IOException e) {
@@ -410,6 +461,22 @@ public class CachingBlobStore extends AbstractBlobStore {
         }
     }
 
+    /**
+     * Records access to a file in the cache index.
+     *
+     * @param add {@code true} to add the file to the index if it's not already present
+     * @since 11.5
+     */
+    protected void indexBlobAccess(Path path, long time, boolean add) throws IOException {
+        if (!cacheConfig.dir.equals(path.getParent())) {
+            // not a file of our cache
+            return;
+        }
+        if (!index.touch(path, time) && add) {
+            index.put(path, Files.size(path), time);
+        }
+    }
+
     // try to lock with exponential backoff
     protected static boolean tryLock(Path path) {
         long millis = 1;
@@ -480,6 +547,10 @@ public class CachingBlobStore extends AbstractBlobStore {
         public void stop(boolean delete) {
             delegate.stop(delete);
             cacheDelegate.stop(delete);
+            if (delete) {
+                // files have been deleted without going through the index
+                index.scan(cacheStore.pathStrategy);
+            }
         }
 
         @Override
@@ -19,9 +19,12 @@
 package org.nuxeo.ecm.core.blob;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
 import org.nuxeo.common.utils.SizeUtils;
 import org.nuxeo.runtime.api.Framework;
 
@@ -38,6 +41,20 @@ public class CachingConfiguration extends PropertyBasedConfiguration {
 
     public static final String CACHE_MIN_AGE_PROPERTY = "cacheminage";
 
+    /**
+     * A fixed cache directory, kept across restarts. A snapshot of the cache index is saved next to it.
+     *
+     * @since 11.5
+     */
+    public static final String CACHE_DIR_PROPERTY = "cachedir";
+
+    /**
+     * The eviction policy, {@value CachingBlobIndex#LRU} or {@value CachingBlobIndex#TINY_LFU}.
+     *
+     * @since 11.5
+     */
+    public static final String CACHE_EVICTION_PROPERTY = "cacheeviction";
+
     public static final String DEFAULT_CACHE_SIZE = "100 mb";
 
     public static final String DEFAULT_CACHE_COUNT = "10000";
@@ -52,9 +69,27 @@ public class CachingConfiguration extends PropertyBasedConfiguration {
 
     public final long minAge;
 
+    /** @since 11.5 */
+    public final String eviction;
+
+    /**
+     * The file where the cache index is saved, or {@code null} if the cache is not kept across restarts.
+     *
+     * @since 11.5
+     */
+    public final Path indexSnapshot;
+
     public CachingConfiguration(String systemPropertyPrefix, Map<String, String> properties) throws IOException {
         super(systemPropertyPrefix, properties);
-        dir = Framework.createTempDirectory("nxbincache.");
+        String dirProp = getProperty(CACHE_DIR_PROPERTY);
+        if (StringUtils.isBlank(dirProp)) {
+            dir = Framework.createTempDirectory("nxbincache.");
+            indexSnapshot = null;
+        } else {
+            dir = Files.createDirectories(Paths.get(dirProp.trim()).toAbsolutePath());
+            indexSnapshot = getIndexSnapshot(dir);
+        }
+        eviction = getProperty(CACHE_EVICTION_PROPERTY, CachingBlobIndex.LRU);
         String maxSizeProp = getProperty(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
         String maxCountProp = getProperty(CACHE_COUNT_PROPERTY, DEFAULT_CACHE_COUNT);
         String minAgeProp = getProperty(CACHE_MIN_AGE_PROPERTY, DEFAULT_CACHE_MIN_AGE);
@@ -64,11 +99,28 @@ public class CachingConfiguration extends PropertyBasedConfiguration {
     }
 
     public CachingConfiguration(Path dir, long maxSize, long maxCount, long minAge) {
+        this(dir, maxSize, maxCount, minAge, CachingBlobIndex.LRU, null);
+    }
+
+    /** @since 11.5 */
+    public CachingConfiguration(Path dir, long maxSize, long maxCount, long minAge, String eviction,
+            Path indexSnapshot) {
         super(null, null);
         this.dir = dir;
         this.maxSize = maxSize;
         this.maxCount = maxCount;
         this.minAge = minAge;
+        this.eviction = eviction;
+        this.indexSnapshot = indexSnapshot;
+    }
+
+    /**
+     * Gets the snapshot file of the index of a cache directory, stored next to it.
+     *
+     * @since 11.5
+     */
+    public static Path getIndexSnapshot(Path dir) {
+        return dir.resolveSibling(dir.getFileName() + ".index");
     }
 
 }
@@ -30,6 +30,9 @@ public class InMemoryBlobProvider extends BlobStoreBlobProvider {
 
     protected DigestConfiguration digestConfiguration;
 
+    /** @since 11.5 */
+    protected CachingBlobStore cachingStore;
+
     @Override
     protected BlobStore getBlobStore(String blobProviderId, Map<String, String> properties) throws IOException {
         digestConfiguration = new DigestConfiguration(null, properties);
@@ -48,14 +51,17 @@ public class InMemoryBlobProvider extends BlobStoreBlobProvider {
         }
         if (config.getBooleanProperty("test-caching")) { // for tests
             CachingConfiguration cachingConfiguration = new CachingConfiguration(null, properties);
-            store = new CachingBlobStore(blobProviderId, "Cache", store, cachingConfiguration);
+            store = cachingStore = new CachingBlobStore(blobProviderId, "Cache", store, cachingConfiguration);
         }
         return store;
     }
 
     @Override
     public void close() {
-        // nothing
+        if (cachingStore != null) {
+            cachingStore.close();
+            cachingStore = null;
+        }
     }
 
     @Override
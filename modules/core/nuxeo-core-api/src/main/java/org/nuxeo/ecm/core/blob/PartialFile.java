@@ -0,0 +1,225 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.blob;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A file of known length being written concurrently by several parts, in any order.
+ * <p>
+ * The beginning of the file can be read through {@link #newInputStream} while the rest is still being written: reads
+ * block until the bytes they need have been written.
+ *
+ * @since 11.5
+ */
+public class PartialFile {
+
+    protected final Path path;
+
+    protected final long length;
+
+    // start -> end of the written ranges not contiguous with the beginning of the file
+    protected final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+    // number of contiguous bytes written from the beginning of the file
+    protected long available;
+
+    protected Throwable failure;
+
+    protected final CompletableFuture<Path> completion = new CompletableFuture<>();
+
+    public PartialFile(Path path, long length) {
+        this.path = path;
+        this.length = length;
+        if (length == 0) {
+            completion.complete(path);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the future completed with the file path when the file is fully written, or exceptionally if a part failed.
+     */
+    public CompletableFuture<Path> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Records that the bytes between {@code start} (inclusive) and {@code end} (exclusive) have been written.
+     */
+    public void written(long start, long end) {
+        synchronized (this) {
+            if (failure != null) {
+                return;
+            }
+            ranges.merge(start, end, Math::max);
+            Map.Entry<Long, Long> first;
+            while ((first = ranges.firstEntry()) != null && first.getKey() <= available) {
+                available = Math.max(available, first.getValue());
+                ranges.pollFirstEntry();
+            }
+            notifyAll();
+            if (available < length) {
+                return;
+            }
+        }
+        // outside the lock, as this runs the completion callbacks
+        completion.complete(path);
+    }
+
+    /**
+     * Records that the file cannot be fully written. Pending and future reads will fail.
+     */
+    public void failed(Throwable t) {
+        synchronized (this) {
+            if (failure != null || available >= length) {
+                return;
+            }
+            failure = t;
+            notifyAll();
+        }
+        completion.completeExceptionally(t);
+    }
+
+    public synchronized boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * Waits until the file is fully written.
+     *
+     * @return the file path
+     */
+    public Path await() throws IOException {
+        try {
+            return completion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Waits until the byte at the given position has been written.
+     *
+     * @return the number of contiguous bytes written from the beginning of the file
+     */
+    protected synchronized long awaitAvailable(long position) throws IOException {
+        while (available <= position && available < length && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        if (failure != null) {
+            throw new IOException("Failed to write: " + path, failure);
+        }
+        return available;
+    }
+
+    protected synchronized long getAvailable() {
+        return available;
+    }
+
+    /**
+     * Opens a stream reading the file, blocking when it reaches bytes not written yet.
+     */
+    public InputStream newInputStream() throws IOException {
+        return new PartialFileInputStream(FileChannel.open(path, READ));
+    }
+
+    protected class PartialFileInputStream extends InputStream {
+
+        protected final FileChannel channel;
+
+        protected long position;
+
+        protected PartialFileInputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n <= 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= length) {
+                return -1;
+            }
+            long avail = awaitAvailable(position);
+            int n = (int) Math.min(len, avail - position);
+            n = channel.read(ByteBuffer.wrap(b, off, n), position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, getAvailable() - position));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+}
@@ -20,6 +20,8 @@ package org.nuxeo.ecm.core.blob;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -63,12 +65,17 @@ public class TestCachingBlobStoreCaching {
 
     @After
     public void tearDown() {
+        CachingBlobIndex.INDEXES.remove(dir);
         FileUtils.deleteQuietly(dir.toFile());
+        FileUtils.deleteQuietly(CachingConfiguration.getIndexSnapshot(dir).toFile());
     }
 
     protected CachingBlobStore getStore(long maxSize, long maxCount, long minAge) {
+        return getStore(new CachingConfiguration(dir, maxSize, maxCount, minAge));
+    }
+
+    protected CachingBlobStore getStore(CachingConfiguration config) {
         BlobStore emptyStore = new EmptyBlobStore("empty", "empty", KeyStrategyDocId.instance());
-        CachingConfiguration config = new CachingConfiguration(dir, maxSize, maxCount, minAge);
         CachingBlobStore store = new CachingBlobStore("test", "test", emptyStore, config);
         store.clearOldBlobsInterval = 0; // clear immediately
         clock = new MutableClock();
@@ -235,6 +242,102 @@ public class TestCachingBlobStoreCaching {
         assertEquals(id, key);
     }
 
+    @Test
+    public void testCachingBlobStoreLRU() throws IOException {
+        CachingBlobStore store = getStore(1000, 3, 1); // 3 files max
+        store.writeBlob(new BlobContext(BLOB_30, "1", XPATH));
+        advanceClock(2);
+        store.writeBlob(new BlobContext(BLOB_30, "2", XPATH));
+        advanceClock(2);
+        store.writeBlob(new BlobContext(BLOB_30, "3", XPATH));
+        advanceClock(2);
+        // access the oldest file
+        assertTrue(store.getFile("1").isPresent());
+        advanceClock(2);
+        store.writeBlob(new BlobContext(BLOB_30, "4", XPATH));
+        // the least recently used file is deleted
+        assertTrue(exists("1"));
+        assertFalse(exists("2"));
+        assertTrue(exists("3"));
+        assertTrue(exists("4"));
+        assertEquals(3, store.index.getCount());
+        assertEquals(90, store.index.getSize());
+    }
+
+    @Test
+    public void testCachingBlobStoreTinyLFU() throws IOException {
+        CachingConfiguration config = new CachingConfiguration(dir, 1000, 3, 1, CachingBlobIndex.TINY_LFU, null);
+        CachingBlobStore store = getStore(config);
+        store.writeBlob(new BlobContext(BLOB_30, "1", XPATH));
+        // the oldest file is frequently used
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.getFile("1").isPresent());
+        }
+        advanceClock(2);
+        store.writeBlob(new BlobContext(BLOB_30, "2", XPATH));
+        advanceClock(2);
+        store.writeBlob(new BlobContext(BLOB_30, "3", XPATH));
+        advanceClock(2);
+        store.writeBlob(new BlobContext(BLOB_30, "4", XPATH));
+        // a less frequently used file is deleted instead of the least recently used one
+        assertTrue(exists("1"));
+        assertTrue(exists("4"));
+        assertEquals(3, getDirCount());
+    }
+
+    @Test
+    public void testCachingBlobStoreIndexSnapshot() throws IOException {
+        Path snapshot = CachingConfiguration.getIndexSnapshot(dir);
+        CachingConfiguration config = new CachingConfiguration(dir, 1000, 3, 1, CachingBlobIndex.LRU, snapshot);
+        CachingBlobStore store = getStore(config);
+        store.writeBlob(new BlobContext(BLOB_30, "1", XPATH));
+        advanceClock(2);
+        store.writeBlob(new BlobContext(BLOB_150, "2", XPATH));
+        store.saveIndexSnapshot();
+        assertTrue(Files.exists(snapshot));
+
+        // simulate a restart, the index is loaded from the snapshot and reconciled with the directory
+        CachingBlobIndex.INDEXES.remove(dir);
+        Files.delete(dir.resolve("1"));
+        Files.write(dir.resolve("3"), new byte[40]);
+        store = getStore(config);
+        assertEquals(2, store.index.getCount());
+        assertEquals(190, store.index.getSize());
+
+        // without snapshot the directory is scanned
+        CachingBlobIndex.INDEXES.remove(dir);
+        Files.delete(snapshot);
+        Files.delete(dir.resolve("3"));
+        store = getStore(config);
+        assertEquals(1, store.index.getCount());
+        assertEquals(150, store.index.getSize());
+    }
+
+    @Test
+    public void testCachingBlobStoreClose() throws IOException {
+        Path snapshot = CachingConfiguration.getIndexSnapshot(dir);
+        CachingConfiguration config = new CachingConfiguration(dir, 1000, 3, 1, CachingBlobIndex.LRU, snapshot);
+        CachingBlobStore store1 = getStore(config);
+        CachingBlobStore store2 = getStore(config);
+        assertSame(store1.index, store2.index);
+        store1.writeBlob(new BlobContext(BLOB_30, "1", XPATH));
+
+        // the index is still used by the other cache
+        store1.close();
+        assertTrue(CachingBlobIndex.INDEXES.containsKey(dir));
+        assertFalse(Files.exists(snapshot));
+
+        // last cache closed, the index is saved and forgotten
+        store2.close();
+        assertFalse(CachingBlobIndex.INDEXES.containsKey(dir));
+        assertTrue(Files.exists(snapshot));
+
+        CachingBlobStore store = getStore(config);
+        assertNotSame(store1.index, store.index);
+        assertEquals(1, store.index.getCount());
+        assertEquals(30, store.index.getSize());
+    }
+
     protected static class MutableClock extends Clock {
 
         protected Instant instant;
@@ -0,0 +1,183 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.blob;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nuxeo.ecm.core.blob.BlobStore.OptionalOrUnknown;
+
+/**
+ * Tests the CachingBlobStore serving a blob while it's being fetched from its underlying store.
+ *
+ * @since 11.5
+ */
+public class TestCachingBlobStoreFetching {
+
+    protected static final String KEY = "doc1";
+
+    protected static final byte[] CONTENT = "0123456789abcdefghij".getBytes(UTF_8);
+
+    protected Path dir;
+
+    protected PartsBlobStore partsStore;
+
+    protected CachingBlobStore store;
+
+    protected ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("testcachingblobstore.");
+        partsStore = new PartsBlobStore();
+        store = new CachingBlobStore("test", "test", partsStore, new CachingConfiguration(dir, 9999, 9999, 1));
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        store.close();
+        CachingBlobIndex.INDEXES.remove(dir);
+        FileUtils.deleteQuietly(dir.toFile());
+    }
+
+    /**
+     * A store whose async reads are written part by part by the test.
+     */
+    protected static class PartsBlobStore extends EmptyBlobStore {
+
+        protected PartialFile partial;
+
+        protected FileChannel channel;
+
+        public PartsBlobStore() {
+            super("parts", "parts", KeyStrategyDocId.instance());
+        }
+
+        @Override
+        public OptionalOrUnknown<PartialFile> readBlobAsync(String key, Path dest) throws IOException {
+            if (!KEY.equals(key)) {
+                return OptionalOrUnknown.missing();
+            }
+            channel = FileChannel.open(dest, CREATE, TRUNCATE_EXISTING, WRITE);
+            partial = new PartialFile(dest, CONTENT.length);
+            partial.getCompletion().whenComplete((path, e) -> IOUtils.closeQuietly(channel));
+            return OptionalOrUnknown.of(partial);
+        }
+
+        protected void writePart(int start, int end) throws IOException {
+            channel.write(ByteBuffer.wrap(CONTENT, start, end - start), start);
+            partial.written(start, end);
+        }
+    }
+
+    protected Future<byte[]> readInBackground(InputStream stream) {
+        return executor.submit(() -> {
+            try (InputStream in = stream) {
+                return IOUtils.toByteArray(in);
+            }
+        });
+    }
+
+    protected void assertStillReading(Future<byte[]> future) throws InterruptedException {
+        Thread.sleep(100); // NOSONAR
+        assertFalse(future.isDone());
+    }
+
+    @Test
+    public void testStreamWhileFetching() throws Exception {
+        OptionalOrUnknown<InputStream> streamOpt = store.getStream(KEY);
+        assertTrue(streamOpt.isPresent());
+        Future<byte[]> future = readInBackground(streamOpt.get());
+        assertStillReading(future);
+
+        // parts complete out of order, the stream waits for the beginning of the file
+        partsStore.writePart(15, 20);
+        assertStillReading(future);
+        partsStore.writePart(5, 10);
+        assertStillReading(future);
+        partsStore.writePart(0, 5);
+        assertStillReading(future);
+        partsStore.writePart(10, 15);
+
+        assertArrayEquals(CONTENT, future.get(5, TimeUnit.SECONDS));
+        // the fetched file is now in the cache
+        OptionalOrUnknown<Path> fileOpt = store.getFile(KEY);
+        assertTrue(fileOpt.isPresent());
+        assertArrayEquals(CONTENT, Files.readAllBytes(fileOpt.get()));
+        assertEquals(1, dir.toFile().listFiles().length);
+    }
+
+    @Test
+    public void testStreamWhileFetchingFailure() throws Exception {
+        OptionalOrUnknown<InputStream> streamOpt = store.getStream(KEY);
+        assertTrue(streamOpt.isPresent());
+        Future<byte[]> future = readInBackground(streamOpt.get());
+
+        partsStore.writePart(0, 5);
+        partsStore.writePart(10, 15);
+        assertStillReading(future);
+        IOException failure = new IOException("part failed");
+        partsStore.partial.failed(failure);
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("should fail");
+        } catch (ExecutionException e) {
+            assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof IOException);
+            assertEquals(failure, e.getCause().getCause());
+        }
+        // nothing is cached
+        assertFalse(store.getFile(KEY).isPresent());
+        assertEquals(0, dir.toFile().listFiles().length);
+    }
+
+    @Test
+    public void testStreamWhileFetchingMissing() throws IOException {
+        assertTrue(store.getStream("nosuchkey").isMissing());
+        assertEquals(0, dir.toFile().listFiles().length);
+    }
+
+}
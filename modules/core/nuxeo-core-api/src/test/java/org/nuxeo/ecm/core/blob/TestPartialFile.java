@@ -0,0 +1,135 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.blob;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since 11.5
+ */
+public class TestPartialFile {
+
+    protected static final String CONTENT = "0123456789abcdefghij";
+
+    protected Path path;
+
+    protected FileChannel channel;
+
+    @Before
+    public void setUp() throws IOException {
+        path = Files.createTempFile("partial_", ".tmp");
+        channel = FileChannel.open(path, READ, WRITE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    protected void write(PartialFile partial, int start, int end) throws IOException {
+        channel.write(ByteBuffer.wrap(CONTENT.substring(start, end).getBytes(UTF_8)), start);
+        partial.written(start, end);
+    }
+
+    @Test
+    public void testReadWhileWriting() throws Exception {
+        PartialFile partial = new PartialFile(path, CONTENT.length());
+        // parts written out of order
+        write(partial, 10, 20);
+        assertFalse(partial.getCompletion().isDone());
+        CompletableFuture<String> read = CompletableFuture.supplyAsync(() -> {
+            try (InputStream in = partial.newInputStream()) {
+                return IOUtils.toString(in, UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        write(partial, 0, 5);
+        write(partial, 5, 10);
+        assertEquals(CONTENT, read.get(10, TimeUnit.SECONDS));
+        assertTrue(partial.getCompletion().isDone());
+        assertEquals(path, partial.await());
+    }
+
+    @Test
+    public void testReadBeginning() throws IOException {
+        PartialFile partial = new PartialFile(path, CONTENT.length());
+        write(partial, 0, 5);
+        try (InputStream in = partial.newInputStream()) {
+            assertEquals(5, in.available());
+            byte[] bytes = new byte[20];
+            // only the written bytes are returned
+            assertEquals(5, in.read(bytes));
+            assertEquals("01234", new String(bytes, 0, 5, UTF_8));
+        }
+    }
+
+    @Test
+    public void testFailure() throws IOException {
+        PartialFile partial = new PartialFile(path, CONTENT.length());
+        write(partial, 0, 5);
+        partial.failed(new IOException("part failed"));
+        assertTrue(partial.isFailed());
+        assertTrue(partial.getCompletion().isCompletedExceptionally());
+        try (InputStream in = partial.newInputStream()) {
+            in.skip(5);
+            in.read();
+            fail("should fail");
+        } catch (IOException e) {
+            assertEquals("part failed", e.getCause().getMessage());
+        }
+        try {
+            partial.await();
+            fail("should fail");
+        } catch (IOException e) {
+            assertEquals("part failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        PartialFile partial = new PartialFile(path, 0);
+        assertTrue(partial.getCompletion().isDone());
+        try (InputStream in = partial.newInputStream()) {
+            assertEquals(-1, in.read());
+        }
+    }
+
+}
@@ -25,7 +25,9 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
@@ -70,6 +72,9 @@ public class S3BlobProvider extends BlobStoreBlobProvider implements S3ManagedTr
     // public for tests
     public S3BlobStoreConfiguration config;
 
+    /** @since 11.5 */
+    protected final List<CachingBlobStore> cachingStores = new ArrayList<>();
+
     @Override
     protected BlobStore getBlobStore(String blobProviderId, Map<String, String> properties) throws IOException {
         config = getConfiguration(properties);
@@ -81,6 +86,7 @@ public class S3BlobProvider extends BlobStoreBlobProvider implements S3ManagedTr
         boolean caching = !config.getBooleanProperty("nocache");
         if (caching) {
             store = new CachingBlobStore(blobProviderId, "Cache", store, config.cachingConfiguration);
+            cachingStores.add((CachingBlobStore) store);
         }
 
         // maybe wrap into a transactional store
@@ -96,6 +102,7 @@ public class S3BlobProvider extends BlobStoreBlobProvider implements S3ManagedTr
                 if (caching) {
                     transientStore = new CachingBlobStore(blobProviderId, "Cache_tmp", transientStore,
                             config.cachingConfiguration);
+                    cachingStores.add((CachingBlobStore) transientStore);
                 }
             }
             // transactional store
@@ -115,6 +122,8 @@ public class S3BlobProvider extends BlobStoreBlobProvider implements S3ManagedTr
 
     @Override
     public void close() {
+        cachingStores.forEach(CachingBlobStore::close);
+        cachingStores.clear();
         config.close();
     }
 
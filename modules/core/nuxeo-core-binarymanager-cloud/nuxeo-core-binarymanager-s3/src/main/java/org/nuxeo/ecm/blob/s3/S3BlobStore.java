@@ -18,6 +18,9 @@
  */
 package org.nuxeo.ecm.blob.s3;
 
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.nuxeo.ecm.core.blob.BlobProviderDescriptor.ALLOW_BYTE_RANGE;
@@ -26,6 +29,8 @@ import static org.nuxeo.ecm.core.blob.KeyStrategy.VER_SEP;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
@@ -34,6 +39,8 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.logging.log4j.LogManager;
@@ -54,6 +61,7 @@ import org.nuxeo.ecm.core.blob.ByteRange;
 import org.nuxeo.ecm.core.blob.KeyStrategy;
 import org.nuxeo.ecm.core.blob.KeyStrategyDigest;
 import org.nuxeo.ecm.core.blob.KeyStrategyDocId;
+import org.nuxeo.ecm.core.blob.PartialFile;
 import org.nuxeo.ecm.core.blob.binary.BinaryGarbageCollector;
 import org.nuxeo.ecm.core.io.download.DownloadHelper;
 import org.nuxeo.ecm.core.model.Repository;
@@ -76,6 +84,7 @@ import com.amazonaws.services.s3.model.ObjectLockRetention;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.RestoreObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.S3VersionSummary;
 import com.amazonaws.services.s3.model.SSEAlgorithm;
@@ -103,6 +112,9 @@ public class S3BlobStore extends AbstractBlobStore {
     // x-amz-meta-username header
     protected static final String USER_METADATA_USERNAME = "username";
 
+    // @since 11.5
+    protected static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+
     protected final S3BlobStoreConfiguration config;
 
     protected final AmazonS3 amazonS3;
@@ -438,6 +450,14 @@ public class S3BlobStore extends AbstractBlobStore {
 
     @Override
     public boolean readBlob(String key, Path dest) throws IOException {
+        OptionalOrUnknown<PartialFile> partialOpt = readBlobAsync(key, dest);
+        if (partialOpt.isKnown()) {
+            if (partialOpt.isMissing()) {
+                return false;
+            }
+            partialOpt.get().await();
+            return true;
+        }
         ByteRange byteRange;
         if (allowByteRange) {
             MutableObject<String> keyHolder = new MutableObject<>(key);
@@ -494,6 +514,148 @@ public class S3BlobStore extends AbstractBlobStore {
         }
     }
 
+    /**
+     * Reads the blob with parallel ranged GETs of {@link S3BlobStoreConfiguration#downloadPartSize} bytes, if enabled.
+     * <p>
+     * The first part also gives the object length, the next parts are fetched only if it's not the whole object. The
+     * parts are written to the destination file as they are received.
+     *
+     * @since 11.5
+     */
+    @Override
+    public OptionalOrUnknown<PartialFile> readBlobAsync(String key, Path dest) throws IOException {
+        if (config.downloadExecutor == null || config.useClientSideEncryption) {
+            // client-side encrypted objects cannot be decrypted by range
+            return OptionalOrUnknown.unknown();
+        }
+        if (allowByteRange && getByteRangeFromKey(new MutableObject<>(key)) != null) {
+            return OptionalOrUnknown.unknown();
+        }
+        key = getBlobKeyReplacement(key);
+        String objectKey;
+        String versionId;
+        int seppos;
+        if (useVersion && (seppos = key.indexOf(VER_SEP)) > 0) {
+            objectKey = key.substring(0, seppos);
+            versionId = key.substring(seppos + 1);
+        } else {
+            objectKey = key;
+            versionId = null;
+        }
+        String bucketKey = bucketPrefix + objectKey;
+        String debugKey = bucketKey + (versionId == null ? "" : "@" + versionId);
+        String debugObject = "s3://" + bucketName + "/" + debugKey;
+        long partSize = config.downloadPartSize;
+        S3Object first;
+        try {
+            log.debug("Reading {} in parts of {} bytes", debugObject, partSize);
+            first = amazonS3.getObject(
+                    new GetObjectRequest(bucketName, bucketKey, versionId).withRange(0, partSize - 1));
+        } catch (AmazonServiceException e) {
+            if (isMissingKey(e)) {
+                logTrace("<--", "missing");
+                logTrace("hnote right: " + debugKey);
+                log.debug("Blob {} does not exist", debugObject);
+                return OptionalOrUnknown.missing();
+            }
+            if (e.getStatusCode() == 416) {
+                // an empty object cannot be read by range
+                return OptionalOrUnknown.unknown();
+            }
+            throw new IOException(e);
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(dest, CREATE, TRUNCATE_EXISTING, WRITE);
+        } catch (IOException e) {
+            first.close();
+            throw e;
+        }
+        long length = first.getObjectMetadata().getInstanceLength();
+        // make sure all the parts come from the same object even if it's overwritten meanwhile
+        String etag = first.getObjectMetadata().getETag();
+        PartialFile partial = new PartialFile(dest, length);
+        partial.getCompletion().whenComplete((path, e) -> closeChannel(channel, debugObject));
+        if (!submitPart(partial, channel, 0, () -> first)) {
+            // nothing will read the first part, fall back to a regular read
+            closeObject(first, debugObject);
+            closeChannel(channel, debugObject);
+            Files.deleteIfExists(dest);
+            return OptionalOrUnknown.unknown();
+        }
+        for (long start = partSize; start < length; start += partSize) {
+            GetObjectRequest getObjectRequest = new GetObjectRequest(bucketName, bucketKey, versionId);
+            getObjectRequest.setRange(start, Math.min(start + partSize, length) - 1);
+            getObjectRequest.setMatchingETagConstraints(Collections.singletonList(etag));
+            submitPart(partial, channel, start, () -> amazonS3.getObject(getObjectRequest));
+        }
+        return OptionalOrUnknown.of(partial);
+    }
+
+    /**
+     * Submits the fetch of a part to the download executor.
+     *
+     * @return {@code false} if the executor rejected it, in which case the partial file is failed
+     * @since 11.5
+     */
+    protected boolean submitPart(PartialFile partial, FileChannel channel, long start, Supplier<S3Object> supplier) {
+        try {
+            config.downloadExecutor.execute(() -> {
+                try (S3Object object = supplier.get()) {
+                    if (object == null) {
+                        // ETag constraint not met
+                        throw new IOException("Object modified during download");
+                    }
+                    writePart(partial, channel, start, object.getObjectContent());
+                } catch (IOException | RuntimeException e) {
+                    partial.failed(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            partial.failed(e);
+            return false;
+        }
+        return true;
+    }
+
+    /** @since 11.5 */
+    protected void writePart(PartialFile partial, FileChannel channel, long start, InputStream in)
+            throws IOException {
+        byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+        long position = start;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            if (partial.isFailed()) {
+                // another part failed, no need to continue
+                return;
+            }
+            ByteBuffer buf = ByteBuffer.wrap(buffer, 0, n);
+            long end = position;
+            while (buf.hasRemaining()) {
+                end += channel.write(buf, end);
+            }
+            partial.written(position, end);
+            position = end;
+        }
+    }
+
+    /** @since 11.5 */
+    protected void closeObject(S3Object object, String debugObject) {
+        try {
+            object.close();
+        } catch (IOException e) {
+            log.warn("Failed to close object: {}", debugObject, e);
+        }
+    }
+
+    protected void closeChannel(FileChannel channel, String debugObject) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close file for: {}", debugObject, e);
+        }
+    }
+
     @Override
     public boolean copyBlobIsOptimized(BlobStore sourceStore) {
         return sourceStore.unwrap() instanceof S3BlobStore;
@@ -35,6 +35,10 @@ import java.time.Duration;
 import java.util.Date;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -132,6 +136,43 @@ public class S3BlobStoreConfiguration extends CloudBlobStoreConfiguration {
      */
     public static final String MULTIPART_CLEANUP_DISABLED_PROPERTY = "multipart.cleanup.disabled";
 
+    /**
+     * The part size of multipart uploads, AWS SDK default 5 MB.
+     *
+     * @since 11.5
+     */
+    public static final String MULTIPART_UPLOAD_PART_SIZE_PROPERTY = "multipart.upload.partsize";
+
+    /**
+     * The size above which uploads are done in multiple parts, AWS SDK default 16 MB.
+     *
+     * @since 11.5
+     */
+    public static final String MULTIPART_UPLOAD_THRESHOLD_PROPERTY = "multipart.upload.threshold";
+
+    /**
+     * The number of threads used to transfer parts in parallel, for uploads and downloads, AWS SDK default 10.
+     *
+     * @since 11.5
+     */
+    public static final String TRANSFER_CONCURRENCY_PROPERTY = "transfer.concurrency";
+
+    /**
+     * The part size of parallel ranged downloads. Parallel downloads are disabled if not defined.
+     *
+     * @since 11.5
+     */
+    public static final String DOWNLOAD_PART_SIZE_PROPERTY = "download.partsize";
+
+    /** @since 11.5 */
+    public static final long DEFAULT_MULTIPART_UPLOAD_PART_SIZE = 5L * 1024 * 1024;
+
+    /** @since 11.5 */
+    public static final long DEFAULT_MULTIPART_UPLOAD_THRESHOLD = 16L * 1024 * 1024;
+
+    /** @since 11.5 */
+    public static final int DEFAULT_TRANSFER_CONCURRENCY = 10;
+
     public static final String DELIMITER = "/";
 
     /**
@@ -155,6 +196,27 @@ public class S3BlobStoreConfiguration extends CloudBlobStoreConfiguration {
 
     public final TransferManager transferManager;
 
+    /**
+     * The number of threads used to transfer parts in parallel.
+     *
+     * @since 11.5
+     */
+    public final int transferConcurrency;
+
+    /**
+     * The part size of parallel ranged downloads, or 0 if parallel downloads are disabled.
+     *
+     * @since 11.5
+     */
+    public final long downloadPartSize;
+
+    /**
+     * The executor running the part downloads of parallel ranged downloads, or {@code null} if they are disabled.
+     *
+     * @since 11.5
+     */
+    public final ExecutorService downloadExecutor;
+
     public final String bucketName;
 
     public final String bucketPrefix;
@@ -225,7 +287,11 @@ public class S3BlobStoreConfiguration extends CloudBlobStoreConfiguration {
         bucketRetentionMode = computeBucketRetentionMode();
         retentionMode = bucketRetentionMode == null ? DEFAULT_RETENTION_MODE : bucketRetentionMode;
 
+        int concurrency = getIntProperty(TRANSFER_CONCURRENCY_PROPERTY);
+        transferConcurrency = concurrency > 0 ? concurrency : DEFAULT_TRANSFER_CONCURRENCY;
         transferManager = createTransferManager();
+        downloadPartSize = Math.max(0, getLongProperty(DOWNLOAD_PART_SIZE_PROPERTY));
+        downloadExecutor = downloadPartSize > 0 ? createDownloadExecutor() : null;
 
         abortOldUploads();
     }
@@ -239,6 +305,9 @@ public class S3BlobStoreConfiguration extends CloudBlobStoreConfiguration {
 
     public void close() {
         transferManager.shutdownNow();
+        if (downloadExecutor != null) {
+            downloadExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -417,8 +486,14 @@ public class S3BlobStoreConfiguration extends CloudBlobStoreConfiguration {
     }
 
     protected TransferManager createTransferManager() {
-        long minimumUploadPartSize = 5L * 1024 * 1024; // AWS SDK default = 5 MB
-        long multipartUploadThreshold = 16L * 1024 * 1024; // AWS SDK default = 16 MB
+        long minimumUploadPartSize = getLongProperty(MULTIPART_UPLOAD_PART_SIZE_PROPERTY);
+        if (minimumUploadPartSize <= 0) {
+            minimumUploadPartSize = DEFAULT_MULTIPART_UPLOAD_PART_SIZE;
+        }
+        long multipartUploadThreshold = getLongProperty(MULTIPART_UPLOAD_THRESHOLD_PROPERTY);
+        if (multipartUploadThreshold <= 0) {
+            multipartUploadThreshold = DEFAULT_MULTIPART_UPLOAD_THRESHOLD;
+        }
         long multipartCopyThreshold = 5L * 1024 * 1024 * 1024; // AWS SDK default = 5 GB
         long multipartCopyPartSize = 100L * 1024 * 1024; // AWS SDK default = 100 MB
         ConfigurationService configurationService = Framework.getService(ConfigurationService.class);
@@ -435,9 +510,29 @@ public class S3BlobStoreConfiguration extends CloudBlobStoreConfiguration {
                                      .withMultipartCopyThreshold(Long.valueOf(multipartCopyThreshold))
                                      .withMultipartCopyPartSize(Long.valueOf(multipartCopyPartSize))
                                      .withAlwaysCalculateMultipartMd5(alwaysCalculateMultipartMd5)
+                                     .withExecutorFactory(() -> Executors.newFixedThreadPool(transferConcurrency,
+                                             newThreadFactory("Nuxeo-S3-transfer-" + bucketName)))
                                      .build();
     }
 
+    /**
+     * Creates the executor running the part downloads of parallel ranged downloads.
+     *
+     * @since 11.5
+     */
+    protected ExecutorService createDownloadExecutor() {
+        return Executors.newFixedThreadPool(transferConcurrency, newThreadFactory("Nuxeo-S3-download-" + bucketName));
+    }
+
+    protected static ThreadFactory newThreadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
     /** @deprecated since 11.4, unused */
     @Deprecated
     protected ObjectLockRetentionMode getRetentionMode() {
@@ -83,6 +83,10 @@ public class BulkActionDescriptor {
     @XNode("@defaultQueryLimit")
     public Long defaultQueryLimit;
 
+    // @since 11.5 the codec used to write the buckets of the action streams: avro or compact
+    @XNode(value = "@bucketCodec", defaultAssignment = BulkCodecs.DEFAULT_CODEC)
+    public String bucketCodec;
+
     public String getId() {
         return name;
     }
@@ -105,6 +109,11 @@ public class BulkActionDescriptor {
         return defaultQueryLimit;
     }
 
+    // @since 11.5
+    public String getBucketCodec() {
+        return defaultIfBlank(bucketCodec, BulkCodecs.DEFAULT_CODEC);
+    }
+
     /**
      * @since 10.10
      */
@@ -59,6 +59,13 @@ public interface BulkAdminService {
      */
     String getDefaultScroller(String action);
 
+    /**
+     * Returns the codec used to write the buckets of the action streams, either {@code avro} or {@code compact}.
+     *
+     * @since 11.5
+     */
+    String getBucketCodec(String action);
+
     /**
      * @since 11.1
      */
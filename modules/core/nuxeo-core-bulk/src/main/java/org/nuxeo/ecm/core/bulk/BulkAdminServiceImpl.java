@@ -113,6 +113,11 @@ public class BulkAdminServiceImpl implements BulkAdminService {
         return descriptors.get(action).getDefaultScroller();
     }
 
+    @Override
+    public String getBucketCodec(String action) {
+        return descriptors.get(action).getBucketCodec();
+    }
+
     @Override
     public String getInputStream(String action) {
         return descriptors.get(action).getInputStream();
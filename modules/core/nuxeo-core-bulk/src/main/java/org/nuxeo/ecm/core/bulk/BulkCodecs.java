@@ -19,10 +19,14 @@
 
 package org.nuxeo.ecm.core.bulk;
 
+import static org.nuxeo.ecm.core.bulk.message.AbstractCompactCodec.NAME;
+
 import org.nuxeo.ecm.core.bulk.message.BulkBucket;
+import org.nuxeo.ecm.core.bulk.message.BulkBucketCompactCodec;
 import org.nuxeo.ecm.core.bulk.message.BulkCommand;
 import org.nuxeo.ecm.core.bulk.message.BulkStatus;
 import org.nuxeo.ecm.core.bulk.message.DataBucket;
+import org.nuxeo.ecm.core.bulk.message.DataBucketCompactCodec;
 import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.codec.CodecService;
@@ -36,6 +40,9 @@ public class BulkCodecs {
 
     public static final String DEFAULT_CODEC = "avro";
 
+    /** @since 11.5 */
+    public static final String COMPACT_CODEC = NAME;
+
     private BulkCodecs() {
         // utility class
     }
@@ -48,11 +55,47 @@ public class BulkCodecs {
         return Framework.getService(CodecService.class).getCodec(DEFAULT_CODEC, BulkStatus.class);
     }
 
+    /**
+     * Returns the codec to read buckets, buckets written by the compact codec are also decoded.
+     */
     public static Codec<BulkBucket> getBucketCodec() {
-        return Framework.getService(CodecService.class).getCodec(DEFAULT_CODEC, BulkBucket.class);
+        return new BulkBucketCompactCodec(getAvroBucketCodec(), false);
     }
 
+    /**
+     * Returns the codec to write buckets into the stream of the action.
+     *
+     * @since 11.5
+     */
+    public static Codec<BulkBucket> getBucketCodec(String action) {
+        return new BulkBucketCompactCodec(getAvroBucketCodec(), useCompactCodec(action));
+    }
+
+    /**
+     * Returns the codec to read data buckets, data buckets written by the compact codec are also decoded.
+     */
     public static Codec<DataBucket> getDataBucketCodec() {
+        return new DataBucketCompactCodec(getAvroDataBucketCodec(), false);
+    }
+
+    /**
+     * Returns the codec to write data buckets produced by the action.
+     *
+     * @since 11.5
+     */
+    public static Codec<DataBucket> getDataBucketCodec(String action) {
+        return new DataBucketCompactCodec(getAvroDataBucketCodec(), useCompactCodec(action));
+    }
+
+    protected static Codec<BulkBucket> getAvroBucketCodec() {
+        return Framework.getService(CodecService.class).getCodec(DEFAULT_CODEC, BulkBucket.class);
+    }
+
+    protected static Codec<DataBucket> getAvroDataBucketCodec() {
         return Framework.getService(CodecService.class).getCodec(DEFAULT_CODEC, DataBucket.class);
     }
+
+    protected static boolean useCompactCodec(String action) {
+        return COMPACT_CODEC.equals(Framework.getService(BulkAdminService.class).getBucketCodec(action));
+    }
 }
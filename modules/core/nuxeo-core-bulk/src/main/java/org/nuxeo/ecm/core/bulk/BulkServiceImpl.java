@@ -154,6 +154,7 @@ public class BulkServiceImpl implements BulkService {
             }
         }
         checkIfScrollerExists(command);
+        checkSlices(command);
 
         // store the bulk command and status in the key/value store
         BulkStatus status = new BulkStatus(command.getId());
@@ -161,6 +162,9 @@ public class BulkServiceImpl implements BulkService {
         status.setAction(command.getAction());
         status.setUsername(command.getUsername());
         status.setSubmitTime(Instant.now());
+        if (command.isSliced()) {
+            status.setSlices(command.getSlices());
+        }
         setStatus(status);
         byte[] commandAsBytes = setCommand(command);
 
@@ -174,9 +178,44 @@ public class BulkServiceImpl implements BulkService {
         }
         // send command to bulk processor
         log.debug("Submit action with command: {}", command);
+        if (command.isSliced()) {
+            return submitSlices(shardKey, command);
+        }
         return submit(shardKey, command.getId(), commandAsBytes);
     }
 
+    /**
+     * Only document scrollers without query limit can be sliced, otherwise the command is not sliced.
+     *
+     * @since 11.5
+     */
+    protected void checkSlices(BulkCommand command) {
+        if (!command.isSliced()) {
+            return;
+        }
+        Long limit = command.getQueryLimit();
+        if (command.useExternalScroller() || command.useGenericScroller() || (limit != null && limit > 0)) {
+            log.warn("Slices are only supported by document scroller without query limit, ignoring for: {}",
+                    command);
+            command.setSlices(0);
+        }
+    }
+
+    /**
+     * Sends one record per slice, so slices are scrolled concurrently by different scrollers.
+     *
+     * @since 11.5
+     */
+    protected String submitSlices(String shardKey, BulkCommand command) {
+        for (int slice = 0; slice < command.getSlices(); slice++) {
+            byte[] sliceAsBytes = BulkCodecs.getCommandCodec().encode(command.forSlice(slice));
+            String key = command.getId() + ":" + slice;
+            // spread slices on partitions unless commands are sequential
+            submit(shardKey.equals(command.getId()) ? key : shardKey, key, sliceAsBytes);
+        }
+        return command.getId();
+    }
+
     protected void checkIfScrollerExists(BulkCommand command) {
         ScrollService scrollService = Framework.getService(ScrollService.class);
         if (command.useExternalScroller()) {
@@ -353,7 +392,7 @@ public class BulkServiceImpl implements BulkService {
         String stream = Framework.getService(BulkAdminService.class).getInputStream(command.getAction());
 
         String key = commandId + ":" + externalScrollerCounter.incrementAndGet();
-        Record record = Record.of(key, BulkCodecs.getBucketCodec().encode(bucket));
+        Record record = Record.of(key, BulkCodecs.getBucketCodec(command.getAction()).encode(bucket));
 
         log.debug("Append key: {}, record: {}", key, record);
         Framework.getService(StreamService.class).getStreamManager().append(stream, record);
@@ -51,6 +51,7 @@ import org.nuxeo.ecm.core.query.QueryParseException;
 import org.nuxeo.ecm.core.scroll.DocumentScrollRequest;
 import org.nuxeo.ecm.core.scroll.EmptyScrollRequest;
 import org.nuxeo.ecm.core.scroll.GenericScrollRequest;
+import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.lib.stream.computation.AbstractComputation;
 import org.nuxeo.lib.stream.computation.ComputationContext;
 import org.nuxeo.lib.stream.computation.Record;
@@ -62,6 +63,9 @@ import org.nuxeo.runtime.transaction.TransactionRuntimeException;
 /**
  * Materializes the document set for a command if scroller is not external.
  * <p>
+ * A sliced command is received as one record per slice, each slice is scrolled independently and reports its own
+ * progress to the status computation.
+ * <p>
  * Inputs:
  * <ul>
  * <li>i1: Reads a stream of {@link BulkCommand} sharded by action</li>
@@ -100,6 +104,9 @@ public class BulkScrollerComputation extends AbstractComputation {
 
     protected String actionStream;
 
+    // @since 11.5
+    protected Codec<BulkBucket> bucketCodec;
+
     public static Builder builder(String name, int nbOutputStreams) {
         return new Builder(name, nbOutputStreams);
     }
@@ -167,6 +174,8 @@ public class BulkScrollerComputation extends AbstractComputation {
             getCommandConfiguration(command);
             updateStatusAsScrolling(context, commandId);
 
+            // buckets of different slices must have different keys
+            String bucketKeyPrefix = command.isSliced() ? commandId + ":" + command.getSlice() : commandId;
             long documentCount = 0;
             long bucketNumber = 1;
             final long queryLimit = getQueryLimit(command);
@@ -189,7 +198,7 @@ public class BulkScrollerComputation extends AbstractComputation {
                         limitReached = true;
                     }
                     while (documentIds.size() >= bucketSize) {
-                        produceBucket(context, commandId, bucketSize, bucketNumber++, documentCount);
+                        produceBucket(context, commandId, bucketKeyPrefix, bucketSize, bucketNumber++, documentCount);
                     }
                     documentCount += scrollCount;
                     if (limitReached) {
@@ -202,19 +211,29 @@ public class BulkScrollerComputation extends AbstractComputation {
             // send remaining document ids
             // there's at most one record because we loop while scrolling
             if (!documentIds.isEmpty()) {
-                produceBucket(context, commandId, bucketSize, bucketNumber++, documentCount);
+                produceBucket(context, commandId, bucketKeyPrefix, bucketSize, bucketNumber++, documentCount);
             }
             // update status after scroll when we handle the scroller
-            if (!command.useExternalScroller()) {
+            if (command.isSliced()) {
+                updateStatusAfterSliceScroll(context, command, documentCount, null, null, limitReached);
+            } else if (!command.useExternalScroller()) {
                 updateStatusAfterScroll(context, commandId, documentCount, limitReached);
             }
         } catch (IllegalArgumentException | QueryParseException | DocumentNotFoundException e) {
             log.error("Invalid query results in an empty document set: {}", command, e);
-            updateStatusAfterScroll(context, commandId, "Invalid query", SC_BAD_REQUEST);
+            if (command != null && command.isSliced()) {
+                updateStatusAfterSliceScroll(context, command, 0, "Invalid query", SC_BAD_REQUEST, false);
+            } else {
+                updateStatusAfterScroll(context, commandId, "Invalid query", SC_BAD_REQUEST);
+            }
         } catch (NuxeoException e) {
             if (command != null) {
                 log.error("Invalid command produces an empty document set: {}", command, e);
-                updateStatusAfterScroll(context, command.getId(), "Invalid command", e.getStatusCode());
+                if (command.isSliced()) {
+                    updateStatusAfterSliceScroll(context, command, 0, "Invalid command", e.getStatusCode(), false);
+                } else {
+                    updateStatusAfterScroll(context, command.getId(), "Invalid command", e.getStatusCode());
+                }
             } else {
                 log.error("Discard invalid record: {}", record, e);
             }
@@ -244,13 +263,17 @@ public class BulkScrollerComputation extends AbstractComputation {
                                           .build();
 
         } else {
-            request = DocumentScrollRequest.builder(query)
-                                           .username(command.getUsername())
-                                           .repository(command.getRepository())
-                                           .size(scrollSize)
-                                           .timeout(Duration.ofSeconds(scrollKeepAliveSeconds))
-                                           .name(command.getScroller())
-                                           .build();
+            DocumentScrollRequest.Builder builder = DocumentScrollRequest.builder(query)
+                                                                         .username(command.getUsername())
+                                                                         .repository(command.getRepository())
+                                                                         .size(scrollSize)
+                                                                         .timeout(Duration.ofSeconds(
+                                                                                 scrollKeepAliveSeconds))
+                                                                         .name(command.getScroller());
+            if (command.isSliced()) {
+                builder.slice(command.getSlice(), command.getSlices());
+            }
+            request = builder.build();
         }
         ScrollService service = Framework.getService(ScrollService.class);
         return service.scroll(request);
@@ -271,6 +294,7 @@ public class BulkScrollerComputation extends AbstractComputation {
             }
         }
         actionStream = actionService.getInputStream(command.getAction());
+        bucketCodec = BulkCodecs.getBucketCodec(command.getAction());
     }
 
     protected boolean isAbortedCommand(String commandId) {
@@ -316,15 +340,39 @@ public class BulkScrollerComputation extends AbstractComputation {
                 BulkCodecs.getStatusCodec().encode(delta));
     }
 
+    /**
+     * Updates the status once a slice is scrolled, the status computation aggregates the slices.
+     *
+     * @since 11.5
+     */
+    protected void updateStatusAfterSliceScroll(ComputationContext context, BulkCommand command, long documentCount,
+            String errorMessage, Integer errorCode, boolean limited) {
+        String commandId = command.getId();
+        BulkStatus delta = BulkStatus.deltaOf(commandId);
+        if (errorMessage != null) {
+            delta.inError(errorMessage, requireNonNullElse(errorCode, SC_INTERNAL_SERVER_ERROR));
+        }
+        delta.setScrolledSlices(1);
+        delta.setScrolledDocuments(documentCount);
+        delta.setScrollEndTime(Instant.now());
+        delta.setQueryLimitReached(limited);
+        log.debug("Slice {}/{} of command: {} scrolled: {} documents", command.getSlice(), command.getSlices(),
+                commandId, documentCount);
+        ((ComputationContextImpl) context).produceRecordImmediate(STATUS_STREAM, commandId,
+                BulkCodecs.getStatusCodec().encode(delta));
+    }
+
     /**
      * Produces a bucket as a record to appropriate bulk action stream.
+     *
+     * @param keyPrefix the command id, suffixed by the slice for a sliced command
      */
-    protected void produceBucket(ComputationContext context, String commandId, int bucketSize, long bucketNumber,
-            long documentCount) {
+    protected void produceBucket(ComputationContext context, String commandId, String keyPrefix, int bucketSize,
+            long bucketNumber, long documentCount) {
         List<String> ids = documentIds.subList(0, min(bucketSize, documentIds.size()));
         BulkBucket bucket = new BulkBucket(commandId, ids);
-        String key = commandId + ":" + Long.toString(bucketNumber);
-        Record record = Record.of(key, BulkCodecs.getBucketCodec().encode(bucket));
+        String key = keyPrefix + ":" + Long.toString(bucketNumber);
+        Record record = Record.of(key, bucketCodec.encode(bucket));
         if (produceImmediate || (produceImmediateThreshold > 0 && documentCount > produceImmediateThreshold)) {
             ComputationContextImpl contextImpl = (ComputationContextImpl) context;
             if (!contextImpl.getRecords(actionStream).isEmpty()) {
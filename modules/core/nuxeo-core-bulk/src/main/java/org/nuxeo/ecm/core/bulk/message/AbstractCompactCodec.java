@@ -0,0 +1,255 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.bulk.message;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+
+import org.nuxeo.lib.stream.codec.Codec;
+
+/**
+ * Base class for the compact binary codecs of the bulk messages.
+ * <p>
+ * A compact message starts with a magic byte that cannot be the first byte of an Avro single object encoding, so
+ * decoding falls back to the wrapped codec for messages written before the compact codec was enabled.
+ * <p>
+ * Document ids are packed: a UUID takes 16 bytes, a numeric id is written as a varint delta from the previous numeric
+ * id, any other id is written as a string.
+ *
+ * @since 11.5
+ */
+public abstract class AbstractCompactCodec<T> implements Codec<T> {
+
+    public static final String NAME = "compact";
+
+    protected static final byte MAGIC = (byte) 0xB1;
+
+    protected static final byte VERSION = 1;
+
+    protected static final byte ID_UUID = 0;
+
+    protected static final byte ID_NUMERIC = 1;
+
+    protected static final byte ID_STRING = 2;
+
+    protected final Codec<T> fallback;
+
+    protected final boolean encodeCompact;
+
+    /**
+     * @param fallback the codec used to decode non compact messages, and to encode when {@code encodeCompact} is false
+     * @param encodeCompact {@code true} to write compact messages
+     */
+    protected AbstractCompactCodec(Codec<T> fallback, boolean encodeCompact) {
+        this.fallback = fallback;
+        this.encodeCompact = encodeCompact;
+    }
+
+    @Override
+    public String getName() {
+        return encodeCompact ? NAME : fallback.getName();
+    }
+
+    @Override
+    public byte[] encode(T object) {
+        if (!encodeCompact) {
+            return fallback.encode(object);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(MAGIC);
+        out.write(VERSION);
+        encodeCompact(object, out);
+        return out.toByteArray();
+    }
+
+    @Override
+    public T decode(byte[] data) {
+        if (!isCompact(data)) {
+            return fallback.decode(data);
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported compact message version: " + data[1]);
+        }
+        try {
+            return decodeCompact(ByteBuffer.wrap(data, 2, data.length - 2));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated compact message", e);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the data has been written by a compact codec.
+     */
+    public static boolean isCompact(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    protected abstract void encodeCompact(T object, ByteArrayOutputStream out);
+
+    /**
+     * @throws IllegalArgumentException if data are invalid
+     */
+    protected abstract T decodeCompact(ByteBuffer buffer);
+
+    protected static void writeVarLong(ByteArrayOutputStream out, long value) {
+        // zigzag encoding so small negative deltas stay small
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    protected static long readVarLong(ByteBuffer buffer) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new IllegalArgumentException("Invalid varint");
+    }
+
+    protected static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        if (bytes == null) {
+            writeVarLong(out, -1);
+            return;
+        }
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    protected static byte[] readBytes(ByteBuffer buffer) {
+        int length = Math.toIntExact(readVarLong(buffer));
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    protected static void writeString(ByteArrayOutputStream out, String value) {
+        writeBytes(out, value == null ? null : value.getBytes(UTF_8));
+    }
+
+    protected static String readString(ByteBuffer buffer) {
+        byte[] bytes = readBytes(buffer);
+        return bytes == null ? null : new String(bytes, UTF_8);
+    }
+
+    /**
+     * Writes a document id, the previous numeric id is used to delta encode numeric ids.
+     *
+     * @return the numeric value of the id, or {@code previous} if the id is not numeric
+     */
+    protected static long writeId(ByteArrayOutputStream out, String id, long previous) {
+        if (isUUID(id)) {
+            UUID uuid = UUID.fromString(id);
+            out.write(ID_UUID);
+            writeLong(out, uuid.getMostSignificantBits());
+            writeLong(out, uuid.getLeastSignificantBits());
+            return previous;
+        }
+        if (isNumeric(id)) {
+            long value = Long.parseLong(id);
+            out.write(ID_NUMERIC);
+            writeVarLong(out, value - previous);
+            return value;
+        }
+        out.write(ID_STRING);
+        writeString(out, id);
+        return previous;
+    }
+
+    /**
+     * Reads a document id into {@code ids}, returns the previous numeric id for the next read.
+     */
+    protected static long readId(ByteBuffer buffer, long previous, List<String> ids) {
+        byte type = buffer.get();
+        switch (type) {
+        case ID_UUID:
+            ids.add(new UUID(buffer.getLong(), buffer.getLong()).toString());
+            return previous;
+        case ID_NUMERIC:
+            long value = previous + readVarLong(buffer);
+            ids.add(Long.toString(value));
+            return value;
+        case ID_STRING:
+            ids.add(readString(buffer));
+            return previous;
+        default:
+            throw new IllegalArgumentException("Unknown id type: " + type);
+        }
+    }
+
+    protected static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int i = 56; i >= 0; i -= 8) {
+            out.write((int) (value >>> i));
+        }
+    }
+
+    /**
+     * Returns {@code true} for a lowercase canonical UUID, the only form that can be packed without loss.
+     */
+    protected static boolean isUUID(String id) {
+        if (id == null || id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} for a positive number without leading zero that fits in a long.
+     */
+    protected static boolean isNumeric(String id) {
+        if (id == null || id.isEmpty() || id.length() > 18 || id.charAt(0) == '0' && id.length() > 1) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
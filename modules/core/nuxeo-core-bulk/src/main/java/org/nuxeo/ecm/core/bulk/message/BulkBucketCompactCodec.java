@@ -0,0 +1,65 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.bulk.message;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nuxeo.lib.stream.codec.Codec;
+
+/**
+ * Compact binary codec for {@link BulkBucket}, document ids are packed instead of being written as strings.
+ *
+ * @since 11.5
+ */
+public class BulkBucketCompactCodec extends AbstractCompactCodec<BulkBucket> {
+
+    public BulkBucketCompactCodec(Codec<BulkBucket> fallback, boolean encodeCompact) {
+        super(fallback, encodeCompact);
+    }
+
+    @Override
+    protected void encodeCompact(BulkBucket bucket, ByteArrayOutputStream out) {
+        writeString(out, bucket.getCommandId());
+        List<String> ids = bucket.getIds();
+        writeVarLong(out, ids.size());
+        long previous = 0;
+        for (String id : ids) {
+            previous = writeId(out, id, previous);
+        }
+    }
+
+    @Override
+    protected BulkBucket decodeCompact(ByteBuffer buffer) {
+        String commandId = readString(buffer);
+        int size = Math.toIntExact(readVarLong(buffer));
+        if (size < 0 || size > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid bucket size: " + size);
+        }
+        List<String> ids = new ArrayList<>(size);
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous = readId(buffer, previous, ids);
+        }
+        return new BulkBucket(commandId, ids);
+    }
+
+}
@@ -83,6 +83,14 @@ public class BulkCommand implements Serializable {
     @AvroEncode(using = MapAsJsonAsStringEncoding.class)
     protected Map<String, Serializable> params;
 
+    // @since 11.5
+    @AvroDefault("0")
+    protected int slices;
+
+    // @since 11.5
+    @AvroDefault("0")
+    protected int slice;
+
     protected BulkCommand() {
         // Empty constructor for Avro decoder
     }
@@ -101,6 +109,36 @@ public class BulkCommand implements Serializable {
         this.scroller = builder.scroller;
         this.genericScroller = BooleanUtils.toBoolean(builder.genericScroller);
         this.externalScroller = BooleanUtils.toBoolean(builder.externalScroller);
+        this.slices = builder.slices;
+    }
+
+    /**
+     * Returns a copy of the command that scrolls only the given slice of the document set.
+     *
+     * @since 11.5
+     */
+    public BulkCommand forSlice(int slice) {
+        if (slice < 0 || slice >= slices) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid slice: %d/%d for command: %s", slice, slices, id));
+        }
+        BulkCommand ret = new BulkCommand();
+        ret.id = id;
+        ret.action = action;
+        ret.query = query;
+        ret.queryLimit = queryLimit;
+        ret.username = username;
+        ret.repository = repository;
+        ret.bucketSize = bucketSize;
+        ret.batchSize = batchSize;
+        ret.batchTransactionTimeout = batchTransactionTimeout;
+        ret.scroller = scroller;
+        ret.genericScroller = genericScroller;
+        ret.externalScroller = externalScroller;
+        ret.params = params;
+        ret.slices = slices;
+        ret.slice = slice;
+        return ret;
     }
 
     public String getUsername() {
@@ -180,6 +218,33 @@ public class BulkCommand implements Serializable {
         return queryLimit;
     }
 
+    /**
+     * True if the document set is materialized by multiple scrollers, each one scrolling a slice.
+     *
+     * @since 11.5
+     */
+    public boolean isSliced() {
+        return slices > 1;
+    }
+
+    /**
+     * The number of slices of the document set, 0 or 1 when not sliced.
+     *
+     * @since 11.5
+     */
+    public int getSlices() {
+        return slices;
+    }
+
+    /**
+     * The slice to scroll for a sliced command.
+     *
+     * @since 11.5
+     */
+    public int getSlice() {
+        return slice;
+    }
+
     @Override
     public int hashCode() {
         return HashCodeBuilder.reflectionHashCode(this);
@@ -224,6 +289,13 @@ public class BulkCommand implements Serializable {
         this.scroller = scrollerName;
     }
 
+    /**
+     * @since 11.5
+     */
+    public void setSlices(int slices) {
+        this.slices = slices;
+    }
+
     public static class Builder {
         protected final String action;
 
@@ -247,6 +319,8 @@ public class BulkCommand implements Serializable {
 
         protected Boolean externalScroller;
 
+        protected int slices;
+
         protected Map<String, Serializable> params = new HashMap<>();
 
         /**
@@ -440,6 +514,20 @@ public class BulkCommand implements Serializable {
             return this;
         }
 
+        /**
+         * Materializes the document set using multiple scrollers running concurrently, each one scrolling a slice of
+         * the document set. Only document scrollers without query limit support slices.
+         *
+         * @since 11.5
+         */
+        public Builder slices(int slices) {
+            if (slices <= 0) {
+                throw new IllegalArgumentException("Invalid number of slices must > 0");
+            }
+            this.slices = slices;
+            return this;
+        }
+
         protected void checkScrollerType() {
             if (this.genericScroller != null || this.externalScroller != null) {
                 throw new IllegalArgumentException("Only one useScroller method should be called");
@@ -122,6 +122,18 @@ public class BulkStatus implements AsyncStatus<String> {
     @AvroDefault("false")
     protected boolean queryLimitReached;
 
+    /** @since 11.5 **/
+    @Nullable
+    protected Integer slices;
+
+    /** @since 11.5 **/
+    @Nullable
+    protected Integer scrolledSlices;
+
+    /** @since 11.5 **/
+    @Nullable
+    protected Long scrolledDocuments;
+
     @Nullable
     @AvroEncode(using = MapAsJsonAsStringEncoding.class)
     protected Map<String, Serializable> result = new HashMap<>();
@@ -175,10 +187,15 @@ public class BulkStatus implements AsyncStatus<String> {
         if (update.processed != null) {
             setProcessed(getProcessed() + update.getProcessed());
         }
-        if (update.scrollStartTime != null) {
+        if (update.slices != null) {
+            slices = update.slices;
+        }
+        if (update.scrollStartTime != null
+                && (getSlices() <= 1 || scrollStartTime == null || update.scrollStartTime < scrollStartTime)) {
+            // for a sliced command we take the minimum
             scrollStartTime = update.scrollStartTime;
         }
-        if (update.scrollEndTime != null) {
+        if (update.scrollEndTime != null && update.scrolledSlices == null) {
             scrollEndTime = update.scrollEndTime;
         }
         if (update.submitTime != null) {
@@ -225,9 +242,36 @@ public class BulkStatus implements AsyncStatus<String> {
         if (update.queryLimitReached) {
             queryLimitReached = true;
         }
+        if (update.scrolledSlices != null) {
+            mergeScrolledSlices(update);
+        }
         checkForCompletedState();
     }
 
+    /**
+     * The total is known once all the slices of a sliced command are scrolled.
+     *
+     * @since 11.5
+     */
+    protected void mergeScrolledSlices(BulkStatus update) {
+        scrolledSlices = getScrolledSlices() + update.getScrolledSlices();
+        scrolledDocuments = getScrolledDocuments() + update.getScrolledDocuments();
+        if (getScrolledSlices() < getSlices()) {
+            return;
+        }
+        scrollEndTime = update.scrollEndTime;
+        setTotal(getScrolledDocuments());
+        if (getState() == State.ABORTED) {
+            return;
+        }
+        if (getTotal() == 0) {
+            setState(State.COMPLETED);
+            setCompletedTime(Instant.now());
+        } else {
+            setState(State.RUNNING);
+        }
+    }
+
     protected void checkForCompletedState() {
         if (!isDelta() && getTotal() > 0 && getProcessed() >= getTotal()) {
             if (getState() != State.COMPLETED && getState() != State.ABORTED) {
@@ -339,6 +383,56 @@ public class BulkStatus implements AsyncStatus<String> {
         this.queryLimitReached = queryLimitReached;
     }
 
+    /**
+     * Returns the number of slices scrolled concurrently to materialize the document set, 0 if the command is not
+     * sliced.
+     *
+     * @since 11.5
+     */
+    public int getSlices() {
+        return slices == null ? 0 : slices;
+    }
+
+    /**
+     * @since 11.5
+     */
+    public void setSlices(int slices) {
+        this.slices = slices;
+    }
+
+    /**
+     * For a sliced command, returns the number of slices already scrolled. For a delta this is a relative value.
+     *
+     * @since 11.5
+     */
+    public int getScrolledSlices() {
+        return scrolledSlices == null ? 0 : scrolledSlices;
+    }
+
+    /**
+     * @since 11.5
+     */
+    public void setScrolledSlices(int scrolledSlices) {
+        this.scrolledSlices = scrolledSlices;
+    }
+
+    /**
+     * For a sliced command, returns the number of documents materialized by the slices already scrolled. For a delta
+     * this is a relative value.
+     *
+     * @since 11.5
+     */
+    public long getScrolledDocuments() {
+        return scrolledDocuments == null ? 0 : scrolledDocuments;
+    }
+
+    /**
+     * @since 11.5
+     */
+    public void setScrolledDocuments(long scrolledDocuments) {
+        this.scrolledDocuments = scrolledDocuments;
+    }
+
     @Override
     public boolean isCompleted() {
         return getState() == State.COMPLETED;
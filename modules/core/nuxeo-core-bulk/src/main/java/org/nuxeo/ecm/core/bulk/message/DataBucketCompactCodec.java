@@ -0,0 +1,132 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.bulk.message;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.nuxeo.lib.stream.codec.Codec;
+
+/**
+ * Compact binary codec for {@link DataBucket}, the payload is deflated when it is large enough to benefit from it.
+ *
+ * @since 11.5
+ */
+public class DataBucketCompactCodec extends AbstractCompactCodec<DataBucket> {
+
+    /** Payloads smaller than this are not compressed. */
+    public static final int COMPRESSION_THRESHOLD = 512;
+
+    protected static final byte RAW = 0;
+
+    protected static final byte DEFLATED = 1;
+
+    public DataBucketCompactCodec(Codec<DataBucket> fallback, boolean encodeCompact) {
+        super(fallback, encodeCompact);
+    }
+
+    @Override
+    protected void encodeCompact(DataBucket bucket, ByteArrayOutputStream out) {
+        writeString(out, bucket.getCommandId());
+        writeVarLong(out, bucket.getCount());
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+        writeBytes(payload, bucket.getData());
+        writeBytes(payload, bucket.getHeader());
+        writeBytes(payload, bucket.getFooter());
+        byte[] raw = payload.toByteArray();
+        byte[] deflated = raw.length < COMPRESSION_THRESHOLD ? null : deflate(raw);
+        if (deflated != null && deflated.length < raw.length) {
+            out.write(DEFLATED);
+            writeVarLong(out, raw.length);
+            writeBytes(out, deflated);
+        } else {
+            out.write(RAW);
+            writeBytes(out, raw);
+        }
+    }
+
+    @Override
+    protected DataBucket decodeCompact(ByteBuffer buffer) {
+        String commandId = readString(buffer);
+        long count = readVarLong(buffer);
+        byte type = buffer.get();
+        byte[] raw;
+        if (type == DEFLATED) {
+            int length = Math.toIntExact(readVarLong(buffer));
+            raw = inflate(readBytes(buffer), length);
+        } else if (type == RAW) {
+            raw = readBytes(buffer);
+        } else {
+            throw new IllegalArgumentException("Unknown payload type: " + type);
+        }
+        ByteBuffer payload = ByteBuffer.wrap(raw);
+        byte[] data = readBytes(payload);
+        byte[] header = readBytes(payload);
+        byte[] footer = readBytes(payload);
+        return new DataBucket(commandId, count, data, header, footer);
+    }
+
+    protected static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    protected static byte[] inflate(byte[] deflated, int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid payload length: " + length);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            byte[] raw = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int n = inflater.inflate(raw, offset, length - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != length) {
+                throw new IllegalArgumentException("Truncated payload: " + offset + "/" + length);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
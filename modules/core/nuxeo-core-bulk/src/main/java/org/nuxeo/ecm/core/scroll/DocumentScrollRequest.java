@@ -48,6 +48,11 @@ public class DocumentScrollRequest implements ScrollRequest {
 
     protected final String username;
 
+    // @since 11.5
+    protected final int sliceId;
+
+    // @since 11.5
+    protected final int slices;
 
     protected DocumentScrollRequest(Builder builder) {
         this.name = builder.getName();
@@ -56,6 +61,8 @@ public class DocumentScrollRequest implements ScrollRequest {
         this.size = builder.getSize();
         this.username = builder.getUsername();
         this.repository = builder.getRepository();
+        this.sliceId = builder.sliceId;
+        this.slices = builder.slices;
     }
 
     @Override
@@ -89,11 +96,38 @@ public class DocumentScrollRequest implements ScrollRequest {
         return repository;
     }
 
+    /**
+     * Returns {@code true} if the request scrolls only a slice of the results.
+     *
+     * @since 11.5
+     */
+    public boolean isSliced() {
+        return slices > 1;
+    }
+
+    /**
+     * The slice to scroll, between {@code 0} and {@link #getSlices()} excluded.
+     *
+     * @since 11.5
+     */
+    public int getSliceId() {
+        return sliceId;
+    }
+
+    /**
+     * The number of slices the results are split into.
+     *
+     * @since 11.5
+     */
+    public int getSlices() {
+        return slices;
+    }
+
     @Override
     public String toString() {
         return "DocumentScrollRequest{" + "name='" + name + '\'' + ", query='" + query + '\'' + ", repository='"
                 + repository + '\'' + ", timeout=" + timeout + ", size=" + size + ", username='" + username + '\''
-                + '}';
+                + (isSliced() ? ", slice=" + sliceId + "/" + slices : "") + '}';
     }
 
     /**
@@ -117,6 +151,10 @@ public class DocumentScrollRequest implements ScrollRequest {
 
         protected int size;
 
+        protected int sliceId;
+
+        protected int slices;
+
         public static final String UNKNOWN = "unknown";
 
         public static final int DEFAULT_SCROLL_SIZE = 50;
@@ -170,6 +208,23 @@ public class DocumentScrollRequest implements ScrollRequest {
             return this;
         }
 
+        /**
+         * Scrolls only a slice of the results, the results are split into {@code slices} disjoint sets that can be
+         * scrolled concurrently.
+         *
+         * @param sliceId the slice to scroll, between {@code 0} and {@code slices} excluded
+         * @param slices the number of slices
+         * @since 11.5
+         */
+        public Builder slice(int sliceId, int slices) {
+            if (slices <= 0 || sliceId < 0 || sliceId >= slices) {
+                throw new IllegalArgumentException(String.format("Invalid slice: %d/%d", sliceId, slices));
+            }
+            this.sliceId = sliceId;
+            this.slices = slices;
+            return this;
+        }
+
         public String getName() {
             return name;
         }
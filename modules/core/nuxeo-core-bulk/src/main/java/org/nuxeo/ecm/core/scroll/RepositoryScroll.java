@@ -20,17 +20,42 @@ package org.nuxeo.ecm.core.scroll;
 
 import static org.nuxeo.ecm.core.api.security.SecurityConstants.SYSTEM_USERNAME;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import javax.security.auth.login.LoginException;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.nuxeo.ecm.core.api.CoreInstance;
 import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.PartialList;
 import org.nuxeo.ecm.core.api.ScrollResult;
 import org.nuxeo.ecm.core.api.scroll.Scroll;
 import org.nuxeo.ecm.core.api.scroll.ScrollRequest;
+import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
+import org.nuxeo.ecm.core.query.sql.model.Expression;
+import org.nuxeo.ecm.core.query.sql.model.FromClause;
+import org.nuxeo.ecm.core.query.sql.model.Function;
+import org.nuxeo.ecm.core.query.sql.model.Literal;
+import org.nuxeo.ecm.core.query.sql.model.LiteralList;
+import org.nuxeo.ecm.core.query.sql.model.MultiExpression;
+import org.nuxeo.ecm.core.query.sql.model.Operand;
+import org.nuxeo.ecm.core.query.sql.model.Operator;
+import org.nuxeo.ecm.core.query.sql.model.OrderByExpr;
+import org.nuxeo.ecm.core.query.sql.model.Predicate;
+import org.nuxeo.ecm.core.query.sql.model.Reference;
+import org.nuxeo.ecm.core.query.sql.model.SQLQuery;
+import org.nuxeo.ecm.core.query.sql.model.SelectClause;
+import org.nuxeo.ecm.core.query.sql.model.StringLiteral;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.api.login.NuxeoLoginContext;
 
@@ -41,6 +66,15 @@ import org.nuxeo.runtime.api.login.NuxeoLoginContext;
  */
 public class RepositoryScroll implements Scroll {
 
+    private static final Logger log = LogManager.getLogger(RepositoryScroll.class);
+
+    protected static final String UUID_SUFFIX = "-0000-0000-0000-000000000000";
+
+    protected static final long UUID_PREFIX_RANGE = 1L << 32;
+
+    protected static final Pattern UUID_PATTERN = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
     protected DocumentScrollRequest request;
 
     protected NuxeoLoginContext loginContext;
@@ -51,6 +85,12 @@ public class RepositoryScroll implements Scroll {
 
     protected Boolean hasNextResult;
 
+    // @since 11.5, the ids of the current batch
+    protected List<String> results;
+
+    // @since 11.5, true if the slice ids are selected by hash instead of by range
+    protected boolean hashSliced;
+
     @Override
     public void init(ScrollRequest request, Map<String, String> options) {
         if (!(request instanceof DocumentScrollRequest)) {
@@ -84,13 +124,220 @@ public class RepositoryScroll implements Scroll {
     }
 
     protected boolean fetch() {
-        if (repoScroller == null) {
-            repoScroller = session.scroll(request.getQuery(), request.getSize(),
-                    (int) request.getTimeout().toSeconds());
-        } else {
-            repoScroller = session.scroll(repoScroller.getScrollId());
+        do {
+            if (repoScroller == null) {
+                repoScroller = session.scroll(getQuery(), request.getSize(), (int) request.getTimeout().toSeconds());
+            } else {
+                repoScroller = session.scroll(repoScroller.getScrollId());
+            }
+            if (!repoScroller.hasResults()) {
+                return false;
+            }
+            results = hashSliced ? getSliceIds(repoScroller.getResults()) : repoScroller.getResults();
+        } while (results.isEmpty());
+        return true;
+    }
+
+    /**
+     * Returns the NXQL query to scroll, restricted to the document id range of the slice if any.
+     * <p>
+     * If the repository does not use lowercase UUID document ids, or if the query cannot be restricted, the whole
+     * query is scrolled and the ids of the slice are selected by hash.
+     *
+     * @since 11.5
+     */
+    protected String getQuery() {
+        if (!request.isSliced()) {
+            return request.getQuery();
+        }
+        if (hasUUIDs()) {
+            try {
+                return getSliceQuery(request.getQuery(), request.getSliceId(), request.getSlices());
+            } catch (IllegalArgumentException e) {
+                log.debug("Slicing by hash: {}", e.getMessage());
+            }
+        }
+        hashSliced = true;
+        return request.getQuery();
+    }
+
+    /**
+     * Checks if the document ids of the repository are UUIDs, by looking at any of them.
+     *
+     * @since 11.5
+     */
+    protected boolean hasUUIDs() {
+        PartialList<Map<String, Serializable>> res = session.queryProjection("SELECT ecm:uuid FROM Document", 1, 0,
+                false);
+        return res.isEmpty() || UUID_PATTERN.matcher((String) res.get(0).get(NXQL.ECM_UUID)).matches();
+    }
+
+    /**
+     * Keeps the ids belonging to the slice, when slicing by hash.
+     *
+     * @since 11.5
+     */
+    protected List<String> getSliceIds(List<String> ids) {
+        int slices = request.getSlices();
+        int sliceId = request.getSliceId();
+        return ids.stream().filter(id -> Math.floorMod(id.hashCode(), slices) == sliceId).collect(Collectors.toList());
+    }
+
+    /**
+     * Restricts an NXQL query to a slice of the document ids, the UUID space is split into {@code slices} ranges of
+     * equal size.
+     * <p>
+     * The range predicate is added to the parsed query, which is then written back to NXQL.
+     *
+     * @throws IllegalArgumentException if the query cannot be restricted
+     * @since 11.5
+     */
+    public static String getSliceQuery(String nxql, int sliceId, int slices) {
+        Predicate range = null;
+        if (sliceId > 0) {
+            range = new Predicate(new Reference(NXQL.ECM_UUID), Operator.GTEQ,
+                    new StringLiteral(getSliceBound(sliceId, slices)));
+        }
+        if (sliceId < slices - 1) {
+            Predicate upper = new Predicate(new Reference(NXQL.ECM_UUID), Operator.LT,
+                    new StringLiteral(getSliceBound(sliceId + 1, slices)));
+            range = range == null ? upper : new Predicate(range, Operator.AND, upper);
+        }
+        if (range == null) {
+            return nxql;
+        }
+        SQLQuery query = SQLQueryParser.parse(nxql);
+        if (query.groupBy != null || query.having != null || query.limit != 0 || query.offset != 0
+                || query.from.getType() != FromClause.DOCTYPE) {
+            throw new IllegalArgumentException("Cannot slice query: " + nxql);
+        }
+        Predicate predicate = query.where == null || query.where.predicate == null ? range
+                : new Predicate(query.where.predicate, Operator.AND, range);
+        SQLQuery sliced = query.withPredicate(predicate);
+        String sliceQuery = new SliceQueryWriter().write(sliced);
+        // check that the query was written back without loss
+        SQLQuery parsed = SQLQueryParser.parse(sliceQuery);
+        if (!predicate.equals(parsed.where.predicate) || !query.from.equals(parsed.from)
+                || !Objects.equals(query.orderBy, parsed.orderBy)) {
+            throw new IllegalArgumentException("Cannot slice query: " + nxql);
+        }
+        return sliceQuery;
+    }
+
+    protected static String getSliceBound(int slice, int slices) {
+        return String.format("%08x", slice * UUID_PREFIX_RANGE / slices) + UUID_SUFFIX;
+    }
+
+    /**
+     * Writes a parsed query back to NXQL.
+     *
+     * @since 11.5
+     */
+    protected static class SliceQueryWriter {
+
+        protected final StringBuilder sb = new StringBuilder();
+
+        public String write(SQLQuery query) {
+            sb.append("SELECT ");
+            SelectClause select = query.select;
+            if (select.isDistinct()) {
+                sb.append("DISTINCT ");
+            }
+            if (select.isEmpty()) {
+                sb.append('*');
+            } else {
+                writeList(select.operands());
+            }
+            sb.append(" FROM ");
+            sb.append(String.join(", ", query.from.elements.values()));
+            sb.append(" WHERE ");
+            write(query.where.predicate);
+            if (query.orderBy != null) {
+                sb.append(" ORDER BY ");
+                for (Iterator<OrderByExpr> it = query.orderBy.elements.iterator(); it.hasNext();) {
+                    OrderByExpr expr = it.next();
+                    write(expr.reference);
+                    if (expr.isDescending) {
+                        sb.append(" DESC");
+                    }
+                    if (it.hasNext()) {
+                        sb.append(", ");
+                    }
+                }
+            }
+            return sb.toString();
+        }
+
+        protected void write(Operand operand) {
+            if (operand instanceof MultiExpression) {
+                MultiExpression expr = (MultiExpression) operand;
+                if (expr.predicates.isEmpty()) {
+                    throw new IllegalArgumentException("Empty expression");
+                }
+                sb.append('(');
+                for (Iterator<Predicate> it = expr.predicates.iterator(); it.hasNext();) {
+                    write(it.next());
+                    if (it.hasNext()) {
+                        sb.append(' ').append(expr.operator).append(' ');
+                    }
+                }
+                sb.append(')');
+            } else if (operand instanceof Expression) {
+                Expression expr = (Expression) operand;
+                sb.append('(');
+                if (expr.rvalue == null) {
+                    if (expr.isSuffix()) {
+                        // IS NULL, IS NOT NULL
+                        write(expr.lvalue);
+                        sb.append(' ').append(expr.operator);
+                    } else {
+                        // NOT
+                        sb.append(expr.operator).append(' ');
+                        write(expr.lvalue);
+                    }
+                } else if ((expr.operator == Operator.BETWEEN || expr.operator == Operator.NOTBETWEEN)
+                        && expr.rvalue instanceof LiteralList && ((LiteralList) expr.rvalue).size() == 2) {
+                    LiteralList bounds = (LiteralList) expr.rvalue;
+                    write(expr.lvalue);
+                    sb.append(' ').append(expr.operator).append(' ');
+                    write(bounds.get(0));
+                    sb.append(" AND ");
+                    write(bounds.get(1));
+                } else {
+                    write(expr.lvalue);
+                    sb.append(' ').append(expr.operator).append(' ');
+                    write(expr.rvalue);
+                }
+                sb.append(')');
+            } else if (operand instanceof StringLiteral) {
+                sb.append(NXQL.escapeString(((StringLiteral) operand).value));
+            } else if (operand instanceof LiteralList) {
+                sb.append('(');
+                writeList((LiteralList) operand);
+                sb.append(')');
+            } else if (operand instanceof Function) {
+                Function function = (Function) operand;
+                sb.append(function.name).append('(');
+                if (function.args != null) {
+                    writeList(function.args);
+                }
+                sb.append(')');
+            } else if (operand instanceof Reference || operand instanceof Literal) {
+                // references with their cast or hint, numbers and dates
+                sb.append(operand);
+            } else {
+                throw new IllegalArgumentException("Unsupported operand: " + operand);
+            }
+        }
+
+        protected void writeList(Collection<? extends Operand> operands) {
+            for (Iterator<? extends Operand> it = operands.iterator(); it.hasNext();) {
+                write(it.next());
+                if (it.hasNext()) {
+                    sb.append(", ");
+                }
+            }
         }
-        return repoScroller.hasResults();
     }
 
     @Override
@@ -102,7 +349,7 @@ public class RepositoryScroll implements Scroll {
             throw new NoSuchElementException();
         }
         hasNextResult = null;
-        return repoScroller.getResults();
+        return results;
     }
 
     @Override
@@ -61,4 +61,16 @@ public class TestBulkCommandAvro {
         assertEquals(command, actualCommand);
     }
 
+    @Test
+    public void testSlicedCommand() {
+        BulkCommand command = new BulkCommand.Builder("action", QUERY, "username").slices(4).build();
+        BulkCommand slice = command.forSlice(2);
+        BulkCommand actualCommand = codecRule.encodeDecode(slice);
+
+        assertEquals(slice, actualCommand);
+        assertEquals(2, actualCommand.getSlice());
+        assertEquals(4, actualCommand.getSlices());
+        assertEquals(command.getId(), actualCommand.getId());
+    }
+
 }
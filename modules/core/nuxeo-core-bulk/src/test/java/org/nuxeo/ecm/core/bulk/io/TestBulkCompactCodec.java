@@ -0,0 +1,94 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.bulk.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.bulk.message.AbstractCompactCodec;
+import org.nuxeo.ecm.core.bulk.message.BulkBucket;
+import org.nuxeo.ecm.core.bulk.message.BulkBucketCompactCodec;
+import org.nuxeo.ecm.core.bulk.message.DataBucket;
+import org.nuxeo.ecm.core.bulk.message.DataBucketCompactCodec;
+import org.nuxeo.lib.stream.codec.AvroMessageCodec;
+import org.nuxeo.lib.stream.codec.Codec;
+
+/**
+ * @since 11.5
+ */
+public class TestBulkCompactCodec {
+
+    @Test
+    public void testBulkBucket() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        // ids that cannot be packed are kept as is
+        ids.addAll(List.of("1024", "1000", "0", "007", "123456789012345678", "A7D1E4C2-0000-0000-0000-000000000000",
+                "my-doc-id"));
+        BulkBucket bucket = new BulkBucket("commandId", ids);
+        Codec<BulkBucket> avro = new AvroMessageCodec<>(BulkBucket.class);
+        Codec<BulkBucket> compact = new BulkBucketCompactCodec(avro, true);
+
+        byte[] data = compact.encode(bucket);
+        assertTrue(AbstractCompactCodec.isCompact(data));
+        assertEquals(bucket, compact.decode(data));
+        assertTrue(data.length < avro.encode(bucket).length / 2);
+    }
+
+    @Test
+    public void testDataBucket() {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            csv.append("doc-").append(i).append(",File,project\n");
+        }
+        Codec<DataBucket> avro = new AvroMessageCodec<>(DataBucket.class);
+        Codec<DataBucket> compact = new DataBucketCompactCodec(avro, true);
+        for (String content : List.of("small", csv.toString())) {
+            DataBucket bucket = new DataBucket("commandId", 100, content, "header\n", "");
+            DataBucket actual = compact.decode(compact.encode(bucket));
+            assertEquals(bucket, actual);
+        }
+        // large payload is compressed
+        DataBucket bucket = new DataBucket("commandId", 100, csv.toString());
+        assertTrue(compact.encode(bucket).length < csv.length() / 2);
+    }
+
+    @Test
+    public void testDecodeAvroMessages() {
+        BulkBucket bucket = new BulkBucket("commandId", List.of(UUID.randomUUID().toString()));
+        Codec<BulkBucket> avro = new AvroMessageCodec<>(BulkBucket.class);
+        byte[] data = avro.encode(bucket);
+        assertFalse(AbstractCompactCodec.isCompact(data));
+        // the decoder reads messages written before the compact codec was enabled
+        assertEquals(bucket, new BulkBucketCompactCodec(avro, true).decode(data));
+        // the codec writes avro until the compact codec is enabled
+        Codec<BulkBucket> reader = new BulkBucketCompactCodec(avro, false);
+        assertFalse(AbstractCompactCodec.isCompact(reader.encode(bucket)));
+        assertEquals("avro", reader.getName());
+    }
+
+}
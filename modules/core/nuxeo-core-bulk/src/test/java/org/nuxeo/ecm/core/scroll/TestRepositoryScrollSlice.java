@@ -0,0 +1,111 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.scroll;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.nuxeo.ecm.core.scroll.RepositoryScroll.getSliceQuery;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
+import org.nuxeo.ecm.core.query.sql.model.Expression;
+import org.nuxeo.ecm.core.query.sql.model.Operator;
+import org.nuxeo.ecm.core.query.sql.model.SQLQuery;
+
+/**
+ * @since 11.5
+ */
+public class TestRepositoryScrollSlice {
+
+    @Test
+    public void testSliceBounds() {
+        String query = "SELECT * FROM Document";
+        assertEquals("SELECT * FROM Document WHERE (ecm:uuid < '80000000-0000-0000-0000-000000000000')",
+                getSliceQuery(query, 0, 2));
+        assertEquals("SELECT * FROM Document WHERE (ecm:uuid >= '80000000-0000-0000-0000-000000000000')",
+                getSliceQuery(query, 1, 2));
+        assertEquals("SELECT * FROM Document WHERE ((ecm:uuid >= '40000000-0000-0000-0000-000000000000')"
+                + " AND (ecm:uuid < '80000000-0000-0000-0000-000000000000'))", getSliceQuery(query, 1, 4));
+        // a single slice is the whole query
+        assertEquals(query, getSliceQuery(query, 0, 1));
+    }
+
+    @Test
+    public void testSliceWithWhereAndOrderBy() {
+        String query = "SELECT * FROM Document WHERE dc:title = 'where order by' OR ecm:isProxy = 1 ORDER BY dc:title";
+        assertEquals("SELECT * FROM Document WHERE (((dc:title = 'where order by') OR (ecm:isProxy = 1))"
+                + " AND (ecm:uuid < '80000000-0000-0000-0000-000000000000')) ORDER BY dc:title",
+                getSliceQuery(query, 0, 2));
+        query = "select * from Document where ecm:isVersion = 0 order by dc:modified desc, dc:title";
+        assertEquals("SELECT * FROM Document WHERE ((ecm:isVersion = 0)"
+                + " AND (ecm:uuid >= '80000000-0000-0000-0000-000000000000')) ORDER BY dc:modified DESC, dc:title",
+                getSliceQuery(query, 1, 2));
+    }
+
+    @Test
+    public void testSliceKeepsPredicate() {
+        String[] predicates = { //
+                "dc:title = 'it\\'s a WHERE ) ORDER BY'", //
+                "dc:title LIKE 'foo%' AND NOT dc:description ILIKE '%bar'", //
+                "ecm:path STARTSWITH '/default-domain' AND ecm:mixinType <> 'HiddenInNavigation'", //
+                "dc:subjects IN ('a', 'b') AND dc:nature NOT IN ('c')", //
+                "dc:created BETWEEN DATE '2021-01-01' AND DATE '2021-06-01'", //
+                "DATE(dc:modified) >= DATE '2021-01-01' OR dc:expired IS NULL", //
+                "(dc:title = 'a' OR dc:title = 'b') AND (ecm:isProxy = 0 OR dc:source IS NOT NULL)" };
+        for (String predicate : predicates) {
+            String query = "SELECT * FROM File, Note WHERE " + predicate;
+            SQLQuery sliced = SQLQueryParser.parse(getSliceQuery(query, 2, 3));
+            Expression expected = SQLQueryParser.parse(query).where.predicate;
+            Expression expr = sliced.where.predicate;
+            assertEquals(Operator.AND, expr.operator);
+            assertEquals(predicate, expected, expr.lvalue);
+            assertEquals(List.of("File", "Note"), List.copyOf(sliced.from.elements.values()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCannotSliceWithLimit() {
+        getSliceQuery("SELECT * FROM Document WHERE ecm:isProxy = 0 LIMIT 10", 0, 2);
+    }
+
+    @Test
+    public void testSliceByHash() {
+        int slices = 3;
+        List<String> ids = IntStream.range(0, 1000).mapToObj(String::valueOf).collect(Collectors.toList());
+        Set<String> all = new HashSet<>();
+        for (int sliceId = 0; sliceId < slices; sliceId++) {
+            RepositoryScroll scroll = new RepositoryScroll();
+            scroll.request = DocumentScrollRequest.builder("SELECT * FROM Document").slice(sliceId, slices).build();
+            List<String> sliceIds = scroll.getSliceIds(ids);
+            assertFalse(sliceIds.isEmpty());
+            for (String id : sliceIds) {
+                assertTrue(id, all.add(id));
+            }
+        }
+        assertEquals(ids.size(), all.size());
+    }
+
+}
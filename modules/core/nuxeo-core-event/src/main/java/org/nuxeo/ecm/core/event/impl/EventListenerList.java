@@ -21,7 +21,12 @@
 package org.nuxeo.ecm.core.event.impl;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
@@ -60,6 +65,22 @@ public class EventListenerList extends MapRegistry {
 
     protected final List<EventListenerDescriptor> asyncPostCommitListenersDescriptors = new CopyOnWriteArrayList<>();
 
+    protected static final EventListenerDescriptor[] NO_DESCRIPTORS = new EventListenerDescriptor[0];
+
+    /**
+     * Immutable index of the ordered inline listeners accepting each event name, rebuilt when listeners change.
+     *
+     * @since 11.5
+     */
+    protected volatile Map<String, EventListenerDescriptor[]> inlineListenersByEvent = Collections.emptyMap();
+
+    /**
+     * The ordered inline listeners accepting all events, used for the events absent from the index.
+     *
+     * @since 11.5
+     */
+    protected volatile EventListenerDescriptor[] inlineListenersForAllEvents = NO_DESCRIPTORS;
+
     @Override
     public void initialize() {
         super.initialize();
@@ -114,11 +135,13 @@ public class EventListenerList extends MapRegistry {
     public void add(EventListenerDescriptor descriptor) {
         programmaticDescriptors.add(descriptor);
         updateOnAdd(descriptor);
+        initInlineIndex();
     }
 
     public void removeDescriptor(EventListenerDescriptor descriptor) {
         programmaticDescriptors.remove(descriptor);
         updateOnRemove(descriptor);
+        initInlineIndex();
     }
 
     protected void initCache() {
@@ -127,6 +150,33 @@ public class EventListenerList extends MapRegistry {
         asyncPostCommitListenersDescriptors.clear();
         this.<EventListenerDescriptor> getContributionValues().forEach(this::updateOnAdd);
         programmaticDescriptors.forEach(this::updateOnAdd);
+        initInlineIndex();
+    }
+
+    /**
+     * Rebuilds the index of inline listeners by event name, so that firing an event doesn't need to check all the
+     * listeners.
+     *
+     * @since 11.5
+     */
+    protected void initInlineIndex() {
+        List<EventListenerDescriptor> descriptors = List.copyOf(inlineListenersDescriptors);
+        Set<String> eventNames = new LinkedHashSet<>();
+        descriptors.stream()
+                   .map(EventListenerDescriptor::getEvents)
+                   .filter(Objects::nonNull)
+                   .forEach(eventNames::addAll);
+        Map<String, EventListenerDescriptor[]> index = new HashMap<>();
+        for (String eventName : eventNames) {
+            // keep the order of the sorted list
+            index.put(eventName, descriptors.stream()
+                                            .filter(desc -> desc.acceptEvent(eventName))
+                                            .toArray(EventListenerDescriptor[]::new));
+        }
+        inlineListenersForAllEvents = descriptors.stream()
+                                                 .filter(desc -> desc.getEvents() == null)
+                                                 .toArray(EventListenerDescriptor[]::new);
+        inlineListenersByEvent = Collections.unmodifiableMap(index);
     }
 
     protected void updateOnAdd(EventListenerDescriptor descriptor) {
@@ -186,6 +236,17 @@ public class EventListenerList extends MapRegistry {
         return Collections.unmodifiableList(inlineListenersDescriptors);
     }
 
+    /**
+     * Gets the ordered inline listeners accepting the given event name.
+     *
+     * @return the listeners, an array that must not be modified
+     * @since 11.5
+     */
+    public EventListenerDescriptor[] getInlineListenersDescriptors(String eventName) {
+        checkInitialized();
+        return inlineListenersByEvent.getOrDefault(eventName, inlineListenersForAllEvents);
+    }
+
     public List<EventListenerDescriptor> getSyncPostCommitListenersDescriptors() {
         checkInitialized();
         return Collections.unmodifiableList(syncPostCommitListenersDescriptors);
@@ -33,7 +33,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -69,9 +71,14 @@ import org.nuxeo.lib.stream.computation.Record;
 import org.nuxeo.lib.stream.computation.Settings;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.codec.CodecService;
+import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.stream.StreamService;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
+import io.dropwizard.metrics5.MetricName;
+import io.dropwizard.metrics5.MetricRegistry;
+import io.dropwizard.metrics5.SharedMetricRegistries;
+import io.dropwizard.metrics5.Timer;
 import io.opencensus.trace.AttributeValue;
 import io.opencensus.trace.Span;
 import io.opencensus.trace.Tracer;
@@ -125,6 +132,11 @@ public class EventServiceImpl implements EventService, EventServiceAdmin, Synchr
 
     protected EventBundleDispatcher pipeDispatcher;
 
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    /** @since 11.5 */
+    protected final Map<String, Timer> syncListenerTimers = new ConcurrentHashMap<>();
+
     public EventServiceImpl() {
         postCommitExec = new PostCommitEventExecutor();
         asyncExec = new AsyncEventExecutor();
@@ -240,17 +252,19 @@ public class EventServiceImpl implements EventService, EventServiceAdmin, Synchr
         String ename = event.getName();
         EventStats stats = Framework.getService(EventStats.class);
         Tracer tracer = Tracing.getTracer();
-        for (EventListenerDescriptor desc : listenerDescriptors.getInlineListenersDescriptors()) {
-            if (!desc.acceptEvent(ename)) {
-                continue;
-            }
+        boolean recording = tracer.getCurrentSpan().getOptions().contains(Span.Options.RECORD_EVENTS);
+        for (EventListenerDescriptor desc : listenerDescriptors.getInlineListenersDescriptors(ename)) {
             try {
-                long t0 = System.currentTimeMillis();
+                long t0 = System.nanoTime();
                 desc.asEventListener().handleEvent(event);
-                long elapsed = System.currentTimeMillis() - t0;
-                traceAddAnnotation(event, tracer, elapsed, desc.getName());
+                long elapsed = System.nanoTime() - t0;
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+                getSyncListenerTimer(desc.getName()).update(elapsed, TimeUnit.NANOSECONDS);
+                if (recording) {
+                    traceAddAnnotation(event, tracer, elapsedMillis, desc.getName());
+                }
                 if (stats != null) {
-                    stats.logSyncExec(desc, elapsed);
+                    stats.logSyncExec(desc, elapsedMillis);
                 }
                 if (event.isCanceled()) {
                     // break loop
@@ -322,6 +336,16 @@ public class EventServiceImpl implements EventService, EventServiceAdmin, Synchr
         }
     }
 
+    /**
+     * Gets the timer recording the execution time of a synchronous listener.
+     *
+     * @since 11.5
+     */
+    protected Timer getSyncListenerTimer(String listener) {
+        return syncListenerTimers.computeIfAbsent(String.valueOf(listener),
+                k -> registry.timer(MetricName.build("nuxeo", "events", "listeners", "sync").tagged("listener", k)));
+    }
+
     protected void traceAddAnnotation(Event event, Tracer tracer, long elapsed, String listener) {
         Map<String, AttributeValue> attributes = new HashMap<>();
         attributes.put("event", AttributeValue.stringAttributeValue(event.getName()));
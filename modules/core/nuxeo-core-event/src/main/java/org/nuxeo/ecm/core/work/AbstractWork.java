@@ -19,9 +19,21 @@
 package org.nuxeo.ecm.core.work;
 
 import static org.nuxeo.ecm.core.api.event.CoreEventConstants.REPOSITORY_NAME;
+import static org.nuxeo.ecm.core.work.WorkEncoding.readBytes;
+import static org.nuxeo.ecm.core.work.WorkEncoding.readEnum;
+import static org.nuxeo.ecm.core.work.WorkEncoding.readString;
+import static org.nuxeo.ecm.core.work.WorkEncoding.readStrings;
+import static org.nuxeo.ecm.core.work.WorkEncoding.writeBytes;
+import static org.nuxeo.ecm.core.work.WorkEncoding.writeEnum;
+import static org.nuxeo.ecm.core.work.WorkEncoding.writeString;
+import static org.nuxeo.ecm.core.work.WorkEncoding.writeStrings;
 import static org.nuxeo.ecm.core.work.WorkManagerImpl.DEAD_LETTER_QUEUE;
+import static org.nuxeo.ecm.core.work.api.Work.Progress.CURRENT_INDETERMINATE;
 import static org.nuxeo.ecm.core.work.api.Work.Progress.PROGRESS_INDETERMINATE;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.security.SecureRandom;
 import java.util.ArrayList;
@@ -48,6 +60,7 @@ import org.nuxeo.ecm.core.event.EventContext;
 import org.nuxeo.ecm.core.event.EventService;
 import org.nuxeo.ecm.core.event.impl.EventContextImpl;
 import org.nuxeo.ecm.core.event.impl.EventImpl;
+import org.nuxeo.ecm.core.work.api.EncodableWork;
 import org.nuxeo.ecm.core.work.api.Work;
 import org.nuxeo.ecm.core.work.api.WorkSchedulePath;
 import org.nuxeo.lib.stream.computation.Record;
@@ -191,6 +204,58 @@ public abstract class AbstractWork implements Work {
                               .toByteArray(Tracing.getTracer().getCurrentSpan().getContext());
     }
 
+    /**
+     * Constructs a {@link Work} instance from the fields written by {@link #writeFields}, for subclasses implementing
+     * {@link EncodableWork}.
+     *
+     * @since 11.5
+     */
+    protected AbstractWork(DataInput in) throws IOException {
+        id = readString(in);
+        state = readEnum(in, State.class);
+        float percent = in.readFloat();
+        long current = in.readLong();
+        long total = in.readLong();
+        progress = current == CURRENT_INDETERMINATE ? new Progress(percent) : new Progress(current, total);
+        repositoryName = readString(in);
+        docId = readString(in);
+        docIds = readStrings(in);
+        isTree = in.readBoolean();
+        originatingUsername = readString(in);
+        status = readString(in);
+        schedulingTime = in.readLong();
+        startTime = in.readLong();
+        completionTime = in.readLong();
+        callerThread = readString(in);
+        traceContext = readBytes(in);
+    }
+
+    /**
+     * Writes the fields of this work, for subclasses implementing {@link EncodableWork}. The schedule path is not
+     * written.
+     *
+     * @since 11.5
+     */
+    public void writeFields(DataOutput out) throws IOException {
+        writeString(out, id);
+        writeEnum(out, state);
+        Progress p = progress == null ? PROGRESS_INDETERMINATE : progress;
+        out.writeFloat(p.getPercent());
+        out.writeLong(p.getCurrent());
+        out.writeLong(p.getTotal());
+        writeString(out, repositoryName);
+        writeString(out, docId);
+        writeStrings(out, docIds);
+        out.writeBoolean(isTree);
+        writeString(out, originatingUsername);
+        writeString(out, status);
+        out.writeLong(schedulingTime);
+        out.writeLong(startTime);
+        out.writeLong(completionTime);
+        writeString(out, callerThread);
+        writeBytes(out, traceContext);
+    }
+
     @Override
     public String getId() {
         return id;
@@ -124,6 +124,30 @@ public class StreamWorkManager extends WorkManagerImpl {
      */
     public static final long STATETTL_DEFAULT_VALUE = 3600;
 
+    /**
+     * The window in seconds during which a completed idempotent work suppresses the works with the same id that were
+     * scheduled before it started, {@code 0} to disable.
+     *
+     * @since 11.5
+     */
+    public static final String COALESCING_WINDOW_KEY = "nuxeo.stream.work.coalescing.window.seconds";
+
+    /**
+     * The maximum time in milliseconds a {@link org.nuxeo.ecm.core.work.api.MergeableWork MergeableWork} is held to be
+     * merged with the next works of its queue, {@code 0} to disable.
+     *
+     * @since 11.5
+     */
+    public static final String MERGE_DELAY_KEY = "nuxeo.stream.work.merge.delay.ms";
+
+    /**
+     * Enables the field encoding of the {@link org.nuxeo.ecm.core.work.api.EncodableWork EncodableWork}s, only once all
+     * the consumers of the work queues can decode it.
+     *
+     * @since 11.5
+     */
+    public static final String FIELD_ENCODING_KEY = "nuxeo.stream.work.field.encoding.enabled";
+
     /**
      * @since 11.1
      */
@@ -163,6 +187,9 @@ public class StreamWorkManager extends WorkManagerImpl {
 
     protected boolean storeState;
 
+    // @since 11.5
+    protected boolean fieldEncoding;
+
     protected long stateTTL;
 
     protected int getOverProvisioningFactor() {
@@ -209,9 +236,14 @@ public class StreamWorkManager extends WorkManagerImpl {
         }
         WorkSchedulePath.newInstance(work);
         String key = work.getPartitionKey();
+        long t0 = System.nanoTime();
+        byte[] data = WorkEncoding.encode(work, fieldEncoding);
+        registry.timer(MetricName.build("nuxeo.works.queue.encode").tagged("queue", queueId))
+                .update(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        registry.histogram(MetricName.build("nuxeo.works.queue.payload").tagged("queue", queueId)).update(data.length);
         LogOffset offset;
         try {
-            offset = streamManager.append(NAMESPACE_PREFIX + queueId, Record.of(key, WorkComputation.serialize(work)));
+            offset = streamManager.append(NAMESPACE_PREFIX + queueId, Record.of(key, data));
         } catch (IllegalArgumentException e) {
             log.error(String.format("Not scheduled work, unknown category: %s, mapped to %s", work.getCategory(),
                     NAMESPACE_PREFIX + queueId));
@@ -243,6 +275,7 @@ public class StreamWorkManager extends WorkManagerImpl {
         super.start(context);
         ConfigurationService configuration = Framework.getService(ConfigurationService.class);
         storeState = configuration.isBooleanTrue(STORESTATE_KEY);
+        fieldEncoding = configuration.isBooleanTrue(FIELD_ENCODING_KEY);
         stateTTL = configuration.getLong(STATETTL_KEY, STATETTL_DEFAULT_VALUE);
     }
 
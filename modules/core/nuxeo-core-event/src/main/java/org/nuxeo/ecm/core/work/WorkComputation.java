@@ -18,23 +18,19 @@
  */
 package org.nuxeo.ecm.core.work;
 
+import static org.nuxeo.ecm.core.work.StreamWorkManager.COALESCING_WINDOW_KEY;
+import static org.nuxeo.ecm.core.work.StreamWorkManager.MERGE_DELAY_KEY;
 import static org.nuxeo.ecm.core.work.StreamWorkManager.STATETTL_DEFAULT_VALUE;
 import static org.nuxeo.ecm.core.work.StreamWorkManager.STATETTL_KEY;
 import static org.nuxeo.ecm.core.work.StreamWorkManager.STORESTATE_KEY;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInput;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutput;
-import java.io.ObjectOutputStream;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections.buffer.CircularFifoBuffer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.nuxeo.common.utils.ExceptionUtils;
+import org.nuxeo.ecm.core.work.api.MergeableWork;
 import org.nuxeo.ecm.core.work.api.Work;
 import org.nuxeo.lib.stream.computation.AbstractComputation;
 import org.nuxeo.lib.stream.computation.ComputationContext;
@@ -44,6 +40,7 @@ import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.services.config.ConfigurationService;
 
+import io.dropwizard.metrics5.Counter;
 import io.dropwizard.metrics5.MetricName;
 import io.dropwizard.metrics5.MetricRegistry;
 import io.dropwizard.metrics5.SharedMetricRegistries;
@@ -59,20 +56,55 @@ public class WorkComputation extends AbstractComputation {
 
     protected static final int IDS_SIZE = 50;
 
+    protected static final String MERGE_TIMER_KEY = "merge";
+
     protected final CircularFifoBuffer workIds = new CircularFifoBuffer(IDS_SIZE);
 
     protected final Timer workTimer;
 
+    protected final Timer decodeTimer;
+
     protected final long stateTTL;
 
+    protected final boolean storeState;
+
+    /** @since 11.5 */
+    protected final long coalescingWindow;
+
+    /** @since 11.5 */
+    protected final long mergeDelay;
+
+    /** @since 11.5 */
+    protected final Counter supersededCounter;
+
+    /** @since 11.5 */
+    protected final Counter duplicateCounter;
+
+    /** @since 11.5 */
+    protected final Counter mergedCounter;
+
     protected Work work;
 
+    /** The work held to be merged with the next works, its record is not checkpointed yet. */
+    protected MergeableWork pendingWork;
+
+    protected Record pendingRecord;
+
     public WorkComputation(String name) {
         super(name, 1, 0);
         MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
-        workTimer = registry.timer(
-                MetricName.build("nuxeo.works.queue.timer").tagged("queue", Name.ofUrn(name).getName()));
-        stateTTL = Framework.getService(ConfigurationService.class).getLong(STATETTL_KEY, STATETTL_DEFAULT_VALUE);
+        String queue = Name.ofUrn(name).getName();
+        workTimer = registry.timer(MetricName.build("nuxeo.works.queue.timer").tagged("queue", queue));
+        decodeTimer = registry.timer(MetricName.build("nuxeo.works.queue.decode").tagged("queue", queue));
+        MetricName coalesced = MetricName.build("nuxeo.works.queue.coalesced");
+        supersededCounter = registry.counter(coalesced.tagged("queue", queue, "reason", "superseded"));
+        duplicateCounter = registry.counter(coalesced.tagged("queue", queue, "reason", "duplicate"));
+        mergedCounter = registry.counter(coalesced.tagged("queue", queue, "reason", "merged"));
+        ConfigurationService configuration = Framework.getService(ConfigurationService.class);
+        stateTTL = configuration.getLong(STATETTL_KEY, STATETTL_DEFAULT_VALUE);
+        storeState = configuration.isBooleanTrue(STORESTATE_KEY);
+        coalescingWindow = configuration.getLong(COALESCING_WINDOW_KEY, 0);
+        mergeDelay = configuration.getLong(MERGE_DELAY_KEY, 0);
     }
 
     @Override
@@ -84,14 +116,70 @@ public class WorkComputation extends AbstractComputation {
 
     @Override
     public void processRecord(ComputationContext context, String inputStreamName, Record record) {
-        work = deserialize(record.getData());
+        long t0 = System.nanoTime();
+        Work recordWork = deserialize(record.getData());
+        decodeTimer.update(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+        if (pendingWork != null) {
+            if (pendingWork.canMerge(recordWork)) {
+                log.debug("Merging work id: " + recordWork.getId() + " into: " + pendingWork.getId());
+                pendingWork.merge(recordWork);
+                mergedCounter.inc();
+                return;
+            }
+            // the pending work is run first to keep the queue order, the checkpoint covers both records
+            MergeableWork merged = pendingWork;
+            pendingWork = null;
+            processWork(context, merged, pendingRecord);
+            pendingRecord = null;
+            if (merged.isWorkInstanceSuspended() || Thread.currentThread().isInterrupted()) {
+                // no checkpoint, both records are read again on restart
+                return;
+            }
+        } else if (isMergeable(recordWork)) {
+            // hold the work without asking for a checkpoint, it is replayed if the computation stops meanwhile
+            pendingWork = (MergeableWork) recordWork;
+            pendingRecord = record;
+            context.setTimer(MERGE_TIMER_KEY, System.currentTimeMillis() + mergeDelay);
+            return;
+        }
+        processWork(context, recordWork, record);
+    }
+
+    @Override
+    public void processTimer(ComputationContext context, String key, long timestamp) {
+        if (pendingWork != null) {
+            MergeableWork merged = pendingWork;
+            pendingWork = null;
+            processWork(context, merged, pendingRecord);
+            pendingRecord = null;
+        }
+    }
+
+    protected boolean isMergeable(Work work) {
+        // work states are stored per work id, they can't be tracked once merged
+        return mergeDelay > 0 && !storeState && work instanceof MergeableWork && !work.isCoalescing()
+                && !work.isGroupJoin();
+    }
+
+    protected boolean isCompletedInWindow(Work work) {
+        return coalescingWindow > 0 && work.isIdempotent()
+                && WorkStateHelper.getLastCompletedStartTime(work.getId()) >= work.getSchedulingTime();
+    }
+
+    protected void processWork(ComputationContext context, Work work, Record record) {
+        this.work = work;
         try {
             if (work.isCoalescing() && WorkStateHelper.getLastOffset(work.getId()) > context.getLastOffset().offset()) {
                 log.debug("Skipping duplicate of coalescing work id: " + work.getId() + " " + work);
+                supersededCounter.inc();
             } else if (work.isIdempotent() && workIds.contains(work.getId())) {
                 log.debug("Skipping duplicate of idempotent work id: " + work.getId());
+                duplicateCounter.inc();
+            } else if (isCompletedInWindow(work)) {
+                // an execution that started after this work was scheduled has completed
+                log.debug("Skipping already completed idempotent work id: " + work.getId());
+                duplicateCounter.inc();
             } else {
-                boolean storeState = Framework.getService(ConfigurationService.class).isBooleanTrue(STORESTATE_KEY);
                 if (storeState) {
                     if (WorkStateHelper.getState(work.getId()) != Work.State.SCHEDULED) {
                         // try to avoid a race condition where state is not yet written in the kv
@@ -113,15 +201,22 @@ public class WorkComputation extends AbstractComputation {
                 if (storeState && WorkStateHelper.getState(work.getId()) == Work.State.RUNNING) {
                     WorkStateHelper.setState(work.getId(), null, stateTTL);
                 }
+                if (coalescingWindow > 0 && work.isIdempotent() && !work.isWorkInstanceSuspended()) {
+                    WorkStateHelper.setLastCompletedStartTime(work.getId(), work.getStartTime(), coalescingWindow);
+                }
                 workIds.add(work.getId());
             }
             work.cleanUp(true, null);
             if (!work.isWorkInstanceSuspended()) {
                 context.askForCheckpoint();
+            } else {
+                // a held work run just before may have asked for a checkpoint that would cover this record
+                context.cancelAskForCheckpoint();
             }
         } catch (Exception e) {
             if (Thread.currentThread().isInterrupted() || ExceptionUtils.hasInterruptedCause(e)) {
                 Thread.currentThread().interrupt();
+                context.cancelAskForCheckpoint();
                 // propagate the interruption to stop the computation thread
                 // thread has been interrupted we don't want to mark the work as completed.
                 log.warn(
@@ -140,7 +235,7 @@ public class WorkComputation extends AbstractComputation {
             cleanupWorkInFailure(work, e);
         } finally {
             workTimer.update(work.getCompletionTime() - work.getStartTime(), TimeUnit.MILLISECONDS);
-            work = null;
+            this.work = null;
         }
     }
 
@@ -152,44 +247,18 @@ public class WorkComputation extends AbstractComputation {
         }
     }
 
-    @SuppressWarnings("squid:S2093")
+    /**
+     * Decodes a work written by {@link #serialize}.
+     */
     public static Work deserialize(byte[] data) {
-        // TODO: switch to commons-lang3 SerializationUtils
-        ByteArrayInputStream bis = new ByteArrayInputStream(data);
-        ObjectInput in = null;
-        try {
-            in = new ObjectInputStream(bis);
-            return (Work) in.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        } finally {
-            try {
-                if (in != null) {
-                    in.close();
-                }
-            } catch (IOException ex) {
-                // ignore close exception so we cannot use a try-with-resources squid:S2093
-            }
-        }
+        return WorkEncoding.decode(data);
     }
 
-    @SuppressWarnings("squid:S2093")
+    /**
+     * Encodes a work, using its fields if it is an {@link org.nuxeo.ecm.core.work.api.EncodableWork EncodableWork}
+     * and the field encoding is enabled, or Java serialization otherwise.
+     */
     public static byte[] serialize(Work work) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        ObjectOutput out;
-        try {
-            out = new ObjectOutputStream(bos);
-            out.writeObject(work);
-            out.flush();
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        } finally {
-            try {
-                bos.close();
-            } catch (IOException ex) {
-                // ignore close exception so we cannot use a try-with-resources squid:S2093
-            }
-        }
+        return WorkEncoding.encode(work);
     }
 }
@@ -0,0 +1,284 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.work;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.ecm.core.work.api.EncodableWork;
+import org.nuxeo.ecm.core.work.api.Work;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.services.config.ConfigurationService;
+
+/**
+ * Encodes {@link Work} instances to bytes, using their fields for {@link EncodableWork}s, and Java serialization for
+ * the others.
+ * <p>
+ * A field encoding starts with a magic byte that cannot start a Java serialization stream, followed by a version, the
+ * class name and the fields written by the work.
+ * <p>
+ * The field encoding is only used when enabled by {@link StreamWorkManager#FIELD_ENCODING_KEY}, as consumers older
+ * than 11.5 cannot decode it, and for classes declaring a public {@code (DataInput)} constructor.
+ *
+ * @since 11.5
+ */
+public class WorkEncoding {
+
+    private static final Logger log = LogManager.getLogger(WorkEncoding.class);
+
+    protected static final byte MAGIC = (byte) 0xEC;
+
+    protected static final byte VERSION = 1;
+
+    protected static final Map<String, Constructor<? extends Work>> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    /** Whether a class declares its own decoding constructor. */
+    protected static final Map<Class<?>, Boolean> DECODABLE = new ConcurrentHashMap<>();
+
+    private WorkEncoding() {
+        // utility class
+    }
+
+    /**
+     * Encodes a work, using its fields if the field encoding is enabled by the configuration.
+     */
+    public static byte[] encode(Work work) {
+        return encode(work, isFieldEncodingEnabled());
+    }
+
+    /**
+     * Encodes a work, using its fields if {@code fieldEncoding} is {@code true} and the work can be decoded from them,
+     * or Java serialization otherwise.
+     */
+    public static byte[] encode(Work work, boolean fieldEncoding) {
+        if (!fieldEncoding || !isDecodable(work)) {
+            return serialize(work);
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(work.getClass().getName());
+            ((EncodableWork) work).writeFields(out);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    public static Work decode(byte[] data) {
+        if (!isFieldEncoded(data)) {
+            return deserialize(data);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            in.readByte(); // magic
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported work encoding version: " + version);
+            }
+            return getConstructor(in.readUTF()).newInstance(in);
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Checks if the data is a field encoding, as opposed to Java serialization.
+     */
+    public static boolean isFieldEncoded(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static boolean isFieldEncodingEnabled() {
+        if (Framework.getRuntime() == null) {
+            return false;
+        }
+        ConfigurationService configuration = Framework.getService(ConfigurationService.class);
+        return configuration != null && configuration.isBooleanTrue(StreamWorkManager.FIELD_ENCODING_KEY);
+    }
+
+    /**
+     * Checks if a work can be decoded from its fields: a subclass of an {@link EncodableWork} that doesn't declare its
+     * own {@code (DataInput)} constructor would be decoded as an instance of its parent class, or not at all.
+     */
+    protected static boolean isDecodable(Work work) {
+        if (!(work instanceof EncodableWork)) {
+            return false;
+        }
+        return DECODABLE.computeIfAbsent(work.getClass(), klass -> {
+            try {
+                klass.getConstructor(DataInput.class);
+                return Boolean.TRUE;
+            } catch (NoSuchMethodException e) {
+                log.warn("EncodableWork without a public (DataInput) constructor, using Java serialization: {}",
+                        klass.getName());
+                return Boolean.FALSE;
+            }
+        }).booleanValue();
+    }
+
+    protected static Constructor<? extends Work> getConstructor(String className) throws ReflectiveOperationException {
+        Constructor<? extends Work> constructor = CONSTRUCTORS.get(className);
+        if (constructor == null) {
+            // cache the class resolution, which is the costly part of deserialization
+            Class<?> klass = Class.forName(className, true, WorkEncoding.class.getClassLoader());
+            if (!EncodableWork.class.isAssignableFrom(klass)) {
+                throw new IllegalArgumentException("Not an EncodableWork: " + className);
+            }
+            constructor = klass.asSubclass(Work.class).getConstructor(DataInput.class);
+            CONSTRUCTORS.put(className, constructor);
+        }
+        return constructor;
+    }
+
+    @SuppressWarnings("squid:S2093")
+    protected static Work deserialize(byte[] data) {
+        ByteArrayInputStream bis = new ByteArrayInputStream(data);
+        ObjectInput in = null;
+        try {
+            in = new ObjectInputStream(bis);
+            return (Work) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        } finally {
+            try {
+                if (in != null) {
+                    in.close();
+                }
+            } catch (IOException ex) {
+                // ignore close exception so we cannot use a try-with-resources squid:S2093
+            }
+        }
+    }
+
+    @SuppressWarnings("squid:S2093")
+    protected static byte[] serialize(Work work) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutput out;
+        try {
+            out = new ObjectOutputStream(bos);
+            out.writeObject(work);
+            out.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            try {
+                bos.close();
+            } catch (IOException ex) {
+                // ignore close exception so we cannot use a try-with-resources squid:S2093
+            }
+        }
+    }
+
+    /*
+     * ----- Helpers for the fields of works -----
+     */
+
+    /**
+     * Writes a string, which may be {@code null} and is not limited in size.
+     */
+    public static void writeString(DataOutput out, String string) throws IOException {
+        writeBytes(out, string == null ? null : string.getBytes(UTF_8));
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, UTF_8);
+    }
+
+    /**
+     * Writes a list of strings, which may be {@code null}.
+     */
+    public static void writeStrings(DataOutput out, List<String> strings) throws IOException {
+        if (strings == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    public static List<String> readStrings(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(readString(in));
+        }
+        return strings;
+    }
+
+    /**
+     * Writes a byte array, which may be {@code null}.
+     */
+    public static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static byte[] readBytes(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes an enum value, which may be {@code null}.
+     */
+    public static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        writeString(out, value == null ? null : value.name());
+    }
+
+    public static <E extends Enum<E>> E readEnum(DataInput in, Class<E> klass) throws IOException {
+        String name = readString(in);
+        return name == null ? null : Enum.valueOf(klass, name);
+    }
+
+}
@@ -41,6 +41,8 @@ public class WorkStateHelper {
 
     protected static final String GROUP_JOIN_COUNT_SUFFIX = ":group";
 
+    protected static final String COMPLETED_SUFFIX = ":completed";
+
     protected static final long GROUP_JOIN_COUNT_TTL_SECONDS = 600;
 
     protected static final String CANCELED = "canceled";
@@ -78,6 +80,27 @@ public class WorkStateHelper {
         return workId + STATE_SUFFIX;
     }
 
+    protected static String getCompletedKey(String workId) {
+        return workId + COMPLETED_SUFFIX;
+    }
+
+    /**
+     * Returns the start time of the last successful execution of a given work id.
+     *
+     * @param workId id of the work
+     * @return the start time in milliseconds or -1 for convenience
+     * @since 11.5
+     */
+    protected static long getLastCompletedStartTime(String workId) {
+        Long time = getKeyValueStore().getLong(getCompletedKey(workId));
+        return time == null ? -1 : time.longValue();
+    }
+
+    // @since 11.5
+    protected static void setLastCompletedStartTime(String workId, long startTime, long ttl) {
+        getKeyValueStore().put(getCompletedKey(workId), Long.valueOf(startTime), ttl);
+    }
+
     protected static String getGroupKey(String group) {
         return group + GROUP_JOIN_COUNT_SUFFIX;
     }
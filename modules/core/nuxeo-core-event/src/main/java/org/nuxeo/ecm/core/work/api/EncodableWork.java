@@ -0,0 +1,42 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.work.api;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A {@link Work} that can be encoded as a list of fields, which is more compact and faster to read than Java
+ * serialization when the work is written to a stream.
+ * <p>
+ * Implementations must have a public constructor taking a {@link DataInput}, reading the fields in the order they were
+ * written by {@link #writeFields}. The {@link org.nuxeo.ecm.core.work.AbstractWork AbstractWork} base class provides
+ * both for its own fields, so that subclasses only have to call them before dealing with their own fields.
+ *
+ * @since 11.5
+ */
+public interface EncodableWork extends Work {
+
+    /**
+     * Writes the fields of this work.
+     */
+    void writeFields(DataOutput out) throws IOException;
+
+}
@@ -0,0 +1,41 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.work.api;
+
+/**
+ * A {@link Work} that can absorb other works scheduled after it, so that a stream work queue can run them as a single
+ * larger work.
+ * <p>
+ * Merging is only done by the consumer of a queue, for works that are neither coalescing nor part of a group join.
+ *
+ * @since 11.5
+ */
+public interface MergeableWork extends Work {
+
+    /**
+     * Checks if the given work, read from the queue after this one, can be merged into this work.
+     */
+    boolean canMerge(Work other);
+
+    /**
+     * Merges the given work into this work. Only called if {@link #canMerge} returned {@code true}.
+     */
+    void merge(Work other);
+
+}
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -32,6 +33,7 @@ import org.junit.runner.RunWith;
 import org.nuxeo.ecm.core.event.EventService;
 import org.nuxeo.ecm.core.event.PostCommitEventListener;
 import org.nuxeo.ecm.core.event.impl.EventListenerDescriptor;
+import org.nuxeo.ecm.core.event.impl.EventListenerList;
 import org.nuxeo.ecm.core.event.impl.EventServiceImpl;
 import org.nuxeo.ecm.core.event.script.ScriptingPostCommitEventListener;
 import org.nuxeo.runtime.RuntimeMessage.Level;
@@ -102,6 +104,25 @@ public class TestEventListenerContrib {
         assertEquals(20, desc.getPriority());
     }
 
+    @Test
+    public void testInlineListenersByEvent() throws Exception {
+        String name = "script/listener.groovy";
+        hotDeployer.deploy("org.nuxeo.ecm.core.event.test:test-listeners.xml");
+        EventListenerList listenerList = getService().getListenerList();
+        assertTrue(hasListener(listenerList.getInlineListenersDescriptors("test"), name));
+        assertTrue(hasListener(listenerList.getInlineListenersDescriptors("test1"), name));
+        assertFalse(hasListener(listenerList.getInlineListenersDescriptors("otherEvent"), name));
+
+        // index is rebuilt when a listener is disabled
+        hotDeployer.deploy("org.nuxeo.ecm.core.event.test:test-listeners-disable.xml");
+        listenerList = getService().getListenerList();
+        assertFalse(hasListener(listenerList.getInlineListenersDescriptors("test"), name));
+    }
+
+    protected static boolean hasListener(EventListenerDescriptor[] descriptors, String name) {
+        return Arrays.stream(descriptors).anyMatch(desc -> name.equals(desc.getName()));
+    }
+
     @Test
     public void testInvalidListeners() throws Exception {
         assertEquals(0, getService().getListenerList().getAsyncPostCommitListeners().size());
@@ -0,0 +1,198 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.work;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.work.api.MergeableWork;
+import org.nuxeo.ecm.core.work.api.Work;
+import org.nuxeo.lib.stream.computation.ComputationMetadata;
+import org.nuxeo.lib.stream.computation.ComputationMetadataMapping;
+import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.internals.ComputationContextImpl;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.test.runner.RuntimeFeature;
+
+/**
+ * @since 11.5
+ */
+@RunWith(FeaturesRunner.class)
+@Features(RuntimeFeature.class)
+@Deploy("org.nuxeo.ecm.core.event:test-stream-workmanager-merge.xml")
+public class TestWorkComputation {
+
+    protected static final String NAME = "work/test";
+
+    protected static int runs;
+
+    public static class RunWork extends AbstractWork {
+
+        private static final long serialVersionUID = 1L;
+
+        public RunWork(String id) {
+            super(id);
+        }
+
+        @Override
+        public void run() {
+            runs++;
+        }
+
+        @Override
+        public void work() {
+            // not called
+        }
+
+        @Override
+        public String getTitle() {
+            return "Run";
+        }
+    }
+
+    public static class MergeWork extends RunWork implements MergeableWork {
+
+        private static final long serialVersionUID = 1L;
+
+        public MergeWork(String id) {
+            super(id);
+        }
+
+        @Override
+        public boolean canMerge(Work other) {
+            return other instanceof MergeWork;
+        }
+
+        @Override
+        public void merge(Work other) {
+            // nothing to merge
+        }
+    }
+
+    /** A work stopped by a shutdown. */
+    public static class SuspendedWork extends RunWork {
+
+        private static final long serialVersionUID = 1L;
+
+        public SuspendedWork(String id) {
+            super(id);
+        }
+
+        @Override
+        public void run() {
+            suspended();
+        }
+    }
+
+    protected WorkComputation computation;
+
+    protected ComputationContextImpl context;
+
+    @Before
+    public void setUp() {
+        runs = 0;
+        computation = new WorkComputation(NAME);
+        context = new ComputationContextImpl(new ComputationMetadataMapping(
+                new ComputationMetadata(NAME, Collections.singleton("work/input"), Collections.emptySet()),
+                Collections.emptyMap()));
+    }
+
+    protected void process(Work work) {
+        computation.processRecord(context, "work/input", Record.of(work.getId(), WorkComputation.serialize(work)));
+    }
+
+    @Test
+    public void testMergedWorkIsCheckpointed() {
+        process(new MergeWork("1"));
+        process(new MergeWork("2"));
+        // held until the merge delay
+        assertEquals(0, runs);
+        assertFalse(context.requireCheckpoint());
+        process(new RunWork("3"));
+        assertEquals(2, runs);
+        assertTrue(context.requireCheckpoint());
+    }
+
+    @Test
+    public void testNoCheckpointOnSuspensionAfterMergedWork() {
+        process(new MergeWork("1"));
+        process(new MergeWork("2"));
+        // the merged work runs first and asks for a checkpoint, then the next work is suspended
+        process(new SuspendedWork("3"));
+        assertEquals(1, runs);
+        // both records must be read again on restart
+        assertFalse(context.requireCheckpoint());
+    }
+
+    @Test
+    public void testHeldWorkRunOnTimer() {
+        process(new MergeWork("1"));
+        process(new MergeWork("2"));
+        // held until the merge delay
+        assertEquals(0, runs);
+        assertFalse(context.requireCheckpoint());
+        assertTrue(context.getTimers().containsKey(WorkComputation.MERGE_TIMER_KEY));
+
+        // the merge delay is reached
+        computation.processTimer(context, WorkComputation.MERGE_TIMER_KEY, System.currentTimeMillis());
+        assertEquals(1, runs);
+        assertTrue(context.requireCheckpoint());
+
+        // nothing held anymore
+        computation.processTimer(context, WorkComputation.MERGE_TIMER_KEY, System.currentTimeMillis());
+        assertEquals(1, runs);
+    }
+
+    @Test
+    @Deploy("org.nuxeo.runtime.kv")
+    @Deploy("org.nuxeo.ecm.core.event:test-stream-workmanager-coalescing-window.xml")
+    public void testSkipCompletedInWindow() {
+        Work scheduled = new RunWork("1");
+        // an execution of the same work that started after it was scheduled has completed
+        long completedStartTime = scheduled.getSchedulingTime() + 1;
+        WorkStateHelper.setLastCompletedStartTime("1", completedStartTime, 60);
+        process(scheduled);
+        assertEquals(0, runs);
+        assertTrue(context.requireCheckpoint());
+
+        // scheduled after the completed execution started
+        RunWork rescheduled = new RunWork("1");
+        rescheduled.schedulingTime = completedStartTime + 1;
+        process(rescheduled);
+        assertEquals(1, runs);
+    }
+
+    @Test
+    @Deploy("org.nuxeo.runtime.kv")
+    public void testNoSkipWithoutCoalescingWindow() {
+        Work scheduled = new RunWork("1");
+        WorkStateHelper.setLastCompletedStartTime("1", scheduled.getSchedulingTime() + 1, 60);
+        process(scheduled);
+        assertEquals(1, runs);
+    }
+
+}
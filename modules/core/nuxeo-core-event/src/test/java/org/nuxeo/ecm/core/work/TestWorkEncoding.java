@@ -0,0 +1,130 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.core.work;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.work.api.EncodableWork;
+import org.nuxeo.ecm.core.work.api.Work;
+import org.nuxeo.ecm.core.work.api.Work.State;
+
+/**
+ * @since 11.5
+ */
+public class TestWorkEncoding {
+
+    public static class CompactWork extends AbstractWork implements EncodableWork {
+
+        private static final long serialVersionUID = 1L;
+
+        protected String xpath;
+
+        public CompactWork(String repositoryName, String docId, String xpath) {
+            setDocument(repositoryName, docId);
+            this.xpath = xpath;
+        }
+
+        public CompactWork(DataInput in) throws IOException {
+            super(in);
+            xpath = WorkEncoding.readString(in);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            super.writeFields(out);
+            WorkEncoding.writeString(out, xpath);
+        }
+
+        @Override
+        public String getTitle() {
+            return "Compact work";
+        }
+
+        @Override
+        public void work() {
+            // nothing to do
+        }
+    }
+
+    @Test
+    public void testFieldEncodingRoundTrip() {
+        CompactWork work = new CompactWork("default", "1234", "file:content");
+        work.setDocuments("default", Arrays.asList("1234", "5678"));
+        work.setOriginatingUsername("bob");
+        work.setWorkInstanceState(State.SCHEDULED);
+        work.schedulingTime = 123L;
+
+        byte[] data = WorkEncoding.encode(work, true);
+        assertTrue(WorkEncoding.isFieldEncoded(data));
+
+        CompactWork decoded = (CompactWork) WorkEncoding.decode(data);
+        assertEquals(work.getId(), decoded.getId());
+        assertEquals("default", decoded.getRepositoryName());
+        assertEquals(Arrays.asList("1234", "5678"), decoded.docIds);
+        assertEquals("bob", decoded.getOriginatingUsername());
+        assertEquals(State.SCHEDULED, decoded.getWorkInstanceState());
+        assertEquals(123L, decoded.getSchedulingTime());
+        assertEquals("file:content", decoded.xpath);
+
+        // the class name is written once, not the class descriptors of the whole hierarchy
+        byte[] serialized = WorkEncoding.serialize(work);
+        assertTrue(data.length + " >= " + serialized.length, data.length < serialized.length);
+    }
+
+    @Test
+    public void testFieldEncodingDisabledByDefault() {
+        CompactWork work = new CompactWork("default", "1234", "file:content");
+        byte[] data = WorkEncoding.encode(work);
+        assertFalse(WorkEncoding.isFieldEncoded(data));
+        assertEquals("file:content", ((CompactWork) WorkEncoding.decode(data)).xpath);
+    }
+
+    @Test
+    public void testSubclassWithoutDecodingConstructor() {
+        CompactWork work = new CompactWork("default", "1234", "file:content") {
+            private static final long serialVersionUID = 1L;
+        };
+        byte[] data = WorkEncoding.encode(work, true);
+        // it would be decoded as a CompactWork, or not at all
+        assertFalse(WorkEncoding.isFieldEncoded(data));
+        Work decoded = WorkEncoding.decode(data);
+        assertEquals(work.getClass(), decoded.getClass());
+        assertEquals("file:content", ((CompactWork) decoded).xpath);
+    }
+
+    @Test
+    public void testJavaSerializationFallback() {
+        Work work = new SleepWork(1, "cat", "sleep-id");
+        byte[] data = WorkEncoding.encode(work, true);
+        assertFalse(WorkEncoding.isFieldEncoded(data));
+        Work decoded = WorkEncoding.decode(data);
+        assertTrue(decoded instanceof SleepWork);
+        assertEquals("sleep-id", decoded.getId());
+        assertEquals("cat", decoded.getCategory());
+    }
+
+}
@@ -28,6 +28,12 @@ import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -73,6 +79,7 @@ import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
 import org.nuxeo.ecm.core.api.blobholder.BlobHolderAdapterService;
 import org.nuxeo.ecm.core.api.event.CoreEventConstants;
 import org.nuxeo.ecm.core.api.impl.blob.AsyncBlob;
+import org.nuxeo.ecm.core.api.impl.blob.FileBlob;
 import org.nuxeo.ecm.core.api.model.PropertyNotFoundException;
 import org.nuxeo.ecm.core.blob.BlobManager;
 import org.nuxeo.ecm.core.blob.BlobManager.UsageHint;
@@ -90,11 +97,17 @@ import org.nuxeo.ecm.core.io.NginxConstants;
 import org.nuxeo.ecm.core.transientstore.api.TransientStore;
 import org.nuxeo.ecm.core.transientstore.api.TransientStoreService;
 import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.model.ComponentContext;
 import org.nuxeo.runtime.model.DefaultComponent;
 import org.nuxeo.runtime.services.config.ConfigurationService;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
+import io.dropwizard.metrics5.Counter;
+import io.dropwizard.metrics5.MetricName;
+import io.dropwizard.metrics5.MetricRegistry;
+import io.dropwizard.metrics5.SharedMetricRegistries;
+
 /**
  * This service allows the download of blobs to a HTTP response.
  *
@@ -127,6 +140,42 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
 
     private static final String MD5 = "MD5";
 
+    /**
+     * Counter of downloaded bytes, tagged by transfer mode: {@code channel} for a file channel transfer, {@code stream}
+     * for a copy of the blob stream. The files sent by the servlet container itself are sent after the request is
+     * processed and are counted by {@link #METRIC_DOWNLOAD_SENDFILE} instead.
+     *
+     * @since 11.5
+     */
+    public static final String METRIC_DOWNLOAD_BYTES = "nuxeo.download.bytes";
+
+    /**
+     * Counter of the transfers delegated to the servlet container sendfile.
+     *
+     * @since 11.5
+     */
+    public static final String METRIC_DOWNLOAD_SENDFILE = "nuxeo.download.sendfile";
+
+    /**
+     * Configuration property to let the servlet container send the files of local blob stores itself, when it
+     * supports it. Disabled by default.
+     *
+     * @since 11.5
+     */
+    public static final String DOWNLOAD_SENDFILE_ENABLED = "org.nuxeo.download.sendfile.enabled";
+
+    /** @since 11.5 */
+    protected static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    /** @since 11.5 */
+    protected static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    /** @since 11.5 */
+    protected static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+    /** @since 11.5 */
+    protected static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     protected enum Action {
         DOWNLOAD, DOWNLOAD_FROM_DOC, INFO, BLOBSTATUS
     }
@@ -135,6 +184,20 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
 
     protected RedirectResolver redirectResolver;
 
+    // @since 11.5
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    // @since 11.5
+    protected final Counter sendfileCount = registry.counter(MetricName.build(METRIC_DOWNLOAD_SENDFILE));
+
+    // @since 11.5
+    protected final Counter channelBytes = registry.counter(
+            MetricName.build(METRIC_DOWNLOAD_BYTES).tagged("mode", "channel"));
+
+    // @since 11.5
+    protected final Counter streamBytes = registry.counter(
+            MetricName.build(METRIC_DOWNLOAD_BYTES).tagged("mode", "stream"));
+
     @Override
     public void start(ComponentContext context) {
         super.start(context);
@@ -569,7 +632,7 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
         Consumer<ByteRange> blobTransferer = context.getBlobTransferer();
         if (blobTransferer == null) {
             Blob fblob = blob;
-            blobTransferer = byteRange -> transferBlobWithByteRange(fblob, byteRange, response);
+            blobTransferer = byteRange -> transferBlobWithByteRange(fblob, byteRange, request, response);
         }
         Calendar lastModified = context.getLastModified();
         if (lastModified == null && doc != null) {
@@ -786,6 +849,35 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
         }
     }
 
+    /**
+     * Transfers the blob to the response, letting the servlet container send the file itself when this is enabled, the
+     * container supports it, and the blob is a file of a local blob store.
+     * <p>
+     * The container opens the file after the request is processed, so this is never done for temporary files, or for
+     * files of a cache that may be evicted in the meantime.
+     *
+     * @see #DOWNLOAD_SENDFILE_ENABLED
+     * @since 11.5
+     */
+    protected void transferBlobWithByteRange(Blob blob, ByteRange byteRange, HttpServletRequest request,
+            HttpServletResponse response) {
+        // the container needs the exact length that was sent as Content-Length
+        if (blob.getLength() >= 0 && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))
+                && Framework.getService(ConfigurationService.class).isBooleanTrue(DOWNLOAD_SENDFILE_ENABLED)) {
+            Path path = getBlobStorePath(blob);
+            if (path != null) {
+                long start = byteRange == null ? 0 : byteRange.getStart();
+                long end = byteRange == null ? blob.getLength() : byteRange.getEnd() + 1; // exclusive
+                request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START_ATTR, Long.valueOf(start));
+                request.setAttribute(SENDFILE_END_ATTR, Long.valueOf(end));
+                sendfileCount.inc();
+                return;
+            }
+        }
+        transferBlobWithByteRange(blob, byteRange, response);
+    }
+
     protected void transferBlobWithByteRange(Blob blob, ByteRange byteRange, HttpServletResponse response) {
         transferBlobWithByteRange(blob, byteRange, () -> {
             try {
@@ -803,25 +895,120 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
 
     @Override
     public void transferBlobWithByteRange(Blob blob, ByteRange byteRange, Supplier<OutputStream> outputStreamSupplier) {
+        Path path = getLocalPath(blob);
+        if (path != null) {
+            transferFileWithByteRange(path, byteRange, outputStreamSupplier);
+            return;
+        }
         try (InputStream in = blob.getStream()) {
             @SuppressWarnings("resource")
             OutputStream out = outputStreamSupplier.get(); // not ours to close
             BufferingServletOutputStream.stopBuffering(out);
+            long count;
             if (byteRange == null) {
-                IOUtils.copy(in, out);
+                count = IOUtils.copyLarge(in, out);
             } else {
                 @SuppressWarnings("resource") // closing the original stream is enough
                 InputStream substream = byteRange.forStream(in);
-                // don't use IOUtils.copyLarge because it uses a skip method that reads
+                // don't use IOUtils.copyLarge with an offset because it uses a skip method that reads
                 // all intervening bytes, which is inefficient for skippable streams
-                IOUtils.copy(substream, out);
+                count = IOUtils.copyLarge(substream, out);
             }
             out.flush();
+            streamBytes.inc(count);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Transfers a local file using its channel, the range is read by position and the data is not copied through the
+     * heap when the output allows it.
+     *
+     * @since 11.5
+     */
+    protected void transferFileWithByteRange(Path path, ByteRange byteRange,
+            Supplier<OutputStream> outputStreamSupplier) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            @SuppressWarnings("resource")
+            OutputStream out = outputStreamSupplier.get(); // not ours to close
+            BufferingServletOutputStream.stopBuffering(out);
+            long position = byteRange == null ? 0 : byteRange.getStart();
+            long remaining = byteRange == null ? channel.size() : byteRange.getLength();
+            @SuppressWarnings("resource") // closing it would close the output stream
+            WritableByteChannel target = Channels.newChannel(out);
+            long count = 0;
+            while (remaining > 0) {
+                long n = channel.transferTo(position, remaining, target);
+                if (n <= 0) {
+                    break; // end of file
+                }
+                position += n;
+                remaining -= n;
+                count += n;
+            }
+            out.flush();
+            channelBytes.inc(count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the local file holding the blob content, or {@code null} if the blob is not a complete local file.
+     * <p>
+     * Only file blobs and blobs of local blob stores are considered, as getting the file of other blobs may be costly.
+     *
+     * @since 11.5
+     */
+    protected Path getLocalPath(Blob blob) {
+        if (blob instanceof FileBlob) {
+            return getCompleteFile(blob);
+        }
+        return getBlobStorePath(blob);
+    }
+
+    /**
+     * Gets the file holding the blob content if the blob is stored in a local blob store, whose files outlive the
+     * request, or {@code null} otherwise.
+     *
+     * @since 11.5
+     */
+    protected Path getBlobStorePath(Blob blob) {
+        if (!(blob instanceof ManagedBlob)) {
+            return null;
+        }
+        BlobProvider blobProvider = Framework.getService(BlobManager.class).getBlobProvider(blob);
+        if (blobProvider instanceof LocalBlobProvider
+                || blobProvider != null && blobProvider.getBinaryManager() instanceof DefaultBinaryManager) {
+            return getCompleteFile(blob);
+        }
+        return null;
+    }
+
+    /** @since 11.5 */
+    protected Path getCompleteFile(Blob blob) {
+        File file;
+        try {
+            file = blob.getFile();
+        } catch (NuxeoException e) {
+            log.debug("Cannot get file for blob: {}", blob, e);
+            return null;
+        }
+        if (file == null) {
+            return null;
+        }
+        Path path = file.toPath();
+        try {
+            if (!Files.isRegularFile(path) || (blob.getLength() >= 0 && Files.size(path) != blob.getLength())) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return path;
+    }
+
     protected String fixXPath(String xpath) {
         // Hack for Flash Url wich doesn't support ':' char
         return xpath == null ? null : xpath.replace(';', ':');
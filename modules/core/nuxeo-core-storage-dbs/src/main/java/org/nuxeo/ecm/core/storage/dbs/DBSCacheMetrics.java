@@ -0,0 +1,128 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.dbs;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.nuxeo.runtime.metrics.NuxeoMetricSet;
+
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+
+import io.dropwizard.metrics5.MetricName;
+import io.dropwizard.metrics5.MetricRegistry;
+import io.dropwizard.metrics5.Timer;
+
+/**
+ * Metrics for one kind of DBS cache, aggregated over all the caches of this kind (the repository-wide cache, or the
+ * cache of each connection when the repository is transactional).
+ * <p>
+ * Records the evictions by cause, the latency of the loads done on cache misses, and the total weight when the cache
+ * is bounded by a byte budget. When there is no repository-wide cache, also records the hits and misses, otherwise
+ * available from {@link GuavaCacheMetric}.
+ *
+ * @since 11.5
+ */
+public class DBSCacheMetrics<T> implements RemovalListener<String, T> {
+
+    protected final Weigher<String, T> weigher;
+
+    protected final LongAdder hitCount = new LongAdder();
+
+    protected final LongAdder missCount = new LongAdder();
+
+    protected final LongAdder sizeEvictionCount = new LongAdder();
+
+    protected final LongAdder expiredEvictionCount = new LongAdder();
+
+    protected final AtomicLong weight = new AtomicLong();
+
+    protected final Timer loadTimer;
+
+    /**
+     * @param weigher the weigher of the cache, or {@code null} if the cache is not bounded by a byte budget
+     * @param hitMetrics whether to register hit and miss metrics
+     */
+    public DBSCacheMetrics(MetricRegistry registry, MetricName name, Weigher<String, T> weigher, boolean hitMetrics) {
+        this.weigher = weigher;
+        NuxeoMetricSet metrics = new NuxeoMetricSet(name);
+        metrics.putGauge(sizeEvictionCount::sum, "eviction", "size", "count");
+        metrics.putGauge(expiredEvictionCount::sum, "eviction", "expired", "count");
+        if (weigher != null) {
+            metrics.putGauge(weight::get, "weight");
+        }
+        if (hitMetrics) {
+            metrics.putGauge(hitCount::sum, "hit", "count");
+            metrics.putGauge(missCount::sum, "miss", "count");
+            metrics.putGauge(this::getHitRatio, "hit", "ratio");
+        }
+        registry.registerAll(metrics);
+        loadTimer = registry.timer(name.append(MetricName.build("load")));
+    }
+
+    public void recordHits(int count) {
+        hitCount.add(count);
+    }
+
+    public void recordMisses(int count) {
+        missCount.add(count);
+    }
+
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long requests = hits + missCount.sum();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * Starts timing a load done because of a cache miss.
+     */
+    public Timer.Context timeLoad() {
+        return loadTimer.time();
+    }
+
+    /**
+     * Records an entry put in a cache.
+     */
+    public void added(String key, T value) {
+        if (weigher != null) {
+            weight.addAndGet(weigher.weigh(key, value));
+        }
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<String, T> notification) {
+        switch (notification.getCause()) {
+        case SIZE:
+            sizeEvictionCount.increment();
+            break;
+        case EXPIRED:
+            expiredEvictionCount.increment();
+            break;
+        default:
+            break;
+        }
+        if (weigher != null && notification.getKey() != null && notification.getValue() != null) {
+            weight.addAndGet(-weigher.weigh(notification.getKey(), notification.getValue()));
+        }
+    }
+
+}
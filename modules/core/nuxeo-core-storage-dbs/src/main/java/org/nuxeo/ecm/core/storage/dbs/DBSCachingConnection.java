@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.nuxeo.ecm.core.api.Lock;
@@ -41,6 +42,8 @@ import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.ChangeTokenUpdater;
 import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableMap;
 
+import io.dropwizard.metrics5.Timer;
+
 /**
  * The DBS Cache layer used to cache some method call of real repository
  *
@@ -54,6 +57,17 @@ public class DBSCachingConnection implements DBSConnection {
 
     private final Cache<String, String> childCache;
 
+    /**
+     * The shapes used to compact the cached states.
+     * <p>
+     * {@code null} if the cached states are not compacted.
+     */
+    private final DBSStateShapes stateShapes;
+
+    private final DBSCacheMetrics<State> cacheMetrics;
+
+    private final DBSCacheMetrics<String> childCacheMetrics;
+
     /**
      * The local invalidations, due to writes to this connection, that should be propagated to other connections (and
      * other cluster nodes) at post-commit time.
@@ -95,6 +109,9 @@ public class DBSCachingConnection implements DBSConnection {
             cache = repository.getCache();
             childCache = repository.getChildCache();
         }
+        stateShapes = repository.getStateShapes();
+        cacheMetrics = repository.getCacheMetrics();
+        childCacheMetrics = repository.getChildCacheMetrics();
         // local invalidations
         invalidationsPropagator = repository.getInvalidationsPropagator();
         if (invalidationsPropagator == null) {
@@ -153,10 +170,15 @@ public class DBSCachingConnection implements DBSConnection {
     public State readState(String id) {
         State state = cache.getIfPresent(id);
         if (state == null) {
-            state = connection.readState(id);
+            cacheMetrics.recordMisses(1);
+            try (Timer.Context context = cacheMetrics.timeLoad()) {
+                state = connection.readState(id);
+            }
             if (state != null) {
                 putInCache(state);
             }
+        } else {
+            cacheMetrics.recordHits(1);
         }
         return state;
     }
@@ -172,8 +194,17 @@ public class DBSCachingConnection implements DBSConnection {
         ImmutableMap<String, State> statesMap = cache.getAllPresent(ids);
         List<String> idsToRetrieve = new ArrayList<>(ids);
         idsToRetrieve.removeAll(statesMap.keySet());
+        cacheMetrics.recordHits(statesMap.size());
+        cacheMetrics.recordMisses(idsToRetrieve.size());
         // Read missing states from repository
-        List<State> states = connection.readStates(idsToRetrieve);
+        List<State> states;
+        if (idsToRetrieve.isEmpty()) {
+            states = new ArrayList<>(statesMap.size());
+        } else {
+            try (Timer.Context context = cacheMetrics.timeLoad()) {
+                states = connection.readStates(idsToRetrieve);
+            }
+        }
         // Cache them
         states.forEach(this::putInCache);
         // Add previous cached one
@@ -199,6 +230,16 @@ public class DBSCachingConnection implements DBSConnection {
         invalidate(id);
     }
 
+    @Override
+    public void updateStates(List<StateUpdate> updates) {
+        try {
+            connection.updateStates(updates);
+        } finally {
+            // some updates may have been applied even on failure
+            invalidate(updates.stream().map(update -> update.id).collect(Collectors.toList()));
+        }
+    }
+
     @Override
     public void deleteStates(Set<String> ids) {
         connection.deleteStates(ids);
@@ -217,6 +258,7 @@ public class DBSCachingConnection implements DBSConnection {
                 // As we don't have invalidation for childCache we need to check if retrieved state is the right one
                 // and not a previous document which was moved or renamed
                 if (parentId.equals(state.get(KEY_PARENT_ID)) && name.equals(state.get(KEY_NAME))) {
+                    childCacheMetrics.recordHits(1);
                     return state;
                 } else {
                     // We can invalidate the entry in cache as the document seemed to be moved or renamed
@@ -224,7 +266,12 @@ public class DBSCachingConnection implements DBSConnection {
                 }
             }
         }
-        State state = connection.readChildState(parentId, name, ignored);
+        // no usable state in cache, the child id alone doesn't spare the load
+        childCacheMetrics.recordMisses(1);
+        State state;
+        try (Timer.Context context = childCacheMetrics.timeLoad()) {
+            state = connection.readChildState(parentId, name, ignored);
+        }
         putInCache(state);
         return state;
     }
@@ -232,10 +279,14 @@ public class DBSCachingConnection implements DBSConnection {
     private void putInCache(State state) {
         if (state != null) {
             String stateId = state.get(KEY_ID).toString();
-            cache.put(stateId, state);
+            State cached = stateShapes == null ? state : stateShapes.compact(state);
+            cache.put(stateId, cached);
+            cacheMetrics.added(stateId, cached);
             Object stateParentId = state.get(KEY_PARENT_ID);
             if (stateParentId != null) {
-                childCache.put(computeChildCacheKey(stateParentId.toString(), state.get(KEY_NAME).toString()), stateId);
+                String childCacheKey = computeChildCacheKey(stateParentId.toString(), state.get(KEY_NAME).toString());
+                childCache.put(childCacheKey, stateId);
+                childCacheMetrics.added(childCacheKey, stateId);
             }
         }
     }
@@ -255,6 +306,13 @@ public class DBSCachingConnection implements DBSConnection {
         }
     }
 
+    private void invalidateAll() {
+        cache.invalidateAll();
+        if (invalidations != null) {
+            invalidations.setAll();
+        }
+    }
+
     protected void sendInvalidationsToOthers() {
         if (invalidations != null && !invalidations.isEmpty()) {
             if (clusterInvalidator != null) {
@@ -336,6 +394,21 @@ public class DBSCachingConnection implements DBSConnection {
         return connection.getDescendants(id, keys, limit);
     }
 
+    @Override
+    public Stream<State> getDescendantsWithAcp(String id, Set<String> keys) {
+        return connection.getDescendantsWithAcp(id, keys);
+    }
+
+    @Override
+    public long updateInheritedReadAcls(String id, Set<String> excludedIds, String[] readAcl) {
+        try {
+            return connection.updateInheritedReadAcls(id, excludedIds, readAcl);
+        } finally {
+            // the updated documents are not known, invalidate all
+            invalidateAll();
+        }
+    }
+
     @Override
     public boolean queryKeyValuePresence(String key, String value, Set<String> ignored) {
         return connection.queryKeyValuePresence(key, value, ignored);
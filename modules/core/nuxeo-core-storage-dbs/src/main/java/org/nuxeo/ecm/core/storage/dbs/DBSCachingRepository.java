@@ -24,12 +24,14 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.nuxeo.common.utils.SizeUtils;
 import org.nuxeo.ecm.core.api.Lock;
 import org.nuxeo.ecm.core.api.NuxeoException;
 import org.nuxeo.ecm.core.api.lock.LockManager;
 import org.nuxeo.ecm.core.api.repository.FulltextConfiguration;
 import org.nuxeo.ecm.core.blob.BlobManager;
 import org.nuxeo.ecm.core.model.Session;
+import org.nuxeo.ecm.core.storage.QueryPlanCache;
 import org.nuxeo.ecm.core.storage.State;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.cluster.ClusterService;
@@ -57,6 +59,15 @@ public class DBSCachingRepository implements DBSRepository {
 
     private final DBSRepository repository;
 
+    // @since 11.5
+    protected final long cacheMaxMemory;
+
+    // @since 11.5
+    protected final DBSCacheMetrics<State> cacheMetrics;
+
+    // @since 11.5
+    protected final DBSCacheMetrics<String> childCacheMetrics;
+
     protected final Cache<String, State> cache;
 
     protected final Cache<String, String> childCache;
@@ -67,11 +78,24 @@ public class DBSCachingRepository implements DBSRepository {
 
     protected final DBSClusterInvalidator clusterInvalidator;
 
+    // null if the cached states are not compacted
+    protected final DBSStateShapes stateShapes;
+
     protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
 
     public DBSCachingRepository(DBSRepository repository, DBSRepositoryDescriptor descriptor) {
         this.repository = repository;
         this.descriptor = descriptor;
+        cacheMaxMemory = descriptor.cacheMaxMemory == null ? 0
+                : SizeUtils.parseSizeInBytes(descriptor.cacheMaxMemory.trim());
+        // without a repository-wide cache, hits and misses are aggregated from the connection caches
+        boolean hitMetrics = supportsTransactions();
+        cacheMetrics = new DBSCacheMetrics<>(registry,
+                MetricName.build(METRIC_CACHE_NAME).tagged("repository", repository.getName()),
+                cacheMaxMemory > 0 ? new DBSStateWeigher() : null, hitMetrics);
+        childCacheMetrics = new DBSCacheMetrics<>(registry,
+                MetricName.build(METRIC_CHILD_CACHE_NAME).tagged("repository", repository.getName()), null,
+                hitMetrics);
         // Init caches
         if (supportsTransactions()) {
             // each connection will have its own cache
@@ -85,6 +109,7 @@ public class DBSCachingRepository implements DBSRepository {
         if (log.isInfoEnabled()) {
             log.info(String.format("DBS cache activated on '%s' repository", getName()));
         }
+        stateShapes = descriptor.isCacheCompact() ? new DBSStateShapes() : null;
         invalidationsPropagator = initInvalidationsPropagator();
         clusterInvalidator = initClusterInvalidator(descriptor);
     }
@@ -97,6 +122,25 @@ public class DBSCachingRepository implements DBSRepository {
         return childCache;
     }
 
+    /**
+     * Gets the shapes used to compact the cached states, or {@code null} if they are not compacted.
+     *
+     * @since 11.5
+     */
+    protected DBSStateShapes getStateShapes() {
+        return stateShapes;
+    }
+
+    /** @since 11.5 */
+    protected DBSCacheMetrics<State> getCacheMetrics() {
+        return cacheMetrics;
+    }
+
+    /** @since 11.5 */
+    protected DBSCacheMetrics<String> getChildCacheMetrics() {
+        return childCacheMetrics;
+    }
+
     protected DBSInvalidationsPropagator getInvalidationsPropagator() {
         return invalidationsPropagator;
     }
@@ -106,7 +150,7 @@ public class DBSCachingRepository implements DBSRepository {
     }
 
     protected Cache<String, State> newCache(boolean metrics) {
-        Cache<String, State> c = newCache(descriptor);
+        Cache<String, State> c = newCache(descriptor, cacheMetrics);
         if (metrics) {
             registry.registerAll(GuavaCacheMetric.of(c,
                     MetricName.build(METRIC_CACHE_NAME).tagged("repository", repository.getName())));
@@ -115,7 +159,7 @@ public class DBSCachingRepository implements DBSRepository {
     }
 
     protected Cache<String, String> newChildCache(boolean metrics) {
-        Cache<String, String> c = newCache(descriptor);
+        Cache<String, String> c = newCache(descriptor, childCacheMetrics);
         if (metrics) {
             registry.registerAll(GuavaCacheMetric.of(c,
                     MetricName.build(METRIC_CHILD_CACHE_NAME).tagged("repository", repository.getName())));
@@ -128,13 +172,16 @@ public class DBSCachingRepository implements DBSRepository {
                 || name.getKey().startsWith(METRIC_CHILD_CACHE_NAME));
     }
 
-    protected <T> Cache<String, T> newCache(DBSRepositoryDescriptor descriptor) {
-        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+    protected <T> Cache<String, T> newCache(DBSRepositoryDescriptor descriptor, DBSCacheMetrics<T> metrics) {
+        CacheBuilder<String, T> builder = CacheBuilder.newBuilder().removalListener(metrics);
         builder = builder.expireAfterWrite(descriptor.cacheTTL.longValue(), TimeUnit.MINUTES).recordStats();
         if (descriptor.cacheConcurrencyLevel != null) {
             builder = builder.concurrencyLevel(descriptor.cacheConcurrencyLevel.intValue());
         }
-        if (descriptor.cacheMaxSize != null) {
+        if (metrics.weigher != null) {
+            // bounded by the estimated size of the entries rather than their number
+            builder = builder.maximumWeight(cacheMaxMemory).weigher(metrics.weigher);
+        } else if (descriptor.cacheMaxSize != null) {
             builder = builder.maximumSize(descriptor.cacheMaxSize.longValue());
         }
         return builder.build();
@@ -228,6 +275,11 @@ public class DBSCachingRepository implements DBSRepository {
         return repository.isFulltextSearchDisabled();
     }
 
+    @Override
+    public QueryPlanCache getQueryPlanCache() {
+        return repository.getQueryPlanCache();
+    }
+
     @Override
     public boolean isChangeTokenEnabled() {
         return repository.isChangeTokenEnabled();
@@ -18,13 +18,22 @@
  */
 package org.nuxeo.ecm.core.storage.dbs;
 
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ACP;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ANCESTOR_IDS;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_READ_ACL;
+
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.nuxeo.ecm.core.api.ConcurrentUpdateException;
 import org.nuxeo.ecm.core.api.PartialList;
 import org.nuxeo.ecm.core.api.ScrollResult;
 import org.nuxeo.ecm.core.api.lock.LockManager;
@@ -116,6 +125,45 @@ public interface DBSConnection extends AutoCloseable, LockManager {
      */
     void updateState(String id, StateDiff diff, ChangeTokenUpdater changeTokenUpdater);
 
+    /**
+     * An update of a document, for {@link DBSConnection#updateStates}.
+     *
+     * @since 11.5
+     */
+    class StateUpdate {
+
+        public final String id;
+
+        public final StateDiff diff;
+
+        public final ChangeTokenUpdater changeTokenUpdater;
+
+        /**
+         * @param id the document id
+         * @param diff the diff to apply
+         * @param changeTokenUpdater how to get and update the change token (may be {@code null})
+         */
+        public StateUpdate(String id, StateDiff diff, ChangeTokenUpdater changeTokenUpdater) {
+            this.id = id;
+            this.diff = diff;
+            this.changeTokenUpdater = changeTokenUpdater;
+        }
+    }
+
+    /**
+     * Updates several documents, in as few round trips to the database as possible.
+     * <p>
+     * If some documents could not be updated because of a change token mismatch or because they were concurrently
+     * deleted, the other updates may still have been applied, and a {@link ConcurrentUpdateException} referencing the
+     * failed documents is thrown.
+     *
+     * @param updates the updates
+     * @since 11.5
+     */
+    default void updateStates(List<StateUpdate> updates) {
+        updates.forEach(update -> updateState(update.id, update.diff, update.changeTokenUpdater));
+    }
+
     /**
      * Deletes a set of document.
      *
@@ -210,6 +258,61 @@ public interface DBSConnection extends AutoCloseable, LockManager {
         return getDescendants(id, keys);
     }
 
+    /**
+     * Returns a stream of the descendants from a given root document that have an ACP, in no particular order. This
+     * does not include information about the root document itself.
+     * <p>
+     * THE STREAM MUST BE CLOSED WHEN DONE to release resources.
+     *
+     * @param id the root document id
+     * @param keys what to collect about the descendants in addition to their ids
+     * @return a stream of {@link State}s; THE STREAM MUST BE CLOSED WHEN DONE
+     * @since 11.5
+     */
+    default Stream<State> getDescendantsWithAcp(String id, Set<String> keys) {
+        // filtering done in memory by default, override for a more efficient implementation
+        Set<String> allKeys = new HashSet<>(keys);
+        allKeys.add(KEY_ACP);
+        return getDescendants(id, allKeys).filter(state -> state.get(KEY_ACP) != null);
+    }
+
+    /**
+     * Sets the Read ACL on the descendants of a document that inherit their ACL from it, that is the descendants having
+     * no ACP and not under one of the excluded documents.
+     * <p>
+     * The update bypasses the change token, like all Read ACL updates. Descendants already having the given Read ACL
+     * may be left untouched.
+     *
+     * @param id the root document id
+     * @param excludedIds the descendants whose subtrees must not be updated (the descendants having an ACP)
+     * @param readAcl the Read ACL to set
+     * @return the number of documents updated
+     * @since 11.5
+     */
+    default long updateInheritedReadAcls(String id, Set<String> excludedIds, String[] readAcl) {
+        // one update per document by default, override for a set-based implementation
+        Set<String> keys = new HashSet<>(Arrays.asList(KEY_ANCESTOR_IDS, KEY_ACP, KEY_READ_ACL));
+        Set<Object> newReadAcl = new HashSet<>(Arrays.asList(readAcl));
+        List<String> ids;
+        try (Stream<State> states = getDescendants(id, keys)) {
+            ids = states.filter(state -> state.get(KEY_ACP) == null)
+                        .filter(state -> Arrays.stream((Object[]) state.get(KEY_ANCESTOR_IDS))
+                                               .noneMatch(excludedIds::contains))
+                        .filter(state -> {
+                            Object[] oldReadAcl = (Object[]) state.get(KEY_READ_ACL);
+                            return oldReadAcl == null || !newReadAcl.equals(new HashSet<>(Arrays.asList(oldReadAcl)));
+                        })
+                        .map(state -> (String) state.get(KEY_ID))
+                        .collect(Collectors.toList());
+        }
+        for (String did : ids) {
+            StateDiff diff = new StateDiff();
+            diff.put(KEY_READ_ACL, readAcl);
+            updateState(did, diff, null);
+        }
+        return ids.size();
+    }
+
     /**
      * Queries the repository to check if there are documents having key = value.
      *
@@ -23,6 +23,7 @@ import java.util.List;
 import org.nuxeo.ecm.core.api.lock.LockManager;
 import org.nuxeo.ecm.core.blob.BlobManager;
 import org.nuxeo.ecm.core.model.Repository;
+import org.nuxeo.ecm.core.storage.QueryPlanCache;
 
 /**
  * Interface for a {@link Repository} for Document-Based Storage.
@@ -97,6 +98,13 @@ public interface DBSRepository extends Repository, LockManager {
      */
     boolean supportsTransactions();
 
+    /**
+     * Gets the cache of the parsed queries of this repository.
+     *
+     * @since 11.5
+     */
+    QueryPlanCache getQueryPlanCache();
+
     /**
      * Gets the list of blob keys paths of all possible blobs in all schemas.
      * <p>
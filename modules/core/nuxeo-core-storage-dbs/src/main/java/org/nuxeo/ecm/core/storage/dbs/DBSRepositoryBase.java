@@ -51,6 +51,7 @@ import org.nuxeo.ecm.core.schema.types.Schema;
 import org.nuxeo.ecm.core.schema.types.Type;
 import org.nuxeo.ecm.core.storage.FulltextConfigurationFactory;
 import org.nuxeo.ecm.core.storage.FulltextDescriptor;
+import org.nuxeo.ecm.core.storage.QueryPlanCache;
 import org.nuxeo.ecm.core.storage.lock.LockManagerService;
 import org.nuxeo.runtime.api.Framework;
 
@@ -108,6 +109,9 @@ public abstract class DBSRepositoryBase implements DBSRepository {
     /** @since 11.5 */
     protected final Map<String, Object> capabilities = new HashMap<>();
 
+    /** @since 11.5 */
+    protected final QueryPlanCache queryPlanCache;
+
     /**
      * @since 7.4 : used to know if the LockManager was provided by this repository or externally
      */
@@ -138,6 +142,7 @@ public abstract class DBSRepositoryBase implements DBSRepository {
         }
         changeTokenEnabled = descriptor.isChangeTokenEnabled();
         blobManager = Framework.getService(BlobManager.class);
+        queryPlanCache = new QueryPlanCache(repositoryName);
         initBlobsPaths();
         initLockManager();
     }
@@ -152,6 +157,7 @@ public abstract class DBSRepositoryBase implements DBSRepository {
 
     @Override
     public void shutdown() {
+        queryPlanCache.close();
         if (selfRegisteredLockManager) {
             LockManagerService lms = Framework.getService(LockManagerService.class);
             if (lms != null) {
@@ -165,6 +171,11 @@ public abstract class DBSRepositoryBase implements DBSRepository {
         return repositoryName;
     }
 
+    @Override
+    public QueryPlanCache getQueryPlanCache() {
+        return queryPlanCache;
+    }
+
     @Override
     public FulltextConfiguration getFulltextConfiguration() {
         return fulltextConfiguration;
@@ -130,6 +130,28 @@ public class DBSRepositoryDescriptor {
     @XNode("cache@concurrencyLevel")
     public Integer cacheConcurrencyLevel;
 
+    /**
+     * Memory budget of the document cache (for instance {@code 200MB}), bounding it by the estimated size of the
+     * cached documents instead of their number.
+     *
+     * @since 11.5
+     */
+    @XNode("cache@maxMemory")
+    public String cacheMaxMemory;
+
+    /** @since 11.5 */
+    @XNode("cache@compact")
+    private Boolean cacheCompact;
+
+    /**
+     * Whether the cached states use a compact memory layout, enabled by default.
+     *
+     * @since 11.5
+     */
+    public boolean isCacheCompact() {
+        return defaultTrue(cacheCompact);
+    }
+
     /** @since 8.10 */
     @XNode("clustering/invalidatorClass")
     public Class<? extends DBSClusterInvalidator> clusterInvalidatorClass;
@@ -184,6 +206,12 @@ public class DBSRepositoryDescriptor {
         if (other.cacheConcurrencyLevel != null) {
             cacheConcurrencyLevel = other.cacheConcurrencyLevel;
         }
+        if (other.cacheMaxMemory != null) {
+            cacheMaxMemory = other.cacheMaxMemory;
+        }
+        if (other.cacheCompact != null) {
+            cacheCompact = other.cacheCompact;
+        }
         if (other.clusterInvalidatorClass != null) {
             clusterInvalidatorClass = other.clusterInvalidatorClass;
         }
@@ -196,4 +224,8 @@ public class DBSRepositoryDescriptor {
         return Boolean.TRUE.equals(bool);
     }
 
+    private static boolean defaultTrue(Boolean bool) {
+        return !Boolean.FALSE.equals(bool);
+    }
+
 }
@@ -135,7 +135,6 @@ import org.nuxeo.ecm.core.model.Session;
 import org.nuxeo.ecm.core.query.QueryFilter;
 import org.nuxeo.ecm.core.query.QueryParseException;
 import org.nuxeo.ecm.core.query.sql.NXQL;
-import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
 import org.nuxeo.ecm.core.query.sql.model.Operand;
 import org.nuxeo.ecm.core.query.sql.model.OrderByClause;
 import org.nuxeo.ecm.core.query.sql.model.OrderByExpr;
@@ -741,9 +740,8 @@ public class DBSSession extends BaseSession {
         // do the copy
         Long pos = getNextPos(parentId);
         boolean excludeSpecialChildren = true;
-        boolean excludeRegularChildren = false;
-        String copyId = //
-                copyRecurse(sourceId, parentId, ancestorIds, name, excludeSpecialChildren, excludeRegularChildren);
+        String copyId = copy(sourceId, parentId, ancestorIds, name);
+        copyDescendants(sourceId, copyId, ancestorIds, excludeSpecialChildren);
         DBSDocumentState copyState = transaction.getStateForUpdate(copyId);
         // version copy fixup
         if (source.isVersion()) {
@@ -770,6 +768,23 @@ public class DBSSession extends BaseSession {
         return copyId;
     }
 
+    /**
+     * Copies the descendants of a document under its copy, without loading the whole tree in the session.
+     *
+     * @since 11.5
+     */
+    protected void copyDescendants(String sourceId, String copyId, List<String> ancestorIds,
+            boolean excludeSpecialChildren) {
+        Set<String> excludedTypes = excludeSpecialChildren
+                ? Framework.getService(SchemaManager.class).getSpecialDocumentTypes()
+                : Collections.emptySet();
+        Object[] copyAncestorIds = ancestorIds.toArray(Object[]::new);
+        List<String> recordIds = transaction.copyDescendants(sourceId, copyId, copyAncestorIds, excludedTypes, true);
+        for (String recordId : recordIds) {
+            notifyAfterCopy(getDocument(recordId));
+        }
+    }
+
     /**
      * Copy source under parent, and set its ancestors.
      */
@@ -780,18 +795,9 @@ public class DBSSession extends BaseSession {
         if (name != null) {
             copy.put(KEY_NAME, name);
         }
-        copy.put(KEY_BASE_VERSION_ID, null);
-        copy.put(KEY_IS_CHECKED_IN, null);
-        if (parentId != null) {
-            // reset version to 0
-            copy.put(KEY_MAJOR_VERSION, 0L);
-            copy.put(KEY_MINOR_VERSION, 0L);
-        }
-        if (TRUE.equals(copy.get(KEY_IS_RECORD))) {
-            // unset record on the copy
-            copy.put(KEY_IS_RECORD, null);
-            copy.put(KEY_RETAIN_UNTIL, null);
-            copy.put(KEY_HAS_LEGAL_HOLD, null);
+        // the copy is created, so its state can be changed directly
+        boolean resetVersion = parentId != null;
+        if (DBSTransactionState.resetCopiedState(copy.getState(), resetVersion)) {
             DBSDocument doc = getDocument(copy);
             notifyAfterCopy(doc);
         }
@@ -1312,6 +1318,16 @@ public class DBSSession extends BaseSession {
         transaction.updateReadACLs(docIds);
     }
 
+    /**
+     * Updates the Read ACLs on documents and on the descendants inheriting their ACL from them.
+     *
+     * @see DBSTransactionState#updateInheritedReadACLs
+     * @since 11.5
+     */
+    public void updateInheritedReadACLs(Collection<String> docIds) {
+        transaction.updateInheritedReadACLs(docIds);
+    }
+
     @Override
     public boolean isNegativeAclAllowed() {
         return false;
@@ -1549,7 +1565,7 @@ public class DBSSession extends BaseSession {
 
         // transform the query according to the transformers defined by the
         // security policies
-        SQLQuery sqlQuery = SQLQueryParser.parse(query);
+        SQLQuery sqlQuery = transaction.repository.getQueryPlanCache().parse(query);
         for (SQLQuery.Transformer transformer : queryFilter.getQueryTransformers()) {
             sqlQuery = transformer.transform(queryFilter.getPrincipal(), sqlQuery);
         }
@@ -1789,7 +1805,7 @@ public class DBSSession extends BaseSession {
 
     @Override
     public ScrollResult<String> scroll(String query, int batchSize, int keepAliveSeconds) {
-        SQLQuery sqlQuery = SQLQueryParser.parse(query);
+        SQLQuery sqlQuery = transaction.repository.getQueryPlanCache().parse(query);
         SelectClause selectClause = sqlQuery.select;
         selectClause.add(new Reference(NXQL.ECM_UUID));
         sqlQuery = new DBSQueryOptimizer().optimize(sqlQuery);
@@ -1799,7 +1815,7 @@ public class DBSSession extends BaseSession {
 
     @Override
     public ScrollResult<String> scroll(String query, QueryFilter queryFilter, int batchSize, int keepAliveSeconds) {
-        SQLQuery sqlQuery = SQLQueryParser.parse(query);
+        SQLQuery sqlQuery = transaction.repository.getQueryPlanCache().parse(query);
         SelectClause selectClause = sqlQuery.select;
         selectClause.add(new Reference(NXQL.ECM_UUID));
         sqlQuery = new DBSQueryOptimizer().optimize(sqlQuery);
@@ -0,0 +1,124 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.dbs;
+
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ACP;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ANCESTOR_IDS;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_BASE_VERSION_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_BLOB_KEYS;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_CHANGE_TOKEN;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_FULLTEXT_BINARY;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_FULLTEXT_JOBID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_FULLTEXT_SIMPLE;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_CHECKED_IN;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_LATEST_MAJOR_VERSION;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_LATEST_VERSION;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_PROXY;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_TRASHED;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_VERSION;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LIFECYCLE_POLICY;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LIFECYCLE_STATE;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LOCK_CREATED;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LOCK_OWNER;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_MAJOR_VERSION;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_MINOR_VERSION;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_MIXIN_TYPES;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_NAME;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PARENT_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_POS;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PRIMARY_TYPE;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_READ_ACL;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_SYS_CHANGE_TOKEN;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_VERSION_CREATED;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_VERSION_LABEL;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_VERSION_SERIES_ID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.nuxeo.ecm.core.schema.DocumentType;
+import org.nuxeo.ecm.core.schema.SchemaManager;
+import org.nuxeo.ecm.core.schema.types.Field;
+import org.nuxeo.ecm.core.schema.types.Schema;
+import org.nuxeo.ecm.core.storage.CompactState;
+import org.nuxeo.ecm.core.storage.State;
+import org.nuxeo.ecm.core.storage.StateShape;
+import org.nuxeo.runtime.api.Framework;
+
+/**
+ * Holds the {@link StateShape} of each document type, derived from its schemas, to store the cached document states
+ * as {@link CompactState}.
+ * <p>
+ * Shapes are computed lazily and live as long as the caching repository, which is recreated when the schemas change.
+ *
+ * @since 11.5
+ */
+public class DBSStateShapes {
+
+    /** System keys present in most documents, put first in each shape. */
+    protected static final List<String> SYSTEM_KEYS = Arrays.asList(KEY_ID, KEY_PARENT_ID, KEY_ANCESTOR_IDS,
+            KEY_PRIMARY_TYPE, KEY_MIXIN_TYPES, KEY_NAME, KEY_POS, KEY_ACP, KEY_READ_ACL, KEY_IS_CHECKED_IN,
+            KEY_IS_VERSION, KEY_IS_LATEST_VERSION, KEY_IS_LATEST_MAJOR_VERSION, KEY_MAJOR_VERSION, KEY_MINOR_VERSION,
+            KEY_VERSION_SERIES_ID, KEY_VERSION_CREATED, KEY_VERSION_LABEL, KEY_BASE_VERSION_ID, KEY_IS_PROXY,
+            KEY_LIFECYCLE_POLICY, KEY_LIFECYCLE_STATE, KEY_IS_TRASHED, KEY_LOCK_OWNER, KEY_LOCK_CREATED,
+            KEY_SYS_CHANGE_TOKEN, KEY_CHANGE_TOKEN, KEY_BLOB_KEYS, KEY_FULLTEXT_SIMPLE, KEY_FULLTEXT_BINARY,
+            KEY_FULLTEXT_JOBID);
+
+    protected final Map<String, StateShape> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a compact copy of a document state, sharing its sub-states and lists.
+     */
+    public State compact(State state) {
+        if (state instanceof CompactState) {
+            return state;
+        }
+        Object primaryType = state.get(KEY_PRIMARY_TYPE);
+        if (!(primaryType instanceof String)) {
+            return state;
+        }
+        return new CompactState(getShape((String) primaryType), state);
+    }
+
+    /**
+     * Gets the shape for the documents of a given type.
+     */
+    public StateShape getShape(String typeName) {
+        return shapes.computeIfAbsent(typeName, this::computeShape);
+    }
+
+    protected StateShape computeShape(String typeName) {
+        List<String> keys = new ArrayList<>(SYSTEM_KEYS);
+        SchemaManager schemaManager = Framework.getService(SchemaManager.class);
+        DocumentType docType = schemaManager == null ? null : schemaManager.getDocumentType(typeName);
+        if (docType != null) {
+            for (Schema schema : docType.getSchemas()) {
+                for (Field field : schema.getFields()) {
+                    keys.add(field.getName().getPrefixedName());
+                }
+            }
+        }
+        return new StateShape(keys);
+    }
+
+}
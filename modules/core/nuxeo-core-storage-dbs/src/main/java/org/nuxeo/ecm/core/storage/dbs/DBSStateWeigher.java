@@ -0,0 +1,94 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.dbs;
+
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.nuxeo.ecm.core.storage.State;
+
+import com.google.common.cache.Weigher;
+
+/**
+ * Weighs the cached document states by their estimated size in bytes.
+ * <p>
+ * The estimate doesn't try to be exact, it only needs to be roughly proportional to the memory actually used so that
+ * a cache bounded by a byte budget keeps many small documents rather than a few large ones.
+ *
+ * @since 11.5
+ */
+public class DBSStateWeigher implements Weigher<String, State> {
+
+    protected static final int OBJECT_SIZE = 16;
+
+    protected static final int REFERENCE_SIZE = 8;
+
+    // map node, including the key reference; keys are shared between states and not counted
+    protected static final int ENTRY_SIZE = 32;
+
+    protected static final int STRING_SIZE = 40;
+
+    protected static final int CALENDAR_SIZE = 64;
+
+    @Override
+    public int weigh(String key, State value) {
+        long size = estimateSize(key) + estimateSize(value);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Estimates the size in bytes of a value held in a {@link State}.
+     */
+    public static long estimateSize(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        } else if (value instanceof String) {
+            return STRING_SIZE + ((String) value).length();
+        } else if (value instanceof State) {
+            State state = (State) value;
+            long size = OBJECT_SIZE;
+            for (Entry<String, Serializable> en : state.entrySet()) {
+                size += ENTRY_SIZE + estimateSize(en.getValue());
+            }
+            return size;
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            long size = OBJECT_SIZE + (long) REFERENCE_SIZE * array.length;
+            for (Object v : array) {
+                size += estimateSize(v);
+            }
+            return size;
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            long size = OBJECT_SIZE * 2 + (long) REFERENCE_SIZE * list.size();
+            for (Object v : list) {
+                size += estimateSize(v);
+            }
+            return size;
+        } else if (value instanceof Calendar) {
+            return CALENDAR_SIZE;
+        } else {
+            // Long, Double and other scalars
+            return OBJECT_SIZE;
+        }
+    }
+
+}
@@ -24,6 +24,7 @@ import static org.nuxeo.ecm.core.api.security.SecurityConstants.BROWSE;
 import static org.nuxeo.ecm.core.api.security.SecurityConstants.EVERYONE;
 import static org.nuxeo.ecm.core.api.security.SecurityConstants.READ;
 import static org.nuxeo.ecm.core.api.security.SecurityConstants.READ_VERSION;
+import static org.nuxeo.ecm.core.api.security.SecurityConstants.SYSTEM_USERNAME;
 import static org.nuxeo.ecm.core.api.security.SecurityConstants.UNSUPPORTED_ACL;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.INITIAL_CHANGE_TOKEN;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.INITIAL_SYS_CHANGE_TOKEN;
@@ -34,12 +35,18 @@ import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ACE_USER;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ACL;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ACP;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ANCESTOR_IDS;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_BASE_VERSION_ID;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_BLOB_KEYS;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_CHANGE_TOKEN;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_FULLTEXT_JOBID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_HAS_LEGAL_HOLD;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_CHECKED_IN;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_PROXY;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_RECORD;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_VERSION;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_MAJOR_VERSION;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_MINOR_VERSION;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_NAME;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PARENT_ID;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_POS;
@@ -48,6 +55,7 @@ import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PROXY_IDS;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PROXY_TARGET_ID;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PROXY_VERSION_SERIES_ID;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_READ_ACL;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_RETAIN_UNTIL;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_SYS_CHANGE_TOKEN;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_VERSION_SERIES_ID;
 
@@ -81,6 +89,8 @@ import org.nuxeo.ecm.core.api.lock.LockManager;
 import org.nuxeo.ecm.core.api.model.DeltaLong;
 import org.nuxeo.ecm.core.api.repository.FulltextConfiguration;
 import org.nuxeo.ecm.core.api.repository.RepositoryManager;
+import org.nuxeo.ecm.core.bulk.BulkService;
+import org.nuxeo.ecm.core.bulk.message.BulkCommand;
 import org.nuxeo.ecm.core.model.BaseSession;
 import org.nuxeo.ecm.core.model.BaseSession.VersionAclMode;
 import org.nuxeo.ecm.core.query.QueryFilter;
@@ -96,6 +106,7 @@ import org.nuxeo.ecm.core.storage.State.ListDiff;
 import org.nuxeo.ecm.core.storage.State.StateDiff;
 import org.nuxeo.ecm.core.storage.StateHelper;
 import org.nuxeo.ecm.core.storage.dbs.DBSConnection.DBSQueryOperator;
+import org.nuxeo.ecm.core.storage.dbs.DBSConnection.StateUpdate;
 import org.nuxeo.ecm.core.work.api.Work;
 import org.nuxeo.ecm.core.work.api.WorkManager;
 import org.nuxeo.ecm.core.work.api.WorkManager.Scheduling;
@@ -134,6 +145,26 @@ public class DBSTransactionState implements LockManager, AutoCloseable {
 
     public static final String READ_ACL_ASYNC_THRESHOLD_DEFAULT = "500";
 
+    /**
+     * Whether the asynchronous Read ACL update of a tree is done through a bulk command using set-based updates.
+     *
+     * @since 11.5
+     */
+    public static final String READ_ACL_BULK_ENABLED_PROPERTY = "nuxeo.core.readacl.bulk.enabled";
+
+    /** @since 11.5 */
+    public static final String READ_ACL_BULK_ENABLED_DEFAULT = "false";
+
+    /**
+     * The number of descendants read and created together when copying a tree.
+     *
+     * @since 11.5
+     */
+    public static final String COPY_BATCH_SIZE_PROPERTY = "nuxeo.core.copy.batchSize";
+
+    /** @since 11.5 */
+    public static final String COPY_BATCH_SIZE_DEFAULT = "500";
+
     protected final DBSRepository repository;
 
     protected final DBSConnection connection;
@@ -487,6 +518,120 @@ public class DBSTransactionState implements LockManager, AutoCloseable {
         return copyState;
     }
 
+    /**
+     * Copies the descendants of a document under its copy.
+     * <p>
+     * The descendants are read and created directly in the database by batches, so that the copy of a large tree
+     * doesn't keep all its states in memory. Only the mapping between the original and copied ids is kept.
+     * <p>
+     * The transient state must have been saved before calling this method.
+     *
+     * @param sourceId the id of the copied document
+     * @param copyId the id of the copy
+     * @param copyAncestorIds the ancestors of the copy
+     * @param excludedTypes the types of the descendants to exclude, with their own descendants
+     * @param resetVersion whether to reset the version of the copies
+     * @return the ids of the copies of descendants that were records
+     * @since 11.5
+     */
+    public List<String> copyDescendants(String sourceId, String copyId, Object[] copyAncestorIds,
+            Set<String> excludedTypes, boolean resetVersion) {
+        List<String> ids = new ArrayList<>();
+        Set<String> excludedIds = new HashSet<>();
+        try (Stream<State> states = connection.getDescendants(sourceId, Collections.singleton(KEY_PRIMARY_TYPE))) {
+            states.forEach(state -> {
+                String id = (String) state.get(KEY_ID);
+                if (excludedTypes.contains(state.get(KEY_PRIMARY_TYPE))) {
+                    excludedIds.add(id);
+                } else {
+                    ids.add(id);
+                }
+            });
+        }
+        Map<String, String> idMap = new HashMap<>();
+        idMap.put(sourceId, copyId);
+        List<String> recordIds = new ArrayList<>();
+        int batchSize = getCopyBatchSize();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            List<String> batchIds = ids.subList(i, Math.min(i + batchSize, ids.size()));
+            List<State> copies = new ArrayList<>(batchIds.size());
+            for (State state : connection.readStates(batchIds)) {
+                Object[] ancestorIds = (Object[]) state.get(KEY_ANCESTOR_IDS);
+                if (Arrays.stream(ancestorIds).anyMatch(excludedIds::contains)) {
+                    // under an excluded document
+                    continue;
+                }
+                State copy = copyDescendant(state, sourceId, copyAncestorIds, idMap);
+                if (resetCopiedState(copy, resetVersion)) {
+                    recordIds.add((String) copy.get(KEY_ID));
+                }
+                if (undoLog != null) {
+                    undoLog.put((String) copy.get(KEY_ID), null); // marker to denote create
+                }
+                copies.add(copy);
+            }
+            if (!copies.isEmpty()) {
+                connection.createStates(copies);
+            }
+        }
+        return recordIds;
+    }
+
+    /**
+     * Copies a descendant state, mapping its id, parent and ancestors to the ids of their copies.
+     */
+    protected State copyDescendant(State state, String sourceId, Object[] copyAncestorIds,
+            Map<String, String> idMap) {
+        State copy = StateHelper.deepCopy(state);
+        copy.put(KEY_ID, getCopyId(idMap, (String) state.get(KEY_ID)));
+        copy.put(KEY_PARENT_ID, getCopyId(idMap, (String) state.get(KEY_PARENT_ID)));
+        // ancestors up to the source are replaced by the ancestors of the copy
+        Object[] ancestorIds = (Object[]) state.get(KEY_ANCESTOR_IDS);
+        int start = Arrays.asList(ancestorIds).indexOf(sourceId);
+        Object[] newAncestorIds = new Object[copyAncestorIds.length + ancestorIds.length - start];
+        System.arraycopy(copyAncestorIds, 0, newAncestorIds, 0, copyAncestorIds.length);
+        for (int i = start; i < ancestorIds.length; i++) {
+            newAncestorIds[copyAncestorIds.length + i - start] = getCopyId(idMap, (String) ancestorIds[i]);
+        }
+        copy.put(KEY_ANCESTOR_IDS, newAncestorIds);
+        copy.put(KEY_PROXY_IDS, null); // no proxies to this new doc
+        copy.put(KEY_CHANGE_TOKEN, INITIAL_CHANGE_TOKEN);
+        return copy;
+    }
+
+    protected String getCopyId(Map<String, String> idMap, String id) {
+        return idMap.computeIfAbsent(id, k -> connection.generateNewId());
+    }
+
+    /**
+     * Resets on a copy the information that is not copied.
+     *
+     * @param resetVersion whether to reset the version to 0
+     * @return {@code true} if the copied document was a record
+     * @since 11.5
+     */
+    protected static boolean resetCopiedState(State copy, boolean resetVersion) {
+        copy.put(KEY_BASE_VERSION_ID, null);
+        copy.put(KEY_IS_CHECKED_IN, null);
+        if (resetVersion) {
+            // reset version to 0
+            copy.put(KEY_MAJOR_VERSION, 0L);
+            copy.put(KEY_MINOR_VERSION, 0L);
+        }
+        if (TRUE.equals(copy.get(KEY_IS_RECORD))) {
+            // unset record on the copy
+            copy.put(KEY_IS_RECORD, null);
+            copy.put(KEY_RETAIN_UNTIL, null);
+            copy.put(KEY_HAS_LEGAL_HOLD, null);
+            return true;
+        }
+        return false;
+    }
+
+    protected int getCopyBatchSize() {
+        return Integer.parseInt(Framework.getProperty(COPY_BATCH_SIZE_PROPERTY, COPY_BATCH_SIZE_DEFAULT));
+    }
+
     /**
      * Updates ancestors recursively after a move.
      * <p>
@@ -564,6 +709,17 @@ public class DBSTransactionState implements LockManager, AutoCloseable {
                 updateDocumentReadAcls(childId);
             }
 
+            if (isReadAclsBulkEnabled()) {
+                // bulk command to do the whole tree, one set-based update per distinct ACL
+                nxql = String.format("SELECT * FROM Document WHERE ecm:uuid = '%s'"
+                        + " OR (ecm:ancestorId = '%s' AND ecm:acl/*/name IS NOT NULL)", id, id);
+                BulkCommand command = new BulkCommand.Builder(UpdateReadAclsAction.ACTION_NAME, nxql,
+                        SYSTEM_USERNAME).repository(repository.getName()).build();
+                String commandId = Framework.getService(BulkService.class).submit(command);
+                log.debug("Submitted bulk command: " + commandId + " to update Read ACLs under: " + id);
+                return;
+            }
+
             // asynchronous work to do the whole tree
             nxql = String.format("SELECT ecm:uuid FROM Document WHERE ecm:ancestorId = '%s'", id);
             Work work = new FindReadAclsWork(repository.getName(), nxql, null);
@@ -571,6 +727,11 @@ public class DBSTransactionState implements LockManager, AutoCloseable {
         }
     }
 
+    protected boolean isReadAclsBulkEnabled() {
+        return Boolean.parseBoolean(
+                Framework.getProperty(READ_ACL_BULK_ENABLED_PROPERTY, READ_ACL_BULK_ENABLED_DEFAULT));
+    }
+
     /**
      * Work to find the ids of documents for which Read ACLs must be recomputed, and launch the needed update works.
      *
@@ -647,6 +808,43 @@ public class DBSTransactionState implements LockManager, AutoCloseable {
         docIds.forEach(id -> updateDocumentReadAclsNoCache(id));
     }
 
+    /**
+     * Updates the Read ACLs on documents and on the descendants inheriting their ACL from them, bypassing transient
+     * space and caches.
+     * <p>
+     * Each document is expected to be either the root of a tree whose Read ACLs must be recomputed, or a descendant of
+     * it having an ACP. The Read ACL is computed once for each of them, and set on all the descendants sharing it
+     * using a set-based update. The descendants having their own ACP are left to the update of their own group.
+     *
+     * @since 11.5
+     */
+    public void updateInheritedReadACLs(Collection<String> docIds) {
+        for (String id : docIds) {
+            String[] readAcl = updateDocumentReadAclsNoCache(id);
+            if (readAcl == null) {
+                // deleted meanwhile
+                continue;
+            }
+            // the nearest descendants having an ACP, the subtrees under them belong to other groups
+            Map<String, Object[]> acpAncestors = new HashMap<>();
+            try (Stream<State> states = connection.getDescendantsWithAcp(id, Collections.singleton(KEY_ANCESTOR_IDS))) {
+                states.forEach(state -> acpAncestors.put((String) state.get(KEY_ID),
+                        (Object[]) state.get(KEY_ANCESTOR_IDS)));
+            }
+            Set<String> excludedIds = new HashSet<>();
+            for (Entry<String, Object[]> en : acpAncestors.entrySet()) {
+                if (Arrays.stream(en.getValue()).noneMatch(acpAncestors::containsKey)) {
+                    excludedIds.add(en.getKey());
+                }
+            }
+            long count = connection.updateInheritedReadAcls(id, excludedIds, readAcl);
+            if (log.isDebugEnabled()) {
+                log.debug("Updated Read ACLs of " + count + " documents under: " + id + ", excluding "
+                        + excludedIds.size() + " subtrees");
+            }
+        }
+    }
+
     /**
      * Updates the Read ACLs on a document (not recursively)
      */
@@ -660,21 +858,28 @@ public class DBSTransactionState implements LockManager, AutoCloseable {
      * <p>
      * When fetching parents recursively to compute inheritance, the regular transient space and repository caching are
      * used.
+     *
+     * @return the new Read ACL, or {@code null} if the document does not exist
      */
-    protected void updateDocumentReadAclsNoCache(String id) {
+    protected String[] updateDocumentReadAclsNoCache(String id) {
         // no transient for state read, and we don't want to trash caches
         // fetch from repository only the properties needed for Read ACL computation and recursion
         State state = connection.readPartialState(id, READ_ACL_RECURSION_KEYS);
+        if (state == null) {
+            return null;
+        }
         State oldState = new State(1);
         oldState.put(KEY_READ_ACL, state.get(KEY_READ_ACL));
         // compute new value
+        String[] readAcl = getReadACL(state);
         State newState = new State(1);
-        newState.put(KEY_READ_ACL, getReadACL(state));
+        newState.put(KEY_READ_ACL, readAcl);
         StateDiff diff = StateHelper.diff(oldState, newState);
         if (!diff.isEmpty()) {
             // no transient for state write, we write directly and just invalidate caches
             connection.updateState(id, diff, null);
         }
+        return readAcl;
     }
 
     /**
@@ -883,6 +1088,8 @@ public class DBSTransactionState implements LockManager, AutoCloseable {
         if (!statesToCreate.isEmpty()) {
             connection.createStates(statesToCreate);
         }
+        List<StateUpdate> updates = new ArrayList<>();
+        List<DBSDocumentState> updatedDocStates = new ArrayList<>();
         for (DBSDocumentState docState : transientStates.values()) {
             String id = docState.getId();
             if (transientCreated.contains(id)) {
@@ -890,33 +1097,41 @@ public class DBSTransactionState implements LockManager, AutoCloseable {
             }
             StateDiff diff = docState.getStateChange();
             if (diff != null) {
-                try {
-                    if (undoLog != null) {
-                        if (!undoLog.containsKey(id)) {
-                            undoLog.put(id, StateHelper.deepCopy(docState.getOriginalState()));
-                        }
-                        // else there's already a create or an update in the undo log so original info is enough
+                if (undoLog != null) {
+                    if (!undoLog.containsKey(id)) {
+                        undoLog.put(id, StateHelper.deepCopy(docState.getOriginalState()));
                     }
-                    ChangeTokenUpdater changeTokenUpdater;
-                    if (repository.isChangeTokenEnabled()) {
-                        // increment system change token
-                        Long base = (Long) docState.get(KEY_SYS_CHANGE_TOKEN);
-                        docState.put(KEY_SYS_CHANGE_TOKEN, DeltaLong.valueOf(base, 1));
-                        diff.put(KEY_SYS_CHANGE_TOKEN, DeltaLong.valueOf(base, 1));
-                        // update change token if applicable (user change)
-                        if (userChangeIds.contains(id)) {
-                            changeTokenUpdater = new ChangeTokenUpdater(docState);
-                        } else {
-                            changeTokenUpdater = null;
-                        }
+                    // else there's already a create or an update in the undo log so original info is enough
+                }
+                ChangeTokenUpdater changeTokenUpdater;
+                if (repository.isChangeTokenEnabled()) {
+                    // increment system change token
+                    Long base = (Long) docState.get(KEY_SYS_CHANGE_TOKEN);
+                    docState.put(KEY_SYS_CHANGE_TOKEN, DeltaLong.valueOf(base, 1));
+                    diff.put(KEY_SYS_CHANGE_TOKEN, DeltaLong.valueOf(base, 1));
+                    // update change token if applicable (user change)
+                    if (userChangeIds.contains(id)) {
+                        changeTokenUpdater = new ChangeTokenUpdater(docState);
                     } else {
                         changeTokenUpdater = null;
                     }
-                    connection.updateState(id, diff, changeTokenUpdater);
-                } finally {
-                    docState.setNotDirty();
+                } else {
+                    changeTokenUpdater = null;
                 }
+                updates.add(new StateUpdate(id, diff, changeTokenUpdater));
+                updatedDocStates.add(docState);
+            }
+        }
+        try {
+            if (updates.size() == 1) {
+                StateUpdate update = updates.get(0);
+                connection.updateState(update.id, update.diff, update.changeTokenUpdater);
+            } else if (!updates.isEmpty()) {
+                // batched, for bulk changes
+                connection.updateStates(updates);
             }
+        } finally {
+            updatedDocStates.forEach(DBSDocumentState::setNotDirty);
         }
         transientCreated.clear();
         userChangeIds.clear();
@@ -36,12 +36,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.nuxeo.ecm.core.storage.State;
 import org.nuxeo.ecm.core.storage.State.StateDiff;
+import org.nuxeo.ecm.core.storage.dbs.DBSConnection.StateUpdate;
 import org.nuxeo.runtime.cluster.ClusterFeature;
 import org.nuxeo.runtime.test.runner.Features;
 import org.nuxeo.runtime.test.runner.FeaturesRunner;
@@ -138,6 +140,30 @@ public class TestDBSCachingRepository {
         verify(subConnection, times(2)).readState(eq(id));
     }
 
+    @Test
+    public void testUpdateStates() {
+        String id1 = "ID1";
+        String id2 = "ID2";
+
+        // First add states in cache
+        connection.readState(id1);
+        connection.readState(id2);
+        connection.readState(id1);
+        verify(subConnection, times(1)).readState(eq(id1));
+
+        // Second update them in one batch
+        List<StateUpdate> updates = Arrays.asList(new StateUpdate(id1, mock(StateDiff.class), null),
+                new StateUpdate(id2, mock(StateDiff.class), null));
+        connection.updateStates(updates);
+        verify(subConnection, times(1)).updateStates(eq(updates));
+
+        // Check states are no longer in cache
+        connection.readState(id1);
+        connection.readState(id2);
+        verify(subConnection, times(2)).readState(eq(id1));
+        verify(subConnection, times(2)).readState(eq(id2));
+    }
+
     @Test
     public void testDeleteStates() {
         String id = "ID";
@@ -177,6 +203,37 @@ public class TestDBSCachingRepository {
         assertEquals(dbState, cachedState);
     }
 
+    @Test
+    public void testMaxMemory() {
+        repository.shutdown();
+        DBSRepositoryDescriptor descriptor = newDBSRepositoryDescriptor();
+        descriptor.cacheMaxMemory = "4KB";
+        descriptor.cacheConcurrencyLevel = 1;
+        repository = new DBSCachingRepository(mock(DBSRepository.class), descriptor);
+        connection = new DBSCachingConnection(subConnection, repository);
+        String title = StringUtils.repeat('x', 1000);
+        when(subConnection.readState(any())).then(invocation -> {
+            State state = newState(invocation.getArguments()[0].toString());
+            state.setSingle("dc:title", title);
+            return state;
+        });
+
+        // each state weighs about 1KB, so only a few of them fit
+        for (int i = 0; i < 20; i++) {
+            connection.readState("ID" + i);
+        }
+        DBSCacheMetrics<State> metrics = repository.getCacheMetrics();
+        assertTrue(metrics.sizeEvictionCount.sum() > 0);
+        assertTrue(String.valueOf(metrics.weight.get()), metrics.weight.get() <= 4096);
+        assertTrue(metrics.weight.get() > 0);
+        assertEquals(20, metrics.missCount.sum());
+
+        // the most recent state is still cached
+        connection.readState("ID19");
+        verify(subConnection, times(1)).readState(eq("ID19"));
+        assertEquals(1, metrics.hitCount.sum());
+    }
+
     private State newState(String id) {
         State state = new State();
         state.setSingle(KEY_ID, id);
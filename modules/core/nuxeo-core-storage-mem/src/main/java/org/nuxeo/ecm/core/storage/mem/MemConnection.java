@@ -18,14 +18,22 @@
  */
 package org.nuxeo.ecm.core.storage.mem;
 
+import static org.nuxeo.ecm.core.query.sql.NXQL.ECM_ANCESTORID;
+import static org.nuxeo.ecm.core.query.sql.NXQL.ECM_ISPROXY;
+import static org.nuxeo.ecm.core.query.sql.NXQL.ECM_PARENTID;
+import static org.nuxeo.ecm.core.query.sql.NXQL.ECM_PATH;
+import static org.nuxeo.ecm.core.query.sql.NXQL.ECM_PRIMARYTYPE;
 import static org.nuxeo.ecm.core.query.sql.NXQL.ECM_UUID;
 import static org.nuxeo.ecm.core.storage.State.NOP;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ANCESTOR_IDS;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_PROXY;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LOCK_CREATED;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LOCK_OWNER;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_NAME;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PARENT_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PRIMARY_TYPE;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_READ_ACL;
 
 import java.io.Serializable;
 import java.lang.reflect.Array;
@@ -33,12 +41,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.logging.Log;
@@ -52,7 +63,26 @@ import org.nuxeo.ecm.core.api.ScrollResult;
 import org.nuxeo.ecm.core.api.ScrollResultImpl;
 import org.nuxeo.ecm.core.api.lock.LockManager;
 import org.nuxeo.ecm.core.api.model.Delta;
+import org.nuxeo.ecm.core.query.sql.model.Expression;
+import org.nuxeo.ecm.core.query.sql.model.IntegerLiteral;
+import org.nuxeo.ecm.core.query.sql.model.Literal;
+import org.nuxeo.ecm.core.query.sql.model.LiteralList;
+import org.nuxeo.ecm.core.query.sql.model.MultiExpression;
+import org.nuxeo.ecm.core.query.sql.model.Operand;
+import org.nuxeo.ecm.core.query.sql.model.Operator;
 import org.nuxeo.ecm.core.query.sql.model.OrderByClause;
+import org.nuxeo.ecm.core.query.sql.model.Predicate;
+import org.nuxeo.ecm.core.query.sql.model.Reference;
+import org.nuxeo.ecm.core.query.sql.model.StringLiteral;
+import org.nuxeo.ecm.core.schema.SchemaManager;
+import org.nuxeo.ecm.core.schema.types.Field;
+import org.nuxeo.ecm.core.schema.types.ListType;
+import org.nuxeo.ecm.core.schema.types.SimpleType;
+import org.nuxeo.ecm.core.schema.types.Type;
+import org.nuxeo.ecm.core.schema.types.primitives.BooleanType;
+import org.nuxeo.ecm.core.schema.types.primitives.IntegerType;
+import org.nuxeo.ecm.core.schema.types.primitives.LongType;
+import org.nuxeo.ecm.core.schema.types.primitives.StringType;
 import org.nuxeo.ecm.core.storage.State;
 import org.nuxeo.ecm.core.storage.State.ListDiff;
 import org.nuxeo.ecm.core.storage.State.StateDiff;
@@ -62,6 +92,7 @@ import org.nuxeo.ecm.core.storage.dbs.DBSConnectionBase;
 import org.nuxeo.ecm.core.storage.dbs.DBSExpressionEvaluator;
 import org.nuxeo.ecm.core.storage.dbs.DBSSession.OrderByComparator;
 import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState.ChangeTokenUpdater;
+import org.nuxeo.runtime.api.Framework;
 
 /**
  * In-memory implementation of a {@link DBSConnection}.
@@ -77,8 +108,11 @@ public class MemConnection extends DBSConnectionBase {
     // the global state, from the repository (thread-safe map)
     protected Map<String, State> states;
 
+    protected final MemRepository memRepository;
+
     public MemConnection(MemRepository repository) {
         super(repository);
+        memRepository = repository;
         states = repository.states;
     }
 
@@ -161,6 +195,7 @@ public class MemConnection extends DBSConnectionBase {
         state = StateHelper.deepCopy(state, true); // thread-safe
         StateHelper.resetDeltas(state);
         states.put(id, state);
+        memRepository.index(id, state);
     }
 
     @Override
@@ -184,7 +219,13 @@ public class MemConnection extends DBSConnectionBase {
                     applyDiff(state, en.getKey(), en.getValue());
                 }
             }
-            applyDiff(state, diff);
+            if (memRepository.isIndexed(diff.keySet())) {
+                Map<String, Set<Object>> oldValues = memRepository.getIndexedValues(state);
+                applyDiff(state, diff);
+                memRepository.reindex(id, oldValues, state);
+            } else {
+                applyDiff(state, diff);
+            }
         }
     }
 
@@ -194,16 +235,47 @@ public class MemConnection extends DBSConnectionBase {
             log.trace("Mem: REMOVE " + ids);
         }
         for (String id : ids) {
-            if (states.remove(id) == null) {
+            State state = states.remove(id);
+            if (state == null) {
                 log.debug("Missing on remove: " + id);
+            } else {
+                memRepository.unindex(id, state);
             }
         }
     }
 
+    /**
+     * Gets the states having the given value for a key, using an index if available.
+     *
+     * @since 11.5
+     */
+    protected Collection<State> getStatesForKeyValue(String key, Object value) {
+        MemIndex index = memRepository.getIndex(key);
+        if (index == null) {
+            return states.values();
+        }
+        return getStates(index.get(value));
+    }
+
+    /**
+     * Gets the states for the given ids, skipping those concurrently removed.
+     *
+     * @since 11.5
+     */
+    protected List<State> getStates(Collection<String> ids) {
+        List<State> list = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            State state = states.get(id);
+            if (state != null) {
+                list.add(state);
+            }
+        }
+        return list;
+    }
+
     @Override
     public State readChildState(String parentId, String name, Set<String> ignored) {
-        // TODO optimize by maintaining a parent/child index
-        for (State state : states.values()) {
+        for (State state : getStatesForKeyValue(KEY_PARENT_ID, parentId)) {
             if (ignored.contains(state.get(KEY_ID))) {
                 continue;
             }
@@ -229,7 +301,7 @@ public class MemConnection extends DBSConnectionBase {
             log.trace("Mem: QUERY " + key + " = " + value);
         }
         List<State> list = new ArrayList<>();
-        for (State state : states.values()) {
+        for (State state : getStatesForKeyValue(key, value)) {
             String id = (String) state.get(KEY_ID);
             if (ignored.contains(id)) {
                 continue;
@@ -251,7 +323,7 @@ public class MemConnection extends DBSConnectionBase {
             log.trace("Mem: QUERY " + key1 + " = " + value1 + " AND " + key2 + " = " + value2);
         }
         List<State> list = new ArrayList<>();
-        for (State state : states.values()) {
+        for (State state : getStatesForKeyValue(key1, value1)) {
             String id = (String) state.get(KEY_ID);
             if (ignored.contains(id)) {
                 continue;
@@ -277,9 +349,8 @@ public class MemConnection extends DBSConnectionBase {
         if (log.isTraceEnabled()) {
             log.trace("Mem: QUERY " + KEY_ANCESTOR_IDS + " = " + rootId);
         }
-        Stream<State> stream = states.values() //
-                                     .stream()
-                                     .filter(state -> hasAncestor(state, rootId));
+        Collection<State> candidates = getStatesForKeyValue(KEY_ANCESTOR_IDS, rootId);
+        Stream<State> stream = candidates.stream().filter(state -> hasAncestor(state, rootId));
         if (limit != 0) {
             stream = stream.limit(limit);
         }
@@ -296,7 +367,7 @@ public class MemConnection extends DBSConnectionBase {
         if (log.isTraceEnabled()) {
             log.trace("Mem: QUERY " + key + " = " + value);
         }
-        for (State state : states.values()) {
+        for (State state : getStatesForKeyValue(key, value)) {
             String id = (String) state.get(KEY_ID);
             if (ignored.contains(id)) {
                 continue;
@@ -322,7 +393,7 @@ public class MemConnection extends DBSConnectionBase {
         }
         evaluator.parse();
         List<Map<String, Serializable>> projections = new ArrayList<>();
-        for (State state : states.values()) {
+        for (State state : getCandidateStates(evaluator)) {
             List<Map<String, Serializable>> matches = evaluator.matches(state);
             if (!matches.isEmpty()) {
                 if (distinctDocuments) {
@@ -373,7 +444,7 @@ public class MemConnection extends DBSConnectionBase {
         }
         evaluator.parse();
         List<String> ids = new ArrayList<>();
-        for (State state : states.values()) {
+        for (State state : getCandidateStates(evaluator)) {
             List<Map<String, Serializable>> matches = evaluator.matches(state);
             if (!matches.isEmpty()) {
                 String id = matches.get(0).get(ECM_UUID).toString();
@@ -383,6 +454,244 @@ public class MemConnection extends DBSConnectionBase {
         return new ScrollResultImpl<>(NOSCROLL_ID, ids);
     }
 
+    /**
+     * Gets the states that may match the query, using the indexes to restrict the full scan when some top-level AND
+     * clauses of the expression (or the security check) can be answered by an index.
+     * <p>
+     * The returned states are still to be checked by the evaluator.
+     *
+     * @since 11.5
+     */
+    protected Collection<State> getCandidateStates(DBSExpressionEvaluator evaluator) {
+        List<Set<String>> idSets = new ArrayList<>();
+        Expression expression = evaluator.getExpression();
+        if (expression != null) {
+            for (Expression expr : getConjuncts(expression)) {
+                Set<String> ids = getIndexedIds(evaluator, expr);
+                if (ids != null) {
+                    idSets.add(ids);
+                }
+            }
+        }
+        if (idSets.isEmpty() && evaluator.principals != null) {
+            // only use read ACLs if they are selective enough
+            Set<String> ids = getReadAclIds(evaluator.principals);
+            if (ids != null) {
+                idSets.add(ids);
+            }
+        }
+        if (idSets.isEmpty()) {
+            return states.values();
+        }
+        // intersect, starting from the smallest set
+        idSets.sort(Comparator.comparingInt(Set::size));
+        Set<String> smallest = idSets.get(0);
+        List<Set<String>> others = idSets.subList(1, idSets.size());
+        List<String> ids = smallest.stream()
+                                   .filter(id -> others.stream().allMatch(set -> set.contains(id)))
+                                   .collect(Collectors.toList());
+        if (log.isTraceEnabled()) {
+            log.trace("Mem:    indexed candidates: " + ids.size());
+        }
+        return getStates(ids);
+    }
+
+    /**
+     * Gets the top-level AND clauses of an expression.
+     *
+     * @since 11.5
+     */
+    protected static List<Expression> getConjuncts(Expression expression) {
+        List<Expression> conjuncts = new ArrayList<>();
+        addConjuncts(expression, conjuncts);
+        return conjuncts;
+    }
+
+    protected static void addConjuncts(Operand operand, List<Expression> conjuncts) {
+        if (!(operand instanceof Expression)) {
+            return;
+        }
+        Expression expr = (Expression) operand;
+        if (expr.operator != Operator.AND) {
+            conjuncts.add(expr);
+        } else if (expr instanceof MultiExpression) {
+            for (Predicate predicate : ((MultiExpression) expr).predicates) {
+                addConjuncts(predicate, conjuncts);
+            }
+        } else {
+            addConjuncts(expr.lvalue, conjuncts);
+            addConjuncts(expr.rvalue, conjuncts);
+        }
+    }
+
+    /**
+     * Gets the ids matching a clause using an index, or {@code null} if the clause cannot be answered by an index.
+     * <p>
+     * The result may be a superset of the actual matches, never a subset.
+     *
+     * @since 11.5
+     */
+    protected Set<String> getIndexedIds(DBSExpressionEvaluator evaluator, Expression expr) {
+        if (!(expr.lvalue instanceof Reference)) {
+            return null;
+        }
+        Reference ref = (Reference) expr.lvalue;
+        if (ref.cast != null) {
+            return null;
+        }
+        String name = ref.name;
+        Operator op = expr.operator;
+        Operand rvalue = expr.rvalue;
+        if (op == Operator.EQ && ECM_UUID.equals(name) && rvalue instanceof StringLiteral) {
+            String id = ((StringLiteral) rvalue).value;
+            return states.containsKey(id) ? Set.of(id) : Set.of();
+        }
+        if (op == Operator.STARTSWITH && ECM_PATH.equals(name) && rvalue instanceof StringLiteral) {
+            String path = ((StringLiteral) rvalue).value;
+            if (path.length() > 1 && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            String ancestorId = evaluator.pathResolver.getIdForPath(path);
+            return ancestorId == null ? Set.of() : getIndexedIds(KEY_ANCESTOR_IDS, List.of(ancestorId));
+        }
+        if (op == Operator.EQ && ECM_ISPROXY.equals(name)) {
+            if (rvalue instanceof IntegerLiteral && ((IntegerLiteral) rvalue).value == 1) {
+                return getIndexedIds(KEY_IS_PROXY, List.of(Boolean.TRUE));
+            }
+            return null;
+        }
+        String key;
+        Type type;
+        if (ECM_PARENTID.equals(name)) {
+            key = KEY_PARENT_ID;
+            type = StringType.INSTANCE;
+        } else if (ECM_ANCESTORID.equals(name)) {
+            key = KEY_ANCESTOR_IDS;
+            type = StringType.INSTANCE;
+        } else if (ECM_PRIMARYTYPE.equals(name)) {
+            key = KEY_PRIMARY_TYPE;
+            type = StringType.INSTANCE;
+        } else if (name.startsWith("ecm:") || name.contains("/")) {
+            return null;
+        } else {
+            // configured schema field
+            key = name;
+            type = getIndexableType(name);
+            if (type == null) {
+                return null;
+            }
+        }
+        List<Object> values;
+        if (op == Operator.EQ) {
+            Object value = getIndexableValue(rvalue, type);
+            if (value == null) {
+                return null;
+            }
+            values = List.of(value);
+        } else if (op == Operator.IN && rvalue instanceof LiteralList) {
+            values = new ArrayList<>();
+            for (Literal literal : (LiteralList) rvalue) {
+                Object value = getIndexableValue(literal, type);
+                if (value == null) {
+                    return null;
+                }
+                values.add(value);
+            }
+        } else {
+            return null;
+        }
+        return getIndexedIds(key, values);
+    }
+
+    /**
+     * Gets the primitive type of a schema field, or of the items of a list field, or {@code null} if unknown.
+     *
+     * @since 11.5
+     */
+    protected static Type getIndexableType(String name) {
+        Field field = Framework.getService(SchemaManager.class).getField(name);
+        if (field == null) {
+            return null;
+        }
+        Type type = field.getType();
+        if (type.isListType()) {
+            type = ((ListType) type).getFieldType();
+        }
+        return type.isSimpleType() ? ((SimpleType) type).getPrimitiveType() : null;
+    }
+
+    /**
+     * Converts a literal to the value stored in the states for a field of the given primitive type, or returns
+     * {@code null} if the comparison must be left to the evaluator.
+     * <p>
+     * NXQL has no boolean literal, {@code 1} is converted to {@code true}, but {@code 0} also matches a {@code null}
+     * value that is not indexed. Doubles and dates are not looked up in the indexes.
+     *
+     * @since 11.5
+     */
+    protected static Object getIndexableValue(Operand operand, Type type) {
+        if (type instanceof StringType) {
+            if (operand instanceof StringLiteral) {
+                return ((StringLiteral) operand).value;
+            }
+        } else if (type instanceof LongType || type instanceof IntegerType) {
+            if (operand instanceof IntegerLiteral) {
+                return Long.valueOf(((IntegerLiteral) operand).value);
+            }
+        } else if (type instanceof BooleanType) {
+            if (operand instanceof IntegerLiteral && ((IntegerLiteral) operand).value == 1) {
+                return Boolean.TRUE;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the ids having any of the given values for a key, or {@code null} if the key is not indexed.
+     *
+     * @since 11.5
+     */
+    protected Set<String> getIndexedIds(String key, List<Object> values) {
+        MemIndex index = memRepository.getIndex(key);
+        if (index == null) {
+            return null;
+        }
+        if (values.size() == 1) {
+            return index.get(values.get(0));
+        }
+        Set<String> ids = new HashSet<>();
+        for (Object value : values) {
+            ids.addAll(index.get(value));
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the ids readable by the given principals, or {@code null} if this would not be more selective than a full
+     * scan.
+     *
+     * @since 11.5
+     */
+    protected Set<String> getReadAclIds(Set<String> principals) {
+        MemIndex index = memRepository.getIndex(KEY_READ_ACL);
+        if (index == null) {
+            return null;
+        }
+        List<Set<String>> sets = new ArrayList<>(principals.size());
+        long total = 0;
+        for (String principal : principals) {
+            Set<String> set = index.get(principal);
+            sets.add(set);
+            total += set.size();
+        }
+        if (total >= states.size() / 2) {
+            return null;
+        }
+        Set<String> ids = new HashSet<>();
+        sets.forEach(ids::addAll);
+        return ids;
+    }
+
     @Override
     public ScrollResult<String> scroll(String scrollId) {
         if (NOSCROLL_ID.equals(scrollId)) {
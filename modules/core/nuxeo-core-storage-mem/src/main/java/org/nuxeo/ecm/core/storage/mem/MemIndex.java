@@ -0,0 +1,150 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.mem;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.nuxeo.ecm.core.storage.State;
+
+/**
+ * In-memory secondary index on a top-level key of the {@link State}s of a {@link MemRepository}.
+ * <p>
+ * The index maps each value to the set of ids of the documents holding it. For array or list values, each element is
+ * indexed separately, which matches the semantics of NXQL equality on multi-valued properties.
+ * <p>
+ * Only strings, numbers and booleans are indexed, other values are ignored.
+ *
+ * @since 11.5
+ */
+public class MemIndex {
+
+    protected final String key;
+
+    /** value -&gt; ids, thread-safe. */
+    protected final Map<Object, Set<String>> index = new ConcurrentHashMap<>();
+
+    public MemIndex(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the ids of the documents having the given value for the key of this index.
+     *
+     * @return an unmodifiable live view of the ids, never {@code null}
+     */
+    public Set<String> get(Object value) {
+        Set<String> ids = index.get(normalize(value));
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Gets the indexable values of the given state for the key of this index.
+     * <p>
+     * The returned set is a copy, so it stays valid if the state is later mutated in-place.
+     */
+    public Set<Object> getValues(State state) {
+        Serializable value = state.get(key);
+        if (value == null) {
+            return Collections.emptySet();
+        }
+        Set<Object> values = new HashSet<>();
+        if (value instanceof Object[]) {
+            for (Object v : (Object[]) value) {
+                addIndexable(values, v);
+            }
+        } else if (value instanceof List) {
+            for (Object v : (List<?>) value) {
+                addIndexable(values, v);
+            }
+        } else {
+            addIndexable(values, value);
+        }
+        return values;
+    }
+
+    protected static void addIndexable(Set<Object> values, Object value) {
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            values.add(normalize(value));
+        }
+    }
+
+    protected static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            // NXQL integer literals are longs
+            return Long.valueOf(((Number) value).longValue());
+        }
+        return value;
+    }
+
+    public void add(String id, Set<Object> values) {
+        for (Object value : values) {
+            index.compute(value, (k, ids) -> {
+                if (ids == null) {
+                    ids = ConcurrentHashMap.newKeySet();
+                }
+                ids.add(id);
+                return ids;
+            });
+        }
+    }
+
+    public void remove(String id, Set<Object> values) {
+        for (Object value : values) {
+            index.computeIfPresent(value, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Updates the index for a document whose values changed.
+     */
+    public void update(String id, Set<Object> oldValues, Set<Object> newValues) {
+        if (oldValues.equals(newValues)) {
+            return;
+        }
+        Set<Object> removed = new HashSet<>(oldValues);
+        removed.removeAll(newValues);
+        Set<Object> added = new HashSet<>(newValues);
+        added.removeAll(oldValues);
+        remove(id, removed);
+        add(id, added);
+    }
+
+    public void clear() {
+        index.clear();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + key + ")";
+    }
+
+}
@@ -18,16 +18,25 @@
  */
 package org.nuxeo.ecm.core.storage.mem;
 
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ANCESTOR_IDS;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_BLOB_KEYS;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_IS_PROXY;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LOCK_CREATED;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_LOCK_OWNER;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PARENT_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PRIMARY_TYPE;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_READ_ACL;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -49,6 +58,9 @@ import org.nuxeo.runtime.api.Framework;
  * <p>
  * A document object is a JSON-like document stored as a Map recursively containing the data, see {@link DBSDocument}
  * for the description of the document.
+ * <p>
+ * Secondary {@link MemIndex indexes} are maintained on the hierarchy, type, proxy and read ACL keys, and on the
+ * additional keys configured in the {@link MemRepositoryDescriptor}, to avoid full scans on queries.
  *
  * @since 5.9.4
  */
@@ -64,8 +76,27 @@ public class MemRepository extends DBSRepositoryBase {
      */
     protected Map<String, State> states;
 
+    /**
+     * The keys always indexed.
+     *
+     * @since 11.5
+     */
+    protected static final List<String> DEFAULT_INDEXED_KEYS = List.of(KEY_PARENT_ID, KEY_ANCESTOR_IDS,
+            KEY_PRIMARY_TYPE, KEY_IS_PROXY, KEY_READ_ACL);
+
+    /**
+     * The secondary indexes, key -&gt; index.
+     *
+     * @since 11.5
+     */
+    protected Map<String, MemIndex> indexes;
+
     public MemRepository(MemRepositoryDescriptor descriptor) {
         super(descriptor.name, descriptor);
+        Set<String> indexedKeys = new LinkedHashSet<>(DEFAULT_INDEXED_KEYS);
+        indexedKeys.addAll(descriptor.getIndexes());
+        indexes = new HashMap<>();
+        indexedKeys.forEach(key -> indexes.put(key, new MemIndex(key)));
         initRepository();
     }
 
@@ -78,15 +109,87 @@ public class MemRepository extends DBSRepositoryBase {
     public void shutdown() {
         super.shutdown();
         states = null;
+        indexes.values().forEach(MemIndex::clear);
     }
 
     protected void initRepository() {
         states = new ConcurrentHashMap<>();
+        indexes.values().forEach(MemIndex::clear);
         try (MemConnection connection = getConnection()) {
             connection.initRepository();
         }
     }
 
+    /**
+     * Gets the index for the given key, or {@code null} if the key is not indexed.
+     *
+     * @since 11.5
+     */
+    protected MemIndex getIndex(String key) {
+        return indexes.get(key);
+    }
+
+    /**
+     * Checks if at least one of the given keys is indexed.
+     *
+     * @since 11.5
+     */
+    protected boolean isIndexed(Collection<String> keys) {
+        for (String key : keys) {
+            if (indexes.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets a snapshot of the indexed values of a state, to be passed later to {@link #reindex}.
+     *
+     * @since 11.5
+     */
+    protected Map<String, Set<Object>> getIndexedValues(State state) {
+        Map<String, Set<Object>> values = new HashMap<>();
+        for (MemIndex index : indexes.values()) {
+            values.put(index.getKey(), index.getValues(state));
+        }
+        return values;
+    }
+
+    /**
+     * Adds a new state to the indexes.
+     *
+     * @since 11.5
+     */
+    protected void index(String id, State state) {
+        for (MemIndex index : indexes.values()) {
+            index.add(id, index.getValues(state));
+        }
+    }
+
+    /**
+     * Updates the indexes for a state modified in-place.
+     *
+     * @param oldValues the indexed values before modification, from {@link #getIndexedValues}
+     * @since 11.5
+     */
+    protected void reindex(String id, Map<String, Set<Object>> oldValues, State state) {
+        for (MemIndex index : indexes.values()) {
+            index.update(id, oldValues.get(index.getKey()), index.getValues(state));
+        }
+    }
+
+    /**
+     * Removes a state from the indexes.
+     *
+     * @since 11.5
+     */
+    protected void unindex(String id, State state) {
+        for (MemIndex index : indexes.values()) {
+            index.remove(id, index.getValues(state));
+        }
+    }
+
     protected String generateNewId() {
         if (DBSRepositoryBase.DEBUG_UUIDS) {
             return "UUID_" + temporaryIdCounter.incrementAndGet();
@@ -18,6 +18,10 @@
  */
 package org.nuxeo.ecm.core.storage.mem;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nuxeo.common.xmap.annotation.XNodeList;
 import org.nuxeo.common.xmap.annotation.XObject;
 import org.nuxeo.common.xmap.registry.XRegistry;
 import org.nuxeo.ecm.core.storage.dbs.DBSRepositoryDescriptor;
@@ -31,4 +35,17 @@ import org.nuxeo.ecm.core.storage.dbs.DBSRepositoryDescriptor;
 @XRegistry
 public class MemRepositoryDescriptor extends DBSRepositoryDescriptor {
 
+    /**
+     * Additional top-level keys to index, for instance {@code dc:title}.
+     *
+     * @since 11.5
+     */
+    @XNodeList(value = "indexes/index", type = ArrayList.class, componentType = String.class)
+    protected List<String> indexes = new ArrayList<>();
+
+    /** @since 11.5 */
+    public List<String> getIndexes() {
+        return indexes;
+    }
+
 }
@@ -0,0 +1,160 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.mem;
+
+import static org.junit.Assert.assertEquals;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ID;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_NAME;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_PRIMARY_TYPE;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.inject.Inject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
+import org.nuxeo.ecm.core.storage.State;
+import org.nuxeo.ecm.core.storage.dbs.DBSExpressionEvaluator;
+import org.nuxeo.ecm.core.storage.dbs.DBSRepositoryService;
+import org.nuxeo.runtime.cluster.ClusterFeature;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.test.runner.RuntimeFeature;
+import org.nuxeo.runtime.test.runner.TransactionalFeature;
+
+/**
+ * Checks that queries on indexed fields return the same results as a full scan, whatever the field type.
+ *
+ * @since 11.5
+ */
+@RunWith(FeaturesRunner.class)
+@Features({ RuntimeFeature.class, ClusterFeature.class, TransactionalFeature.class })
+@Deploy("org.nuxeo.ecm.core:OSGI-INF/RepositoryService.xml")
+@Deploy("org.nuxeo.ecm.core.schema")
+@Deploy("org.nuxeo.ecm.core.storage")
+@Deploy("org.nuxeo.ecm.core.storage.dbs")
+@Deploy("org.nuxeo.ecm.core.storage.mem")
+@Deploy("org.nuxeo.ecm.core.storage.mem:mock-repo-manager-contrib.xml")
+@Deploy("org.nuxeo.ecm.core.storage.mem:test-mem-indexes-contrib.xml")
+public class TestMemConnectionQuery {
+
+    @Inject
+    protected DBSRepositoryService dbsService;
+
+    protected MemRepository repository;
+
+    protected MemConnection connection;
+
+    @Before
+    public void setUp() {
+        repository = new MemRepository((MemRepositoryDescriptor) dbsService.getRepositoryDescriptor("testmem"));
+        connection = repository.getConnection();
+        connection.createState(state("id1", "my:string", "foo", "my:long", 3L, "my:bool", Boolean.TRUE, "my:double",
+                Double.valueOf(2)));
+        connection.createState(state("id2", "my:string", "bar", "my:long", 4L, "my:bool", Boolean.FALSE,
+                "my:double", Double.valueOf(2.5)));
+        connection.createState(state("id3"));
+    }
+
+    @After
+    public void tearDown() {
+        connection.close();
+        repository.shutdown();
+    }
+
+    protected static State state(String id, Serializable... values) {
+        State state = new State();
+        state.put(KEY_ID, id);
+        state.put(KEY_NAME, id);
+        state.put(KEY_PRIMARY_TYPE, "File");
+        for (int i = 0; i < values.length; i += 2) {
+            state.put((String) values[i], values[i + 1]);
+        }
+        return state;
+    }
+
+    protected static DBSExpressionEvaluator evaluator(String where) {
+        String nxql = "SELECT ecm:uuid FROM Document WHERE " + where;
+        return new DBSExpressionEvaluator(null, SQLQueryParser.parse(nxql), null, false);
+    }
+
+    /** Queries through the connection, which uses the indexes when possible. */
+    protected Set<String> query(String where) {
+        Set<String> ids = new TreeSet<>();
+        for (Map<String, Serializable> map : connection.queryAndFetch(evaluator(where), null, true, 0, 0, 0)) {
+            ids.add((String) map.get(NXQL.ECM_UUID));
+        }
+        return ids;
+    }
+
+    /** Evaluates the query on all the states, without the indexes. */
+    protected Set<String> scan(String where) {
+        DBSExpressionEvaluator evaluator = evaluator(where);
+        evaluator.parse();
+        Set<String> ids = new TreeSet<>();
+        for (State state : repository.states.values()) {
+            if (!evaluator.matches(state).isEmpty()) {
+                ids.add((String) state.get(KEY_ID));
+            }
+        }
+        return ids;
+    }
+
+    protected void assertQuery(Set<String> expected, String where) {
+        assertEquals(expected, scan(where));
+        assertEquals(expected, query(where));
+    }
+
+    @Test
+    public void testQueryString() {
+        assertQuery(Set.of("id1"), "my:string = 'foo'");
+        assertQuery(Set.of("id1", "id2"), "my:string IN ('foo', 'bar')");
+        assertQuery(Set.of(), "my:string = 'baz'");
+    }
+
+    @Test
+    public void testQueryLong() {
+        assertQuery(Set.of("id1"), "my:long = 3");
+        assertQuery(Set.of("id1", "id2"), "my:long IN (3, 4)");
+        assertQuery(Set.of(), "my:long = 5");
+    }
+
+    @Test
+    public void testQueryBoolean() {
+        assertQuery(Set.of("id1"), "my:bool = 1");
+        assertQuery(Set.of("id2"), "my:bool = 0");
+    }
+
+    @Test
+    public void testQueryDouble() {
+        assertQuery(Set.of("id1"), "my:double = 2.0");
+        assertQuery(Set.of("id2"), "my:double = 2.5");
+        // an integer literal must give the same result as the scan
+        assertEquals(scan("my:double = 2"), query("my:double = 2"));
+    }
+
+}
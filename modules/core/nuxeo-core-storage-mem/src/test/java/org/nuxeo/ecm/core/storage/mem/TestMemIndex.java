@@ -0,0 +1,74 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.mem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.storage.State;
+
+public class TestMemIndex {
+
+    @Test
+    public void testScalar() {
+        MemIndex index = new MemIndex("foo");
+        State state = new State();
+        state.put("foo", "bar");
+        index.add("id1", index.getValues(state));
+        assertEquals(Set.of("id1"), index.get("bar"));
+        assertTrue(index.get("baz").isEmpty());
+
+        Set<Object> oldValues = index.getValues(state);
+        state.put("foo", "baz");
+        index.update("id1", oldValues, index.getValues(state));
+        assertTrue(index.get("bar").isEmpty());
+        assertEquals(Set.of("id1"), index.get("baz"));
+
+        index.remove("id1", index.getValues(state));
+        assertTrue(index.get("baz").isEmpty());
+    }
+
+    @Test
+    public void testArray() {
+        MemIndex index = new MemIndex("ids");
+        State state1 = new State();
+        state1.put("ids", new String[] { "a", "b" });
+        State state2 = new State();
+        state2.put("ids", new String[] { "b", "c" });
+        index.add("id1", index.getValues(state1));
+        index.add("id2", index.getValues(state2));
+        assertEquals(Set.of("id1"), index.get("a"));
+        assertEquals(Set.of("id1", "id2"), index.get("b"));
+        assertEquals(Set.of("id2"), index.get("c"));
+    }
+
+    @Test
+    public void testNumberNormalization() {
+        MemIndex index = new MemIndex("num");
+        State state = new State();
+        state.put("num", Long.valueOf(3));
+        index.add("id1", index.getValues(state));
+        assertEquals(Set.of("id1"), index.get(Long.valueOf(3)));
+        assertEquals(Set.of("id1"), index.get(Integer.valueOf(3)));
+    }
+
+}
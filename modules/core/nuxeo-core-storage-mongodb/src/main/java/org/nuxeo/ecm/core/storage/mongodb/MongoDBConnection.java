@@ -27,6 +27,7 @@ import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ACL;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ACP;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_ANCESTOR_IDS;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_BLOB_KEYS;
+import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_CHANGE_TOKEN;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_FULLTEXT_BINARY;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_FULLTEXT_JOBID;
 import static org.nuxeo.ecm.core.storage.dbs.DBSDocument.KEY_FULLTEXT_SIMPLE;
@@ -58,9 +59,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
 import java.util.Spliterators;
@@ -85,6 +89,7 @@ import org.nuxeo.ecm.core.query.sql.model.OrderByClause;
 import org.nuxeo.ecm.core.storage.State;
 import org.nuxeo.ecm.core.storage.State.StateDiff;
 import org.nuxeo.ecm.core.storage.dbs.DBSConnection;
+import org.nuxeo.ecm.core.storage.dbs.DBSConnection.StateUpdate;
 import org.nuxeo.ecm.core.storage.dbs.DBSConnectionBase;
 import org.nuxeo.ecm.core.storage.dbs.DBSExpressionEvaluator;
 import org.nuxeo.ecm.core.storage.dbs.DBSRepositoryBase;
@@ -102,11 +107,13 @@ import com.mongodb.MongoQueryException;
 import com.mongodb.MongoSocketReadTimeoutException;
 import com.mongodb.MongoWriteException;
 import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.ClientSession;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.CountOptions;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
@@ -114,7 +121,9 @@ import com.mongodb.client.model.IndexOptions;
 import com.mongodb.client.model.Indexes;
 import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 
@@ -488,25 +497,7 @@ public class MongoDBConnection extends DBSConnectionBase {
     public void updateState(String id, StateDiff diff, ChangeTokenUpdater changeTokenUpdater) {
         List<Document> updates = converter.diffToBson(diff);
         for (Document update : updates) {
-            Document filter = new Document();
-            converter.putToBson(filter, KEY_ID, id);
-            if (changeTokenUpdater == null) {
-                log.trace("MongoDB: UPDATE {}: {}", id, update);
-            } else {
-                // assume bson is identical to dbs internals
-                // condition works even if value is null
-                Map<String, Serializable> conditions = changeTokenUpdater.getConditions();
-                Map<String, Serializable> tokenUpdates = changeTokenUpdater.getUpdates();
-                if (update.containsKey(MONGODB_SET)) {
-                    ((Document) update.get(MONGODB_SET)).putAll(tokenUpdates);
-                } else {
-                    Document set = new Document();
-                    set.putAll(tokenUpdates);
-                    update.put(MONGODB_SET, set);
-                }
-                log.trace("MongoDB: UPDATE {}: IF {} THEN {}", id, conditions, update);
-                filter.putAll(conditions);
-            }
+            Document filter = getUpdateFilter(id, update, changeTokenUpdater);
             try {
                 UpdateResult w = updateMany(filter, update);
                 if (w.getModifiedCount() != 1) {
@@ -523,6 +514,114 @@ public class MongoDBConnection extends DBSConnectionBase {
         }
     }
 
+    /**
+     * Gets the filter for the update of a document, adding the change token conditions and updates if needed.
+     *
+     * @since 11.5
+     */
+    protected Document getUpdateFilter(String id, Document update, ChangeTokenUpdater changeTokenUpdater) {
+        Document filter = new Document();
+        converter.putToBson(filter, KEY_ID, id);
+        if (changeTokenUpdater == null) {
+            log.trace("MongoDB: UPDATE {}: {}", id, update);
+        } else {
+            // assume bson is identical to dbs internals
+            // condition works even if value is null
+            Map<String, Serializable> conditions = changeTokenUpdater.getConditions();
+            Map<String, Serializable> tokenUpdates = changeTokenUpdater.getUpdates();
+            if (update.containsKey(MONGODB_SET)) {
+                ((Document) update.get(MONGODB_SET)).putAll(tokenUpdates);
+            } else {
+                Document set = new Document();
+                set.putAll(tokenUpdates);
+                update.put(MONGODB_SET, set);
+            }
+            log.trace("MongoDB: UPDATE {}: IF {} THEN {}", id, conditions, update);
+            filter.putAll(conditions);
+        }
+        return filter;
+    }
+
+    @Override
+    public void updateStates(List<StateUpdate> stateUpdates) {
+        List<WriteModel<Document>> models = new ArrayList<>();
+        // document id for each model, to report errors
+        List<String> modelIds = new ArrayList<>();
+        // expected final change token of the documents updated with a change token condition
+        Map<String, Object> changeTokens = new HashMap<>();
+        boolean ordered = false;
+        for (StateUpdate stateUpdate : stateUpdates) {
+            String id = stateUpdate.id;
+            List<Document> updates = converter.diffToBson(stateUpdate.diff);
+            if (updates.size() > 1) {
+                // successive updates of the same document must be applied in order
+                ordered = true;
+            }
+            for (Document update : updates) {
+                Document filter = getUpdateFilter(id, update, stateUpdate.changeTokenUpdater);
+                models.add(new UpdateOneModel<>(filter, update));
+                modelIds.add(id);
+                if (stateUpdate.changeTokenUpdater != null) {
+                    changeTokens.put(id, ((Document) update.get(MONGODB_SET)).get(KEY_CHANGE_TOKEN));
+                }
+            }
+        }
+        if (models.isEmpty()) {
+            return;
+        }
+        BulkWriteResult result;
+        try {
+            result = bulkWrite(models, new BulkWriteOptions().ordered(ordered));
+        } catch (MongoBulkWriteException mbwe) {
+            List<BulkWriteError> errors = mbwe.getWriteErrors();
+            if (!errors.isEmpty()
+                    && errors.stream().allMatch(wr -> DUPLICATE_KEY.equals(fromErrorCode(wr.getCode())))) {
+                log.trace("MongoDB:    -> DUPLICATE KEY: {}", errors);
+                var concurrentUpdateException = new ConcurrentUpdateException("Concurrent update");
+                errors.forEach(wr -> concurrentUpdateException.addInfo(
+                        modelIds.get(wr.getIndex()) + ": " + wr.getMessage()));
+                throw concurrentUpdateException;
+            }
+            throw mbwe;
+        }
+        if (result.getModifiedCount() != models.size()) {
+            List<String> failedIds = getFailedUpdates(stateUpdates, changeTokens);
+            log.trace("MongoDB:    -> CONCURRENT UPDATE: {}", failedIds);
+            var concurrentUpdateException = new ConcurrentUpdateException(String.join(", ", failedIds));
+            failedIds.forEach(concurrentUpdateException::addInfo);
+            throw concurrentUpdateException;
+        }
+    }
+
+    /**
+     * Finds which documents of a bulk update were not updated: the ones that are missing, or whose change token is
+     * not the expected one. If they cannot be determined, all the documents are returned.
+     */
+    protected List<String> getFailedUpdates(List<StateUpdate> stateUpdates, Map<String, Object> changeTokens) {
+        Set<String> ids = new LinkedHashSet<>();
+        stateUpdates.forEach(stateUpdate -> ids.add(stateUpdate.id));
+        Document projection = new Document();
+        if (useCustomId) {
+            projection.put(MONGODB_ID, ZERO);
+        }
+        projection.put(idKey, ONE);
+        projection.put(KEY_CHANGE_TOKEN, ONE);
+        Bson filter = converter.filterIn(KEY_ID, ids);
+        Map<String, State> states;
+        try (Stream<State> stream = stream(filter, projection)) {
+            states = stream.collect(Collectors.toMap(state -> (String) state.get(KEY_ID), state -> state));
+        }
+        List<String> failedIds = new ArrayList<>();
+        for (String id : ids) {
+            State state = states.get(id);
+            if (state == null || changeTokens.containsKey(id)
+                    && !Objects.equals(changeTokens.get(id), state.get(KEY_CHANGE_TOKEN))) {
+                failedIds.add(id);
+            }
+        }
+        return failedIds.isEmpty() ? new ArrayList<>(ids) : failedIds;
+    }
+
     @Override
     public void deleteStates(Set<String> ids) {
         Bson filter = converter.filterIn(KEY_ID, ids);
@@ -663,6 +762,36 @@ public class MongoDBConnection extends DBSConnectionBase {
         return stream(filter, fields, limit);
     }
 
+    @Override
+    public Stream<State> getDescendantsWithAcp(String rootId, Set<String> keys) {
+        Bson filter = Filters.and(converter.filterEq(KEY_ANCESTOR_IDS, rootId), Filters.ne(KEY_ACP, null));
+        Document fields = new Document();
+        if (useCustomId) {
+            fields.put(MONGODB_ID, ZERO);
+        }
+        fields.put(idKey, ONE);
+        keys.forEach(key -> fields.put(converter.keyToBson(key), ONE));
+        return stream(filter, fields);
+    }
+
+    @Override
+    public long updateInheritedReadAcls(String rootId, Set<String> excludedIds, String[] readAcl) {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(converter.filterEq(KEY_ANCESTOR_IDS, rootId));
+        if (!excludedIds.isEmpty()) {
+            filters.add(Filters.nin(KEY_ANCESTOR_IDS, converter.listToBson(KEY_ANCESTOR_IDS, excludedIds)));
+        }
+        filters.add(Filters.eq(KEY_ACP, null));
+        Object readAclBson = converter.valueToBson(KEY_READ_ACL, readAcl);
+        // documents already up to date are not rewritten
+        filters.add(Filters.ne(KEY_READ_ACL, readAclBson));
+        Bson filter = Filters.and(filters);
+        Bson update = Updates.set(KEY_READ_ACL, readAclBson);
+        log.trace("MongoDB: UPDATE MANY {}: {}", filter, update);
+        UpdateResult w = updateMany(filter, update);
+        return w.getModifiedCount();
+    }
+
     @Override
     public boolean queryKeyValuePresence(String key, String value, Set<String> ignored) {
         Document filter = new Document();
@@ -1031,6 +1160,14 @@ public class MongoDBConnection extends DBSConnectionBase {
         }
     }
 
+    protected BulkWriteResult bulkWrite(List<WriteModel<Document>> models, BulkWriteOptions options) {
+        if (transactionStarted) {
+            return coll.bulkWrite(clientSession, models, options);
+        } else {
+            return coll.bulkWrite(models, options);
+        }
+    }
+
     protected UpdateResult updateMany(Bson filter, Bson update) {
         if (transactionStarted) {
             return coll.updateMany(clientSession, filter, update);
@@ -0,0 +1,267 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.nuxeo.runtime.cluster.ClusterService;
+import org.nuxeo.runtime.cluster.ClusterServiceImpl;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.transaction.TransactionHelper;
+
+/**
+ * Tests a repository using the {@link SharedCachingMapper}, with several sessions sharing its row cache.
+ *
+ * @since 11.5
+ */
+@Deploy("org.nuxeo.ecm.core.storage.sql.test.tests:OSGI-INF/test-backend-core-types-contrib.xml")
+public class TestSQLBackendSharedCachingMapper extends SQLBackendTestCase {
+
+    private static final long DELAY = 500; // ms
+
+    @Inject
+    protected ClusterService clusterService;
+
+    @Override
+    protected RepositoryDescriptor newDescriptor(String name) {
+        RepositoryDescriptor descriptor = super.newDescriptor(name);
+        descriptor.cachingMapperClass = SharedCachingMapper.class;
+        return descriptor;
+    }
+
+    protected static SharedCachingMapper getMapper(Session session) {
+        return (SharedCachingMapper) ((SessionImpl) session).getMapper();
+    }
+
+    protected static RowId titleRowId(Node node) {
+        return new RowId("testschema", node.getId());
+    }
+
+    protected static void begin(Session session) {
+        TransactionHelper.startTransaction();
+        ((SessionImpl) session).start();
+    }
+
+    protected static void commit(Session session) {
+        ((SessionImpl) session).end();
+        ((SessionImpl) session).commit();
+        TransactionHelper.commitOrRollbackTransaction();
+    }
+
+    protected static void rollback(Session session) {
+        ((SessionImpl) session).end();
+        ((SessionImpl) session).rollback();
+        TransactionHelper.setTransactionRollbackOnly();
+        TransactionHelper.commitOrRollbackTransaction();
+    }
+
+    @Test
+    public void testCommitThenReadFromOtherSession() {
+        Session session1 = repository.getConnection();
+        Node doc1 = session1.addChildNode(session1.getRootNode(), "doc", null, "TestDoc", false);
+        doc1.setSimpleProperty("tst:title", "foo");
+        session1.save();
+
+        // read from another session, this fills the shared cache
+        Session session2 = repository.getConnection();
+        Node doc2 = session2.getNodeById(doc1.getId());
+        assertEquals("foo", doc2.getSimpleProperty("tst:title").getString());
+        SharedRowCache cache = getMapper(session1).cache;
+        assertNotNull(cache.get(titleRowId(doc1)));
+
+        // a third session reads from the shared cache
+        Session session3 = repository.getConnection();
+        assertEquals("foo", session3.getNodeById(doc1.getId()).getSimpleProperty("tst:title").getString());
+
+        // commit a change, the shared cache is invalidated
+        doc1.setSimpleProperty("tst:title", "bar");
+        session1.save();
+        assertNull(cache.get(titleRowId(doc1)));
+
+        // the other session sees the change
+        session2.save(); // process invalidations (non-transactional)
+        assertEquals("bar", doc2.getSimpleProperty("tst:title").getString());
+
+        session3.close();
+        session2.close();
+        session1.close();
+    }
+
+    @Test
+    public void testAbsentRowCached() {
+        Session session1 = repository.getConnection();
+        Node doc1 = session1.addChildNode(session1.getRootNode(), "doc", null, "TestDoc", false);
+        session1.save();
+        RowId rowId = titleRowId(doc1);
+
+        // read from another session, the absent row is cached
+        Session session2 = repository.getConnection();
+        Node doc2 = session2.getNodeById(doc1.getId());
+        assertNull(doc2.getSimpleProperty("tst:title").getString());
+        SharedRowCache cache = getMapper(session2).cache;
+        Row row = cache.get(rowId);
+        assertNotNull(row);
+        assertTrue(SharedCachingRowMapper.isAbsent(row));
+
+        // create the row, the absent row is invalidated
+        doc1.setSimpleProperty("tst:title", "foo");
+        session1.save();
+        assertNull(cache.get(rowId));
+
+        session2.save(); // process invalidations (non-transactional)
+        assertEquals("foo", doc2.getSimpleProperty("tst:title").getString());
+
+        session2.close();
+        session1.close();
+    }
+
+    @Test
+    public void testLocalWritesBypassCache() {
+        Session session1 = repository.getConnection();
+        Node doc1 = session1.addChildNode(session1.getRootNode(), "doc", null, "TestDoc", false);
+        doc1.setSimpleProperty("tst:title", "foo");
+        session1.save();
+        RowId rowId = titleRowId(doc1);
+
+        Session session2 = repository.getConnection();
+        Node doc2 = session2.getNodeById(doc1.getId());
+        assertEquals("foo", doc2.getSimpleProperty("tst:title").getString());
+        SharedCachingMapper mapper1 = getMapper(session1);
+        SharedRowCache cache = mapper1.cache;
+
+        // write in a transaction
+        begin(session1);
+        doc1.setSimpleProperty("tst:title", "bar");
+        ((SessionImpl) session1).end(); // flush
+        assertTrue(mapper1.isLocallyModified(rowId));
+        // the writing session doesn't use the shared cache for the row
+        assertNull(mapper1.cacheGet(rowId));
+        // the shared cache still holds the committed row for the other sessions
+        assertNotNull(cache.get(rowId));
+        session2.save(); // process invalidations (non-transactional)
+        assertEquals("foo", doc2.getSimpleProperty("tst:title").getString());
+
+        // commit, the shared cache is invalidated
+        ((SessionImpl) session1).commit();
+        TransactionHelper.commitOrRollbackTransaction();
+        assertFalse(mapper1.isLocallyModified(rowId));
+        assertNull(cache.get(rowId));
+        session2.save(); // process invalidations (non-transactional)
+        assertEquals("bar", doc2.getSimpleProperty("tst:title").getString());
+
+        session2.close();
+        session1.close();
+    }
+
+    @Test
+    public void testRollback() {
+        Session session1 = repository.getConnection();
+        Node doc1 = session1.addChildNode(session1.getRootNode(), "doc", null, "TestDoc", false);
+        doc1.setSimpleProperty("tst:title", "foo");
+        session1.save();
+        RowId rowId = titleRowId(doc1);
+
+        Session session2 = repository.getConnection();
+        Node doc2 = session2.getNodeById(doc1.getId());
+        assertEquals("foo", doc2.getSimpleProperty("tst:title").getString());
+        SharedCachingMapper mapper1 = getMapper(session1);
+        SharedCachingMapper mapper2 = getMapper(session2);
+        assertNull(mapper2.receiveInvalidations());
+
+        // write in a transaction, then roll back
+        begin(session1);
+        doc1.setSimpleProperty("tst:title", "bar");
+        rollback(session1);
+        assertFalse(mapper1.isLocallyModified(rowId));
+
+        // nothing was propagated, the shared cache still holds the committed row
+        assertNull(mapper2.receiveInvalidations());
+        assertNotNull(mapper1.cache.get(rowId));
+        assertEquals("foo", doc2.getSimpleProperty("tst:title").getString());
+
+        // the rolled back session reads the committed row again
+        begin(session1);
+        assertEquals("foo", session1.getNodeById(doc1.getId()).getSimpleProperty("tst:title").getString());
+        commit(session1);
+
+        session2.close();
+        session1.close();
+    }
+
+    @Test
+    @Deploy("org.nuxeo.ecm.core.storage.sql.test.tests:OSGI-INF/test-cluster.xml") // node "1"
+    public void testClusterInvalidations() throws Exception {
+        assumeTrue(DatabaseHelper.DATABASE.supportsClustering());
+
+        // get two clustered repositories
+        repository.close();
+        repository = newRepository(); // node 1 from XML config
+        RepositoryImpl repository2;
+        ((ClusterServiceImpl) clusterService).setNodeId("2");
+        try {
+            repository2 = newRepository();
+        } finally {
+            ((ClusterServiceImpl) clusterService).setNodeId("1");
+        }
+
+        Session session1 = repository.getConnection();
+        session1.save(); // save resets invalidations timeout
+        Session session2 = repository2.getConnection();
+        session2.save(); // save resets invalidations timeout
+
+        Node doc1 = session1.addChildNode(session1.getRootNode(), "doc", null, "TestDoc", false);
+        doc1.setSimpleProperty("tst:title", "foo");
+        session1.save();
+        RowId rowId = titleRowId(doc1);
+
+        Thread.sleep(DELAY + 1); // wait invalidation delay
+        session2.save();
+        Node doc2 = session2.getNodeById(doc1.getId());
+        assertEquals("foo", doc2.getSimpleProperty("tst:title").getString());
+        SharedRowCache cache = getMapper(session1).cache;
+        Row stale = cache.get(rowId);
+        assertNotNull(stale);
+
+        // change the title on node 2
+        doc2.setSimpleProperty("tst:title", "bar");
+        session2.save();
+        // both nodes share the same cache in this JVM, put back the stale row that another JVM would still hold
+        assertNull(cache.get(rowId));
+        cache.putIfNotInvalidated(cache.getEpoch(), rowId, stale);
+
+        // node 1 receives the cluster invalidations and applies them to the shared cache
+        Thread.sleep(DELAY + 1); // wait invalidation delay
+        session1.save(); // process invalidations (non-transactional)
+        assertNull(cache.get(rowId));
+        assertEquals("bar", doc1.getSimpleProperty("tst:title").getString());
+
+        session2.close();
+        session1.close();
+        clearAndClose(repository2);
+    }
+
+}
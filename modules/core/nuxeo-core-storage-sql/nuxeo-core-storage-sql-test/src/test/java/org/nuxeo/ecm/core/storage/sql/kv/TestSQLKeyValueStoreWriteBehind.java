@@ -0,0 +1,68 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.sql.kv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.nuxeo.runtime.test.runner.Deploy;
+
+/**
+ * @since 11.5
+ */
+@Deploy("org.nuxeo.ecm.core.storage.sql.test.tests:OSGI-INF/sql-keyvalue-writebehind-test-contrib.xml")
+public class TestSQLKeyValueStoreWriteBehind extends TestSQLKeyValueStore {
+
+    @Test
+    public void testWriteBehind() {
+        SQLKeyValueStore sqlStore = (SQLKeyValueStore) store;
+        assertTrue(sqlStore.writeBehind);
+        String key = "foo";
+        for (int i = 0; i < 100; i++) {
+            store.put(key, String.valueOf(i));
+        }
+        store.put("bar", BAR);
+        // puts to the same key are coalesced
+        assertEquals(2, sqlStore.pendingPuts.size());
+        assertEquals("99", store.getString(key));
+        sqlStore.flush();
+        assertTrue(sqlStore.pendingPuts.isEmpty());
+        assertEquals("99", store.getString(key));
+        assertEquals(BAR, store.getString("bar"));
+
+        // pending delete hides the database value
+        store.put(key, (String) null);
+        assertFalse(sqlStore.pendingPuts.isEmpty());
+        assertNull(store.get(key));
+        assertFalse(store.setTTL(key, 10));
+        sqlStore.flush();
+        assertNull(store.get(key));
+
+        // atomic operations see the pending put
+        store.put(key, "5");
+        assertEquals(7, store.addAndGet(key, 2));
+        store.put(key, GEE);
+        assertTrue(store.compareAndSet(key, GEE, MOO));
+        assertEquals(MOO, store.getString(key));
+    }
+
+}
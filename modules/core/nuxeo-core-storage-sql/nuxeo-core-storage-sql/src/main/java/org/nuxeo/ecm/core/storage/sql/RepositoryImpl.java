@@ -423,6 +423,9 @@ public class RepositoryImpl implements Repository, org.nuxeo.ecm.core.model.Repo
     public synchronized void close() {
         closeAllSessions();
         model = null;
+        if (sqlInfo != null) {
+            sqlInfo.queryPlanCache.close();
+        }
         if (clusterInvalidator != null) {
             clusterInvalidator.close();
         }
@@ -0,0 +1,404 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.sql;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.nuxeo.ecm.core.storage.sql.ACLRow.ACLRowPositionComparator;
+
+/**
+ * A {@link RowMapper} that uses a {@link SharedRowCache}, shared by all the mappers of a repository and bounded by an
+ * estimated size in bytes.
+ * <p>
+ * The shared cache only holds committed {@link Row}s. Rows written through this mapper are removed from the shared
+ * cache and read from the underlying {@link RowMapper} until the end of the transaction, and the shared cache is
+ * invalidated again at post-commit time, when the invalidations are propagated to the other mappers and to the
+ * cluster.
+ *
+ * @since 11.5
+ */
+public class SharedCachingRowMapper implements RowMapper {
+
+    protected static final String ABSENT = "__ABSENT__\0\0\0";
+
+    protected SharedRowCache cache;
+
+    protected Model model;
+
+    /**
+     * The {@link RowMapper} to which operations that cannot be processed from the cache are delegated.
+     */
+    protected RowMapper rowMapper;
+
+    /**
+     * The local invalidations due to writes through this mapper that should be propagated to other sessions at
+     * post-commit time. The corresponding rows are not read from the shared cache until then.
+     */
+    protected final VCSInvalidations localInvalidations;
+
+    /**
+     * The queue of invalidations received from other session or from the cluster invalidator, to process at
+     * pre-transaction time.
+     */
+    protected final VCSInvalidationsQueue invalidationsQueue;
+
+    /**
+     * The propagator of invalidations to other mappers.
+     */
+    protected VCSInvalidationsPropagator invalidationsPropagator;
+
+    public SharedCachingRowMapper() {
+        localInvalidations = new VCSInvalidations();
+        invalidationsQueue = new VCSInvalidationsQueue("mapper-" + this);
+    }
+
+    public void initialize(String repositoryName, Model model, RowMapper rowMapper,
+            VCSInvalidationsPropagator invalidationsPropagator, Map<String, String> properties) {
+        this.model = model;
+        this.rowMapper = rowMapper;
+        this.invalidationsPropagator = invalidationsPropagator;
+        invalidationsPropagator.addQueue(invalidationsQueue);
+        cache = SharedRowCache.acquire(repositoryName, properties);
+    }
+
+    public void close() {
+        invalidationsPropagator.removeQueue(invalidationsQueue);
+        cache.release();
+    }
+
+    @Override
+    public Serializable generateNewId() {
+        return rowMapper.generateNewId();
+    }
+
+    /*
+     * ----- Cache -----
+     */
+
+    protected static boolean isAbsent(Row row) {
+        return row.tableName == ABSENT; // == is ok
+    }
+
+    /**
+     * Checks if a row was written in the current transaction, in which case the shared cache must not be used for it.
+     */
+    protected boolean isLocallyModified(RowId rowId) {
+        if (localInvalidations.all) {
+            return true;
+        }
+        return localInvalidations.modified != null && localInvalidations.modified.contains(rowId)
+                || localInvalidations.deleted != null && localInvalidations.deleted.contains(rowId);
+    }
+
+    protected void cachePut(long epoch, RowId rowId) {
+        if (isLocallyModified(rowId)) {
+            return;
+        }
+        Row row;
+        if (rowId instanceof Row) {
+            row = ((Row) rowId).clone();
+            // for ACL collections, make sure the order is correct
+            // (without the cache, the query to get a list of collection does an
+            // ORDER BY pos, so users of the cache must get the same behavior)
+            if (row.isCollection() && row.values.length > 0 && row.values[0] instanceof ACLRow) {
+                row.values = sortACLRows((ACLRow[]) row.values);
+            }
+        } else {
+            row = new Row(ABSENT, (Serializable) null);
+        }
+        cache.putIfNotInvalidated(epoch, new RowId(rowId), row);
+    }
+
+    protected ACLRow[] sortACLRows(ACLRow[] acls) {
+        ACLRow[] res = acls.clone();
+        Arrays.sort(res, ACLRowPositionComparator.INSTANCE);
+        return res;
+    }
+
+    protected Row cacheGet(RowId rowId) {
+        if (isLocallyModified(rowId)) {
+            return null;
+        }
+        Row row = cache.get(rowId);
+        if (row != null && !isAbsent(row)) {
+            row = row.clone();
+        }
+        return row;
+    }
+
+    protected void cacheRemove(RowId rowId) {
+        cache.invalidate(rowId);
+    }
+
+    /*
+     * ----- Invalidations / Cache Management -----
+     */
+
+    @Override
+    public VCSInvalidations receiveInvalidations() {
+        // invalidations from the underlying mapper (cluster)
+        // already propagated to our invalidations queue
+        VCSInvalidations remoteInvals = rowMapper.receiveInvalidations();
+
+        VCSInvalidations ret = invalidationsQueue.getInvalidations();
+
+        // only handle remote invalidations, the invalidations from other local mappers
+        // were applied to the shared cache when they were sent
+        if (remoteInvals != null && !remoteInvals.isEmpty()) {
+            cache.invalidate(remoteInvals);
+        }
+
+        return ret.isEmpty() ? null : ret;
+    }
+
+    // propagate invalidations
+    @Override
+    public void sendInvalidations(VCSInvalidations invalidations) {
+        // add local invalidations
+        if (!localInvalidations.isEmpty()) {
+            if (invalidations == null) {
+                invalidations = new VCSInvalidations();
+            }
+            invalidations.add(localInvalidations);
+            localInvalidations.clear();
+        }
+
+        if (invalidations != null && !invalidations.isEmpty()) {
+            // invalidate the shared cache now that the transaction is committed
+            cache.invalidate(invalidations);
+
+            // send to underlying mapper
+            rowMapper.sendInvalidations(invalidations);
+
+            // queue to other mappers' caches
+            invalidationsPropagator.propagateInvalidations(invalidations, invalidationsQueue);
+        }
+    }
+
+    @Override
+    public void clearCache() {
+        cache.invalidateAll();
+        localInvalidations.clear();
+        rowMapper.clearCache();
+    }
+
+    @Override
+    public void rollback() {
+        try {
+            rowMapper.rollback();
+        } finally {
+            // the shared cache never held the rolled back rows
+            localInvalidations.clear();
+        }
+    }
+
+    /*
+     * ----- Batch -----
+     */
+
+    /*
+     * Use those from the cache if available, read from the mapper for the rest.
+     */
+    @Override
+    public List<? extends RowId> read(Collection<RowId> rowIds, boolean cacheOnly) {
+        List<RowId> res = new ArrayList<>(rowIds.size());
+        // find which are in cache, and which not
+        List<RowId> todo = new ArrayList<>();
+        for (RowId rowId : rowIds) {
+            Row row = cacheGet(rowId);
+            if (row == null) {
+                if (cacheOnly) {
+                    res.add(new RowId(rowId));
+                } else {
+                    todo.add(rowId);
+                }
+            } else if (isAbsent(row)) {
+                res.add(new RowId(rowId));
+            } else {
+                res.add(row);
+            }
+        }
+        if (!todo.isEmpty()) {
+            long epoch = cache.getEpoch();
+            // ask missing ones to underlying row mapper
+            List<? extends RowId> fetched = rowMapper.read(todo, cacheOnly);
+            // add them to the cache
+            for (RowId rowId : fetched) {
+                cachePut(epoch, rowId);
+            }
+            // merge results
+            res.addAll(fetched);
+        }
+        return res;
+    }
+
+    /*
+     * Record the writes as local invalidations, then pass them to the mapper.
+     */
+    @Override
+    public void write(RowBatch batch) {
+        for (Row row : batch.creates) {
+            // we need to record created fragments because the shared cache may hold them as absent
+            localModified(new RowId(row));
+        }
+        for (RowUpdate rowu : batch.updates) {
+            localModified(new RowId(rowu.row));
+        }
+        for (RowId rowId : batch.deletes) {
+            if (rowId instanceof Row) {
+                throw new AssertionError();
+            }
+            localDeleted(rowId);
+        }
+        for (RowId rowId : batch.deletesDependent) {
+            if (rowId instanceof Row) {
+                throw new AssertionError();
+            }
+            localDeleted(rowId);
+        }
+
+        // propagate to underlying mapper
+        rowMapper.write(batch);
+    }
+
+    protected void localModified(RowId rowId) {
+        if (Model.FULLTEXT_TABLE_NAME.equals(rowId.tableName)) {
+            // write-only table, but the cache may hold it if it was read
+            cacheRemove(rowId);
+        } else {
+            localInvalidations.addModified(rowId);
+        }
+    }
+
+    protected void localDeleted(RowId rowId) {
+        if (Model.FULLTEXT_TABLE_NAME.equals(rowId.tableName)) {
+            cacheRemove(rowId);
+        } else {
+            localInvalidations.addDeleted(rowId);
+        }
+    }
+
+    /*
+     * ----- Read -----
+     */
+
+    @Override
+    public Row readSimpleRow(RowId rowId) {
+        Row row = cacheGet(rowId);
+        if (row == null) {
+            long epoch = cache.getEpoch();
+            row = rowMapper.readSimpleRow(rowId);
+            cachePut(epoch, row == null ? new RowId(rowId) : row);
+            return row;
+        } else if (isAbsent(row)) {
+            return null;
+        } else {
+            return row;
+        }
+    }
+
+    @Override
+    public Map<String, String> getBinaryFulltext(RowId rowId) {
+        return rowMapper.getBinaryFulltext(rowId);
+    }
+
+    @Override
+    public Serializable[] readCollectionRowArray(RowId rowId) {
+        Row row = cacheGet(rowId);
+        if (row == null) {
+            long epoch = cache.getEpoch();
+            Serializable[] array = rowMapper.readCollectionRowArray(rowId);
+            assert array != null;
+            row = new Row(rowId.tableName, rowId.id, array);
+            cachePut(epoch, row);
+            return row.values;
+        } else if (isAbsent(row)) {
+            return null;
+        } else {
+            return row.values;
+        }
+    }
+
+    @Override
+    public List<Row> readSelectionRows(SelectionType selType, Serializable selId, Serializable filter,
+            Serializable criterion, boolean limitToOne) {
+        long epoch = cache.getEpoch();
+        List<Row> rows = rowMapper.readSelectionRows(selType, selId, filter, criterion, limitToOne);
+        for (Row row : rows) {
+            cachePut(epoch, row);
+        }
+        return rows;
+    }
+
+    @Override
+    public Set<Serializable> readSelectionsIds(SelectionType selType, List<Serializable> values) {
+        return rowMapper.readSelectionsIds(selType, values);
+    }
+
+    /*
+     * ----- Copy -----
+     */
+
+    @Override
+    public CopyResult copy(IdWithTypes source, Serializable destParentId, String destName, Row overwriteRow,
+            boolean excludeSpecialChildren, boolean excludeACL) {
+        CopyResult result = rowMapper.copy(source, destParentId, destName, overwriteRow, excludeSpecialChildren,
+                excludeACL);
+        VCSInvalidations invalidations = result.invalidations;
+        if (invalidations.modified != null) {
+            for (RowId rowId : invalidations.modified) {
+                localInvalidations.addModified(new RowId(rowId));
+            }
+        }
+        if (invalidations.deleted != null) {
+            for (RowId rowId : invalidations.deleted) {
+                localInvalidations.addDeleted(rowId);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<NodeInfo> getDescendantsInfo(Serializable rootId) {
+        return rowMapper.getDescendantsInfo(rootId);
+    }
+
+    @Override
+    public void remove(Serializable rootId, List<NodeInfo> nodeInfos) {
+        rowMapper.remove(rootId, nodeInfos);
+        for (NodeInfo info : nodeInfos) {
+            for (String fragmentName : model.getTypeFragments(new IdWithTypes(info))) {
+                localInvalidations.addDeleted(new RowId(fragmentName, info.id));
+            }
+        }
+    }
+
+    @Override
+    public long getCacheSize() {
+        // the shared cache is reported by its size gauge
+        return 0;
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.sql;
+
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.common.utils.SizeUtils;
+import org.nuxeo.runtime.metrics.MetricsService;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.Weigher;
+
+import io.dropwizard.metrics5.Counter;
+import io.dropwizard.metrics5.Gauge;
+import io.dropwizard.metrics5.MetricName;
+import io.dropwizard.metrics5.MetricRegistry;
+import io.dropwizard.metrics5.SharedMetricRegistries;
+
+/**
+ * A repository-wide cache of {@link Row}s, bounded by an estimated size in bytes, shared by all the
+ * {@link SharedCachingRowMapper}s of a repository.
+ * <p>
+ * The cache only holds committed rows. To avoid caching a row read concurrently with its invalidation, each
+ * invalidation increments an epoch, and rows read from the database are only put in the cache if no invalidation
+ * happened since the read started.
+ *
+ * @since 11.5
+ */
+public class SharedRowCache {
+
+    private static final Log log = LogFactory.getLog(SharedRowCache.class);
+
+    /** Property for the maximum estimated size of the cache, in bytes or with a unit like {@code 512m}. */
+    public static final String MAX_MEMORY_PROP = "maxMemory";
+
+    public static final String MAX_MEMORY_DEFAULT = "100m";
+
+    /** Property for the time in seconds after which an entry not accessed is evicted, or {@code 0} for no expiry. */
+    public static final String EXPIRE_AFTER_ACCESS_PROP = "expireAfterAccess";
+
+    protected static final Map<String, SharedRowCache> CACHES = new HashMap<>();
+
+    protected static final MetricName METRIC_PREFIX = MetricName.build("nuxeo", "repositories", "repository", "cache",
+            "shared");
+
+    protected final String repositoryName;
+
+    protected final Cache<RowId, Row> cache;
+
+    protected final AtomicLong epoch = new AtomicLong();
+
+    protected final AtomicLong weight = new AtomicLong();
+
+    protected final LongAdder evictionCount = new LongAdder();
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    protected final Map<String, Counter> hitCounters = new ConcurrentHashMap<>();
+
+    protected final Map<String, Counter> missCounters = new ConcurrentHashMap<>();
+
+    protected int refCount;
+
+    /**
+     * Gets the shared cache of a repository, creating it if needed. Must be balanced by a call to {@link #release}.
+     */
+    public static SharedRowCache acquire(String repositoryName, Map<String, String> properties) {
+        synchronized (CACHES) {
+            SharedRowCache cache = CACHES.computeIfAbsent(repositoryName, k -> new SharedRowCache(k, properties));
+            cache.refCount++;
+            return cache;
+        }
+    }
+
+    /**
+     * Releases the shared cache of a repository, discarding it when it's not used anymore.
+     */
+    public void release() {
+        synchronized (CACHES) {
+            if (--refCount == 0) {
+                CACHES.remove(repositoryName);
+                cache.invalidateAll();
+                registry.removeMatching((name, metric) -> name.getKey().startsWith(METRIC_PREFIX.getKey())
+                        && repositoryName.equals(name.getTags().get("repository")));
+            }
+        }
+    }
+
+    protected SharedRowCache(String repositoryName, Map<String, String> properties) {
+        this.repositoryName = repositoryName;
+        long maxMemory = SizeUtils.parseSizeInBytes(properties.getOrDefault(MAX_MEMORY_PROP, MAX_MEMORY_DEFAULT));
+        long expireAfterAccess = Long.parseLong(properties.getOrDefault(EXPIRE_AFTER_ACCESS_PROP, "0"));
+        Weigher<RowId, Row> weigher = SharedRowCache::weigh;
+        CacheBuilder<RowId, Row> builder = CacheBuilder.newBuilder() //
+                                                       .maximumWeight(maxMemory)
+                                                       .weigher(weigher)
+                                                       .removalListener(notification -> {
+                                                           if (notification.getCause() == RemovalCause.SIZE) {
+                                                               evictionCount.increment();
+                                                           }
+                                                           if (notification.getKey() != null
+                                                                   && notification.getValue() != null) {
+                                                               weight.addAndGet(-weigh(notification.getKey(),
+                                                                       notification.getValue()));
+                                                           }
+                                                       });
+        if (expireAfterAccess > 0) {
+            builder.expireAfterAccess(expireAfterAccess, TimeUnit.SECONDS);
+        }
+        cache = builder.build();
+        registerGauge("size", cache::size);
+        registerGauge("weight", weight::get);
+        registerGauge("eviction", evictionCount::sum);
+        log.info("Created shared row cache for repository: " + repositoryName + " with maxMemory: " + maxMemory);
+    }
+
+    protected void registerGauge(String name, Gauge<Long> gauge) {
+        MetricName metricName = METRIC_PREFIX.append(MetricName.build(name)).tagged("repository", repositoryName);
+        registry.remove(metricName);
+        registry.register(metricName, gauge);
+    }
+
+    protected Counter getCounter(Map<String, Counter> counters, String name, String tableName) {
+        return counters.computeIfAbsent(tableName, k -> registry.counter(
+                METRIC_PREFIX.append(MetricName.build(name)).tagged("repository", repositoryName, "table", k)));
+    }
+
+    /**
+     * Gets the current invalidation epoch, to pass to {@link #putIfNotInvalidated} after a read from the database.
+     */
+    public long getEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Gets a row from the cache, recording a hit or a miss for its table.
+     *
+     * @return the cached row, which must not be modified, or {@code null} if not in the cache
+     */
+    public Row get(RowId rowId) {
+        Row row = cache.getIfPresent(rowId);
+        getCounter(row == null ? missCounters : hitCounters, row == null ? "miss" : "hit", rowId.tableName).inc();
+        return row;
+    }
+
+    /**
+     * Puts a row in the cache, unless an invalidation happened since the given epoch.
+     *
+     * @param epoch the epoch at which the read of the row from the database started
+     * @param key the key of the row
+     * @param row the row, which must not be modified afterwards
+     */
+    public void putIfNotInvalidated(long epoch, RowId key, Row row) {
+        if (this.epoch.get() != epoch) {
+            return;
+        }
+        cache.put(key, row);
+        weight.addAndGet(weigh(key, row));
+        if (this.epoch.get() != epoch) {
+            // invalidated meanwhile
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Removes a row from the cache.
+     */
+    public void invalidate(RowId rowId) {
+        epoch.incrementAndGet();
+        cache.invalidate(rowId);
+    }
+
+    /**
+     * Removes the rows referenced by invalidations from the cache.
+     */
+    public void invalidate(VCSInvalidations invalidations) {
+        if (invalidations.all) {
+            invalidateAll();
+            return;
+        }
+        epoch.incrementAndGet();
+        if (invalidations.modified != null) {
+            cache.invalidateAll(invalidations.modified);
+        }
+        if (invalidations.deleted != null) {
+            cache.invalidateAll(invalidations.deleted);
+        }
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /*
+     * ----- Size estimation -----
+     */
+
+    protected static final int OBJECT_SIZE = 16;
+
+    protected static final int REFERENCE_SIZE = 8;
+
+    protected static final int STRING_SIZE = 40;
+
+    protected static final int CALENDAR_SIZE = 64;
+
+    // ACLRow with its strings
+    protected static final int ACL_ROW_SIZE = 200;
+
+    /**
+     * Estimates the size in bytes of a cache entry. Keys and table names are shared and not counted.
+     */
+    protected static int weigh(RowId rowId, Row row) {
+        long size = 2 * OBJECT_SIZE + estimateSize(rowId.id);
+        if (row.values != null) {
+            size += OBJECT_SIZE + (long) REFERENCE_SIZE * row.values.length;
+            if (!row.isCollection() && row.keys != null) {
+                size += OBJECT_SIZE + (long) REFERENCE_SIZE * row.keys.length;
+            }
+            for (Serializable value : row.values) {
+                size += estimateSize(value);
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    protected static long estimateSize(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        } else if (value instanceof String) {
+            return STRING_SIZE + ((String) value).length();
+        } else if (value instanceof Calendar) {
+            return CALENDAR_SIZE;
+        } else if (value instanceof ACLRow) {
+            return ACL_ROW_SIZE;
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            long size = OBJECT_SIZE + (long) REFERENCE_SIZE * array.length;
+            for (Object v : array) {
+                size += estimateSize(v);
+            }
+            return size;
+        } else {
+            // Long, Double and other scalars
+            return OBJECT_SIZE;
+        }
+    }
+
+}
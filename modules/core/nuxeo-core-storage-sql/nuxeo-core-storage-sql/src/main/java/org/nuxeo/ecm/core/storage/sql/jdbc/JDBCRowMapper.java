@@ -78,6 +78,13 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
     /** Property to determine whether collection appends delete all then re-insert, or are optimized for append. */
     public static final String COLLECTION_DELETE_BEFORE_APPEND_PROP = "org.nuxeo.vcs.list-delete-before-append";
 
+    /**
+     * Property to disable the read of several tables in a single statement, when the database supports it.
+     *
+     * @since 11.5
+     */
+    public static final String MULTI_TABLE_READ_PROP = "org.nuxeo.vcs.read.multi-table";
+
     /**
      * Cluster invalidator, or {@code null} if this mapper does not participate in invalidation propagation (cluster
      * invalidator, lock manager).
@@ -88,6 +95,8 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
 
     private final boolean collectionDeleteBeforeAppend;
 
+    private final boolean multiTableRead;
+
     private final CollectionIO aclCollectionIO;
 
     private final CollectionIO scalarCollectionIO;
@@ -99,6 +108,8 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
         this.invalidationsPropagator = invalidationsPropagator;
         ConfigurationService configurationService = Framework.getService(ConfigurationService.class);
         collectionDeleteBeforeAppend = configurationService.isBooleanTrue(COLLECTION_DELETE_BEFORE_APPEND_PROP);
+        multiTableRead = dialect.supportsMultipleResultSets()
+                && !configurationService.isBooleanFalse(MULTI_TABLE_READ_PROP);
         aclCollectionIO = new ACLCollectionIO(collectionDeleteBeforeAppend);
         scalarCollectionIO = new ScalarCollectionIO(collectionDeleteBeforeAppend);
     }
@@ -171,50 +182,133 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
         for (RowId rowId : rowIds) {
             tableIds.computeIfAbsent(rowId.tableName, k -> new HashSet<>()).add(rowId.id);
         }
-        // read on each table
+        // plan one select per table and chunk of ids
+        int chunkSize = sqlInfo.getMaximumArgsForIn();
+        List<Pair<String, List<Serializable>>> selects = new ArrayList<>();
         for (Entry<String, Set<Serializable>> en : tableIds.entrySet()) {
             String tableName = en.getKey();
-            Set<Serializable> ids = new HashSet<>(en.getValue());
-            int size = ids.size();
-            int chunkSize = sqlInfo.getMaximumArgsForIn();
-            List<Row> rows;
-            if (size > chunkSize) {
-                List<Serializable> idList = new ArrayList<>(ids);
-                rows = new ArrayList<>(size);
-                for (int start = 0; start < size; start += chunkSize) {
-                    int end = start + chunkSize;
-                    if (end > size) {
-                        end = size;
-                    }
-                    // needs to be Serializable -> copy
-                    List<Serializable> chunkIds = new ArrayList<>(idList.subList(start, end));
-                    List<Row> chunkRows;
-                    if (model.isCollectionFragment(tableName)) {
-                        chunkRows = readCollectionArrays(tableName, chunkIds);
-                    } else {
-                        chunkRows = readSimpleRows(tableName, chunkIds);
-                    }
-                    rows.addAll(chunkRows);
+            // needs to be Serializable -> copy
+            List<Serializable> idList = new ArrayList<>(en.getValue());
+            int size = idList.size();
+            for (int start = 0; start < size; start += chunkSize) {
+                int end = Math.min(start + chunkSize, size);
+                selects.add(Pair.of(tableName, new ArrayList<>(idList.subList(start, end))));
+            }
+        }
+        List<Row> rows = new ArrayList<>();
+        if (multiTableRead && selects.size() > 1) {
+            // group the selects into statements having no more parameters than allowed for a single IN
+            List<Pair<String, List<Serializable>>> group = new ArrayList<>();
+            int groupSize = 0;
+            for (Pair<String, List<Serializable>> select : selects) {
+                int size = select.getRight().size();
+                if (!group.isEmpty() && groupSize + size > chunkSize) {
+                    rows.addAll(readRowsMultiTable(group));
+                    group = new ArrayList<>();
+                    groupSize = 0;
                 }
+                group.add(select);
+                groupSize += size;
+            }
+            rows.addAll(readRowsMultiTable(group));
+        } else {
+            for (Pair<String, List<Serializable>> select : selects) {
+                rows.addAll(readRows(select.getLeft(), select.getRight()));
+            }
+        }
+        // check we have all the ids (readSimpleRows may have some missing)
+        for (Row row : rows) {
+            res.add(row);
+            tableIds.get(row.tableName).remove(row.id);
+        }
+        // for the missing ids record an empty RowId
+        for (Entry<String, Set<Serializable>> en : tableIds.entrySet()) {
+            for (Serializable id : en.getValue()) {
+                res.add(new RowId(en.getKey(), id));
+            }
+        }
+        return res;
+    }
+
+    protected List<Row> readRows(String tableName, Collection<Serializable> ids) {
+        if (model.isCollectionFragment(tableName)) {
+            return readCollectionArrays(tableName, ids);
+        } else {
+            return readSimpleRows(tableName, ids);
+        }
+    }
+
+    /**
+     * Reads the rows of several tables in a single round trip to the database, using one statement made of several
+     * selects returning one result set each.
+     *
+     * @param selects the table names and ids to read
+     * @return the list of rows, without the missing ones for simple fragments
+     * @since 11.5
+     */
+    protected List<Row> readRowsMultiTable(List<Pair<String, List<Serializable>>> selects) {
+        List<Row> res = new ArrayList<>();
+        List<Pair<String, List<Serializable>>> todo = new ArrayList<>();
+        List<SQLInfoSelect> sqlSelects = new ArrayList<>();
+        for (Pair<String, List<Serializable>> select : selects) {
+            String tableName = select.getLeft();
+            List<Serializable> ids = select.getRight();
+            SQLInfoSelect sqlSelect;
+            if (model.isCollectionFragment(tableName)) {
+                sqlSelect = getSelectCollectionArrays(tableName, ids.size());
             } else {
-                if (model.isCollectionFragment(tableName)) {
-                    rows = readCollectionArrays(tableName, ids);
-                } else {
-                    rows = readSimpleRows(tableName, ids);
+                sqlSelect = sqlInfo.getSelectFragmentsByIds(tableName, ids.size());
+                if (sqlSelect.whatColumns.isEmpty()) {
+                    // all columns are opaque, no actual select needed
+                    res.addAll(readSimpleRows(tableName, ids));
+                    continue;
                 }
             }
-            // check we have all the ids (readSimpleRows may have some
-            // missing)
-            for (Row row : rows) {
-                res.add(row);
-                ids.remove(row.id);
+            todo.add(select);
+            sqlSelects.add(sqlSelect);
+        }
+        if (todo.size() <= 1) {
+            todo.forEach(select -> res.addAll(readRows(select.getLeft(), select.getRight())));
+            return res;
+        }
+        String sql = sqlSelects.stream().map(select -> select.sql).collect(Collectors.joining("; "));
+        if (logger.isLogEnabled()) {
+            List<Serializable> values = new ArrayList<>();
+            todo.forEach(select -> values.addAll(select.getRight()));
+            logger.logSQL(sql, values);
+        }
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            int i = 1;
+            for (int n = 0; n < todo.size(); n++) {
+                Column whereColumn = sqlSelects.get(n).whereColumns.get(0);
+                for (Serializable id : todo.get(n).getRight()) {
+                    whereColumn.setToPreparedStatement(ps, i++, id);
+                }
             }
-            // for the missing ids record an empty RowId
-            for (Serializable id : ids) {
-                res.add(new RowId(tableName, id));
+            boolean isResultSet = ps.execute();
+            countExecute();
+            for (int n = 0; n < todo.size(); n++) {
+                while (!isResultSet && ps.getUpdateCount() != -1) {
+                    isResultSet = ps.getMoreResults();
+                }
+                if (!isResultSet) {
+                    throw new NuxeoException("Missing result set " + n + " for: " + sql);
+                }
+                String tableName = todo.get(n).getLeft();
+                SQLInfoSelect select = sqlSelects.get(n);
+                try (ResultSet rs = ps.getResultSet()) {
+                    if (model.isCollectionFragment(tableName)) {
+                        res.addAll(getCollectionArrays(tableName, select, todo.get(n).getRight(), rs));
+                    } else {
+                        res.addAll(getSimpleRows(tableName, select, rs));
+                    }
+                }
+                isResultSet = ps.getMoreResults();
             }
+            return res;
+        } catch (SQLException e) {
+            throw new NuxeoException("Could not select: " + sql, e);
         }
-        return res;
     }
 
     /**
@@ -233,6 +327,39 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
         return getSelectRows(tableName, select, criteriaMap, null, false);
     }
 
+    /**
+     * Gets the rows for {@link SimpleFragment}s from the result set of a select by ids.
+     *
+     * @since 11.5
+     */
+    protected List<Row> getSimpleRows(String tableName, SQLInfoSelect select, ResultSet rs) throws SQLException {
+        List<Row> list = new LinkedList<>();
+        while (rs.next()) {
+            Row row = new Row(tableName, (Serializable) null); // id set through select
+            int i = 1;
+            for (Column column : select.whatColumns) {
+                row.put(column.getKey(), column.getFromResultSet(rs, i++));
+            }
+            if (select.opaqueColumns != null) {
+                for (Column column : select.opaqueColumns) {
+                    row.putNew(column.getKey(), Row.OPAQUE);
+                }
+            }
+            if (logger.isLogEnabled()) {
+                logger.logResultSet(rs, select.whatColumns);
+            }
+            list.add(row);
+        }
+        return list;
+    }
+
+    protected SQLInfoSelect getSelectCollectionArrays(String tableName, int size) {
+        String[] orderBys = { Model.MAIN_KEY, Model.COLL_TABLE_POS_KEY }; // clusters
+                                                                          // results
+        Set<String> skipColumns = new HashSet<>(Collections.singleton(Model.COLL_TABLE_POS_KEY));
+        return sqlInfo.getSelectFragmentsByIds(tableName, size, orderBys, skipColumns);
+    }
+
     /**
      * Reads several collection rows, given a table name and the ids.
      *
@@ -243,10 +370,7 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
         if (ids.isEmpty()) {
             return Collections.emptyList();
         }
-        String[] orderBys = { Model.MAIN_KEY, Model.COLL_TABLE_POS_KEY }; // clusters
-                                                                          // results
-        Set<String> skipColumns = new HashSet<>(Collections.singleton(Model.COLL_TABLE_POS_KEY));
-        SQLInfoSelect select = sqlInfo.getSelectFragmentsByIds(tableName, ids.size(), orderBys, skipColumns);
+        SQLInfoSelect select = getSelectCollectionArrays(tableName, ids.size());
 
         String sql = select.sql;
         if (logger.isLogEnabled()) {
@@ -259,55 +383,64 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
             }
             try (ResultSet rs = ps.executeQuery()) {
                 countExecute();
+                return getCollectionArrays(tableName, select, ids, rs);
+            }
+        } catch (SQLException e) {
+            throw new NuxeoException("Could not select: " + sql, e);
+        }
+    }
 
-                // get all values from result set, separate by ids
-                // the result set is ordered by id, pos
-                CollectionIO io = getCollectionIO(tableName);
-                PropertyType ftype = model.getCollectionFragmentType(tableName);
-                PropertyType type = ftype.getArrayBaseType();
-                Serializable curId = null;
-                List<Serializable> list = null;
-                Serializable[] returnId = new Serializable[1];
-                int[] returnPos = { -1 };
-                List<Row> res = new LinkedList<>();
-                Set<Serializable> remainingIds = new HashSet<>(ids);
-                while (rs.next()) {
-                    Serializable value = io.getCurrentFromResultSet(rs, select.whatColumns, model, returnId, returnPos);
-                    Serializable newId = returnId[0];
-                    if (newId != null && !newId.equals(curId)) {
-                        // flush old list
-                        if (list != null) {
-                            res.add(new Row(tableName, curId, type.collectionToArray(list)));
-                            remainingIds.remove(curId);
-                        }
-                        curId = newId;
-                        list = new ArrayList<>();
-                    }
-                    list.add(value); // NOSONAR
-                }
-                if (curId != null && list != null) {
-                    // flush last list
+    /**
+     * Gets the collection rows from the result set of a select by ids, ordered by id and pos.
+     *
+     * @since 11.5
+     */
+    protected List<Row> getCollectionArrays(String tableName, SQLInfoSelect select, Collection<Serializable> ids,
+            ResultSet rs) throws SQLException {
+        // get all values from result set, separate by ids
+        // the result set is ordered by id, pos
+        CollectionIO io = getCollectionIO(tableName);
+        PropertyType ftype = model.getCollectionFragmentType(tableName);
+        PropertyType type = ftype.getArrayBaseType();
+        Serializable curId = null;
+        List<Serializable> list = null;
+        Serializable[] returnId = new Serializable[1];
+        int[] returnPos = { -1 };
+        List<Row> res = new LinkedList<>();
+        Set<Serializable> remainingIds = new HashSet<>(ids);
+        while (rs.next()) {
+            Serializable value = io.getCurrentFromResultSet(rs, select.whatColumns, model, returnId, returnPos);
+            Serializable newId = returnId[0];
+            if (newId != null && !newId.equals(curId)) {
+                // flush old list
+                if (list != null) {
                     res.add(new Row(tableName, curId, type.collectionToArray(list)));
                     remainingIds.remove(curId);
                 }
+                curId = newId;
+                list = new ArrayList<>();
+            }
+            list.add(value); // NOSONAR
+        }
+        if (curId != null && list != null) {
+            // flush last list
+            res.add(new Row(tableName, curId, type.collectionToArray(list)));
+            remainingIds.remove(curId);
+        }
 
-                // fill empty ones
-                if (!remainingIds.isEmpty()) {
-                    Serializable[] emptyArray = ftype.getEmptyArray();
-                    for (Serializable id : remainingIds) {
-                        res.add(new Row(tableName, id, emptyArray));
-                    }
-                }
-                if (logger.isLogEnabled()) {
-                    for (Row row : res) {
-                        logger.log("  -> " + row);
-                    }
-                }
-                return res;
+        // fill empty ones
+        if (!remainingIds.isEmpty()) {
+            Serializable[] emptyArray = ftype.getEmptyArray();
+            for (Serializable id : remainingIds) {
+                res.add(new Row(tableName, id, emptyArray));
             }
-        } catch (SQLException e) {
-            throw new NuxeoException("Could not select: " + sql, e);
         }
+        if (logger.isLogEnabled()) {
+            for (Row row : res) {
+                logger.log("  -> " + row);
+            }
+        }
+        return res;
     }
 
     /**
@@ -970,8 +1103,13 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
             // create the new hierarchy by copy
             boolean resetVersion = destParentId != null;
             Set<Serializable> recordIds = new HashSet<>();
-            Serializable newRootId = copyHierRecursive(source, destParentId, destName, overwriteId, resetVersion, idMap,
-                    idToTypes, recordIds, excludeSpecialChildren);
+            Serializable newRootId;
+            SQLInfoSelect copyChildren = sqlInfo.getCopyHier(false, resetVersion);
+            try (CopyHierBatch childrenBatch = new CopyHierBatch(copyChildren)) {
+                newRootId = copyHierRecursive(source, destParentId, destName, overwriteId, resetVersion, idMap,
+                        idToTypes, recordIds, excludeSpecialChildren, childrenBatch);
+                childrenBatch.flush();
+            }
             // invalidate children
             Serializable invalParentId = overwriteId == null ? destParentId : overwriteId;
             if (invalParentId != null) { // null for a new version
@@ -1057,17 +1195,20 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
      * filled with the type of each (source) fragment. {@code recordIds} is filled with the copied ids of documents that
      * used to be records.
      * <p>
-     * TODO: this should be optimized to use a stored procedure.
+     * The copies of the descendants are created through {@code childrenBatch}, which batches their inserts.
      *
      * @param overwriteId when not {@code null}, the copy is done onto this existing node (skipped)
      * @return the new root id
      */
     protected Serializable copyHierRecursive(IdWithTypes source, Serializable parentId, String name,
             Serializable overwriteId, boolean resetVersion, Map<Serializable, Serializable> idMap,
-            Map<Serializable, IdWithTypes> idToTypes, Set<Serializable> recordIds, boolean excludeSpecialChildren) throws SQLException {
+            Map<Serializable, IdWithTypes> idToTypes, Set<Serializable> recordIds, boolean excludeSpecialChildren,
+            CopyHierBatch childrenBatch) throws SQLException {
         idToTypes.put(source.id, source);
         Serializable newId;
-        if (overwriteId == null) {
+        if (overwriteId == null && name == null) {
+            newId = childrenBatch.copy(source.id, parentId, idMap);
+        } else if (overwriteId == null) {
             newId = copyHier(source.id, parentId, name, resetVersion, idMap);
         } else {
             newId = overwriteId;
@@ -1080,7 +1221,8 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
         // recurse in children, exclude regular children (in the case of a versionable folderish)
         boolean excludeRegularChildren = parentId == null;
         for (IdWithTypes child : getChildrenIdsWithTypes(source.id, excludeSpecialChildren, excludeRegularChildren)) {
-            copyHierRecursive(child, newId, null, null, resetVersion, idMap, idToTypes, recordIds, excludeSpecialChildren);
+            copyHierRecursive(child, newId, null, null, resetVersion, idMap, idToTypes, recordIds,
+                    excludeSpecialChildren, childrenBatch);
         }
         return newId;
     }
@@ -1101,47 +1243,7 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
         SQLInfoSelect copy = sqlInfo.getCopyHier(explicitName, resetVersion);
         try (PreparedStatement ps = connection.prepareStatement(copy.sql)) {
             Serializable newId = generateNewId();
-
-            List<Serializable> debugValues = null;
-            if (logger.isLogEnabled()) {
-                debugValues = new ArrayList<>(4);
-            }
-            int i = 1;
-            for (Column column : copy.whatColumns) {
-                String key = column.getKey();
-                Serializable v;
-                if (key.equals(Model.HIER_PARENT_KEY)) {
-                    v = parentId;
-                } else if (key.equals(Model.HIER_CHILD_NAME_KEY)) {
-                    // present if name explicitely set (first iteration)
-                    v = name;
-                } else if (key.equals(Model.MAIN_KEY)) {
-                    // present if APP_UUID generation
-                    v = newId;
-                } else if (key.equals(Model.MAIN_IS_RECORD_KEY)) {
-                    // records are reset on copy
-                    v = null;
-                } else if (key.equals(Model.MAIN_BASE_VERSION_KEY) || key.equals(Model.MAIN_CHECKED_IN_KEY)) {
-                    v = null;
-                } else if (key.equals(Model.MAIN_MINOR_VERSION_KEY) || key.equals(Model.MAIN_MAJOR_VERSION_KEY)) {
-                    // present if reset version (regular copy, not checkin)
-                    // reset the version to 0
-                    v = 0L;
-                } else {
-                    throw new RuntimeException(column.toString());
-                }
-                column.setToPreparedStatement(ps, i++, v);
-                if (debugValues != null) {
-                    debugValues.add(v);
-                }
-            }
-            // last parameter is for 'WHERE "id" = ?'
-            Column whereColumn = copy.whereColumns.get(0);
-            whereColumn.setToPreparedStatement(ps, i, id);
-            if (debugValues != null) {
-                debugValues.add(id);
-                logger.logSQL(copy.sql, debugValues);
-            }
+            setCopyHierValues(ps, copy, id, newId, parentId, name, copy.sql);
             ps.executeUpdate();
             countExecute();
 
@@ -1153,6 +1255,115 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
         }
     }
 
+    /**
+     * Sets the values of a statement copying a hierarchy row.
+     */
+    protected void setCopyHierValues(PreparedStatement ps, SQLInfoSelect copy, Serializable id, Serializable newId,
+            Serializable parentId, String name, String loggedSql) throws SQLException {
+        List<Serializable> debugValues = null;
+        if (logger.isLogEnabled()) {
+            debugValues = new ArrayList<>(4);
+        }
+        int i = 1;
+        for (Column column : copy.whatColumns) {
+            String key = column.getKey();
+            Serializable v;
+            if (key.equals(Model.HIER_PARENT_KEY)) {
+                v = parentId;
+            } else if (key.equals(Model.HIER_CHILD_NAME_KEY)) {
+                // present if name explicitely set (first iteration)
+                v = name;
+            } else if (key.equals(Model.MAIN_KEY)) {
+                // present if APP_UUID generation
+                v = newId;
+            } else if (key.equals(Model.MAIN_IS_RECORD_KEY)) {
+                // records are reset on copy
+                v = null;
+            } else if (key.equals(Model.MAIN_BASE_VERSION_KEY) || key.equals(Model.MAIN_CHECKED_IN_KEY)) {
+                v = null;
+            } else if (key.equals(Model.MAIN_MINOR_VERSION_KEY) || key.equals(Model.MAIN_MAJOR_VERSION_KEY)) {
+                // present if reset version (regular copy, not checkin)
+                // reset the version to 0
+                v = 0L;
+            } else {
+                throw new RuntimeException(column.toString());
+            }
+            column.setToPreparedStatement(ps, i++, v);
+            if (debugValues != null) {
+                debugValues.add(v);
+            }
+        }
+        // last parameter is for 'WHERE "id" = ?'
+        Column whereColumn = copy.whereColumns.get(0);
+        whereColumn.setToPreparedStatement(ps, i, id);
+        if (debugValues != null) {
+            debugValues.add(id);
+            logger.logSQL(loggedSql, debugValues);
+        }
+    }
+
+    /**
+     * Batches the copies of hierarchy rows for the descendants of a copied node, which always keep their name.
+     *
+     * @since 11.5
+     */
+    protected class CopyHierBatch implements AutoCloseable {
+
+        protected final SQLInfoSelect copy;
+
+        protected final PreparedStatement ps;
+
+        protected final String loggedSql;
+
+        protected int batch;
+
+        protected CopyHierBatch(SQLInfoSelect copy) throws SQLException {
+            this.copy = copy;
+            ps = connection.prepareStatement(copy.sql);
+            loggedSql = supportsBatchUpdates ? copy.sql + " -- BATCHED" : copy.sql;
+        }
+
+        /**
+         * Copies hierarchy from id to a new child of parentId, keeping its name.
+         *
+         * @return the new id
+         */
+        protected Serializable copy(Serializable id, Serializable parentId, Map<Serializable, Serializable> idMap)
+                throws SQLException {
+            Serializable newId = generateNewId();
+            setCopyHierValues(ps, copy, id, newId, parentId, null, loggedSql);
+            if (supportsBatchUpdates) {
+                ps.addBatch();
+                batch++;
+                if (batch % UPDATE_BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                    countExecute();
+                }
+            } else {
+                ps.executeUpdate();
+                countExecute();
+            }
+            idMap.put(id, newId);
+            return newId;
+        }
+
+        /**
+         * Executes the pending batched copies.
+         */
+        protected void flush() throws SQLException {
+            if (batch % UPDATE_BATCH_SIZE != 0) {
+                ps.executeBatch();
+                countExecute();
+            }
+            batch = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            ps.close();
+        }
+    }
+
     /**
      * Gets the children ids and types of a node.
      */
@@ -1220,10 +1431,13 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
                 PreparedStatement deletePs = connection.prepareStatement(deleteSql)) {
             boolean before = false;
             boolean after = false;
-            for (Serializable id : ids) {
-                Serializable newId = idMap.get(id);
-                boolean overwrite = newId.equals(overwriteId);
-                if (overwrite) {
+            // the overwritten row is copied first and separately, as we need its counts
+            if (overwriteId != null) {
+                for (Serializable id : ids) {
+                    Serializable newId = idMap.get(id);
+                    if (!newId.equals(overwriteId)) {
+                        continue;
+                    }
                     // remove existing first
                     if (logger.isLogEnabled()) {
                         logger.logSQL(deleteSql, Collections.singletonList(newId));
@@ -1232,18 +1446,46 @@ public class JDBCRowMapper extends JDBCConnection implements RowMapper {
                     int delCount = deletePs.executeUpdate();
                     countExecute();
                     before = delCount > 0;
+                    copyIdColumn.setToPreparedStatement(copyPs, 1, newId);
+                    copyIdColumn.setToPreparedStatement(copyPs, 2, id);
+                    if (logger.isLogEnabled()) {
+                        logger.logSQL(copySql, Arrays.asList(newId, id));
+                    }
+                    int copyCount = copyPs.executeUpdate();
+                    countExecute();
+                    after = copyCount > 0;
+                }
+            }
+            // the other rows are copied by batches
+            boolean batched = supportsBatchUpdates && ids.size() > 1;
+            String loggedSql = batched ? copySql + " -- BATCHED" : copySql;
+            int batch = 0;
+            for (Serializable id : ids) {
+                Serializable newId = idMap.get(id);
+                if (newId.equals(overwriteId)) {
+                    continue; // already done
                 }
                 copyIdColumn.setToPreparedStatement(copyPs, 1, newId);
                 copyIdColumn.setToPreparedStatement(copyPs, 2, id);
                 if (logger.isLogEnabled()) {
-                    logger.logSQL(copySql, Arrays.asList(newId, id));
+                    logger.logSQL(loggedSql, Arrays.asList(newId, id));
                 }
-                int copyCount = copyPs.executeUpdate();
-                countExecute();
-                if (overwrite) {
-                    after = copyCount > 0;
+                if (batched) {
+                    copyPs.addBatch();
+                    batch++;
+                    if (batch % UPDATE_BATCH_SIZE == 0) {
+                        copyPs.executeBatch();
+                        countExecute();
+                    }
+                } else {
+                    copyPs.executeUpdate();
+                    countExecute();
                 }
             }
+            if (batch % UPDATE_BATCH_SIZE != 0) {
+                copyPs.executeBatch();
+                countExecute();
+            }
             // * , n -> mod (TRUE)
             // n , 0 -> del (FALSE)
             // 0 , 0 -> null
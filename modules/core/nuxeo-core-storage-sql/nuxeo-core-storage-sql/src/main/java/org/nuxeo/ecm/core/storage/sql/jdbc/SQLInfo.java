@@ -41,6 +41,7 @@ import org.nuxeo.ecm.core.api.model.Delta;
 import org.nuxeo.ecm.core.api.repository.FulltextConfiguration;
 import org.nuxeo.ecm.core.query.sql.NXQL;
 import org.nuxeo.ecm.core.schema.SchemaManager;
+import org.nuxeo.ecm.core.storage.QueryPlanCache;
 import org.nuxeo.ecm.core.storage.sql.ColumnType;
 import org.nuxeo.ecm.core.storage.sql.Mapper;
 import org.nuxeo.ecm.core.storage.sql.Model;
@@ -83,6 +84,9 @@ public class SQLInfo {
 
     public final boolean proxiesEnabled;
 
+    /** @since 11.5 */
+    public final QueryPlanCache queryPlanCache;
+
     private final Model model;
 
     private String selectRootIdSql;
@@ -151,6 +155,7 @@ public class SQLInfo {
         RepositoryDescriptor repositoryDescriptor = model.getRepositoryDescriptor();
         softDeleteEnabled = repositoryDescriptor.getSoftDeleteEnabled();
         proxiesEnabled = repositoryDescriptor.getProxiesEnabled();
+        queryPlanCache = new QueryPlanCache(repositoryDescriptor.name);
 
         database = new Database(dialect);
 
@@ -1369,6 +1369,16 @@ public abstract class Dialect {
         return true;
     }
 
+    /**
+     * Does the dialect support a prepared statement made of several selects separated by semicolons, returning one
+     * result set for each of them in a single round trip.
+     *
+     * @since 11.5
+     */
+    public boolean supportsMultipleResultSets() {
+        return false;
+    }
+
     /**
      * Registers return parameters.
      * <p>
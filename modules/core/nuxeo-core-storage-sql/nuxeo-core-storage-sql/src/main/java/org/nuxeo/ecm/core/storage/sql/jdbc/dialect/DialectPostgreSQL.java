@@ -1515,4 +1515,9 @@ public class DialectPostgreSQL extends Dialect {
         return String.join(", ", newArgList);
     }
 
+    @Override
+    public boolean supportsMultipleResultSets() {
+        return true;
+    }
+
 }
@@ -929,4 +929,9 @@ public class DialectSQLServer extends Dialect {
         return sql + "\nGO";
     }
 
+    @Override
+    public boolean supportsMultipleResultSets() {
+        return true;
+    }
+
 }
@@ -36,6 +36,10 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
@@ -59,6 +63,13 @@ import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.datasource.ConnectionHelper;
 import org.nuxeo.runtime.kv.AbstractKeyValueStoreProvider;
 import org.nuxeo.runtime.kv.KeyValueStoreDescriptor;
+import org.nuxeo.runtime.metrics.MetricsService;
+
+import io.dropwizard.metrics5.Counter;
+import io.dropwizard.metrics5.Gauge;
+import io.dropwizard.metrics5.MetricName;
+import io.dropwizard.metrics5.MetricRegistry;
+import io.dropwizard.metrics5.SharedMetricRegistries;
 
 /**
  * SQL implementation of a Key/Value Store Provider.
@@ -67,6 +78,10 @@ import org.nuxeo.runtime.kv.KeyValueStoreDescriptor;
  * <ul>
  * <li>datasource: the datasource to use.
  * <li>table: the table to use. The default is the Store name.
+ * <li>writeBehind: {@code true} to enable the write-behind mode (since 11.5). The default is {@code false}.
+ * <li>writeBehindInterval: the interval in milliseconds between two flushes in write-behind mode (since 11.5). The
+ * default is 200.
+ * <li>writeBehindBatchSize: the JDBC batch size of the flushes in write-behind mode (since 11.5). The default is 100.
  * </ul>
  * If a namespace is specified, it is used as a table name suffix, otherwise of the store name.
  * <p>
@@ -74,7 +89,12 @@ import org.nuxeo.runtime.kv.KeyValueStoreDescriptor;
  * columns is used: LONG, STRING, BYTES. If possible LONG is used, then STRING, otherwise BYTES.
  * <p>
  * The TTL is stored as an expiration time (seconds since epoch) in its own column. Expiration is done by a thread
- * running a cleanup DELETE query every 60 seconds.
+ * running every 60 seconds, which finds the expired keys using the TTL index and deletes them by batches.
+ * <p>
+ * In write-behind mode, the puts are not written immediately to the database but kept in memory, where later puts to
+ * the same key replace earlier ones, and a thread flushes them using JDBC batches. Reads from this store see the
+ * pending puts, and {@link #setTTL}, {@link #compareAndSet} and {@link #addAndGet} first flush the pending put of
+ * their key. Other nodes only see the puts once flushed, and the pending puts are lost if the server crashes.
  *
  * @since 10.10
  */
@@ -82,6 +102,33 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
 
     private static final Logger log = LogManager.getLogger(SQLKeyValueStore.class);
 
+    /**
+     * A put not yet written to the database, in write-behind mode.
+     *
+     * @since 11.5
+     */
+    protected static class PendingPut {
+
+        /** The value in storage form, or {@code null} for a delete. */
+        protected final Object value;
+
+        /** The TTL in storage form. */
+        protected final Long ttl;
+
+        protected PendingPut(Object value, Long ttl) {
+            this.value = value;
+            this.ttl = ttl;
+        }
+
+        /** Gets the value, or {@code null} if deleted or expired. */
+        protected Object getValue() {
+            if (ttl != null && ttl.longValue() < System.currentTimeMillis() / 1000) {
+                return null;
+            }
+            return value;
+        }
+    }
+
     /** Datasource configuration property. */
     public static final String DATASOURCE_PROP = "datasource";
 
@@ -103,8 +150,28 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
     /** TTL column, holding expiration date in seconds since epoch, or NULL if there is no expiration. */
     public static final String TTL_COL = "ttl";
 
+    /** Write-behind configuration property. Default is {@code false}. */
+    public static final String WRITE_BEHIND_PROP = "writeBehind";
+
+    /** Write-behind flush interval configuration property, in milliseconds. */
+    public static final String WRITE_BEHIND_INTERVAL_PROP = "writeBehindInterval";
+
+    public static final int WRITE_BEHIND_INTERVAL_DEFAULT = 200;
+
+    /** Write-behind JDBC batch size configuration property. */
+    public static final String WRITE_BEHIND_BATCH_SIZE_PROP = "writeBehindBatchSize";
+
+    public static final int WRITE_BEHIND_BATCH_SIZE_DEFAULT = 100;
+
+    // beyond this number of batches of pending puts, the writer flushes synchronously
+    protected static final int WRITE_BEHIND_MAX_PENDING_BATCHES = 10;
+
     protected static final int TTL_EXPIRATION_FREQUENCY_MS = 60_000; // 60 seconds
 
+    protected static final int TTL_EXPIRATION_BATCH_SIZE = 1000;
+
+    protected static final MetricName METRIC_PREFIX = MetricName.build("nuxeo", "keyvalue", "store");
+
     // maximum number of retries in case of concurrency
     protected static final int MAX_RETRY = 5;
 
@@ -140,6 +207,30 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
 
     protected Thread ttlThread;
 
+    protected boolean writeBehind;
+
+    protected int writeBehindInterval;
+
+    protected int writeBehindBatchSize;
+
+    /**
+     * The puts not yet written to the database in write-behind mode. An entry is only removed once written, if it
+     * wasn't replaced meanwhile.
+     */
+    protected final Map<String, PendingPut> pendingPuts = new ConcurrentHashMap<>();
+
+    /** Lock held while writing pending puts, so that two writes of the same key are never reordered. */
+    protected final ReentrantLock flushLock = new ReentrantLock();
+
+    protected Thread flushThread;
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    protected Counter purgedCounter;
+
+    /** The delay in seconds between the expiration of the oldest expired key and its purge, for the last sweep. */
+    protected final AtomicLong purgeLag = new AtomicLong();
+
     protected String getSQL;
 
     protected String getMultiSQL;
@@ -156,7 +247,9 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
 
     protected String deleteIfBytesSQL;
 
-    protected String expireSQL;
+    protected String expireSelectSQL;
+
+    protected String expireDeleteSQL;
 
     protected String keyStreamSQL;
 
@@ -204,13 +297,55 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
         } catch (SQLException e) {
             throw new NuxeoException(e);
         }
+        writeBehind = Boolean.parseBoolean(properties.get(WRITE_BEHIND_PROP));
+        writeBehindInterval = getIntProperty(properties, WRITE_BEHIND_INTERVAL_PROP, WRITE_BEHIND_INTERVAL_DEFAULT);
+        writeBehindBatchSize = getIntProperty(properties, WRITE_BEHIND_BATCH_SIZE_PROP,
+                WRITE_BEHIND_BATCH_SIZE_DEFAULT);
         prepareSQL();
+        registerMetrics();
         startTTLThread();
+        if (writeBehind) {
+            startFlushThread();
+        }
+    }
+
+    protected static int getIntProperty(Map<String, String> properties, String prop, int defaultValue) {
+        String value = properties.get(prop);
+        if (isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new NuxeoException("Invalid " + prop + " property in configuration: " + value, e);
+        }
     }
 
     @Override
     public void close() {
         stopTTLThread();
+        if (writeBehind) {
+            stopFlushThread();
+            flush();
+        }
+        unregisterMetrics();
+    }
+
+    protected void registerMetrics() {
+        registerGauge(METRIC_PREFIX.append(MetricName.build("pending")), () -> Long.valueOf(pendingPuts.size()));
+        registerGauge(METRIC_PREFIX.append(MetricName.build("purge", "lag")), purgeLag::get);
+        purgedCounter = registry.counter(METRIC_PREFIX.append(MetricName.build("purged")).tagged("store", name));
+    }
+
+    protected void registerGauge(MetricName metricName, Gauge<Long> gauge) {
+        MetricName taggedName = metricName.tagged("store", name);
+        registry.remove(taggedName);
+        registry.register(taggedName, gauge);
+    }
+
+    protected void unregisterMetrics() {
+        registry.removeMatching((metricName, metric) -> metricName.getKey().startsWith(METRIC_PREFIX.getKey())
+                && name.equals(metricName.getTags().get("store")));
     }
 
     protected void getTable(Connection connection, String tbl) throws SQLException {
@@ -253,7 +388,9 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
         deleteIfLongSQL = deleteSQL + " AND " + longColName + " = ?";
         deleteIfStringSQL = deleteSQL + " AND " + dialect.getQuotedNameForExpression(stringCol) + " = ?";
         deleteIfBytesSQL = deleteSQL + " AND " + bytesColName + " = ?";
-        expireSQL = "DELETE FROM " + tableName + " WHERE " + ttlColName + " < ?";
+        expireSelectSQL = "SELECT " + keyColName + ", " + ttlColName + " FROM " + tableName + " WHERE " + ttlColName
+                + " < ? ORDER BY " + ttlColName;
+        expireDeleteSQL = "DELETE FROM " + tableName + " WHERE " + keyColName + " = ? AND " + ttlColName + " < ?";
         keyStreamSQL = "SELECT " + keyColName + " FROM " + tableName;
         keyStreamPrefixSQL = keyStreamSQL + " WHERE " + keyColName + " LIKE ?";
         String esc = dialect.getLikeEscaping();
@@ -314,6 +451,45 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
         log.debug("Stopping TTL expiration thread for KeyValueStore: {}", name);
     }
 
+    protected void startFlushThread() {
+        flushThread = new Thread(this::writeBehindThread);
+        flushThread.setName("Nuxeo-Flush-KeyValueStore-" + name);
+        flushThread.setDaemon(true);
+        flushThread.start();
+    }
+
+    protected void stopFlushThread() {
+        if (flushThread == null) {
+            return;
+        }
+        flushThread.interrupt();
+        flushThread = null;
+    }
+
+    /**
+     * Runs in a thread to write the pending puts in write-behind mode.
+     */
+    protected void writeBehindThread() {
+        log.debug("Starting flush thread for KeyValueStore: {}", name);
+        try {
+            for (;;) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                Thread.sleep(writeBehindInterval);
+                try {
+                    flush();
+                } catch (NuxeoException e) {
+                    // the puts stay pending and will be retried at next flush
+                    log.error("Exception during flush of KeyValueStore: {}", name, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Stopping flush thread for KeyValueStore: {}", name);
+    }
+
     protected String escapeLike(String prefix) {
         return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
@@ -495,13 +671,42 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
         return schemaName;
     }
 
+    /**
+     * Deletes the expired keys, found through the TTL index by batches, so that the database never has to lock and
+     * delete a large number of rows in one statement.
+     */
     protected void expireTTLOnce() {
-        try (Connection connection = getConnection(); //
-                PreparedStatement ps = connection.prepareStatement(expireSQL)) {
+        try (Connection connection = getConnection()) {
             Long ttlDeadline = getTTLValue(0);
-            setToPreparedStatement(expireSQL, ps, ttlCol, ttlDeadline);
-            int count = ps.executeUpdate();
-            logger.logCount(count);
+            long lag = 0;
+            for (;;) {
+                List<String> keys = new ArrayList<>();
+                try (PreparedStatement ps = connection.prepareStatement(expireSelectSQL)) {
+                    ps.setMaxRows(TTL_EXPIRATION_BATCH_SIZE);
+                    setToPreparedStatement(expireSelectSQL, ps, ttlCol, ttlDeadline);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            keys.add((String) keyCol.getFromResultSet(rs, 1));
+                            if (lag == 0) {
+                                // rows are ordered by TTL, the first one is the oldest
+                                Long ttl = (Long) ttlCol.getFromResultSet(rs, 2);
+                                lag = ttlDeadline.longValue() - ttl.longValue();
+                            }
+                        }
+                    }
+                }
+                if (logger.isLogEnabled()) {
+                    logger.log("  -> " + keys.size() + " expired keys");
+                }
+                if (!keys.isEmpty()) {
+                    deleteExpired(connection, keys, ttlDeadline);
+                    purgedCounter.inc(keys.size());
+                }
+                if (keys.size() < TTL_EXPIRATION_BATCH_SIZE || Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+            }
+            purgeLag.set(lag);
         } catch (SQLException e) {
             if (dialect.isConcurrentUpdateException(e)) {
                 // ignore
@@ -511,14 +716,33 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
         }
     }
 
+    protected void deleteExpired(Connection connection, List<String> keys, Long ttlDeadline) throws SQLException {
+        String loggedSql = expireDeleteSQL + " -- BATCHED";
+        try (PreparedStatement ps = connection.prepareStatement(expireDeleteSQL)) {
+            for (String key : keys) {
+                // the TTL may have been changed since the keys were found
+                setToPreparedStatement(loggedSql, ps, keyCol, key, ttlCol, ttlDeadline);
+                ps.addBatch();
+            }
+            int[] counts = ps.executeBatch();
+            if (logger.isLogEnabled()) {
+                logger.logCount(Arrays.stream(counts).filter(count -> count > 0).sum());
+            }
+        }
+    }
+
     @Override
     public void clear() {
+        flushLock.lock();
         try (Connection connection = getConnection(); //
                 Statement st = connection.createStatement()) {
+            pendingPuts.clear();
             logger.log(deleteAllSQL);
             st.execute(deleteAllSQL);
         } catch (SQLException e) {
             throw new NuxeoException(e);
+        } finally {
+            flushLock.unlock();
         }
     }
 
@@ -529,6 +753,7 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
 
     @Override
     public Stream<String> keyStream(String prefix) {
+        flush();
         try (Connection connection = getConnection()) {
             return keyStream(connection, prefix);
         } catch (SQLException e) {
@@ -634,6 +859,10 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
     }
 
     protected Object getObject(String key) {
+        PendingPut pendingPut = pendingPuts.get(key);
+        if (pendingPut != null) {
+            return pendingPut.getValue();
+        }
         try (Connection connection = getConnection(); //
                 PreparedStatement ps = connection.prepareStatement(getSQL)) {
             setToPreparedStatement(getSQL, ps, keyCol, key);
@@ -664,6 +893,21 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
     }
 
     protected void getObjects(Collection<String> keys, BiConsumer<String, Object> consumer) {
+        if (!pendingPuts.isEmpty()) {
+            List<String> notPendingKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                PendingPut pendingPut = pendingPuts.get(key);
+                if (pendingPut == null) {
+                    notPendingKeys.add(key);
+                } else {
+                    Object value = pendingPut.getValue();
+                    if (value != null) {
+                        consumer.accept(key, value);
+                    }
+                }
+            }
+            keys = notPendingKeys;
+        }
         if (keys.isEmpty()) {
             return;
         }
@@ -752,48 +996,169 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
     }
 
     protected void put(String key, Object value, long ttl) {
+        if (writeBehind) {
+            pendingPuts.put(key, new PendingPut(value, ttlToStorage(ttl)));
+            if (pendingPuts.size() >= WRITE_BEHIND_MAX_PENDING_BATCHES * writeBehindBatchSize) {
+                // the flush thread doesn't keep up, slow down the writers
+                flush();
+            }
+            return;
+        }
         try (Connection connection = getConnection()) {
-            if (value == null) {
-                // delete
-                try (PreparedStatement ps = connection.prepareStatement(deleteSQL)) {
-                    setToPreparedStatement(deleteSQL, ps, keyCol, key);
-                    ps.execute();
+            put(connection, key, value, ttlToStorage(ttl));
+        } catch (SQLException e) {
+            throw new NuxeoException(e);
+        }
+    }
+
+    protected void put(Connection connection, String key, Object value, Long ttlValue) throws SQLException {
+        if (value == null) {
+            // delete
+            try (PreparedStatement ps = connection.prepareStatement(deleteSQL)) {
+                setToPreparedStatement(deleteSQL, ps, keyCol, key);
+                ps.execute();
+            }
+        } else {
+            // upsert (update or insert)
+            List<Column> psColumns = new ArrayList<>();
+            List<Serializable> psValues = new ArrayList<>();
+            String sql = getUpsertSql(key, value, ttlValue, psColumns, psValues);
+            for (int retry = 0; retry < MAX_RETRY; retry++) {
+                try {
+                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                        setToPreparedStatement(sql, ps, psColumns, psValues);
+                        ps.execute();
+                    }
+                    return;
+                } catch (SQLException e) {
+                    if (!dialect.isConcurrentUpdateException(e)) {
+                        throw e;
+                    }
+                    // Oracle MERGE can throw DUP_VAL_ON_INDEX (ORA-0001) or NO_DATA_FOUND (ORA-01403)
+                    // in that case retry a few times
                 }
+                sleepBeforeRetry();
+            }
+            throw new ConcurrentUpdateException("Failed to do atomic put for key: " + key);
+        }
+    }
+
+    protected String getUpsertSql(String key, Object value, Long ttlValue, List<Column> psColumns,
+            List<Serializable> psValues) {
+        Long longValue = value instanceof Long ? (Long) value : null;
+        String stringValue = value instanceof String ? (String) value : null;
+        byte[] bytesValue = value instanceof byte[] ? (byte[]) value : null;
+        return dialect.getUpsertSql(Arrays.asList(keyCol, longCol, stringCol, bytesCol, ttlCol),
+                Arrays.asList(key, longValue, stringValue, bytesValue, ttlValue), psColumns, psValues);
+    }
+
+    /**
+     * Writes all the pending puts to the database, in write-behind mode.
+     *
+     * @since 11.5
+     */
+    public void flush() {
+        if (pendingPuts.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try (Connection connection = getConnection()) {
+            List<Entry<String, PendingPut>> entries = new ArrayList<>(pendingPuts.entrySet());
+            for (int i = 0; i < entries.size(); i += writeBehindBatchSize) {
+                List<Entry<String, PendingPut>> batch = entries.subList(i,
+                        Math.min(i + writeBehindBatchSize, entries.size()));
+                flush(connection, batch);
+                // only forget the puts that were not replaced meanwhile
+                batch.forEach(en -> pendingPuts.remove(en.getKey(), en.getValue()));
+            }
+        } catch (SQLException e) {
+            throw new NuxeoException(e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the pending put of a key to the database, so that a direct operation on the database sees it.
+     */
+    protected void flush(String key) {
+        if (!writeBehind || !pendingPuts.containsKey(key)) {
+            return;
+        }
+        flushLock.lock();
+        try (Connection connection = getConnection()) {
+            PendingPut pendingPut = pendingPuts.get(key);
+            if (pendingPut != null) {
+                put(connection, key, pendingPut.value, pendingPut.ttl);
+                pendingPuts.remove(key, pendingPut);
+            }
+        } catch (SQLException e) {
+            throw new NuxeoException(e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    protected void flush(Connection connection, List<Entry<String, PendingPut>> batch) throws SQLException {
+        List<String> deletes = new ArrayList<>();
+        String upsertSql = null;
+        List<List<Serializable>> upsertValues = new ArrayList<>();
+        List<Column> psColumns = null;
+        for (Entry<String, PendingPut> en : batch) {
+            String key = en.getKey();
+            PendingPut pendingPut = en.getValue();
+            if (pendingPut.value == null) {
+                deletes.add(key);
             } else {
-                // upsert (update or insert)
-                Long longValue = value instanceof Long ? (Long) value : null;
-                String stringValue = value instanceof String ? (String) value : null;
-                byte[] bytesValue = value instanceof byte[] ? (byte[]) value : null;
-                Long ttlValue = ttlToStorage(ttl);
-                List<Column> psColumns = new ArrayList<>();
+                // the SQL only depends on the columns, not on the values
+                psColumns = new ArrayList<>();
                 List<Serializable> psValues = new ArrayList<>();
-                String sql = dialect.getUpsertSql(Arrays.asList(keyCol, longCol, stringCol, bytesCol, ttlCol),
-                        Arrays.asList(key, longValue, stringValue, bytesValue, ttlValue), psColumns, psValues);
-                for (int retry = 0; retry < MAX_RETRY; retry++) {
-                    try {
-                        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                            setToPreparedStatement(sql, ps, psColumns, psValues);
-                            ps.execute();
-                        }
-                        return;
-                    } catch (SQLException e) {
-                        if (!dialect.isConcurrentUpdateException(e)) {
-                            throw e;
-                        }
-                        // Oracle MERGE can throw DUP_VAL_ON_INDEX (ORA-0001) or NO_DATA_FOUND (ORA-01403)
-                        // in that case retry a few times
+                upsertSql = getUpsertSql(key, pendingPut.value, pendingPut.ttl, psColumns, psValues);
+                upsertValues.add(psValues);
+            }
+        }
+        if (!deletes.isEmpty()) {
+            String loggedSql = deleteSQL + " -- BATCHED";
+            try (PreparedStatement ps = connection.prepareStatement(deleteSQL)) {
+                for (String key : deletes) {
+                    setToPreparedStatement(loggedSql, ps, keyCol, key);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+        if (!upsertValues.isEmpty()) {
+            String loggedSql = upsertSql + " -- BATCHED";
+            try (PreparedStatement ps = connection.prepareStatement(upsertSql)) {
+                for (List<Serializable> psValues : upsertValues) {
+                    setToPreparedStatement(loggedSql, ps, psColumns, psValues);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            } catch (SQLException e) {
+                if (!dialect.isConcurrentUpdateException(e)) {
+                    throw e;
+                }
+                // Oracle MERGE may fail on concurrent inserts, use individual retried upserts
+                for (Entry<String, PendingPut> en : batch) {
+                    if (en.getValue().value != null) {
+                        put(connection, en.getKey(), en.getValue().value, en.getValue().ttl);
                     }
-                    sleepBeforeRetry();
                 }
-                throw new ConcurrentUpdateException("Failed to do atomic put for key: " + key);
             }
-        } catch (SQLException e) {
-            throw new NuxeoException(e);
         }
     }
 
     @Override
     public boolean setTTL(String key, long ttl) {
+        if (writeBehind) {
+            // change the TTL of a pending put without writing it
+            PendingPut pendingPut = pendingPuts.computeIfPresent(key, (k, p) -> p.getValue() == null ? p
+                    : new PendingPut(p.value, ttlToStorage(ttl)));
+            if (pendingPut != null) {
+                return pendingPut.getValue() != null;
+            }
+        }
         try (Connection connection = getConnection(); //
                 PreparedStatement ps = connection.prepareStatement(setTTLSQL)) {
             setToPreparedStatement(setTTLSQL, ps, ttlCol, ttlToStorage(ttl), keyCol, key);
@@ -816,6 +1181,7 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
     }
 
     protected boolean compareAndSet(String key, Object expected, Object value, long ttl) {
+        flush(key);
         try (Connection connection = getConnection()) {
             if (expected == null && value == null) {
                 // check that document doesn't exist
@@ -921,6 +1287,7 @@ public class SQLKeyValueStore extends AbstractKeyValueStoreProvider {
 
     @Override
     public long addAndGet(String key, long delta) throws NumberFormatException { // NOSONAR
+        flush(key);
         try (Connection connection = getConnection()) {
             for (int retry = 0; retry < MAX_RETRY; retry++) {
                 String updateReturningSql;
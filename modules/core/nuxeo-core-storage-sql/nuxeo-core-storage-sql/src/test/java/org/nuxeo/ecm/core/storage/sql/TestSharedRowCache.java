@@ -0,0 +1,116 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSharedRowCache {
+
+    protected SharedRowCache cache;
+
+    @Before
+    public void setUp() {
+        cache = SharedRowCache.acquire("test", Collections.singletonMap(SharedRowCache.MAX_MEMORY_PROP, "100k"));
+    }
+
+    @After
+    public void tearDown() {
+        cache.release();
+    }
+
+    protected static Row newRow(String id) {
+        Row row = new Row("hierarchy", id);
+        row.put("name", "doc-" + id);
+        return row;
+    }
+
+    protected void put(Row row) {
+        cache.putIfNotInvalidated(cache.getEpoch(), new RowId(row), row);
+    }
+
+    @Test
+    public void testAcquireShared() {
+        SharedRowCache other = SharedRowCache.acquire("test", Collections.emptyMap());
+        try {
+            assertSame(cache, other);
+        } finally {
+            other.release();
+        }
+    }
+
+    @Test
+    public void testGetPut() {
+        RowId rowId = new RowId("hierarchy", "1");
+        assertNull(cache.get(rowId));
+        put(newRow("1"));
+        Row row = cache.get(rowId);
+        assertNotNull(row);
+        assertEquals("doc-1", row.get("name"));
+        cache.invalidate(rowId);
+        assertNull(cache.get(rowId));
+    }
+
+    @Test
+    public void testNotCachedIfInvalidatedDuringRead() {
+        long epoch = cache.getEpoch();
+        // concurrent invalidation while the row is read from the database
+        cache.invalidate(new RowId("hierarchy", "2"));
+        Row row = newRow("1");
+        cache.putIfNotInvalidated(epoch, new RowId(row), row);
+        assertNull(cache.get(new RowId(row)));
+    }
+
+    @Test
+    public void testInvalidations() {
+        put(newRow("1"));
+        put(newRow("2"));
+        put(newRow("3"));
+        VCSInvalidations invalidations = new VCSInvalidations();
+        invalidations.addModified(new RowId("hierarchy", "1"));
+        invalidations.addDeleted(new RowId("hierarchy", "2"));
+        cache.invalidate(invalidations);
+        assertNull(cache.get(new RowId("hierarchy", "1")));
+        assertNull(cache.get(new RowId("hierarchy", "2")));
+        assertNotNull(cache.get(new RowId("hierarchy", "3")));
+        cache.invalidate(new VCSInvalidations(true));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testBoundedByMemory() {
+        for (int i = 0; i < 10_000; i++) {
+            put(newRow(String.valueOf(i)));
+        }
+        long size = cache.size();
+        assertTrue(String.valueOf(size), size > 0 && size < 10_000);
+        assertTrue(cache.weight.get() <= 100 * 1024);
+        assertTrue(cache.evictionCount.sum() > 0);
+    }
+
+}
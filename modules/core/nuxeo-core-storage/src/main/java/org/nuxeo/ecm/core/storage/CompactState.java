@@ -0,0 +1,343 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage;
+
+import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A {@link State} with a memory-efficient layout, meant for states kept a long time in memory like the ones of a
+ * document cache.
+ * <p>
+ * The keys are held by a {@link StateShape} shared with all the states of the same kind, and the values are held in a
+ * flat array indexed by the slots of the shape. {@link Long}, {@link Double} and {@link Calendar} values are stored
+ * unboxed in a separate {@code long} array. Keys not part of the shape are held in a regular overflow {@link State}.
+ * <p>
+ * Values are unboxed again on each {@link #get}, so the returned {@link Calendar} is a new instance every time.
+ *
+ * @since 11.5
+ */
+public class CompactState extends State {
+
+    private static final long serialVersionUID = 1L;
+
+    // maximum number of unboxed values per state, after which they're kept boxed
+    protected static final int PRIMITIVE_MAX = 64;
+
+    protected static final Primitive[][] PRIMITIVES = new Primitive[PrimitiveKind.values().length][PRIMITIVE_MAX];
+
+    static {
+        for (PrimitiveKind kind : PrimitiveKind.values()) {
+            for (int i = 0; i < PRIMITIVE_MAX; i++) {
+                PRIMITIVES[kind.ordinal()][i] = new Primitive(kind, i);
+            }
+        }
+    }
+
+    protected enum PrimitiveKind {
+        LONG, DOUBLE, CALENDAR
+    }
+
+    /**
+     * Marker held in a value slot for a value stored unboxed. The instances are shared by all the states.
+     */
+    protected static final class Primitive implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        protected final PrimitiveKind kind;
+
+        protected final int index;
+
+        protected Primitive(PrimitiveKind kind, int index) {
+            this.kind = kind;
+            this.index = index;
+        }
+    }
+
+    protected final StateShape shape;
+
+    // value for each key of the shape, or a Primitive, or null if absent
+    protected final Object[] slots;
+
+    // unboxed values, may be null
+    protected final long[] primitives;
+
+    // number of non-null slots
+    protected int slotsSize;
+
+    // keys not part of the shape, may be null
+    protected State overflow;
+
+    /**
+     * Creates a compact copy of the given state. Sub-states and lists are shared with the given state, not copied.
+     */
+    public CompactState(StateShape shape, State state) {
+        super((Map<String, Serializable>) null);
+        this.shape = shape;
+        slots = new Object[shape.size()];
+        long[] prims = new long[Math.min(shape.size(), PRIMITIVE_MAX)];
+        int n = 0;
+        for (Entry<String, Serializable> en : state.entrySet()) {
+            String key = en.getKey();
+            Serializable value = en.getValue();
+            int i = shape.indexOf(key);
+            if (i < 0) {
+                if (overflow == null) {
+                    overflow = new State();
+                }
+                overflow.put(key, value);
+                continue;
+            }
+            if (value == null) {
+                continue;
+            }
+            slotsSize++;
+            PrimitiveKind kind = n < prims.length ? getPrimitiveKind(value) : null;
+            if (kind == null) {
+                slots[i] = value instanceof Boolean ? Boolean.valueOf((Boolean) value) : value;
+            } else {
+                prims[n] = toLong(kind, value);
+                slots[i] = PRIMITIVES[kind.ordinal()][n];
+                n++;
+            }
+        }
+        primitives = n == 0 ? null : Arrays.copyOf(prims, n);
+    }
+
+    public StateShape getShape() {
+        return shape;
+    }
+
+    protected static PrimitiveKind getPrimitiveKind(Serializable value) {
+        if (value instanceof Long) {
+            return PrimitiveKind.LONG;
+        } else if (value instanceof Double) {
+            return PrimitiveKind.DOUBLE;
+        } else if (value instanceof Calendar) {
+            // only the calendars that can be recreated identically from their time
+            Calendar cal = (Calendar) value;
+            return newCalendar(cal.getTimeInMillis()).equals(cal) ? PrimitiveKind.CALENDAR : null;
+        }
+        return null;
+    }
+
+    protected static long toLong(PrimitiveKind kind, Serializable value) {
+        switch (kind) {
+        case LONG:
+            return ((Long) value).longValue();
+        case DOUBLE:
+            return Double.doubleToRawLongBits(((Double) value).doubleValue());
+        case CALENDAR:
+            return ((Calendar) value).getTimeInMillis();
+        default:
+            throw new IllegalArgumentException(kind.name());
+        }
+    }
+
+    protected static Calendar newCalendar(long millis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(millis);
+        return cal;
+    }
+
+    protected Serializable unpack(Object slot) {
+        if (!(slot instanceof Primitive)) {
+            return (Serializable) slot;
+        }
+        Primitive p = (Primitive) slot;
+        long v = primitives[p.index];
+        switch (p.kind) {
+        case LONG:
+            return Long.valueOf(v);
+        case DOUBLE:
+            return Double.valueOf(Double.longBitsToDouble(v));
+        case CALENDAR:
+            return newCalendar(v);
+        default:
+            throw new IllegalArgumentException(p.kind.name());
+        }
+    }
+
+    @Override
+    public int size() {
+        return slotsSize + (overflow == null ? 0 : overflow.size());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Serializable get(Object key) {
+        int i = shape.indexOf(key);
+        if (i < 0) {
+            return overflow == null ? null : overflow.get(key);
+        }
+        return unpack(slots[i]);
+    }
+
+    @Override
+    protected void putEvenIfNull(String key, Serializable value) {
+        int i = shape.indexOf(key);
+        if (i < 0) {
+            if (overflow == null) {
+                overflow = new State();
+            }
+            overflow.putEvenIfNull(key, value);
+            return;
+        }
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        if (slots[i] == null) {
+            slotsSize++;
+        }
+        // values put after construction are kept boxed
+        slots[i] = value;
+    }
+
+    @Override
+    public void put(String key, Serializable value) {
+        if (value == null) {
+            remove(key);
+        } else {
+            putEvenIfNull(key, value);
+        }
+    }
+
+    @Override
+    public Serializable remove(Object key) {
+        int i = shape.indexOf(key);
+        if (i < 0) {
+            return overflow == null ? null : overflow.remove(key);
+        }
+        Object slot = slots[i];
+        if (slot == null) {
+            return null;
+        }
+        slots[i] = null;
+        slotsSize--;
+        return unpack(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int i = shape.indexOf(key);
+        if (i < 0) {
+            return overflow != null && overflow.containsKey(key);
+        }
+        return slots[i] != null;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                builder.add(shape.getKey(i));
+            }
+        }
+        if (overflow != null) {
+            builder.addAll(overflow.keySet());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String[] keyArray() {
+        Set<String> keySet = keySet();
+        return keySet.toArray(new String[keySet.size()]);
+    }
+
+    @Override
+    public Set<Entry<String, Serializable>> entrySet() {
+        return new CompactEntrySet();
+    }
+
+    /** Read-only entry set iterating on the slots then on the overflow. */
+    protected class CompactEntrySet extends AbstractSet<Entry<String, Serializable>> {
+
+        @Override
+        public int size() {
+            return CompactState.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, Serializable>> iterator() {
+            return new CompactEntryIterator();
+        }
+    }
+
+    protected class CompactEntryIterator implements Iterator<Entry<String, Serializable>> {
+
+        protected int index = nextSlot(0);
+
+        protected Iterator<Entry<String, Serializable>> overflowIterator;
+
+        protected int nextSlot(int from) {
+            int i = from;
+            while (i < slots.length && slots[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < slots.length) {
+                return true;
+            }
+            if (overflowIterator == null) {
+                if (overflow == null) {
+                    return false;
+                }
+                overflowIterator = overflow.entrySet().iterator();
+            }
+            return overflowIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Serializable> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (index < slots.length) {
+                Entry<String, Serializable> entry = new SimpleImmutableEntry<>(shape.getKey(index),
+                        unpack(slots[index]));
+                index = nextSlot(index + 1);
+                return entry;
+            }
+            return overflowIterator.next();
+        }
+    }
+
+}
@@ -19,6 +19,8 @@
  */
 package org.nuxeo.ecm.core.storage;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -47,6 +49,7 @@ import org.nuxeo.ecm.core.repository.RepositoryService;
 import org.nuxeo.ecm.core.utils.BlobsExtractor;
 import org.nuxeo.ecm.core.utils.StringsExtractor;
 import org.nuxeo.ecm.core.work.AbstractWork;
+import org.nuxeo.ecm.core.work.api.EncodableWork;
 import org.nuxeo.runtime.api.Framework;
 
 import net.htmlparser.jericho.Source;
@@ -58,7 +61,7 @@ import net.htmlparser.jericho.Source;
  * @since 5.7 for the original implementation
  * @since 10.3 the extraction and update are done in the same Work
  */
-public class FulltextExtractorWork extends AbstractWork {
+public class FulltextExtractorWork extends AbstractWork implements EncodableWork {
 
     private static final long serialVersionUID = 1L;
 
@@ -103,6 +106,24 @@ public class FulltextExtractorWork extends AbstractWork {
         this.useJobId = useJobId;
     }
 
+    /**
+     * @since 11.5
+     */
+    public FulltextExtractorWork(DataInput in) throws IOException {
+        super(in);
+        updateSimpleText = in.readBoolean();
+        updateBinaryText = in.readBoolean();
+        useJobId = in.readBoolean();
+    }
+
+    @Override
+    public void writeFields(DataOutput out) throws IOException {
+        super.writeFields(out);
+        out.writeBoolean(updateSimpleText);
+        out.writeBoolean(updateBinaryText);
+        out.writeBoolean(useJobId);
+    }
+
     @Override
     public String getCategory() {
         return CATEGORY;
@@ -0,0 +1,159 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage;
+
+import org.nuxeo.ecm.core.query.QueryParseException;
+import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
+import org.nuxeo.ecm.core.query.sql.model.FromClause;
+import org.nuxeo.ecm.core.query.sql.model.IdentityQueryTransformer;
+import org.nuxeo.ecm.core.query.sql.model.Reference;
+import org.nuxeo.ecm.core.query.sql.model.SQLQuery;
+import org.nuxeo.ecm.core.query.sql.model.WhereClause;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
+import org.nuxeo.runtime.metrics.NuxeoMetricSet;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.dropwizard.metrics5.MetricName;
+import io.dropwizard.metrics5.MetricRegistry;
+import io.dropwizard.metrics5.SharedMetricRegistries;
+
+/**
+ * Bounded cache of the parsed NXQL queries of a repository, to avoid parsing again the identical queries sent by page
+ * providers.
+ * <p>
+ * The cached {@link SQLQuery} is never returned, because the query makers modify the query they're given. A copy is
+ * returned instead, which is much cheaper than parsing the query.
+ * <p>
+ * The cache is owned by the repository, and is therefore dropped with it when the runtime is reloaded.
+ *
+ * @since 11.5
+ */
+public class QueryPlanCache {
+
+    /** Framework property for the maximum number of parsed queries kept by each repository, 0 to disable. */
+    public static final String CACHE_SIZE_PROPERTY = "org.nuxeo.core.query.plan.cache.size";
+
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    public static final String METRIC_NAME = "nuxeo.repositories.repository.query.plan.cache";
+
+    protected static final QueryCopier COPIER = new QueryCopier();
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    protected final MetricName metricName;
+
+    // null if disabled
+    protected final Cache<String, SQLQuery> cache;
+
+    public QueryPlanCache(String repositoryName) {
+        this(repositoryName, getCacheSize());
+    }
+
+    public QueryPlanCache(String repositoryName, int size) {
+        metricName = MetricName.build(METRIC_NAME).tagged("repository", repositoryName);
+        if (size <= 0) {
+            cache = null;
+            return;
+        }
+        cache = CacheBuilder.newBuilder().maximumSize(size).recordStats().build();
+        NuxeoMetricSet metrics = new NuxeoMetricSet(metricName);
+        metrics.putGauge(() -> cache.size(), "size");
+        metrics.putGauge(() -> cache.stats().evictionCount(), "eviction", "count");
+        metrics.putGauge(() -> cache.stats().hitCount(), "hit", "count");
+        metrics.putGauge(() -> cache.stats().hitRate(), "hit", "ratio");
+        metrics.putGauge(() -> cache.stats().missCount(), "miss", "count");
+        removeMetrics();
+        registry.registerAll(metrics);
+    }
+
+    protected static int getCacheSize() {
+        String size = Framework.getProperty(CACHE_SIZE_PROPERTY);
+        return size == null ? DEFAULT_CACHE_SIZE : Integer.parseInt(size.trim());
+    }
+
+    /**
+     * Parses a NXQL query, or gets it from the cache.
+     *
+     * @return a new query that the caller is free to modify
+     */
+    public SQLQuery parse(String query) throws QueryParseException {
+        if (cache == null) {
+            return SQLQueryParser.parse(query);
+        }
+        SQLQuery parsed = cache.getIfPresent(query);
+        if (parsed == null) {
+            // parse errors are not cached
+            parsed = SQLQueryParser.parse(query);
+            cache.put(query, parsed);
+        }
+        SQLQuery copy = COPIER.transform(parsed);
+        copy.setQueryString(query);
+        return copy;
+    }
+
+    /**
+     * Clears the cache, to be called when the schemas or document types change.
+     */
+    public void clear() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Clears the cache and removes its metrics.
+     */
+    public void close() {
+        clear();
+        removeMetrics();
+    }
+
+    protected void removeMetrics() {
+        registry.removeMatching((name, metric) -> name.getKey().startsWith(METRIC_NAME)
+                && metricName.getTags().equals(name.getTags()));
+    }
+
+    /**
+     * Deep copy of a query as returned by the parser.
+     */
+    protected static class QueryCopier extends IdentityQueryTransformer {
+
+        @Override
+        public FromClause transform(FromClause node) {
+            return new FromClause(node.type, transform(node.elements));
+        }
+
+        @Override
+        public WhereClause transform(WhereClause node) {
+            return node == null ? null : super.transform(node);
+        }
+
+        @Override
+        public Reference transform(Reference node) {
+            Reference ref = super.transform(node);
+            ref.originalName = node.originalName;
+            return ref;
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable table of keys, shared by all the {@link CompactState} having the same expected keys (typically the
+ * documents of a given type), and mapping each key to a slot in their value array.
+ *
+ * @since 11.5
+ */
+public class StateShape implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    protected final String[] keys;
+
+    protected final Map<String, Integer> index;
+
+    public StateShape(Collection<String> keys) {
+        Set<String> set = new LinkedHashSet<>(keys);
+        this.keys = set.toArray(new String[set.size()]);
+        index = new HashMap<>(State.initialCapacity(this.keys.length));
+        for (int i = 0; i < this.keys.length; i++) {
+            index.put(this.keys[i], Integer.valueOf(i));
+        }
+    }
+
+    /**
+     * Gets the number of keys.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the key at the given slot.
+     */
+    public String getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Gets the slot of a key, or {@code -1} if the key is not part of this shape.
+     */
+    public int indexOf(Object key) {
+        Integer i = index.get(key);
+        return i == null ? -1 : i.intValue();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '(' + keys.length + " keys)";
+    }
+
+}
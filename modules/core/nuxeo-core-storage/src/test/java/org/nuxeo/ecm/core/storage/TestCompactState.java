@@ -0,0 +1,173 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class TestCompactState {
+
+    protected static final StateShape SHAPE = new StateShape(Arrays.asList("ecm:id", "ecm:primaryType", "ecm:name",
+            "ecm:isProxy", "dc:title", "dc:description", "dc:created", "dc:modified", "dc:contributors",
+            "uid:major_version", "uid:minor_version", "file:content", "common:size"));
+
+    protected static State newDocumentState(int n) {
+        State state = new State();
+        state.put("ecm:id", "00000000-0000-0000-0000-" + String.format("%012d", n));
+        state.put("ecm:primaryType", "File");
+        state.put("ecm:name", "doc" + n);
+        state.put("ecm:isProxy", Boolean.FALSE);
+        state.put("dc:title", "Document " + n);
+        state.put("dc:created", newCalendar(1_600_000_000_000L + n));
+        state.put("dc:modified", newCalendar(1_610_000_000_000L + n));
+        state.put("dc:contributors", new Object[] { "Administrator", "bob" });
+        state.put("uid:major_version", Long.valueOf(1));
+        state.put("uid:minor_version", Long.valueOf(1000L + n));
+        State content = new State();
+        content.put("name", "file.txt");
+        content.put("length", Long.valueOf(123456L));
+        state.put("file:content", content);
+        state.put("common:size", Double.valueOf(1.5));
+        // not part of the shape
+        state.put("ecm:lifeCycleState", "project");
+        return state;
+    }
+
+    protected static Calendar newCalendar(long millis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(millis);
+        return cal;
+    }
+
+    @Test
+    public void testCopy() {
+        State state = newDocumentState(1);
+        CompactState compact = new CompactState(SHAPE, state);
+        assertEquals(state, compact);
+        assertEquals(compact, state);
+        assertEquals(state.size(), compact.size());
+        assertEquals(state.keySet(), compact.keySet());
+        assertEquals(state.keySet(), new HashSet<>(Arrays.asList(compact.keyArray())));
+        assertTrue(compact.containsKey("ecm:lifeCycleState"));
+        assertFalse(compact.containsKey("dc:description"));
+        assertNull(compact.get("dc:description"));
+        assertNull(compact.get("foo"));
+        assertEquals(state.get("dc:created"), compact.get("dc:created"));
+        // a new unboxed Calendar each time
+        assertNotSame(compact.get("dc:created"), compact.get("dc:created"));
+        assertSame(state.get("file:content"), compact.get("file:content"));
+        assertEquals(state.toString(), compact.toString());
+        // entry set
+        Set<String> keys = new HashSet<>();
+        for (Entry<String, Serializable> en : compact.entrySet()) {
+            keys.add(en.getKey());
+            assertTrue(StateHelper.equalsStrict(state.get(en.getKey()), en.getValue()));
+        }
+        assertEquals(state.keySet(), keys);
+        // deep copy is a regular state
+        State copy = StateHelper.deepCopy(compact);
+        assertEquals(State.class, copy.getClass());
+        assertEquals(state, copy);
+    }
+
+    @Test
+    public void testCalendarWithOtherTimeZone() {
+        State state = new State();
+        Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("GMT+05:00"));
+        cal.setTimeInMillis(1_600_000_000_000L);
+        state.put("dc:created", cal);
+        CompactState compact = new CompactState(SHAPE, state);
+        // cannot be recreated from its time, kept as is
+        assertSame(cal, compact.get("dc:created"));
+    }
+
+    @Test
+    public void testModify() {
+        State state = newDocumentState(1);
+        CompactState compact = new CompactState(SHAPE, state);
+        int size = compact.size();
+        compact.put("dc:description", "desc");
+        compact.put("foo", "bar");
+        assertEquals(size + 2, compact.size());
+        assertEquals("desc", compact.get("dc:description"));
+        assertEquals("bar", compact.get("foo"));
+        compact.put("uid:minor_version", Long.valueOf(5));
+        assertEquals(Long.valueOf(5), compact.get("uid:minor_version"));
+        assertEquals(Long.valueOf(5), compact.remove("uid:minor_version"));
+        assertEquals(size + 1, compact.size());
+        compact.put("dc:title", null);
+        compact.put("foo", null);
+        compact.remove("ecm:lifeCycleState");
+        assertEquals(size - 2, compact.size());
+        assertFalse(compact.containsKey("dc:title"));
+        assertFalse(compact.containsKey("foo"));
+    }
+
+    @Test
+    public void testEmpty() {
+        CompactState compact = new CompactState(SHAPE, new State());
+        assertTrue(compact.isEmpty());
+        assertEquals(0, compact.size());
+        assertFalse(compact.entrySet().iterator().hasNext());
+        assertEquals("{}", compact.toString());
+    }
+
+    /**
+     * Checks the layout that makes compact states smaller than regular ones.
+     */
+    @Test
+    public void testCompactLayout() {
+        CompactState compact1 = new CompactState(SHAPE, newDocumentState(1));
+        CompactState compact2 = new CompactState(SHAPE, newDocumentState(2));
+        // no map, so no per-entry nodes
+        assertNull(compact1.map);
+        // the keys are held once by the shared shape
+        assertSame(compact1.getShape(), compact2.getShape());
+        assertSame(compact1.getShape().keys, compact2.getShape().keys);
+        assertEquals(SHAPE.size(), compact1.slots.length);
+        // longs, doubles and calendars are unboxed, with shared markers in the slots
+        List<String> primitiveKeys = Arrays.asList("dc:created", "dc:modified", "uid:major_version",
+                "uid:minor_version", "common:size");
+        for (String key : primitiveKeys) {
+            int i = SHAPE.indexOf(key);
+            assertTrue(key, compact1.slots[i] instanceof CompactState.Primitive);
+            assertSame(key, compact1.slots[i], compact2.slots[i]);
+        }
+        assertEquals(primitiveKeys.size(), compact1.primitives.length);
+        // only the keys not in the shape use a regular state
+        assertEquals(Set.of("ecm:lifeCycleState"), compact1.overflow.keySet());
+    }
+
+}
@@ -20,11 +20,14 @@
 package org.nuxeo.ecm.core.storage;
 
 import org.junit.Test;
+import org.nuxeo.ecm.core.work.WorkEncoding;
 
 import java.util.List;
 import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @since 11.5
@@ -56,4 +59,18 @@ public class TestFulltextExtractorWork {
         text = work.joinText(List.of("string1", "string2"), Function.identity(), 1);
         assertEquals(" ", text);
     }
+
+    @Test
+    public void testFieldEncoding() {
+        var work = new FulltextExtractorWork("default", "1234", true, false, true);
+        byte[] data = WorkEncoding.encode(work, true);
+        assertTrue(WorkEncoding.isFieldEncoded(data));
+        var decoded = (FulltextExtractorWork) WorkEncoding.decode(data);
+        assertEquals(work.getId(), decoded.getId());
+        assertEquals("default", decoded.getRepositoryName());
+        assertEquals("1234", decoded.getDocument().getIdRef().value);
+        assertTrue(decoded.updateSimpleText);
+        assertFalse(decoded.updateBinaryText);
+        assertTrue(decoded.useJobId);
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nuxeo.ecm.core.query.QueryParseException;
+import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.core.query.sql.SQLQueryParser;
+import org.nuxeo.ecm.core.query.sql.model.Reference;
+import org.nuxeo.ecm.core.query.sql.model.SQLQuery;
+
+public class TestQueryPlanCache {
+
+    protected static final String QUERY = "SELECT dc:title, ecm:uuid FROM Document WHERE ecm:isProxy = 0"
+            + " AND dc:title LIKE 'foo%' AND ecm:mixinType IN ('Folderish', 'Collection')"
+            + " AND dc:modified > TIMESTAMP '2021-01-01 00:00:00' ORDER BY dc:title DESC LIMIT 10 OFFSET 20";
+
+    protected QueryPlanCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new QueryPlanCache("test", 10);
+    }
+
+    @After
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    public void testParse() {
+        SQLQuery expected = SQLQueryParser.parse(QUERY);
+        SQLQuery query1 = cache.parse(QUERY);
+        SQLQuery query2 = cache.parse(QUERY);
+        assertEquals(expected, query1);
+        assertEquals(expected, query2);
+        assertEquals(expected.toString(), query2.toString());
+        assertEquals(QUERY, query2.getQueryString());
+        assertEquals(10, query2.getLimit());
+        assertEquals(20, query2.getOffset());
+        assertNotSame(query1, query2);
+        assertEquals(1, cache.cache.stats().missCount());
+        assertEquals(1, cache.cache.stats().hitCount());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        SQLQuery query1 = cache.parse(QUERY);
+        query1.select.add(new Reference(NXQL.ECM_NAME));
+        query1.orderBy.elements.clear();
+        SQLQuery query2 = cache.parse(QUERY);
+        assertEquals(SQLQueryParser.parse(QUERY), query2);
+    }
+
+    @Test
+    public void testNoWhereClause() {
+        String nxql = "SELECT * FROM Document";
+        assertEquals(SQLQueryParser.parse(nxql), cache.parse(nxql));
+        assertEquals(SQLQueryParser.parse(nxql), cache.parse(nxql));
+    }
+
+    @Test
+    public void testParseError() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.parse("SELECT FROM");
+                fail();
+            } catch (QueryParseException e) {
+                // ok
+            }
+        }
+        assertEquals(0, cache.cache.size());
+    }
+
+    @Test
+    public void testDisabled() {
+        QueryPlanCache disabled = new QueryPlanCache("test-disabled", 0);
+        assertEquals(SQLQueryParser.parse(QUERY), disabled.parse(QUERY));
+        disabled.close();
+    }
+
+}
@@ -123,6 +123,7 @@ import org.nuxeo.ecm.core.schema.FacetNames;
 import org.nuxeo.ecm.core.schema.SchemaManager;
 import org.nuxeo.ecm.core.schema.types.Schema;
 import org.nuxeo.ecm.core.security.RetentionExpiredFinderListener;
+import org.nuxeo.ecm.core.storage.dbs.DBSTransactionState;
 import org.nuxeo.ecm.core.storage.sql.listeners.DummyBeforeModificationListener;
 import org.nuxeo.ecm.core.test.CoreFeature;
 import org.nuxeo.ecm.core.test.annotations.Granularity;
@@ -134,6 +135,7 @@ import org.nuxeo.runtime.test.runner.Features;
 import org.nuxeo.runtime.test.runner.FeaturesRunner;
 import org.nuxeo.runtime.test.runner.HotDeployer;
 import org.nuxeo.runtime.test.runner.TransactionalFeature;
+import org.nuxeo.runtime.test.runner.WithFrameworkProperty;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
 @RunWith(FeaturesRunner.class)
@@ -5518,4 +5520,40 @@ public class TestSQLRepositoryAPI {
         assertEquals(0L, copyFile.getPropertyValue("uid:major_version"));
         assertEquals(0L, copyFile.getPropertyValue("uid:minor_version"));
     }
+
+    @Test
+    @WithFrameworkProperty(name = DBSTransactionState.COPY_BATCH_SIZE_PROPERTY, value = "7")
+    public void testCopyLargeTree() {
+        DocumentModel folder = session.createDocumentModel("/", "folder", "Folder");
+        folder = session.createDocument(folder);
+        int nbFolders = 3;
+        int nbFiles = 150; // more than the VCS batch size
+        for (int i = 0; i < nbFolders; i++) {
+            DocumentModel sub = session.createDocumentModel("/folder", "sub" + i, "Folder");
+            session.createDocument(sub);
+            for (int j = 0; j < nbFiles; j++) {
+                DocumentModel file = session.createDocumentModel("/folder/sub" + i, "file" + j, "File");
+                file.setPropertyValue("dc:title", "title" + j);
+                session.createDocument(file);
+            }
+        }
+        DocumentModel special = session.createDocumentModel("/folder/sub0", "special", "SpecialFolder");
+        session.createDocument(special);
+        session.save();
+
+        DocumentModel copy = session.copy(folder.getRef(), session.getRootDocument().getRef(), "copy");
+        session.save();
+
+        // special children are not copied
+        String nxql = "SELECT * FROM Document WHERE ecm:ancestorId = '" + copy.getId() + "'";
+        assertEquals(nbFolders * (nbFiles + 1), session.query(nxql).size());
+        DocumentModel copySub = session.getDocument(new PathRef("/copy/sub2"));
+        assertEquals(copy.getId(), copySub.getParentRef().toString());
+        DocumentModel copyFile = session.getDocument(new PathRef("/copy/sub2/file42"));
+        assertEquals("title42", copyFile.getPropertyValue("dc:title"));
+        assertEquals(copySub.getRef(), copyFile.getParentRef());
+        assertFalse(session.exists(new PathRef("/copy/sub0/special")));
+        // the original is unchanged
+        assertEquals(nbFiles + 1, session.getChildren(new PathRef("/folder/sub0")).size());
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * (C) Copyright 2021 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.DocumentModelList;
+import org.nuxeo.ecm.core.test.CoreFeature;
+import org.nuxeo.ecm.core.test.StorageConfiguration;
+import org.nuxeo.ecm.core.test.annotations.Granularity;
+import org.nuxeo.ecm.core.test.annotations.RepositoryConfig;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.test.runner.TransactionalFeature;
+
+/**
+ * Tests the read of the fragments of several tables in a single statement, for the databases returning several
+ * result sets from one statement.
+ *
+ * @since 11.5
+ */
+@RunWith(FeaturesRunner.class)
+@Features(CoreFeature.class)
+@RepositoryConfig(cleanup = Granularity.METHOD)
+public class TestSQLRepositoryMultiTableRead {
+
+    protected static final int NB_DOCS = 20;
+
+    @Inject
+    protected CoreFeature coreFeature;
+
+    @Inject
+    protected CoreSession session;
+
+    @Inject
+    protected TransactionalFeature txFeature;
+
+    @Before
+    public void checkSupportsMultipleResultSets() {
+        StorageConfiguration storageConfiguration = coreFeature.getStorageConfiguration();
+        assumeTrue("multiple result sets not supported",
+                storageConfiguration.isVCSPostgreSQL() || storageConfiguration.isVCSSQLServer());
+    }
+
+    @Test
+    public void testMultiTableRead() {
+        doTestRead();
+    }
+
+    @Test
+    @Deploy("org.nuxeo.ecm.core.test.tests:OSGI-INF/test-vcs-multi-table-read-disabled.xml")
+    public void testPerTableRead() {
+        doTestRead();
+    }
+
+    protected void doTestRead() {
+        Map<String, Integer> numbers = new HashMap<>();
+        for (int i = 0; i < NB_DOCS; i++) {
+            DocumentModel doc = session.createDocumentModel("/", "doc" + i, "File");
+            doc.setPropertyValue("dc:title", "title" + i);
+            doc.setPropertyValue("common:icon", "icon" + i);
+            if (i % 2 == 0) {
+                // collection fragments, and missing rows for the other documents
+                doc.setPropertyValue("dc:subjects", new String[] { "a" + i, "b" + i });
+                doc.setPropertyValue("dc:description", "description" + i);
+            }
+            doc = session.createDocument(doc);
+            numbers.put(doc.getId(), Integer.valueOf(i));
+        }
+        // read from the database in a new transaction
+        txFeature.nextTransaction();
+
+        DocumentModelList docs = session.query("SELECT * FROM File");
+        assertEquals(NB_DOCS, docs.size());
+        for (DocumentModel doc : docs) {
+            int i = numbers.get(doc.getId()).intValue();
+            assertEquals("title" + i, doc.getPropertyValue("dc:title"));
+            assertEquals("icon" + i, doc.getPropertyValue("common:icon"));
+            if (i % 2 == 0) {
+                assertArrayEquals(new String[] { "a" + i, "b" + i }, (Object[]) doc.getPropertyValue("dc:subjects"));
+                assertEquals("description" + i, doc.getPropertyValue("dc:description"));
+            } else {
+                assertArrayEquals(new String[0], (Object[]) doc.getPropertyValue("dc:subjects"));
+                assertNull(doc.getPropertyValue("dc:description"));
+            }
+        }
+    }
+
+}
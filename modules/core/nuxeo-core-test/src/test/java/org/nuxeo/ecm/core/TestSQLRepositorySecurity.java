@@ -41,6 +41,7 @@ import static org.nuxeo.ecm.core.api.security.SecurityConstants.WRITE_PROPERTIES
 import static org.nuxeo.ecm.core.api.security.SecurityConstants.WRITE_SECURITY;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -73,6 +74,7 @@ import org.nuxeo.ecm.core.api.security.UserEntry;
 import org.nuxeo.ecm.core.api.security.impl.ACLImpl;
 import org.nuxeo.ecm.core.api.security.impl.ACPImpl;
 import org.nuxeo.ecm.core.api.security.impl.UserEntryImpl;
+import org.nuxeo.ecm.core.bulk.BulkService;
 import org.nuxeo.ecm.core.event.EventService;
 import org.nuxeo.ecm.core.security.SecurityService;
 import org.nuxeo.ecm.core.storage.sql.coremodel.SQLSession;
@@ -880,6 +882,78 @@ public class TestSQLRepositorySecurity {
         assertEquals(nbDocs, numberOfReadableDocuments(secondUser));
     }
 
+    @Test
+    public void testReadAclOnLargeTreeWithBulk() {
+        String enabledProp = "nuxeo.core.readacl.async.enabled";
+        String thresholdProp = "nuxeo.core.readacl.async.threshold";
+        String bulkProp = "nuxeo.core.readacl.bulk.enabled";
+        Framework.getProperties().put(enabledProp, "true");
+        Framework.getProperties().put(thresholdProp, "10");
+        Framework.getProperties().put(bulkProp, "true");
+        try {
+            doTestReadAclOnLargeTreeWithNestedAcl();
+        } finally {
+            Framework.getProperties().remove(enabledProp);
+            Framework.getProperties().remove(thresholdProp);
+            Framework.getProperties().remove(bulkProp);
+        }
+    }
+
+    protected void doTestReadAclOnLargeTreeWithNestedAcl() {
+        DocumentModel rootFolder = session.createDocumentModel("/", "folder", "Folder");
+        rootFolder = session.createDocument(rootFolder);
+        String firstUser = "mickey";
+        String secondUser = "minnie";
+
+        // set ACL for first user on root folder
+        ACP acp = new ACPImpl();
+        acp.addACE(ACL.LOCAL_ACL, new ACE(firstUser, READ, true));
+        rootFolder.setACP(acp, true);
+
+        int nbLevels = 10;
+        int nbPerLevel = 10;
+        // level at which inheritance is blocked
+        int blockedLevel = 5;
+        DocumentModel parent = rootFolder;
+        for (int level = 0; level < nbLevels; level++) {
+            DocumentModel folder = session.createDocumentModel(parent.getPathAsString(), "folder-" + level, "Folder");
+            folder = session.createDocument(folder);
+            if (level == blockedLevel) {
+                ACP blockingAcp = new ACPImpl();
+                blockingAcp.addACE(ACL.LOCAL_ACL, new ACE(firstUser, READ, true));
+                blockingAcp.addACE(ACL.LOCAL_ACL, ACE.BLOCK);
+                folder.setACP(blockingAcp, true);
+            }
+            for (int i = 0; i < nbPerLevel; i++) {
+                DocumentModel doc = session.createDocumentModel(folder.getPathAsString(), "doc-" + level + "-" + i,
+                        "File");
+                doc = session.createDocument(doc);
+            }
+            parent = folder;
+        }
+        session.save();
+        int nbDocs = 1 + nbLevels * (nbPerLevel + 1);
+
+        // check that only first user has access to everything, but not second user
+        assertEquals(nbDocs, numberOfReadableDocuments(firstUser));
+        assertEquals(0, numberOfReadableDocuments(secondUser));
+
+        // set ACL for second user on root folder
+        acp.addACE(ACL.LOCAL_ACL, new ACE(secondUser, READ, true));
+        rootFolder.setACP(acp, true);
+        session.save();
+
+        // wait for asynchronous stuff to finish
+        TransactionHelper.commitOrRollbackTransaction();
+        TransactionHelper.startTransaction();
+        eventService.waitForAsyncCompletion();
+        assertTrue("Bulk action didn't finish", Framework.getService(BulkService.class).await(Duration.ofSeconds(60)));
+
+        // check that second user has access to everything above the blocked level
+        assertEquals(nbDocs, numberOfReadableDocuments(firstUser));
+        assertEquals(1 + blockedLevel * (nbPerLevel + 1), numberOfReadableDocuments(secondUser));
+    }
+
     protected int numberOfReadableDocuments(String username) {
         CoreSession userSession = openSessionAs(username);
         String nxql = "SELECT ecm:uuid FROM Document";
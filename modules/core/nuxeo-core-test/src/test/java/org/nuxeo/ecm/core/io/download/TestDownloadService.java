@@ -21,6 +21,7 @@ package org.nuxeo.ecm.core.io.download;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -783,6 +784,101 @@ public class TestDownloadService {
         }
     }
 
+    @Test
+    public void testDownloadLocalFile() throws IOException {
+        doTestDownloadLocalFile(null, "Hello World");
+        doTestDownloadLocalFile("6-10", "World");
+    }
+
+    protected void doTestDownloadLocalFile(String range, String expectedResult) throws IOException {
+        Blob blob = new FileBlob(new ByteArrayInputStream("Hello World".getBytes(UTF_8)));
+        blob.setFilename("myFile.txt");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getMethod()).thenReturn("GET");
+        if (range != null) {
+            when(req.getHeader("Range")).thenReturn("bytes=" + range);
+        }
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        ServletOutputStream sos = new DummyServletOutputStream(out);
+        when(resp.getOutputStream()).thenReturn(sos);
+
+        DownloadContext context = DownloadContext.builder(req, resp).blob(blob).build();
+        downloadService.downloadBlob(context);
+
+        // transferred through the file channel
+        assertEquals(expectedResult, out.toString("UTF-8"));
+    }
+
+    @Test
+    @Deploy("org.nuxeo.ecm.core.api.tests:OSGI-INF/test-default-blob-provider.xml")
+    @Deploy("org.nuxeo.ecm.core.test.tests:OSGI-INF/test-download-service-sendfile.xml")
+    public void testDownloadBlobStoreFileWithSendfile() throws IOException {
+        Blob blob = createBinaryBlob();
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getHeader("Range")).thenReturn("bytes=5-6");
+        when(req.getAttribute(DownloadServiceImpl.SENDFILE_SUPPORT_ATTR)).thenReturn(TRUE);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        ServletOutputStream sos = new DummyServletOutputStream(b -> {
+            throw new NuxeoException("Not supposed to write to response");
+        });
+        when(resp.getOutputStream()).thenReturn(sos);
+
+        DownloadContext context = DownloadContext.builder(req, resp).blob(blob).build();
+        downloadService.downloadBlob(context);
+
+        // the container sends the file itself
+        verify(req).setAttribute(DownloadServiceImpl.SENDFILE_FILENAME_ATTR, blob.getFile().getAbsolutePath());
+        verify(req).setAttribute(DownloadServiceImpl.SENDFILE_START_ATTR, Long.valueOf(5));
+        verify(req).setAttribute(DownloadServiceImpl.SENDFILE_END_ATTR, Long.valueOf(7));
+    }
+
+    @Test
+    @Deploy("org.nuxeo.ecm.core.test.tests:OSGI-INF/test-download-service-sendfile.xml")
+    public void testDownloadLocalFileWithoutSendfile() throws IOException {
+        // a FileBlob may be a temporary file, deleted before the container sends it
+        Blob blob = new FileBlob(new ByteArrayInputStream(CONTENT.getBytes(UTF_8)));
+        doTestDownloadWithoutSendfile(blob);
+    }
+
+    @Test
+    @Deploy("org.nuxeo.ecm.core.api.tests:OSGI-INF/test-default-blob-provider.xml")
+    public void testDownloadBlobStoreFileWithSendfileDisabled() throws IOException {
+        doTestDownloadWithoutSendfile(createBinaryBlob());
+    }
+
+    protected void doTestDownloadWithoutSendfile(Blob blob) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getAttribute(DownloadServiceImpl.SENDFILE_SUPPORT_ATTR)).thenReturn(TRUE);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        ServletOutputStream sos = new DummyServletOutputStream(out);
+        when(resp.getOutputStream()).thenReturn(sos);
+
+        DownloadContext context = DownloadContext.builder(req, resp).blob(blob).build();
+        downloadService.downloadBlob(context);
+
+        // transferred by Nuxeo
+        assertEquals(CONTENT, out.toString("UTF-8"));
+        verify(req, never()).setAttribute(eq(DownloadServiceImpl.SENDFILE_FILENAME_ATTR), any());
+        verify(req, never()).setAttribute(eq(DownloadServiceImpl.SENDFILE_START_ATTR), any());
+        verify(req, never()).setAttribute(eq(DownloadServiceImpl.SENDFILE_END_ATTR), any());
+    }
+
+    protected Blob createBinaryBlob() throws IOException {
+        DefaultBinaryManager binaryManager = new DefaultBinaryManager();
+        binaryManager.initialize("repo", Collections.emptyMap());
+        Blob source = new FileBlob(new ByteArrayInputStream(CONTENT.getBytes(UTF_8)));
+        Binary binary = binaryManager.getBinary(source);
+        String digest = binary.getDigest();
+        long length = binary.getFile().length();
+        return new BinaryBlob(binary, digest, "cafe.txt", "text/plain", "utf-8", "MD5", digest, length);
+    }
+
     @Test
     @Deploy("org.nuxeo.ecm.core.api.tests:OSGI-INF/test-default-blob-provider.xml")
     public void testDownloadWithNginxAccel() throws IOException {
@@ -18,19 +18,28 @@
  */
 package org.nuxeo.ecm.core;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.core.work.AbstractWork;
+import org.nuxeo.ecm.core.work.api.MergeableWork;
+import org.nuxeo.ecm.core.work.api.Work;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
 /**
  * Abstract Work to process a list of documents.
+ * <p>
+ * Works of the same class, repository and originating user can be merged by a stream work queue into a single work
+ * processing all their documents. Subclasses holding additional state must override {@link #canMerge} accordingly.
  *
  * @since 9.10
  */
-public abstract class BatchProcessorWork extends AbstractWork {
+public abstract class BatchProcessorWork extends AbstractWork implements MergeableWork {
 
     private static final long serialVersionUID = 1L;
 
@@ -86,4 +95,37 @@ public abstract class BatchProcessorWork extends AbstractWork {
 
     public abstract void processBatch(List<String> docIds);
 
+    /**
+     * The maximum number of documents of a work resulting from merges.
+     *
+     * @since 11.5
+     */
+    public int getMaxMergedSize() {
+        return 10 * getBatchSize();
+    }
+
+    /**
+     * @since 11.5
+     */
+    @Override
+    public boolean canMerge(Work other) {
+        if (other.getClass() != getClass()) {
+            return false;
+        }
+        BatchProcessorWork work = (BatchProcessorWork) other;
+        return Objects.equals(repositoryName, work.repositoryName)
+                && Objects.equals(originatingUsername, work.originatingUsername)
+                && docIds.size() + work.docIds.size() <= getMaxMergedSize();
+    }
+
+    /**
+     * @since 11.5
+     */
+    @Override
+    public void merge(Work other) {
+        Set<String> ids = new LinkedHashSet<>(docIds);
+        ids.addAll(((BatchProcessorWork) other).docIds);
+        docIds = new ArrayList<>(ids);
+    }
+
 }
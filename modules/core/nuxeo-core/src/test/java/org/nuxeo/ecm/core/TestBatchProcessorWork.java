@@ -0,0 +1,85 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.ecm.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TestBatchProcessorWork {
+
+    protected static class DummyBatchWork extends BatchProcessorWork {
+
+        private static final long serialVersionUID = 1L;
+
+        public DummyBatchWork(String repositoryName, List<String> docIds, String originatingUsername) {
+            super(repositoryName, docIds, originatingUsername);
+        }
+
+        @Override
+        public int getBatchSize() {
+            return 2;
+        }
+
+        @Override
+        public void processBatch(List<String> docIds) {
+            // nothing to do
+        }
+
+        @Override
+        public String getTitle() {
+            return "Dummy";
+        }
+    }
+
+    protected static class OtherBatchWork extends DummyBatchWork {
+
+        private static final long serialVersionUID = 1L;
+
+        public OtherBatchWork(String repositoryName, List<String> docIds, String originatingUsername) {
+            super(repositoryName, docIds, originatingUsername);
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        DummyBatchWork work = new DummyBatchWork("default", Arrays.asList("1", "2"), "bob");
+        DummyBatchWork other = new DummyBatchWork("default", Arrays.asList("2", "3"), "bob");
+        assertTrue(work.canMerge(other));
+        work.merge(other);
+        assertEquals(Arrays.asList("1", "2", "3"), work.docIds);
+    }
+
+    @Test
+    public void testCannotMerge() {
+        DummyBatchWork work = new DummyBatchWork("default", Arrays.asList("1", "2"), "bob");
+        assertFalse(work.canMerge(new DummyBatchWork("other", Arrays.asList("3"), "bob")));
+        assertFalse(work.canMerge(new DummyBatchWork("default", Arrays.asList("3"), "alice")));
+        assertFalse(work.canMerge(new OtherBatchWork("default", Arrays.asList("3"), "bob")));
+        // max merged size is 10 * batch size
+        assertFalse(work.canMerge(new DummyBatchWork("default",
+                Arrays.asList("3", "4", "5", "6", "7", "8", "9", "10", "11"), "bob")));
+    }
+
+}
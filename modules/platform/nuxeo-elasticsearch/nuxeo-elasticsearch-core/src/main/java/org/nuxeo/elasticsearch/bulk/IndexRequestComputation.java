@@ -46,6 +46,7 @@ import org.nuxeo.ecm.core.bulk.message.DataBucket;
 import org.nuxeo.elasticsearch.Timestamp;
 import org.nuxeo.elasticsearch.api.ElasticSearchAdmin;
 import org.nuxeo.elasticsearch.api.ElasticSearchIndexing;
+import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.lib.stream.computation.ComputationContext;
 import org.nuxeo.lib.stream.computation.Record;
 import org.nuxeo.runtime.api.Framework;
@@ -118,21 +119,21 @@ public class IndexRequestComputation extends AbstractBulkComputation {
         long bucketSize = delta.getProcessed();
         bulkRequests.add(bulkRequest);
         String commandId = getCurrentCommand().getId();
+        Codec<DataBucket> codec = BulkCodecs.getDataBucketCodec(getCurrentCommand().getAction());
         int i = 0;
         int count = 0;
         for (BulkRequest request : bulkRequests) {
             DataBucket dataBucket = new DataBucket(commandId, request.numberOfActions(), toBytes(request));
             // use distinct key to distribute the message evenly between partitions
             String key = bucketKey + "-" + i++;
-            context.produceRecord(OUTPUT_1, Record.of(key, BulkCodecs.getDataBucketCodec().encode(dataBucket)));
+            context.produceRecord(OUTPUT_1, Record.of(key, codec.encode(dataBucket)));
             count += request.numberOfActions();
         }
         if (count < bucketSize) {
             log.warn(String.format("Command: %s offset: %s created %d documents out of %d, %d not accessible",
                     commandId, context.getLastOffset(), count, bucketSize, bucketSize - count));
             DataBucket dataBucket = new DataBucket(commandId, bucketSize - count, toBytes(new BulkRequest()));
-            context.produceRecord(OUTPUT_1,
-                    Record.of(bucketKey + "-missing", BulkCodecs.getDataBucketCodec().encode(dataBucket)));
+            context.produceRecord(OUTPUT_1, Record.of(bucketKey + "-missing", codec.encode(dataBucket)));
         }
         bulkRequest = null;
         bulkRequests.clear();
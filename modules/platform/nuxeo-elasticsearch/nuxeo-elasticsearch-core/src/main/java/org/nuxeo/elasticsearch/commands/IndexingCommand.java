@@ -19,6 +19,15 @@
  */
 package org.nuxeo.elasticsearch.commands;
 
+import static org.nuxeo.ecm.core.work.WorkEncoding.readEnum;
+import static org.nuxeo.ecm.core.work.WorkEncoding.readString;
+import static org.nuxeo.ecm.core.work.WorkEncoding.readStrings;
+import static org.nuxeo.ecm.core.work.WorkEncoding.writeEnum;
+import static org.nuxeo.ecm.core.work.WorkEncoding.writeString;
+import static org.nuxeo.ecm.core.work.WorkEncoding.writeStrings;
+
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Serializable;
@@ -82,6 +91,40 @@ public class IndexingCommand implements Serializable {
     protected IndexingCommand() {
     }
 
+    /**
+     * Creates an indexing command from the fields written by {@link #writeFields}.
+     *
+     * @since 11.5
+     */
+    public IndexingCommand(DataInput in) throws IOException {
+        id = readString(in);
+        type = readEnum(in, Type.class);
+        sync = in.readBoolean();
+        recurse = in.readBoolean();
+        targetDocumentId = readString(in);
+        path = readString(in);
+        repositoryName = readString(in);
+        schemas = readStrings(in);
+        order = in.readLong();
+    }
+
+    /**
+     * Writes the fields of this command.
+     *
+     * @since 11.5
+     */
+    public void writeFields(DataOutput out) throws IOException {
+        writeString(out, id);
+        writeEnum(out, type);
+        out.writeBoolean(sync);
+        out.writeBoolean(recurse);
+        writeString(out, targetDocumentId);
+        writeString(out, path);
+        writeString(out, repositoryName);
+        writeStrings(out, schemas);
+        out.writeLong(order);
+    }
+
     /**
      * Create an indexing command
      *
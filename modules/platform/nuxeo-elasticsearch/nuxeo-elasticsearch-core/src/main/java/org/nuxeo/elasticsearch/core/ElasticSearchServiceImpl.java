@@ -259,7 +259,9 @@ public class ElasticSearchServiceImpl implements ElasticSearchService {
         request.source(search);
         if (query.isFetchFromElasticsearch()) {
             // fetch the _source without the binaryfulltext field
-            search.fetchSource(esa.getIncludeSourceFields(), esa.getExcludeSourceFields());
+            String[] includes = query.getFetchSourceIncludes();
+            search.fetchSource(includes != null ? includes : esa.getIncludeSourceFields(),
+                    esa.getExcludeSourceFields());
         }
         return request;
     }
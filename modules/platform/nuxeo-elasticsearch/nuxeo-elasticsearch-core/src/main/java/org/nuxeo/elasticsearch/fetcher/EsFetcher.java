@@ -60,10 +60,8 @@ public class EsFetcher extends Fetcher {
     public DocumentModelListImpl fetchDocuments() {
         DocumentModelListImpl ret = new DocumentModelListImpl(getResponse().getHits().getHits().length);
         DocumentModel doc;
-        CoreSession session = getSession();
         for (SearchHit hit : getResponse().getHits()) {
-            // TODO: this does not work on multi repo
-            doc = DocumentModelReaders.fromSource(hit.getSourceAsMap()).session(session).getDocumentModel();
+            doc = readDocument(hit);
 
             if (consumer != null) {
                 consumer.accept(hit, doc);
@@ -88,6 +86,16 @@ public class EsFetcher extends Fetcher {
         return ret;
     }
 
+    /**
+     * Builds a document from the {@code _source} of a hit.
+     *
+     * @since 11.5
+     */
+    protected DocumentModel readDocument(SearchHit hit) {
+        // TODO: this does not work on multi repo
+        return DocumentModelReaders.fromSource(hit.getSourceAsMap()).session(getSession()).getDocumentModel();
+    }
+
     /**
      * Consumes both a SearchHit and DocumentModel.
      *
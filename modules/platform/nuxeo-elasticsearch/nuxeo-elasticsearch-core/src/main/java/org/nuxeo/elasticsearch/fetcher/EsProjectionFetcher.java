@@ -0,0 +1,56 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Benoit Delbosc
+ */
+package org.nuxeo.elasticsearch.fetcher;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHit;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.elasticsearch.io.DocumentModelReaders;
+import org.nuxeo.elasticsearch.io.ProjectionDocumentModel;
+
+/**
+ * Builds read-only documents from a {@code _source} restricted to some fields, the other properties are loaded from
+ * the repository on access.
+ *
+ * @see ProjectionDocumentModel
+ * @since 11.5
+ */
+public class EsProjectionFetcher extends EsFetcher {
+
+    protected final Collection<String> fields;
+
+    public EsProjectionFetcher(CoreSession session, SearchResponse response, Map<String, String> repoNames,
+            HitDocConsumer consumer, Collection<String> fields) {
+        super(session, response, repoNames, consumer);
+        this.fields = fields;
+    }
+
+    @Override
+    protected DocumentModel readDocument(SearchHit hit) {
+        return DocumentModelReaders.fromSource(hit.getSourceAsMap())
+                                   .session(getSession())
+                                   .fields(fields)
+                                   .getDocumentModel();
+    }
+
+}
@@ -20,6 +20,7 @@
 package org.nuxeo.elasticsearch.io;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -32,6 +33,7 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.search.lookup.SourceLookup;
 import org.nuxeo.common.utils.Path;
 import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DataModel;
 import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.DocumentModelFactory;
 import org.nuxeo.ecm.core.api.DocumentRef;
@@ -56,6 +58,8 @@ public class JsonDocumentModelReader {
 
     private CoreSession coreSession;
 
+    private Collection<String> fields;
+
     public JsonDocumentModelReader(String json) {
         byte[] bytes = json.getBytes();
         source = SourceLookup.sourceAsMap(new BytesArray(bytes, 0, bytes.length));
@@ -70,6 +74,19 @@ public class JsonDocumentModelReader {
         return this;
     }
 
+    /**
+     * Reads a partial source, holding only the given fields in addition to the system ones. The document model
+     * returned is a {@link ProjectionDocumentModel} loading the missing properties from the session on access.
+     *
+     * @param fields the prefixed names of the fetched properties, or {@code prefix:*} for all the properties of a
+     *            schema
+     * @since 11.5
+     */
+    public JsonDocumentModelReader fields(Collection<String> fields) {
+        this.fields = fields;
+        return this;
+    }
+
     public DocumentModel getDocumentModel() {
         assert (source != null);
         String type = (String) getProperty("ecm:primaryType");
@@ -93,13 +110,33 @@ public class JsonDocumentModelReader {
         Path pathObj = path == null ? null : new Path(path);
         DocumentRef docRef = new IdRef(id);
         DocumentRef parentRef = parentId == null ? null : new IdRef(parentId);
-        DocumentModelImpl doc = new DocumentModelImpl(type, id, pathObj, docRef, parentRef, null, facets, sourceId,
-                isProxy, coreSession, repositoryName, null);
-
-        // preload DataModel to prevent DB access
-        for (String schemaName : doc.getSchemas()) { // all schemas including from facets
-            Schema schema = schemaManager.getSchema(schemaName);
-            doc.addDataModel(DocumentModelFactory.createDataModel(null, schema));
+        DocumentModelImpl doc;
+        if (fields == null) {
+            doc = new DocumentModelImpl(type, id, pathObj, docRef, parentRef, null, facets, sourceId, isProxy,
+                    coreSession, repositoryName, null);
+            // preload DataModel to prevent DB access
+            for (String schemaName : doc.getSchemas()) { // all schemas including from facets
+                Schema schema = schemaManager.getSchema(schemaName);
+                doc.addDataModel(DocumentModelFactory.createDataModel(null, schema));
+            }
+        } else {
+            ProjectionDocumentModel projection = new ProjectionDocumentModel(type, id, pathObj, docRef, parentRef,
+                    facets, sourceId, isProxy, coreSession, repositoryName);
+            // preload only the DataModel of the fetched fields, others are loaded from the session on access
+            for (String schemaName : projection.getSchemas()) {
+                Schema schema = schemaManager.getSchema(schemaName);
+                Set<String> names = getFetchedFieldNames(schema);
+                if (names.isEmpty()) {
+                    continue;
+                }
+                DataModel dataModel = DocumentModelFactory.createDataModel(null, schema);
+                if (names.size() == schema.getFields().size()) {
+                    projection.addDataModel(dataModel);
+                } else {
+                    projection.addPartialDataModel(dataModel, names);
+                }
+            }
+            doc = projection;
         }
 
         for (String prop : source.keySet()) {
@@ -131,6 +168,30 @@ public class JsonDocumentModelReader {
         return doc;
     }
 
+    /**
+     * Gets the names of the fields of a schema that are fetched.
+     *
+     * @since 11.5
+     */
+    protected Set<String> getFetchedFieldNames(Schema schema) {
+        String prefix = schema.getNamespace().prefix;
+        if (prefix == null || prefix.isEmpty()) {
+            prefix = schema.getName();
+        }
+        Set<String> names = new HashSet<>();
+        if (fields.contains(prefix + ":*")) {
+            schema.getFields().forEach(field -> names.add(field.getName().getLocalName()));
+            return names;
+        }
+        for (String field : fields) {
+            int i = field.indexOf(':');
+            if (i > 0 && field.substring(0, i).equals(prefix) && schema.hasField(field.substring(i + 1))) {
+                names.add(field.substring(i + 1));
+            }
+        }
+        return names;
+    }
+
     protected Serializable getProperty(String name) {
         return (Serializable) source.get(name);
     }
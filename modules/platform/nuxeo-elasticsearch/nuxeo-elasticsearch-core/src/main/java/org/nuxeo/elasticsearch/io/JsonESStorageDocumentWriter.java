@@ -0,0 +1,196 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Benoit Delbosc
+ */
+package org.nuxeo.elasticsearch.io;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.nuxeo.ecm.core.api.AbstractSession;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.model.Document;
+import org.nuxeo.ecm.core.schema.SchemaManager;
+import org.nuxeo.ecm.core.schema.TypeConstants;
+import org.nuxeo.ecm.core.schema.types.ComplexType;
+import org.nuxeo.ecm.core.schema.types.Field;
+import org.nuxeo.ecm.core.schema.types.ListType;
+import org.nuxeo.ecm.core.schema.types.Schema;
+import org.nuxeo.ecm.core.schema.types.SimpleType;
+import org.nuxeo.ecm.core.schema.types.Type;
+import org.nuxeo.ecm.core.schema.types.primitives.BinaryType;
+import org.nuxeo.ecm.core.schema.types.primitives.BooleanType;
+import org.nuxeo.ecm.core.schema.types.primitives.DoubleType;
+import org.nuxeo.ecm.core.schema.types.primitives.IntegerType;
+import org.nuxeo.ecm.core.schema.types.primitives.LongType;
+import org.nuxeo.runtime.api.Framework;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * JSon writer that outputs the same content as {@link JsonESDocumentWriter}, but writes the schema properties from the
+ * values of the storage document, the DBS {@code State} or the VCS rows, instead of building the {@code Property} tree
+ * of the {@link DocumentModel}.
+ * <p>
+ * Only the order of the fields of the JSON objects may differ. Documents that are not attached to a local session are
+ * written by {@link JsonESDocumentWriter}.
+ *
+ * @since 11.5
+ */
+public class JsonESStorageDocumentWriter extends JsonESDocumentWriter {
+
+    @Override
+    protected void writeSchemas(JsonGenerator jg, DocumentModel doc, String[] schemas) throws IOException {
+        Document document = getStorageDocument(doc);
+        if (document == null) {
+            super.writeSchemas(jg, doc, schemas);
+            return;
+        }
+        if (schemas == null || (schemas.length == 1 && "*".equals(schemas[0]))) {
+            schemas = doc.getSchemas();
+        }
+        SchemaManager schemaManager = Framework.getService(SchemaManager.class);
+        for (String schemaName : schemas) {
+            Schema schema = schemaManager.getSchema(schemaName);
+            String prefix = schema.getNamespace().prefix;
+            if (prefix == null || prefix.length() == 0) {
+                prefix = schemaName;
+            }
+            for (Field field : schema.getFields()) {
+                String name = field.getName().getPrefixedName();
+                try {
+                    writeField(jg, prefix + ':' + field.getName().getLocalName(), field.getType(),
+                            document.getValue(name));
+                } catch (ClassCastException e) {
+                    throw new NuxeoException(
+                            String.format("writing JSON property failed on document: %s for property: %s", doc, name),
+                            e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the storage document of a document model, or {@code null} if it is not attached to a local session.
+     */
+    protected Document getStorageDocument(DocumentModel doc) {
+        if (doc.getId() == null) {
+            return null;
+        }
+        CoreSession session = doc.getCoreSession();
+        if (!(session instanceof AbstractSession)) {
+            return null;
+        }
+        return ((AbstractSession) session).getSession().getDocumentByUUID(doc.getId());
+    }
+
+    /**
+     * Writes a field like {@link org.nuxeo.ecm.automation.core.util.JSONPropertyWriter JSONPropertyWriter} does
+     * without null and empty values.
+     *
+     * @param name the field name, or {@code null} for an element of a list
+     */
+    protected void writeField(JsonGenerator jg, String name, Type type, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (type.isSimpleType()) {
+            writeFieldName(jg, name);
+            writeScalar(jg, type, value);
+        } else if (type.isListType()) {
+            Type fieldType = ((ListType) type).getFieldType();
+            if (fieldType.isSimpleType()) {
+                writeFieldName(jg, name);
+                jg.writeStartArray();
+                for (Object v : (Object[]) value) {
+                    jg.writeString(fieldType.encode(v));
+                }
+                jg.writeEndArray();
+            } else {
+                List<?> list = (List<?>) value;
+                if (list.isEmpty()) {
+                    return;
+                }
+                writeFieldName(jg, name);
+                jg.writeStartArray();
+                for (Object v : list) {
+                    writeField(jg, null, fieldType, v);
+                }
+                jg.writeEndArray();
+            }
+        } else if (TypeConstants.isContentType(type)) {
+            writeFieldName(jg, name);
+            writeBlob(jg, (Blob) value);
+        } else {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) value;
+            writeFieldName(jg, name);
+            jg.writeStartObject();
+            for (Field field : ((ComplexType) type).getFields()) {
+                String childName = field.getName().getPrefixedName();
+                writeField(jg, childName, field.getType(), map.get(childName));
+            }
+            jg.writeEndObject();
+        }
+    }
+
+    protected static void writeFieldName(JsonGenerator jg, String name) throws IOException {
+        if (name != null) {
+            jg.writeFieldName(name);
+        }
+    }
+
+    protected void writeScalar(JsonGenerator jg, Type type, Object value) throws IOException {
+        if (type instanceof SimpleType) {
+            type = ((SimpleType) type).getPrimitiveType();
+        }
+        if (type instanceof BooleanType) {
+            jg.writeBoolean((Boolean) value);
+        } else if (type instanceof LongType) {
+            jg.writeNumber(((Number) value).longValue());
+        } else if (type instanceof DoubleType) {
+            jg.writeNumber(((Number) value).doubleValue());
+        } else if (type instanceof IntegerType) {
+            jg.writeNumber(((Number) value).intValue());
+        } else if (type instanceof BinaryType) {
+            jg.writeBinary((byte[]) value);
+        } else {
+            jg.writeString(type.encode(value));
+        }
+    }
+
+    protected void writeBlob(JsonGenerator jg, Blob blob) throws IOException {
+        jg.writeStartObject();
+        writeStringField(jg, "name", blob.getFilename());
+        writeStringField(jg, "mime-type", blob.getMimeType());
+        writeStringField(jg, "encoding", blob.getEncoding());
+        writeStringField(jg, "digest", blob.getDigest());
+        jg.writeNumberField("length", blob.getLength());
+        jg.writeEndObject();
+    }
+
+    protected static void writeStringField(JsonGenerator jg, String name, String value) throws IOException {
+        if (value != null) {
+            jg.writeStringField(name, value);
+        }
+    }
+
+}
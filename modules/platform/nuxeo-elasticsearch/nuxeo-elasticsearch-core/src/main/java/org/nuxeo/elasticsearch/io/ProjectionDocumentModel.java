@@ -0,0 +1,124 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Benoit Delbosc
+ */
+package org.nuxeo.elasticsearch.io;
+
+import static org.nuxeo.ecm.core.schema.types.ComplexTypeImpl.canonicalXPath;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.nuxeo.common.utils.Path;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DataModel;
+import org.nuxeo.ecm.core.api.DocumentRef;
+import org.nuxeo.ecm.core.api.impl.DocumentModelImpl;
+import org.nuxeo.ecm.core.api.model.Property;
+
+/**
+ * A read-only document built from a partial Elasticsearch {@code _source}.
+ * <p>
+ * The schemas for which only some fields were fetched are loaded from the repository, as a whole, the first time a
+ * field that was not fetched is accessed. The schemas without any fetched field are lazily loaded as usual.
+ *
+ * @since 11.5
+ */
+public class ProjectionDocumentModel extends DocumentModelImpl {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The fetched field names of the partially loaded schemas, by schema. */
+    protected final Map<String, Set<String>> projectedFields = new HashMap<>();
+
+    public ProjectionDocumentModel(String type, String id, Path path, DocumentRef docRef, DocumentRef parentRef,
+            Set<String> facets, String sourceId, boolean isProxy, CoreSession coreSession, String repositoryName) {
+        super(type, id, path, docRef, parentRef, null, facets, sourceId, isProxy, coreSession, repositoryName, null);
+    }
+
+    /**
+     * Adds a data model holding only some fields of its schema.
+     *
+     * @param fields the names of the fields that are set in the data model
+     */
+    public void addPartialDataModel(DataModel dataModel, Set<String> fields) {
+        addDataModel(dataModel);
+        projectedFields.put(dataModel.getSchema(), fields);
+    }
+
+    /**
+     * Returns {@code true} if the schema is only partially loaded.
+     */
+    public boolean isSchemaPartiallyLoaded(String schema) {
+        return projectedFields.containsKey(schema);
+    }
+
+    @Override
+    public boolean isSchemaLoaded(String name) {
+        return super.isSchemaLoaded(name) && !projectedFields.containsKey(name);
+    }
+
+    @Override
+    protected DataModel loadDataModel(String schema) {
+        projectedFields.remove(schema);
+        return super.loadDataModel(schema);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public DataModel getDataModel(String schema) {
+        // access to the whole schema
+        if (projectedFields.containsKey(schema)) {
+            return loadDataModel(schema);
+        }
+        return super.getDataModel(schema);
+    }
+
+    @Override
+    public Object getProperty(String schemaName, String name) {
+        Set<String> fields = projectedFields.get(schemaName);
+        if (fields != null && !fields.contains(name)) {
+            loadDataModel(schemaName);
+        }
+        return super.getProperty(schemaName, name);
+    }
+
+    @Override
+    public Property getProperty(String xpath) {
+        if (!projectedFields.isEmpty() && xpath != null) {
+            String[] name = new String[1];
+            String schemaName = getXPathSchemaName(canonicalXPath(xpath), schemas, name);
+            Set<String> fields = schemaName == null ? null : projectedFields.get(schemaName);
+            if (fields != null) {
+                if (!fields.contains(name[0])) {
+                    loadDataModel(schemaName);
+                    return super.getProperty(xpath);
+                }
+                // fetched field, resolve it on the partial data model without loading the schema
+                Set<String> partialFields = projectedFields.remove(schemaName);
+                try {
+                    return super.getProperty(xpath);
+                } finally {
+                    projectedFields.put(schemaName, partialFields);
+                }
+            }
+        }
+        return super.getProperty(xpath);
+    }
+
+}
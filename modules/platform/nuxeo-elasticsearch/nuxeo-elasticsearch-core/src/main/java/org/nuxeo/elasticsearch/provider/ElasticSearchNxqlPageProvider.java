@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -58,6 +59,14 @@ public class ElasticSearchNxqlPageProvider extends CoreQueryDocumentPageProvider
 
     public static final String SEARCH_ON_ALL_REPOSITORIES_PROPERTY = "searchAllRepositories";
 
+    /**
+     * Comma separated list of the properties to fetch from Elasticsearch to build the documents, the other properties
+     * are loaded from the repository on access.
+     *
+     * @since 11.5
+     */
+    public static final String FETCH_FIELDS_PROPERTY = "fetchFields";
+
     // @since 9.2
     public static final String ES_MAX_RESULT_WINDOW_PROPERTY = "org.nuxeo.elasticsearch.provider.maxResultWindow";
 
@@ -104,6 +113,10 @@ public class ElasticSearchNxqlPageProvider extends CoreQueryDocumentPageProvider
                 nxQuery.searchOnAllRepositories();
             }
             nxQuery.useUnrestrictedSession(useUnrestrictedSession());
+            String[] fetchFields = getFetchFields();
+            if (fetchFields != null) {
+                nxQuery.fetchFromElasticsearch(fetchFields);
+            }
 
             List<String> highlightFields = getHighlights();
             if (highlightFields != null && !highlightFields.isEmpty()) {
@@ -190,6 +203,17 @@ public class ElasticSearchNxqlPageProvider extends CoreQueryDocumentPageProvider
         return Boolean.parseBoolean(value);
     }
 
+    /**
+     * @since 11.5
+     */
+    protected String[] getFetchFields() {
+        String value = (String) getProperties().get(FETCH_FIELDS_PROPERTY);
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        return StringUtils.split(value.replaceAll("\\s", ""), ',');
+    }
+
     @Override
     public boolean hasAggregateSupport() {
         return true;
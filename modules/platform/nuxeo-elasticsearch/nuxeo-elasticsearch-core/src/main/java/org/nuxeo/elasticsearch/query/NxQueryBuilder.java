@@ -24,7 +24,9 @@ import static org.nuxeo.elasticsearch.ElasticSearchConstants.ES_SCORE_FIELD;
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.FETCH_DOC_FROM_ES_PROPERTY;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,6 +40,7 @@ import org.elasticsearch.search.aggregations.Aggregation;
 import org.elasticsearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.elasticsearch.search.slice.SliceBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.sort.SortOrder;
@@ -54,6 +57,7 @@ import org.nuxeo.elasticsearch.ElasticSearchConstants;
 import org.nuxeo.elasticsearch.aggregate.AggregateEsBase;
 import org.nuxeo.elasticsearch.api.EsResult;
 import org.nuxeo.elasticsearch.fetcher.EsFetcher;
+import org.nuxeo.elasticsearch.fetcher.EsProjectionFetcher;
 import org.nuxeo.elasticsearch.fetcher.Fetcher;
 import org.nuxeo.elasticsearch.fetcher.VcsFetcher;
 import org.nuxeo.runtime.api.Framework;
@@ -69,6 +73,15 @@ public class NxQueryBuilder {
 
     private static final String AGG_FILTER_SUFFIX = "_filter";
 
+    /**
+     * The system fields needed to build a document from a partial {@code _source}.
+     *
+     * @since 11.5
+     */
+    protected static final List<String> FETCH_SYSTEM_FIELDS = Arrays.asList("ecm:uuid", "ecm:primaryType",
+            "ecm:mixinType", "ecm:path", "ecm:parentId", "ecm:repository", "ecm:isProxy",
+            "ecm:currentLifeCycleState");
+
     private final CoreSession session;
 
     private final List<SortInfo> sortInfos = new ArrayList<>();
@@ -101,8 +114,17 @@ public class NxQueryBuilder {
 
     private EsFetcher.HitDocConsumer hitDocConsumer;
 
+    // @since 11.5
+    protected List<String> fetchFields;
+
     protected boolean useUnrestrictedSession;
 
+    // @since 11.5
+    protected int sliceId;
+
+    // @since 11.5
+    protected int slices;
+
     public NxQueryBuilder(CoreSession coreSession) {
         session = coreSession;
         repositories.add(coreSession.getRepositoryName());
@@ -172,6 +194,20 @@ public class NxQueryBuilder {
      */
     public NxQueryBuilder fetchFromElasticsearch() {
         fetchFromElasticsearch = true;
+        fetchFields = null;
+        return this;
+    }
+
+    /**
+     * Ask for the given fields of the Elasticsearch _source field, use them to build read-only documents that load
+     * their other properties from the repository on access.
+     *
+     * @param fields the prefixed names of the properties, or {@code prefix:*} for all the properties of a schema
+     * @since 11.5
+     */
+    public NxQueryBuilder fetchFromElasticsearch(String... fields) {
+        fetchFromElasticsearch = true;
+        fetchFields = Arrays.asList(fields);
         return this;
     }
 
@@ -193,11 +229,23 @@ public class NxQueryBuilder {
         return this;
     }
 
+    /**
+     * Restricts a scroll request to a slice of the results, slices can be scrolled concurrently.
+     *
+     * @since 11.5
+     */
+    public NxQueryBuilder slice(int sliceId, int slices) {
+        this.sliceId = sliceId;
+        this.slices = slices;
+        return this;
+    }
+
     /**
      * Fetch the documents using VCS (database) engine. This is done by default
      */
     public NxQueryBuilder fetchFromDatabase() {
         fetchFromElasticsearch = false;
+        fetchFields = null;
         return this;
     }
 
@@ -257,6 +305,30 @@ public class NxQueryBuilder {
         return session;
     }
 
+    /**
+     * Returns the fields of the _source used to build documents, or {@code null} to use the whole _source.
+     *
+     * @since 11.5
+     */
+    public List<String> getFetchFields() {
+        return fetchFields;
+    }
+
+    /**
+     * Returns the _source includes needed to build documents from the fetched fields, or {@code null} if documents
+     * are built from the whole _source.
+     *
+     * @since 11.5
+     */
+    public String[] getFetchSourceIncludes() {
+        if (!isFetchFromElasticsearch() || fetchFields == null) {
+            return null;
+        }
+        Set<String> includes = new LinkedHashSet<>(FETCH_SYSTEM_FIELDS);
+        includes.addAll(fetchFields);
+        return includes.toArray(new String[0]);
+    }
+
     /**
      * Get the Elasticsearch queryBuilder. Note that it returns only the query part without order, limits nor
      * aggregates, use the udpateRequest to get the full request.
@@ -406,7 +478,10 @@ public class NxQueryBuilder {
         if (!isFetchFromElasticsearch()) {
             request.fetchSource(getSelectFields(), null);
         }
-
+        // Sliced scroll
+        if (slices > 1) {
+            request.slice(new SliceBuilder(sliceId, slices));
+        }
     }
 
     protected QueryBuilder addSecurityFilter(QueryBuilder query) {
@@ -469,6 +544,9 @@ public class NxQueryBuilder {
 
     protected Fetcher getFetcher(CoreSession session, SearchResponse response, Map<String, String> repoNames) {
         if (isFetchFromElasticsearch()) {
+            if (fetchFields != null) {
+                return new EsProjectionFetcher(session, response, repoNames, hitDocConsumer, fetchFields);
+            }
             return new EsFetcher(session, response, repoNames, hitDocConsumer);
         }
         return new VcsFetcher(session, response, repoNames);
@@ -52,10 +52,14 @@ public class ElasticSearchScroll extends RepositoryScroll {
         ElasticSearchService ess = Framework.getService(ElasticSearchService.class);
         try {
             if (esScroll == null) {
-                esScroll = ess.scroll(new NxQueryBuilder(session).nxql(request.getQuery())
-                                                                 .limit(request.getSize())
-                                                                 .onlyElasticsearchResponse(),
-                        request.getTimeout().toSeconds());
+                NxQueryBuilder queryBuilder = new NxQueryBuilder(session).nxql(request.getQuery())
+                                                                         .limit(request.getSize())
+                                                                         .onlyElasticsearchResponse();
+                if (request.isSliced()) {
+                    // use the Elasticsearch sliced scroll instead of an id range
+                    queryBuilder.slice(request.getSliceId(), request.getSlices());
+                }
+                esScroll = ess.scroll(queryBuilder, request.getTimeout().toSeconds());
             } else {
                 esScroll = ess.scroll(esScroll);
             }
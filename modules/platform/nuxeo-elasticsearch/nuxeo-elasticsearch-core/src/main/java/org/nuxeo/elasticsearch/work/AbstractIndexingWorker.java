@@ -19,6 +19,10 @@
 
 package org.nuxeo.elasticsearch.work;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -61,6 +65,33 @@ public abstract class AbstractIndexingWorker extends BaseIndexingWorker {
         doIndexingWork(esi, cmds);
     }
 
+    /**
+     * @since 11.5
+     */
+    protected AbstractIndexingWorker(DataInput in) throws IOException {
+        super(in);
+        int size = in.readInt();
+        cmds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cmds.add(new IndexingCommand(in));
+        }
+    }
+
+    /**
+     * Writes the fields of this work, for subclasses implementing {@link org.nuxeo.ecm.core.work.api.EncodableWork
+     * EncodableWork}.
+     *
+     * @since 11.5
+     */
+    @Override
+    public void writeFields(DataOutput out) throws IOException {
+        super.writeFields(out);
+        out.writeInt(cmds.size());
+        for (IndexingCommand cmd : cmds) {
+            cmd.writeFields(out);
+        }
+    }
+
     protected abstract void doIndexingWork(ElasticSearchIndexing esi, List<IndexingCommand> cmds);
 
 }
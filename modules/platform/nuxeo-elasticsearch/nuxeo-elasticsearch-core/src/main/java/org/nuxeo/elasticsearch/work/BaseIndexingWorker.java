@@ -21,6 +21,9 @@ package org.nuxeo.elasticsearch.work;
 
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.INDEXING_QUEUE_ID;
 
+import java.io.DataInput;
+import java.io.IOException;
+
 import org.nuxeo.ecm.core.work.AbstractWork;
 
 /**
@@ -30,6 +33,17 @@ public abstract class BaseIndexingWorker extends AbstractWork {
 
     private static final long serialVersionUID = 1L;
 
+    public BaseIndexingWorker() {
+        super();
+    }
+
+    /**
+     * @since 11.5
+     */
+    protected BaseIndexingWorker(DataInput in) throws IOException {
+        super(in);
+    }
+
     @Override
     public String getCategory() {
         return INDEXING_QUEUE_ID;
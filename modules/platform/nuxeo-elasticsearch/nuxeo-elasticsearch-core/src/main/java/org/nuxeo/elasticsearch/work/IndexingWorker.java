@@ -22,8 +22,11 @@ package org.nuxeo.elasticsearch.work;
 
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.REINDEX_USING_CHILDREN_TRAVERSAL_PROPERTY;
 
+import java.io.DataInput;
+import java.io.IOException;
 import java.util.List;
 
+import org.nuxeo.ecm.core.work.api.EncodableWork;
 import org.nuxeo.ecm.core.work.api.Work;
 import org.nuxeo.ecm.core.work.api.WorkManager;
 import org.nuxeo.elasticsearch.Timestamp;
@@ -35,7 +38,7 @@ import org.nuxeo.runtime.api.Framework;
 /**
  * Simple Indexing Worker
  */
-public class IndexingWorker extends AbstractIndexingWorker implements Work {
+public class IndexingWorker extends AbstractIndexingWorker implements Work, EncodableWork {
 
     private static final long serialVersionUID = -5141471452954319812L;
 
@@ -43,6 +46,13 @@ public class IndexingWorker extends AbstractIndexingWorker implements Work {
         super(repositoryName, cmds);
     }
 
+    /**
+     * @since 11.5
+     */
+    public IndexingWorker(DataInput in) throws IOException {
+        super(in);
+    }
+
     @Override
     public String getTitle() {
         return " ElasticSearch indexing for docs: " + getCmdsDigest();
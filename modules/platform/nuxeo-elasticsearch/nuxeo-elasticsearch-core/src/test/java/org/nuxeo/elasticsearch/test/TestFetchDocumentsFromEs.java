@@ -19,6 +19,7 @@
  */
 package org.nuxeo.elasticsearch.test;
 
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
@@ -39,6 +40,7 @@ import org.nuxeo.ecm.core.work.api.WorkManager;
 import org.nuxeo.elasticsearch.api.ElasticSearchAdmin;
 import org.nuxeo.elasticsearch.api.ElasticSearchService;
 import org.nuxeo.elasticsearch.api.EsResult;
+import org.nuxeo.elasticsearch.io.ProjectionDocumentModel;
 import org.nuxeo.elasticsearch.query.NxQueryBuilder;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.test.runner.Deploy;
@@ -161,6 +163,40 @@ public class TestFetchDocumentsFromEs {
 
     }
 
+    @Test
+    public void shouldLoadProjectedDocumentFromEs() throws Exception {
+        buildAndIndexTree();
+        EsResult result = ess.queryAndAggregate(new NxQueryBuilder(session).nxql("select * from Document")
+                                                                           .limit(20)
+                                                                           .fetchFromElasticsearch("dc:title")
+                                                                           .onlyElasticsearchResponse());
+        for (SearchHit sh : result.getElasticsearchResponse().getHits()) {
+            Map<String, Object> source = sh.getSourceAsMap();
+            Assert.assertTrue(source.containsKey("dc:title"));
+            Assert.assertTrue(source.containsKey("ecm:primaryType"));
+            Assert.assertFalse(source.containsKey("dc:creator"));
+            Assert.assertFalse(source.containsKey("ecm:acl"));
+        }
+
+        DocumentModelList docs = ess.query(new NxQueryBuilder(session).nxql("select * from Document")
+                                                                      .limit(20)
+                                                                      .fetchFromElasticsearch("dc:title"));
+        Assert.assertEquals(10, docs.totalSize());
+        for (DocumentModel doc : docs) {
+            ProjectionDocumentModel projection = (ProjectionDocumentModel) doc;
+            Assert.assertTrue(projection.isImmutable());
+            Assert.assertTrue(projection.isSchemaPartiallyLoaded("dublincore"));
+            Assert.assertFalse(projection.isSchemaLoaded("common"));
+            Assert.assertEquals("Folder" + doc.getName().substring("folder".length()), doc.getTitle());
+            Assert.assertTrue(projection.isSchemaPartiallyLoaded("dublincore"));
+            // not fetched, loaded from the repository
+            Assert.assertEquals(session.getPrincipal().getName(), doc.getPropertyValue("dc:creator"));
+            Assert.assertFalse(projection.isSchemaPartiallyLoaded("dublincore"));
+            Assert.assertTrue(projection.isSchemaLoaded("dublincore"));
+            Assert.assertEquals("Folder" + doc.getName().substring("folder".length()), doc.getTitle());
+        }
+    }
+
     /**
      * @since 8.2
      */
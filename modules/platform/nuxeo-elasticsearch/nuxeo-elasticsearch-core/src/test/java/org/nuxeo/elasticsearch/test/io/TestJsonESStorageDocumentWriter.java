@@ -0,0 +1,140 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Benoit Delbosc
+ */
+package org.nuxeo.elasticsearch.test.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.api.Blobs;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.DocumentRef;
+import org.nuxeo.ecm.core.api.VersioningOption;
+import org.nuxeo.elasticsearch.io.JsonESDocumentWriter;
+import org.nuxeo.elasticsearch.io.JsonESStorageDocumentWriter;
+import org.nuxeo.elasticsearch.test.RepositoryLightElasticSearchFeature;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * @since 11.5
+ */
+@RunWith(FeaturesRunner.class)
+@Features(RepositoryLightElasticSearchFeature.class)
+public class TestJsonESStorageDocumentWriter {
+
+    private static final Log log = LogFactory.getLog(TestJsonESStorageDocumentWriter.class);
+
+    protected static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Inject
+    protected CoreSession session;
+
+    protected static String write(JsonESDocumentWriter writer, DocumentModel doc) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator jg = JSON_FACTORY.createGenerator(out)) {
+            writer.writeESDocument(jg, doc, null, null);
+        }
+        return out.toString();
+    }
+
+    protected DocumentModel createFile(DocumentModel parent, String name) {
+        DocumentModel doc = session.createDocumentModel(parent.getPathAsString(), name, "File");
+        doc.setPropertyValue("dc:title", "Title of " + name);
+        doc.setPropertyValue("dc:subjects", new String[] { "foo", "bar" });
+        doc.setPropertyValue("file:content", (Serializable) Blobs.createBlob("Some content", "text/plain"));
+        Map<String, Serializable> file = Collections.singletonMap("file",
+                (Serializable) Blobs.createBlob("Other content"));
+        doc.setPropertyValue("files:files", (Serializable) Collections.singletonList(file));
+        return session.createDocument(doc);
+    }
+
+    @Test
+    public void testSameContent() throws Exception {
+        DocumentModel folder = session.createDocumentModel("/", "folder", "Folder");
+        folder = session.createDocument(folder);
+        DocumentModel file = createFile(folder, "file");
+        DocumentRef versionRef = file.checkIn(VersioningOption.MAJOR, "version");
+        DocumentModel proxy = session.createProxy(versionRef, folder.getRef());
+        DocumentModel note = session.createDocumentModel("/", "note", "Note");
+        note = session.createDocument(note);
+        session.save();
+
+        JsonESDocumentWriter writer = new JsonESDocumentWriter();
+        JsonESDocumentWriter storageWriter = new JsonESStorageDocumentWriter();
+        for (DocumentRef ref : Arrays.asList(folder.getRef(), file.getRef(), versionRef, proxy.getRef(),
+                note.getRef())) {
+            String expected = write(writer, session.getDocument(ref));
+            String actual = write(storageWriter, session.getDocument(ref));
+            JSONAssert.assertEquals(expected, actual, JSONCompareMode.STRICT);
+        }
+    }
+
+    /**
+     * Compares the docs/s of both writers, only run when profiling.
+     */
+    @Test
+    public void profileWriters() throws Exception {
+        Assume.assumeTrue(Boolean.parseBoolean(Framework.getProperty("profile", "false")));
+        DocumentModel folder = session.createDocumentModel("/", "folder", "Folder");
+        folder = session.createDocument(folder);
+        int count = 500;
+        List<DocumentRef> refs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            refs.add(createFile(folder, "file" + i).getRef());
+        }
+        session.save();
+
+        JsonESDocumentWriter writer = new JsonESDocumentWriter();
+        JsonESDocumentWriter storageWriter = new JsonESStorageDocumentWriter();
+        // warm up
+        measure(writer, refs);
+        measure(storageWriter, refs);
+        log.info(String.format("JsonESDocumentWriter: %.0f docs/s, JsonESStorageDocumentWriter: %.0f docs/s",
+                measure(writer, refs), measure(storageWriter, refs)));
+    }
+
+    protected double measure(JsonESDocumentWriter writer, List<DocumentRef> refs) throws IOException {
+        long start = System.nanoTime();
+        for (DocumentModel doc : session.getDocuments(refs.toArray(new DocumentRef[0]))) {
+            write(writer, doc);
+        }
+        return refs.size() * 1e9 / (System.nanoTime() - start);
+    }
+
+}
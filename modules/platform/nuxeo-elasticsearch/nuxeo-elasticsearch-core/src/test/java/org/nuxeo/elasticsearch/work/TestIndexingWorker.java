@@ -0,0 +1,83 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.elasticsearch.work;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.api.impl.DocumentModelImpl;
+import org.nuxeo.ecm.core.work.WorkEncoding;
+import org.nuxeo.elasticsearch.commands.IndexingCommand;
+import org.nuxeo.elasticsearch.commands.IndexingCommand.Type;
+
+/**
+ * @since 11.5
+ */
+public class TestIndexingWorker {
+
+    protected static class MockDocumentModel extends DocumentModelImpl {
+        private static final long serialVersionUID = 1L;
+
+        protected final String uid;
+
+        public MockDocumentModel(String uid) {
+            this.uid = uid;
+        }
+
+        @Override
+        public String getId() {
+            return uid;
+        }
+
+        @Override
+        public String getRepositoryName() {
+            return "default";
+        }
+
+        @Override
+        public String getPathAsString() {
+            return "/" + uid;
+        }
+    }
+
+    @Test
+    public void testFieldEncoding() throws Exception {
+        IndexingCommand insert = new IndexingCommand(new MockDocumentModel("foo"), Type.INSERT, false, true);
+        IndexingCommand update = new IndexingCommand(new MockDocumentModel("bar"), Type.UPDATE, true, false);
+        update.addSchemas("dublincore");
+        update.addSchemas("file");
+        IndexingWorker work = new IndexingWorker("default", Arrays.asList(insert, update));
+
+        byte[] data = WorkEncoding.encode(work, true);
+        assertTrue(WorkEncoding.isFieldEncoded(data));
+        IndexingWorker decoded = (IndexingWorker) WorkEncoding.decode(data);
+        assertEquals(work.getId(), decoded.getId());
+        assertEquals("default", decoded.getRepositoryName());
+        assertEquals(work.getCmdsDigest(), decoded.getCmdsDigest());
+        assertEquals(2, decoded.cmds.size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(work.cmds.get(i).toJSON(), decoded.cmds.get(i).toJSON());
+        }
+        assertEquals(Arrays.asList("dublincore", "file"), Arrays.asList(decoded.cmds.get(1).getSchemas()));
+    }
+
+}
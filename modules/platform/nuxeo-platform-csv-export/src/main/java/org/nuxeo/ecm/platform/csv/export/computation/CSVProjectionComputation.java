@@ -115,7 +115,8 @@ public class CSVProjectionComputation extends AbstractBulkComputation {
         String data = getData(csv, recordSeparator);
         DataBucket dataBucket = new DataBucket(commandId, delta.getProcessed(), data.getBytes(UTF_8),
                 header.getBytes(UTF_8), new byte[0]);
-        Record record = Record.of(commandId, BulkCodecs.getDataBucketCodec().encode(dataBucket));
+        Record record = Record.of(commandId,
+                BulkCodecs.getDataBucketCodec(getCurrentCommand().getAction()).encode(dataBucket));
         context.produceRecord(OUTPUT_1, record);
         out = null;
     }
@@ -19,12 +19,20 @@
  */
 package org.nuxeo.ecm.platform.picture;
 
+import static org.nuxeo.ecm.core.work.WorkEncoding.readString;
+import static org.nuxeo.ecm.core.work.WorkEncoding.writeString;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.IdRef;
 import org.nuxeo.ecm.core.event.Event;
 import org.nuxeo.ecm.core.event.EventService;
 import org.nuxeo.ecm.core.event.impl.DocumentEventContext;
 import org.nuxeo.ecm.core.work.AbstractWork;
+import org.nuxeo.ecm.core.work.api.EncodableWork;
 import org.nuxeo.ecm.platform.picture.recompute.RecomputeViewsAction;
 import org.nuxeo.runtime.api.Framework;
 
@@ -35,7 +43,7 @@ import org.nuxeo.runtime.api.Framework;
  * @deprecated since 11.1 use {@link RecomputeViewsAction} instead
  */
 @Deprecated(since = "11.1")
-public class PictureViewsGenerationWork extends AbstractWork {
+public class PictureViewsGenerationWork extends AbstractWork implements EncodableWork {
 
     private static final long serialVersionUID = 1L;
 
@@ -51,6 +59,20 @@ public class PictureViewsGenerationWork extends AbstractWork {
         this.xpath = xpath;
     }
 
+    /**
+     * @since 11.5
+     */
+    public PictureViewsGenerationWork(DataInput in) throws IOException {
+        super(in);
+        xpath = readString(in);
+    }
+
+    @Override
+    public void writeFields(DataOutput out) throws IOException {
+        super.writeFields(out);
+        writeString(out, xpath);
+    }
+
     @Override
     public String getCategory() {
         return CATEGORY_PICTURE_GENERATION;
@@ -0,0 +1,45 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.ecm.platform.picture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.work.WorkEncoding;
+
+/**
+ * @since 11.5
+ */
+@SuppressWarnings("deprecation")
+public class TestPictureViewsGenerationWork {
+
+    @Test
+    public void testFieldEncoding() {
+        PictureViewsGenerationWork work = new PictureViewsGenerationWork("default", "1234", "file:content");
+        byte[] data = WorkEncoding.encode(work, true);
+        assertTrue(WorkEncoding.isFieldEncoded(data));
+        PictureViewsGenerationWork decoded = (PictureViewsGenerationWork) WorkEncoding.decode(data);
+        assertEquals(work.getId(), decoded.getId());
+        assertEquals("default", decoded.getRepositoryName());
+        assertEquals("1234", decoded.getDocument().getIdRef().value);
+        assertEquals("file:content", decoded.xpath);
+    }
+
+}
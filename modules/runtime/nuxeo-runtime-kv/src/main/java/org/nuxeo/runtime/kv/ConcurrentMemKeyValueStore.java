@@ -0,0 +1,294 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.runtime.kv;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Memory-based implementation of a Key/Value store without global lock.
+ * <p>
+ * Values are held in a {@link ConcurrentHashMap}: reads don't lock, and writes only lock the bin of their key. Values
+ * written as numbers or incremented are held as {@code long}s, so that {@link #addAndGet} doesn't need to decode and
+ * encode them.
+ * <p>
+ * Entries with a TTL are also registered in a bucket for the second at which they expire. Expired entries are never
+ * returned, and they are removed by the writes once their bucket is past.
+ *
+ * @since 11.5
+ */
+public class ConcurrentMemKeyValueStore extends AbstractKeyValueStoreProvider {
+
+    /**
+     * A value, either bytes or a counter, with its expiration.
+     */
+    protected static final class Entry {
+
+        /** The bytes, or {@code null} for a counter. */
+        protected final byte[] bytes;
+
+        /** The counter, only changed under the map lock for the key. */
+        protected volatile long counter;
+
+        /** The expiration time in milliseconds, or {@code 0} for none. */
+        protected volatile long expiration;
+
+        protected Entry(byte[] bytes, long expiration) {
+            this.bytes = bytes;
+            this.expiration = expiration;
+        }
+
+        protected Entry(long counter, long expiration) {
+            this.bytes = null;
+            this.counter = counter;
+            this.expiration = expiration;
+        }
+
+        protected boolean isExpired(long now) {
+            long exp = expiration;
+            return exp != 0 && exp <= now;
+        }
+
+        protected boolean isCounter() {
+            return bytes == null;
+        }
+
+        /** Gets the bytes of this entry, which must not be modified. */
+        protected byte[] getBytes() {
+            return bytes == null ? Long.toString(counter).getBytes(UTF_8) : bytes;
+        }
+    }
+
+    protected final ConcurrentHashMap<String, Entry> map = new ConcurrentHashMap<>();
+
+    /** The keys having a TTL, by expiration second. */
+    protected final ConcurrentSkipListMap<Long, Set<String>> expirations = new ConcurrentSkipListMap<>();
+
+    /** The time in milliseconds after which the next removal of expired entries is done. */
+    protected final AtomicLong nextSweep = new AtomicLong();
+
+    protected static long now() {
+        return System.currentTimeMillis();
+    }
+
+    protected static long getExpiration(long now, long ttl) {
+        return ttl == 0 ? 0 : now + ttl * 1000;
+    }
+
+    protected void addExpiration(String key, long expiration) {
+        if (expiration != 0) {
+            expirations.computeIfAbsent(expiration / 1000, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    /**
+     * Removes the entries expired in the seconds that are past, at most once per second.
+     */
+    protected void removeExpired() {
+        long now = now();
+        long next = nextSweep.get();
+        if (now < next || !nextSweep.compareAndSet(next, now + 1000)) {
+            return;
+        }
+        ConcurrentNavigableMap<Long, Set<String>> past = expirations.headMap(now / 1000);
+        Map.Entry<Long, Set<String>> bucket;
+        while ((bucket = past.pollFirstEntry()) != null) {
+            for (String key : bucket.getValue()) {
+                // the TTL may have been changed since
+                map.computeIfPresent(key, (k, entry) -> entry.isExpired(now) ? null : entry);
+            }
+        }
+    }
+
+    /**
+     * Gets a non-expired entry.
+     */
+    protected Entry getEntry(String key) {
+        Objects.requireNonNull(key);
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(now())) {
+            map.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    @Override
+    public Stream<String> keyStream() {
+        long now = now();
+        List<String> keys = map.entrySet()
+                               .stream()
+                               .filter(en -> !en.getValue().isExpired(now))
+                               .map(Map.Entry::getKey)
+                               .collect(Collectors.toList());
+        return keys.stream();
+    }
+
+    @Override
+    public Stream<String> keyStream(String prefix) {
+        long now = now();
+        List<String> keys = map.entrySet()
+                               .stream()
+                               .filter(en -> en.getKey().startsWith(prefix) && !en.getValue().isExpired(now))
+                               .map(Map.Entry::getKey)
+                               .collect(Collectors.toList());
+        return keys.stream();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        expirations.clear();
+    }
+
+    @Override
+    public void put(String key, byte[] value, long ttl) {
+        Objects.requireNonNull(key);
+        removeExpired();
+        if (value == null) {
+            map.remove(key);
+        } else {
+            long expiration = getExpiration(now(), ttl);
+            map.put(key, new Entry(value.clone(), expiration));
+            addExpiration(key, expiration);
+        }
+    }
+
+    @Override
+    public void put(String key, Long value) {
+        put(key, value, 0);
+    }
+
+    @Override
+    public void put(String key, Long value, long ttl) {
+        Objects.requireNonNull(key);
+        removeExpired();
+        if (value == null) {
+            map.remove(key);
+        } else {
+            long expiration = getExpiration(now(), ttl);
+            map.put(key, new Entry(value.longValue(), expiration));
+            addExpiration(key, expiration);
+        }
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Entry entry = getEntry(key);
+        return entry == null ? null : entry.getBytes().clone();
+    }
+
+    @Override
+    public Long getLong(String key) throws NumberFormatException { // NOSONAR
+        Entry entry = getEntry(key);
+        if (entry == null) {
+            return null;
+        }
+        return entry.isCounter() ? Long.valueOf(entry.counter) : bytesToLong(entry.bytes);
+    }
+
+    @Override
+    public boolean setTTL(String key, long ttl) {
+        Objects.requireNonNull(key);
+        removeExpired();
+        long now = now();
+        long expiration = getExpiration(now, ttl);
+        Entry entry = map.computeIfPresent(key, (k, current) -> {
+            if (current.isExpired(now)) {
+                return null;
+            }
+            current.expiration = expiration;
+            return current;
+        });
+        if (entry == null) {
+            return false;
+        }
+        addExpiration(key, expiration);
+        return true;
+    }
+
+    @Override
+    public boolean compareAndSet(String key, byte[] expected, byte[] value, long ttl) {
+        Objects.requireNonNull(key);
+        removeExpired();
+        // clone is not needed if the comparison fails
+        // but we are optimistic and prefer to do the clone outside the lock
+        byte[] newValue = value == null ? null : value.clone();
+        long now = now();
+        long expiration = getExpiration(now, ttl);
+        boolean[] equal = new boolean[1];
+        map.compute(key, (k, current) -> {
+            if (current != null && current.isExpired(now)) {
+                current = null;
+            }
+            equal[0] = Arrays.equals(expected, current == null ? null : current.getBytes());
+            if (!equal[0]) {
+                return current;
+            }
+            return newValue == null ? null : new Entry(newValue, expiration);
+        });
+        if (equal[0] && newValue != null) {
+            addExpiration(key, expiration);
+        }
+        return equal[0];
+    }
+
+    @Override
+    public long addAndGet(String key, long delta) throws NumberFormatException { // NOSONAR
+        Objects.requireNonNull(key);
+        removeExpired();
+        long now = now();
+        long[] result = new long[1];
+        map.compute(key, (k, current) -> {
+            if (current == null || current.isExpired(now)) {
+                result[0] = delta;
+                return new Entry(delta, 0);
+            } else if (current.isCounter()) {
+                // only changed under the lock for the key
+                result[0] = current.counter + delta;
+                current.counter = result[0];
+                return current;
+            } else {
+                // a number written as bytes becomes a counter, keeping its TTL
+                result[0] = bytesToLong(current.bytes).longValue() + delta;
+                return new Entry(result[0], current.expiration);
+            }
+        });
+        return result[0];
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     Florent Guillaume
+ */
+package org.nuxeo.runtime.kv;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.nuxeo.runtime.test.runner.Deploy;
+
+/**
+ * @since 11.5
+ */
+@Deploy("org.nuxeo.runtime.kv.tests:OSGI-INF/test-concurrent-keyvalueservice.xml")
+public class TestConcurrentMemKeyValueStore extends AbstractKeyValueStoreTest {
+
+    protected static final int THREADS = 64;
+
+    protected static final int ITERATIONS = 1000;
+
+    @Test
+    public void testClass() {
+        assertTrue(store instanceof ConcurrentMemKeyValueStore);
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        store.put("cas", "0");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String key = "key" + (i % 8);
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < ITERATIONS; j++) {
+                        store.addAndGet("counter", 1);
+                        store.put(key, String.valueOf(j), 10);
+                        // increment through compareAndSet
+                        for (;;) {
+                            String value = store.getString("cas");
+                            String next = String.valueOf(Long.parseLong(value) + 1);
+                            if (store.compareAndSet("cas", value.getBytes(UTF_8), next.getBytes(UTF_8))) {
+                                break;
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(Long.valueOf(THREADS * ITERATIONS), store.getLong("counter"));
+        assertEquals(String.valueOf(THREADS * ITERATIONS), store.getString("cas"));
+        assertEquals(String.valueOf(ITERATIONS - 1), store.getString("key0"));
+    }
+
+}
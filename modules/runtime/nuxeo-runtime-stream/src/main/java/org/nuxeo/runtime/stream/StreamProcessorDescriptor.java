@@ -66,6 +66,14 @@ public class StreamProcessorDescriptor {
         @XNode("@concurrency")
         public Integer concurrency = DEFAULT_CONCURRENCY;
 
+        // @since 11.5 enables the autoscaling of the computation between min and max concurrency
+        @XNode("@minConcurrency")
+        public Integer minConcurrency;
+
+        // @since 11.5
+        @XNode("@maxConcurrency")
+        public Integer maxConcurrency;
+
         public String getId() {
             return name;
         }
@@ -174,6 +182,10 @@ public class StreamProcessorDescriptor {
         @XNode("@batchThreshold")
         public Duration batchThreshold = DEFAULT_BATCH_THRESHOLD;
 
+        // @since 11.5 run the computation on virtual threads when supported by the JVM
+        @XNode("@virtualThreads")
+        public Boolean virtualThreads = Boolean.FALSE;
+
         protected int getSkipFirstFailures() {
             return Integer.parseInt(
                     Framework.getProperty(RECOVERY_SKIP_FIRST_FAILURES_OPTION, Integer.toString(skipFirstFailures)));
@@ -186,7 +198,8 @@ public class StreamProcessorDescriptor {
             return new ComputationPolicyBuilder().retryPolicy(retryPolicy)
                                                  .batchPolicy(batchCapacity, batchThreshold)
                                                  .continueOnFailure(continueOnFailure)
-                                                 .skipFirstFailures(getSkipFirstFailures());
+                                                 .skipFirstFailures(getSkipFirstFailures())
+                                                 .virtualThreads(virtualThreads);
         }
     }
 
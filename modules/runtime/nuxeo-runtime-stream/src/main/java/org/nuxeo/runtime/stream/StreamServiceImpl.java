@@ -203,7 +203,14 @@ public class StreamServiceImpl extends DefaultComponent implements StreamService
                 : codecService.getCodec(descriptor.defaultCodec, Record.class);
         Settings settings = new Settings(descriptor.defaultConcurrency, descriptor.defaultPartitions, actualCodec,
                 descriptor.getDefaultPolicy(), null, descriptor.defaultExternal);
-        descriptor.computations.forEach(comp -> settings.setConcurrency(comp.name, comp.concurrency));
+        descriptor.computations.forEach(comp -> {
+            settings.setConcurrency(comp.name, comp.concurrency);
+            if (comp.minConcurrency != null || comp.maxConcurrency != null) {
+                int min = comp.minConcurrency != null ? comp.minConcurrency : comp.concurrency;
+                int max = comp.maxConcurrency != null ? comp.maxConcurrency : comp.concurrency;
+                settings.setConcurrencyBounds(comp.name, min, max);
+            }
+        });
         descriptor.policies.forEach(policy -> settings.setPolicy(policy.name, descriptor.getPolicy(policy.name)));
         for (StreamProcessorDescriptor.StreamDescriptor streamDescriptor : descriptor.streams) {
             settings.setPartitions(streamDescriptor.name,
@@ -46,12 +46,15 @@ public class ComputationPolicy {
 
     protected final int skipFirstFailures;
 
+    protected final boolean virtualThreads;
+
     public ComputationPolicy(ComputationPolicyBuilder builder) {
         batchCapacity = builder.batchCapacity;
         batchThreshold = builder.batchThreshold;
         skipFailure = builder.skipFailure;
         retryPolicy = builder.retryPolicy;
         skipFirstFailures = builder.skipFirstFailures;
+        virtualThreads = builder.virtualThreads;
     }
 
     public RetryPolicy getRetryPolicy() {
@@ -74,6 +77,15 @@ public class ComputationPolicy {
         return skipFirstFailures;
     }
 
+    /**
+     * Returns {@code true} if the computation should run on virtual threads.
+     *
+     * @since 11.5
+     */
+    public boolean useVirtualThreads() {
+        return virtualThreads;
+    }
+
     /**
      * @deprecated since 10.3 use {@link #continueOnFailure()} instead
      */
@@ -86,6 +98,6 @@ public class ComputationPolicy {
     public String toString() {
         return "ComputationPolicy{" + "maxRetries=" + retryPolicy.getMaxRetries() + ", delay=" + retryPolicy.getDelay()
                 + ", delayMax=" + retryPolicy.getMaxDelay() + ", continueOnFailure=" + skipFailure + ", batchCapacity="
-                + batchCapacity + ", batchThreshold=" + batchThreshold + '}';
+                + batchCapacity + ", batchThreshold=" + batchThreshold + ", virtualThreads=" + virtualThreads + '}';
     }
 }
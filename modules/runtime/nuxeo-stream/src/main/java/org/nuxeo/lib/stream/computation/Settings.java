@@ -56,6 +56,12 @@ public class Settings {
 
     protected final Map<Name, Integer> concurrencies = new HashMap<>();
 
+    // @since 11.5
+    protected final Map<Name, Integer> minConcurrencies = new HashMap<>();
+
+    // @since 11.5
+    protected final Map<Name, Integer> maxConcurrencies = new HashMap<>();
+
     protected final ComputationPolicy defaultPolicy;
 
     protected final Map<Name, ComputationPolicy> policies = new HashMap<>();
@@ -131,6 +137,61 @@ public class Settings {
         return concurrencies.getOrDefault(computationName, defaultConcurrency);
     }
 
+    /**
+     * Enables the autoscaling of the computation thread pool between the {@code min} and {@code max} bounds, the
+     * concurrency is used as initial pool size.
+     *
+     * @since 11.5
+     */
+    public Settings setConcurrencyBounds(Name computationName, int min, int max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid concurrency bounds for %s: [%d, %d]", computationName, min, max));
+        }
+        minConcurrencies.put(computationName, min);
+        maxConcurrencies.put(computationName, max);
+        return this;
+    }
+
+    /**
+     * @since 11.5
+     */
+    public Settings setConcurrencyBounds(String computationName, int min, int max) {
+        return setConcurrencyBounds(Name.ofUrn(computationName), min, max);
+    }
+
+    /**
+     * Gets the minimum concurrency of the computation, defaults to its concurrency.
+     *
+     * @since 11.5
+     */
+    public int getMinConcurrency(Name computationName) {
+        return minConcurrencies.getOrDefault(computationName, getConcurrency(computationName));
+    }
+
+    /**
+     * @since 11.5
+     */
+    public int getMinConcurrency(String computationName) {
+        return getMinConcurrency(Name.ofUrn(computationName));
+    }
+
+    /**
+     * Gets the maximum concurrency of the computation, defaults to its concurrency.
+     *
+     * @since 11.5
+     */
+    public int getMaxConcurrency(Name computationName) {
+        return maxConcurrencies.getOrDefault(computationName, getConcurrency(computationName));
+    }
+
+    /**
+     * @since 11.5
+     */
+    public int getMaxConcurrency(String computationName) {
+        return getMaxConcurrency(Name.ofUrn(computationName));
+    }
+
     /**
      * Sets the number of partitions for a stream.
      */
@@ -18,14 +18,17 @@
  */
 package org.nuxeo.lib.stream.computation.log;
 
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 
 import java.time.Duration;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -64,8 +67,30 @@ public class ComputationPool {
 
     protected ExecutorService threadPool;
 
+    // @since 11.5
+    protected final int minThreads;
+
+    // @since 11.5
+    protected final int maxThreads;
+
+    // @since 11.5
+    protected boolean virtualThreads;
+
     public ComputationPool(Supplier<Computation> supplier, ComputationMetadataMapping metadata,
             List<List<LogPartition>> defaultAssignments, LogStreamManager streamManager, ComputationPolicy policy) {
+        this(supplier, metadata, defaultAssignments, streamManager, policy, defaultAssignments.size(),
+                defaultAssignments.size());
+    }
+
+    /**
+     * Creates a pool that can be scaled between {@code minThreads} and {@code maxThreads} runners, this is only
+     * possible when partitions are assigned dynamically using subscribe.
+     *
+     * @since 11.5
+     */
+    public ComputationPool(Supplier<Computation> supplier, ComputationMetadataMapping metadata,
+            List<List<LogPartition>> defaultAssignments, LogStreamManager streamManager, ComputationPolicy policy,
+            int minThreads, int maxThreads) {
         Objects.requireNonNull(policy);
         this.supplier = supplier;
         this.metadata = metadata;
@@ -73,31 +98,124 @@ public class ComputationPool {
         this.streamManager = streamManager;
         this.defaultAssignments = defaultAssignments;
         this.policy = policy;
-        this.runners = new ArrayList<>(threads);
+        this.runners = new CopyOnWriteArrayList<>();
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
     }
 
     public String getComputationName() {
         return metadata.name();
     }
 
-    @SuppressWarnings("FutureReturnValueIgnored")
     public void start() {
         if (threads == 0) {
             log.info(metadata.name() + ": Empty pool");
             return;
         }
         log.info(metadata.name() + ": Starting pool");
-        threadPool = newFixedThreadPool(threads, new NamedThreadFactory(metadata.name() + "Pool"));
-        defaultAssignments.forEach(assignments -> {
-            ComputationRunner runner = new ComputationRunner(supplier, metadata, assignments, streamManager, policy);
-            threadPool.submit(runner);
-            runners.add(runner);
-        });
-        // close the pool no new admission
-        threadPool.shutdown();
+        if (isScalable()) {
+            // keep the pool open to add runners
+            threadPool = newCachedThreadPool(getThreadFactory());
+        } else {
+            threadPool = newFixedThreadPool(threads, getThreadFactory());
+        }
+        defaultAssignments.forEach(this::startRunner);
+        if (!isScalable()) {
+            // close the pool no new admission
+            threadPool.shutdown();
+        }
         log.debug(metadata.name() + ": Pool started, threads: " + threads);
     }
 
+    @SuppressWarnings("FutureReturnValueIgnored")
+    protected void startRunner(List<LogPartition> assignments) {
+        ComputationRunner runner = new ComputationRunner(supplier, metadata, assignments, streamManager, policy);
+        threadPool.submit(runner);
+        runners.add(runner);
+    }
+
+    /**
+     * Returns {@code true} if the number of runners can be changed while the pool is running.
+     *
+     * @since 11.5
+     */
+    public boolean isScalable() {
+        return maxThreads > minThreads && streamManager.supportSubscribe() && !metadata.inputStreams().isEmpty();
+    }
+
+    /**
+     * @since 11.5
+     */
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    /**
+     * @since 11.5
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * Returns the number of active runners.
+     *
+     * @since 11.5
+     */
+    public int getActiveThreads() {
+        return runners.size();
+    }
+
+    /**
+     * Adds or stops runners to reach the requested concurrency, bounded by the min and max threads. Partitions are
+     * rebalanced between the runners of the consumer group.
+     *
+     * @return the number of active runners
+     * @since 11.5
+     */
+    public synchronized int scale(int concurrency) {
+        if (!isScalable() || threadPool == null || threadPool.isShutdown()) {
+            return runners.size();
+        }
+        int target = Math.max(minThreads, Math.min(maxThreads, concurrency));
+        if (target != runners.size()) {
+            log.info(metadata.name() + ": Scaling pool from " + runners.size() + " to " + target + " threads");
+        }
+        try {
+            while (runners.size() < target) {
+                // assignments are done by subscribe
+                startRunner(Collections.emptyList());
+            }
+        } catch (RejectedExecutionException e) {
+            // pool is stopping
+            log.debug(metadata.name() + ": Cannot scale a stopping pool");
+        }
+        while (runners.size() > target) {
+            // the runner checkpoints and leaves the consumer group
+            runners.remove(runners.size() - 1).stop();
+        }
+        return runners.size();
+    }
+
+    /**
+     * Returns a virtual thread factory if requested by the policy and supported by the JVM.
+     *
+     * @since 11.5
+     */
+    protected ThreadFactory getThreadFactory() {
+        if (policy.useVirtualThreads()) {
+            ThreadFactory factory = VirtualThreads.newThreadFactory(metadata.name(),
+                    (t, e) -> log.error("Uncaught exception: " + e.getMessage(), e));
+            if (factory != null) {
+                log.info(metadata.name() + ": Using virtual threads");
+                virtualThreads = true;
+                return factory;
+            }
+            log.warn(metadata.name() + ": Virtual threads not supported by the JVM, using platform threads");
+        }
+        return new NamedThreadFactory(metadata.name() + "Pool");
+    }
+
     public boolean isTerminated() {
         return threadPool == null ? true : threadPool.isTerminated();
     }
@@ -120,6 +238,7 @@ public class ComputationPool {
             return true;
         }
         log.info(metadata.name() + ": Draining");
+        closeAdmission();
         runners.forEach(ComputationRunner::drain);
         boolean ret = awaitPoolTermination(timeout);
         stop(Duration.ofSeconds(1));
@@ -128,9 +247,11 @@ public class ComputationPool {
 
     public boolean stop(Duration timeout) {
         if (threadPool == null || threadPool.isTerminated()) {
+            releaseThreadFactory();
             return true;
         }
         log.info(metadata.name() + ": Stopping");
+        closeAdmission();
         runners.forEach(ComputationRunner::stop);
         boolean ret = awaitPoolTermination(timeout);
         shutdown();
@@ -151,6 +272,28 @@ public class ComputationPool {
         }
         runners.clear();
         threadPool = null;
+        releaseThreadFactory();
+    }
+
+    /**
+     * Releases the virtual thread factory, if any, once the pool is stopped.
+     *
+     * @since 11.5
+     */
+    protected void releaseThreadFactory() {
+        if (virtualThreads) {
+            virtualThreads = false;
+            VirtualThreads.releaseThreadFactory();
+        }
+    }
+
+    /**
+     * A scalable pool is open to admission until it is stopped.
+     *
+     * @since 11.5
+     */
+    protected synchronized void closeAdmission() {
+        threadPool.shutdown();
     }
 
     protected boolean awaitPoolTermination(Duration timeout) {
@@ -0,0 +1,172 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.lib.stream.computation.log;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.Settings;
+import org.nuxeo.lib.stream.computation.Watermark;
+import org.nuxeo.lib.stream.log.LogManager;
+import org.nuxeo.lib.stream.log.Name;
+
+/**
+ * Periodically adapts the number of runners of the scalable computation pools to the lag and latency of their input
+ * streams.
+ * <p>
+ * On each run a pool is:
+ * <ul>
+ * <li>shrunk by one runner when there is no lag,</li>
+ * <li>doubled when the latency is above the threshold and the lag is not decreasing,</li>
+ * <li>left unchanged otherwise, the backlog is being drained.</li>
+ * </ul>
+ * The pool size is always bounded by its min and max threads, and by the number of partitions of its input streams:
+ * a runner without assigned partition would stay idle.
+ *
+ * @since 11.5
+ */
+public class ComputationPoolScaler implements Runnable {
+    private static final Log log = LogFactory.getLog(ComputationPoolScaler.class);
+
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+
+    public static final Duration DEFAULT_LATENCY_THRESHOLD = Duration.ofSeconds(5);
+
+    protected final LogManager manager;
+
+    protected final Settings settings;
+
+    protected final List<ComputationPool> pools;
+
+    protected final Duration latencyThreshold;
+
+    /** computation -&gt; lag at the previous run */
+    protected final Map<String, Long> previousLags = new HashMap<>();
+
+    public ComputationPoolScaler(LogManager manager, Settings settings, List<ComputationPool> pools,
+            Duration latencyThreshold) {
+        this.manager = manager;
+        this.settings = settings;
+        this.pools = pools;
+        this.latencyThreshold = latencyThreshold;
+    }
+
+    @Override
+    public void run() {
+        for (ComputationPool pool : pools) {
+            if (!pool.isScalable()) {
+                continue;
+            }
+            try {
+                scale(pool);
+            } catch (RuntimeException e) {
+                // lag or latency not available, retry on next run
+                log.warn(pool.getComputationName() + ": Cannot scale pool: " + e.getMessage());
+                log.debug(e, e);
+            }
+        }
+    }
+
+    protected void scale(ComputationPool pool) {
+        String name = pool.getComputationName();
+        long lag = getLag(pool);
+        long previousLag = previousLags.getOrDefault(name, 0L);
+        previousLags.put(name, lag);
+        // computing the latency requires to read records, skip it when there is no lag
+        long latency = lag > 0 ? getLatency(pool) : 0;
+        int current = pool.getActiveThreads();
+        int target = getTargetConcurrency(current, pool.getMinThreads(), pool.getMaxThreads(), getPartitions(pool),
+                lag, previousLag, latency, latencyThreshold.toMillis());
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("%s: lag: %d, previous lag: %d, latency: %dms, threads: %d, target: %d", name,
+                    lag, previousLag, latency, current, target));
+        }
+        if (target != current) {
+            pool.scale(target);
+        }
+    }
+
+    protected long getLag(ComputationPool pool) {
+        Name group = Name.ofUrn(pool.getComputationName());
+        return pool.metadata.inputStreams()
+                            .stream()
+                            .mapToLong(stream -> manager.getLag(Name.ofUrn(stream), group).lag())
+                            .sum();
+    }
+
+    /**
+     * Returns the maximum number of partitions that can be assigned to a runner of the pool.
+     */
+    protected int getPartitions(ComputationPool pool) {
+        return pool.metadata.inputStreams()
+                            .stream()
+                            .mapToInt(stream -> manager.size(Name.ofUrn(stream)))
+                            .max()
+                            .orElse(0);
+    }
+
+    protected long getLatency(ComputationPool pool) {
+        String computation = pool.getComputationName();
+        return pool.metadata.inputStreams()
+                            .stream()
+                            .mapToLong(stream -> manager.getLatency(Name.ofUrn(stream), Name.ofUrn(computation),
+                                    settings.getCodec(computation),
+                                    (rec -> Watermark.ofValue(rec.getWatermark()).getTimestamp()),
+                                    (Record::getKey)).latency())
+                            .max()
+                            .orElse(0);
+    }
+
+    /**
+     * Returns the concurrency to use for a computation.
+     *
+     * @param current the current number of runners
+     * @param minThreads the minimum number of runners
+     * @param maxThreads the maximum number of runners
+     * @param partitions the number of partitions of the input streams, {@code 0} if unknown
+     * @param lag the current lag of the computation
+     * @param previousLag the lag of the computation at the previous run
+     * @param latencyMs the current latency of the computation
+     * @param latencyThresholdMs the latency above which the computation needs more runners
+     */
+    public static int getTargetConcurrency(int current, int minThreads, int maxThreads, int partitions, long lag,
+            long previousLag, long latencyMs, long latencyThresholdMs) {
+        int ret = current;
+        if (lag == 0) {
+            ret = current - 1;
+        } else if (latencyMs >= latencyThresholdMs && lag >= previousLag) {
+            ret = max(2 * current, current + 1);
+        }
+        ret = max(minThreads, min(maxThreads, ret));
+        if (partitions > 0) {
+            // runners above the number of partitions get no assignment
+            ret = min(partitions, ret);
+        }
+        return ret;
+    }
+
+}
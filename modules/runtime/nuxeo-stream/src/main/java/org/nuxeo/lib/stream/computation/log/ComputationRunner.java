@@ -20,7 +20,9 @@ package org.nuxeo.lib.stream.computation.log;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -40,6 +42,7 @@ import org.nuxeo.lib.stream.computation.Record;
 import org.nuxeo.lib.stream.computation.Watermark;
 import org.nuxeo.lib.stream.computation.internals.ComputationContextImpl;
 import org.nuxeo.lib.stream.computation.internals.WatermarkMonotonicInterval;
+import org.nuxeo.lib.stream.log.LogOffset;
 import org.nuxeo.lib.stream.log.LogPartition;
 import org.nuxeo.lib.stream.log.LogRecord;
 import org.nuxeo.lib.stream.log.LogTailer;
@@ -118,6 +121,10 @@ public class ComputationRunner implements Runnable, RebalanceListener {
 
     protected List<LogPartition> defaultAssignment;
 
+    // @since 11.5
+    // records read ahead not yet processed
+    protected final Deque<LogRecord<Record>> pendingRecords = new ArrayDeque<>();
+
     // @since 11.1
     // Use the Nuxeo registry name without adding dependency on nuxeo-runtime
     public static final String NUXEO_METRICS_REGISTRY_NAME = "org.nuxeo.runtime.metrics.MetricsService";
@@ -380,12 +387,16 @@ public class ComputationRunner implements Runnable, RebalanceListener {
         if (tailer == null) {
             return false;
         }
-        Duration timeoutRead = getTimeoutDuration();
-        LogRecord<Record> logRecord = null;
-        try {
-            logRecord = tailer.read(timeoutRead);
-        } catch (RebalanceException e) {
-            // the revoke has done a checkpoint we can continue
+        LogRecord<Record> logRecord = pendingRecords.poll();
+        if (logRecord == null) {
+            Duration timeoutRead = getTimeoutDuration();
+            try {
+                // read ahead up to a batch of records, a batch computation checkpoints at the same pace
+                pendingRecords.addAll(tailer.readBatch(policy.getBatchCapacity(), timeoutRead));
+            } catch (RebalanceException e) {
+                // the revoke has done a checkpoint we can continue
+            }
+            logRecord = pendingRecords.poll();
         }
         Record record;
         if (logRecord != null) {
@@ -396,7 +407,8 @@ public class ComputationRunner implements Runnable, RebalanceListener {
                 if (log.isDebugEnabled()) {
                     log.debug("Filtering skip record: " + record);
                 }
-                return false;
+                // no need to take a break if there are read ahead records
+                return !pendingRecords.isEmpty();
             } else if (filteredRecord != record) {
                 logRecord = new LogRecord<>(filteredRecord, logRecord.offset());
                 record = filteredRecord;
@@ -525,6 +537,11 @@ public class ComputationRunner implements Runnable, RebalanceListener {
 
     protected void checkpointIfNecessary() {
         if (context.requireCheckpoint()) {
+            if (!pendingRecords.isEmpty()) {
+                // the tailer position is after the read ahead records, a batch computation may have accepted some of
+                // them without flushing, they must be read again after the checkpoint
+                rewindPendingRecords();
+            }
             boolean completed = false;
             try {
                 checkpoint();
@@ -537,6 +554,20 @@ public class ComputationRunner implements Runnable, RebalanceListener {
         }
     }
 
+    /**
+     * Moves the tailer back to the first read ahead record not yet processed for each partition, so that the
+     * checkpoint does not commit them.
+     *
+     * @since 11.5
+     */
+    protected void rewindPendingRecords() {
+        Map<LogPartition, LogOffset> firstOffsets = new LinkedHashMap<>();
+        pendingRecords.forEach(rec -> firstOffsets.putIfAbsent(rec.offset().partition(), rec.offset()));
+        firstOffsets.values().forEach(tailer::seek);
+        log.debug(metadata.name() + ": Discard " + pendingRecords.size() + " read ahead records");
+        pendingRecords.clear();
+    }
+
     protected void checkpoint() {
         sendRecords();
         saveTimers();
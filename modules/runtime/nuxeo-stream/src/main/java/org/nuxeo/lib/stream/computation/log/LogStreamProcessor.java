@@ -31,6 +31,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.Log;
@@ -74,6 +77,9 @@ public class LogStreamProcessor implements StreamProcessor {
 
     protected final boolean needRegister;
 
+    // @since 11.5
+    protected ScheduledExecutorService scaler;
+
     protected static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     @Deprecated
@@ -107,6 +113,36 @@ public class LogStreamProcessor implements StreamProcessor {
         this.pools = initPools();
         Objects.requireNonNull(pools);
         pools.forEach(ComputationPool::start);
+        startScaler();
+    }
+
+    /**
+     * Starts the autoscaling of the pools that have concurrency bounds.
+     *
+     * @since 11.5
+     */
+    protected void startScaler() {
+        if (pools.stream().noneMatch(ComputationPool::isScalable)) {
+            return;
+        }
+        log.info("Starting computation pool scaler");
+        scaler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stream-pool-scaler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = ComputationPoolScaler.DEFAULT_INTERVAL.toMillis();
+        scaler.scheduleWithFixedDelay(
+                new ComputationPoolScaler(manager, settings, pools, ComputationPoolScaler.DEFAULT_LATENCY_THRESHOLD),
+                interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // @since 11.5
+    protected void stopScaler() {
+        if (scaler != null) {
+            scaler.shutdownNow();
+            scaler = null;
+        }
     }
 
     @Override
@@ -148,6 +184,8 @@ public class LogStreamProcessor implements StreamProcessor {
                 ObjectNode item = OBJECT_MAPPER.createObjectNode();
                 item.put("name", comp.name());
                 item.put("threads", settings.getConcurrency(comp.name()));
+                item.put("minThreads", settings.getMinConcurrency(comp.name()));
+                item.put("maxThreads", settings.getMaxConcurrency(comp.name()));
                 item.put("continueOnFailure", settings.getPolicy(comp.name()).continueOnFailure());
                 item.put("batchCapacity", settings.getPolicy(comp.name()).getBatchCapacity());
                 item.put("batchThresholdMs", settings.getPolicy(comp.name()).getBatchThreshold().toMillis());
@@ -183,6 +221,7 @@ public class LogStreamProcessor implements StreamProcessor {
     @Override
     public boolean stop(Duration timeout) {
         log.debug("Stopping ...");
+        stopScaler();
         if (pools == null) {
             return true;
         }
@@ -195,6 +234,7 @@ public class LogStreamProcessor implements StreamProcessor {
     public boolean drainAndStop(Duration timeout) {
         // here the order matters, this must be done sequentially
         log.debug("Drain and stop");
+        stopScaler();
         if (pools == null) {
             return true;
         }
@@ -206,6 +246,7 @@ public class LogStreamProcessor implements StreamProcessor {
     @Override
     public void shutdown() {
         log.debug("Shutdown ...");
+        stopScaler();
         if (pools == null) {
             return;
         }
@@ -274,8 +315,8 @@ public class LogStreamProcessor implements StreamProcessor {
         return topology.metadataList()
                        .stream()
                        .map(meta -> new ComputationPool(topology.getSupplier(meta.name()), meta,
-                               getDefaultAssignments(meta), streamManager,
-                               settings.getPolicy(meta.name())))
+                               getDefaultAssignments(meta), streamManager, settings.getPolicy(meta.name()),
+                               settings.getMinConcurrency(meta.name()), settings.getMaxConcurrency(meta.name())))
                        .collect(Collectors.toList());
     }
 
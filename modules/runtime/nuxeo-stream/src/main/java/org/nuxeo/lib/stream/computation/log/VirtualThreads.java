@@ -0,0 +1,214 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.lib.stream.computation.log;
+
+import static org.nuxeo.lib.stream.computation.log.ComputationRunner.NUXEO_METRICS_REGISTRY_NAME;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import io.dropwizard.metrics5.MetricName;
+import io.dropwizard.metrics5.MetricRegistry;
+import io.dropwizard.metrics5.SharedMetricRegistries;
+import io.dropwizard.metrics5.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+
+/**
+ * Creates virtual thread factories for the {@link ComputationPool} when the JVM supports them.
+ * <p>
+ * The code is compiled for Java 11, so the virtual thread API (Java 21) is accessed by reflection.
+ * <p>
+ * When a virtual thread pool is started, the JFR {@code jdk.VirtualThreadPinned} events are streamed to report the
+ * time a computation pins its carrier thread (blocking inside a {@code synchronized} block or a native frame) as the
+ * {@code nuxeo.streams.computation.pinned} timer.
+ *
+ * @since 11.5
+ */
+public class VirtualThreads {
+    private static final Log log = LogFactory.getLog(VirtualThreads.class);
+
+    public static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /** JFR default threshold for the pinned event. */
+    public static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+
+    protected static final boolean SUPPORTED = checkSupported();
+
+    /** thread name prefix -&gt; pinned timer of the computation */
+    protected static final Map<String, Timer> PINNED_TIMERS = new ConcurrentHashMap<>();
+
+    protected static volatile boolean monitorStarted;
+
+    /** The JFR RecordingStream of the pinned events, {@code null} when not running. */
+    protected static AutoCloseable pinnedMonitor;
+
+    /** Number of thread factories using the pinned monitor. */
+    protected static int pinnedMonitorUsers;
+
+    private VirtualThreads() {
+        // utility class
+    }
+
+    /**
+     * Returns {@code true} if the JVM can create virtual threads.
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    protected static boolean checkSupported() {
+        try {
+            createFactory("check-", null);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Virtual threads not supported: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Creates a virtual thread factory for the given computation, or returns {@code null} if virtual threads are not
+     * supported by the JVM.
+     * <p>
+     * A returned factory must be released with {@link #releaseThreadFactory} when its pool is stopped.
+     */
+    public static ThreadFactory newThreadFactory(String computationName, Thread.UncaughtExceptionHandler handler) {
+        if (!SUPPORTED) {
+            return null;
+        }
+        String prefix = computationName + "Pool-";
+        try {
+            ThreadFactory factory = createFactory(prefix, handler);
+            registerPinnedTimer(prefix, computationName);
+            return factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Cannot create virtual thread factory for: " + computationName, e);
+            return null;
+        }
+    }
+
+    protected static ThreadFactory createFactory(String prefix, Thread.UncaughtExceptionHandler handler)
+            throws ReflectiveOperationException {
+        // Thread.ofVirtual().name(prefix, 0).uncaughtExceptionHandler(handler).factory()
+        Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+        if (handler != null) {
+            builder = builderClass.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class)
+                                  .invoke(builder, handler);
+        }
+        return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    }
+
+    protected static void registerPinnedTimer(String prefix, String computationName) {
+        MetricRegistry registry = SharedMetricRegistries.getOrCreate(NUXEO_METRICS_REGISTRY_NAME);
+        PINNED_TIMERS.computeIfAbsent(prefix, k -> registry.timer(
+                MetricName.build("nuxeo.streams.computation.pinned").tagged("computation", computationName)));
+        startPinnedMonitor();
+    }
+
+    /**
+     * Releases a thread factory created by {@link #newThreadFactory}. The JFR stream of pinned events is closed when no
+     * factory uses it anymore.
+     */
+    public static synchronized void releaseThreadFactory() {
+        if (pinnedMonitorUsers == 0 || --pinnedMonitorUsers > 0) {
+            return;
+        }
+        monitorStarted = false;
+        if (pinnedMonitor != null) {
+            try {
+                pinnedMonitor.close();
+                log.info("Stopped monitoring virtual thread pinning of computations");
+            } catch (Exception e) {
+                log.warn("Cannot stop monitoring virtual thread pinning: " + e.getMessage());
+                log.debug(e, e);
+            }
+            pinnedMonitor = null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the JFR stream of pinned events is running.
+     */
+    public static synchronized boolean isPinnedMonitorRunning() {
+        return pinnedMonitor != null;
+    }
+
+    protected static synchronized void startPinnedMonitor() {
+        pinnedMonitorUsers++;
+        if (monitorStarted) {
+            return;
+        }
+        monitorStarted = true;
+        Object stream = null;
+        try {
+            // new RecordingStream().enable(PINNED_EVENT).withThreshold(PINNED_THRESHOLD)
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            stream = streamClass.getConstructor().newInstance();
+            Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+            Class.forName("jdk.jfr.EventSettings")
+                 .getMethod("withThreshold", Duration.class)
+                 .invoke(settings, PINNED_THRESHOLD);
+            Consumer<RecordedEvent> consumer = VirtualThreads::onPinned;
+            Method onEvent = streamClass.getMethod("onEvent", String.class, Consumer.class);
+            onEvent.invoke(stream, PINNED_EVENT, consumer);
+            streamClass.getMethod("startAsync").invoke(stream);
+            pinnedMonitor = (AutoCloseable) stream;
+            log.info("Monitoring virtual thread pinning of computations");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Cannot monitor virtual thread pinning: " + e.getMessage());
+            log.debug(e, e);
+            if (stream instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) stream).close();
+                } catch (Exception ce) {
+                    log.debug(ce, ce);
+                }
+            }
+        }
+    }
+
+    protected static void onPinned(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        String name = thread == null ? null : thread.getJavaName();
+        if (name == null) {
+            return;
+        }
+        PINNED_TIMERS.entrySet()
+                     .stream()
+                     .filter(entry -> name.startsWith(entry.getKey()))
+                     .findFirst()
+                     .ifPresent(entry -> entry.getValue()
+                                              .update(event.getDuration().toNanos(), TimeUnit.NANOSECONDS));
+        if (log.isDebugEnabled()) {
+            log.debug("Carrier thread pinned by: " + name + " for " + event.getDuration().toMillis() + "ms");
+        }
+    }
+
+}
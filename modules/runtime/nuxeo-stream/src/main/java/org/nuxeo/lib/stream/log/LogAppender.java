@@ -20,6 +20,8 @@ package org.nuxeo.lib.stream.log;
 
 import java.io.Externalizable;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.nuxeo.lib.stream.codec.Codec;
@@ -62,6 +64,22 @@ public interface LogAppender<M extends Externalizable> {
         return append(partition, message);
     }
 
+    /**
+     * Appends a list of messages into a partition, returns the {@link LogOffset} positions of the messages in the same
+     * order. Implementations are expected to write the batch in a single burst, this is more efficient than calling
+     * {@link #append(int, Externalizable)} for each message.
+     *
+     * @param partition index lower than {@link #size()}
+     * @since 11.5
+     */
+    default List<LogOffset> appendAll(int partition, List<M> messages) {
+        List<LogOffset> ret = new ArrayList<>(messages.size());
+        for (M message : messages) {
+            ret.add(append(partition, message));
+        }
+        return ret;
+    }
+
     /**
      * Wait for consumer to process a message up to the offset. The message is processed if a consumer of the group
      * commits a greater or equals offset. Return {@code true} if the message has been consumed, {@code false} in case
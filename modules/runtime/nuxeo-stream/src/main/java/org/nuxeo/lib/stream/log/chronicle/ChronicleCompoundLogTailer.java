@@ -80,6 +80,41 @@ public class ChronicleCompoundLogTailer<M extends Externalizable> implements Log
         return ret;
     }
 
+    @Override
+    public List<LogRecord<M>> readBatch(int maxRecords, Duration timeout) throws InterruptedException {
+        List<LogRecord<M>> ret = readBatch(maxRecords);
+        if (!ret.isEmpty()) {
+            return ret;
+        }
+        final long timeoutMs = timeout.toMillis();
+        final long deadline = System.currentTimeMillis() + timeoutMs;
+        final long delay = Math.min(ChronicleLogTailer.POLL_INTERVAL_MS, timeoutMs);
+        while (ret.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(delay);
+            ret = readBatch(maxRecords);
+        }
+        return ret;
+    }
+
+    /**
+     * Reads without waiting up to {@code maxRecords} available messages, round robin on partitions.
+     *
+     * @since 11.5
+     */
+    protected List<LogRecord<M>> readBatch(int maxRecords) {
+        List<LogRecord<M>> ret = new ArrayList<>();
+        if (size <= 0) {
+            return ret;
+        }
+        long end = counter + size;
+        do {
+            counter++;
+            int i = (int) counter % size;
+            ret.addAll(tailers.get(i).readBatch(maxRecords - ret.size()));
+        } while (ret.size() < maxRecords && counter < end);
+        return ret;
+    }
+
     protected LogRecord<M> read() {
         if (size <= 0) {
             return null;
@@ -53,6 +53,7 @@ import net.openhft.chronicle.queue.ExcerptAppender;
 import net.openhft.chronicle.queue.ExcerptTailer;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueueBuilder;
+import net.openhft.chronicle.wire.DocumentContext;
 
 /**
  * Chronicle Queue implementation of LogAppender.
@@ -282,7 +283,9 @@ public class ChronicleLogAppender<M extends Externalizable> implements Closeable
                 // default format for backward compatibility
                 appender.writeDocument(w -> w.write(MSG_KEY).object(message));
             } else {
-                appender.writeDocument(w -> w.write().bytes(codec.encode(message)));
+                // encode outside of the document context to hold the queue write lock as short as possible
+                byte[] data = codec.encode(message);
+                appender.writeDocument(w -> w.write().bytes(data));
             }
         } catch (DecoratedBufferOverflowException e) {
             throw new StreamRuntimeException(e);
@@ -295,6 +298,36 @@ public class ChronicleLogAppender<M extends Externalizable> implements Closeable
         return ret;
     }
 
+    @Override
+    public List<LogOffset> appendAll(int partition, List<M> messages) {
+        if (NO_CODEC.equals(codec)) {
+            // legacy format is encoded by the wire itself
+            return CloseableLogAppender.super.appendAll(partition, messages);
+        }
+        // encode the whole batch before writing, so the write burst only copies bytes into the queue
+        List<byte[]> encoded = new ArrayList<>(messages.size());
+        for (M message : messages) {
+            encoded.add(codec.encode(message));
+        }
+        ExcerptAppender appender = partitions.get(partition).acquireAppender();
+        List<LogOffset> ret = new ArrayList<>(messages.size());
+        try {
+            for (byte[] data : encoded) {
+                try (DocumentContext dc = appender.writingDocument()) {
+                    dc.wire().write().bytes(data);
+                }
+                ret.add(new LogOffsetImpl(name, partition, appender.lastIndexAppended()));
+            }
+        } catch (DecoratedBufferOverflowException e) {
+            throw new StreamRuntimeException(e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("append %d records to %s-%02d, last: %s", messages.size(), name, partition,
+                    ret.isEmpty() ? null : ret.get(ret.size() - 1)));
+        }
+        return ret;
+    }
+
     public LogTailer<M> createTailer(LogPartition partition, Name group, Codec<M> codec) {
         return addTailer(new ChronicleLogTailer<>(codec, basePath.toString(),
                 partitions.get(partition.partition()).createTailer(), partition, group, retention));
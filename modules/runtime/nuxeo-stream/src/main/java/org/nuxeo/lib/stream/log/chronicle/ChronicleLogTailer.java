@@ -40,6 +40,7 @@ import org.nuxeo.lib.stream.log.LogPartition;
 import org.nuxeo.lib.stream.log.LogRecord;
 import org.nuxeo.lib.stream.log.LogTailer;
 import org.nuxeo.lib.stream.log.Name;
+import org.nuxeo.lib.stream.log.internals.LazyLogRecord;
 import org.nuxeo.lib.stream.log.internals.LogOffsetImpl;
 import org.nuxeo.lib.stream.log.internals.LogPartitionGroup;
 
@@ -127,8 +128,42 @@ public class ChronicleLogTailer<M extends Externalizable> implements LogTailer<M
         return ret;
     }
 
-    @SuppressWarnings("unchecked")
+    @Override
+    public List<LogRecord<M>> readBatch(int maxRecords, Duration timeout) throws InterruptedException {
+        List<LogRecord<M>> ret = readBatch(maxRecords);
+        if (!ret.isEmpty()) {
+            return ret;
+        }
+        long timeoutMs = timeout.toMillis();
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long delay = Math.min(POLL_INTERVAL_MS, timeoutMs);
+        while (ret.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(delay);
+            ret = readBatch(maxRecords);
+        }
+        return ret;
+    }
+
+    /**
+     * Reads without waiting up to {@code maxRecords} available messages, decoding is deferred when using a codec.
+     *
+     * @since 11.5
+     */
+    protected List<LogRecord<M>> readBatch(int maxRecords) {
+        List<LogRecord<M>> ret = new ArrayList<>();
+        LogRecord<M> record;
+        while (ret.size() < maxRecords && (record = read(true)) != null) {
+            ret.add(record);
+        }
+        return ret;
+    }
+
     protected LogRecord<M> read() {
+        return read(false);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected LogRecord<M> read(boolean lazy) {
         if (closed) {
             throw new IllegalStateException("The tailer has been closed.");
         }
@@ -147,6 +182,15 @@ public class ChronicleLogTailer<M extends Externalizable> implements LogTailer<M
             } catch (ClassCastException e) {
                 throw new IllegalArgumentException(e);
             }
+        } else if (lazy) {
+            List<byte[]> data = new ArrayList<>(1);
+            if (!cqTailer.readDocument(w -> {
+                offset.set(cqTailer.index());
+                data.add(w.read().bytes());
+            })) {
+                return null;
+            }
+            return new LazyLogRecord<>(codec, data.get(0), new LogOffsetImpl(partition, offset.get()));
         } else {
             if (!cqTailer.readDocument(w -> {
                 offset.set(cqTailer.index());
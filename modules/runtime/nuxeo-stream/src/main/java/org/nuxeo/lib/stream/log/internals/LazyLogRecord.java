@@ -0,0 +1,65 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.lib.stream.log.internals;
+
+import java.io.Externalizable;
+
+import org.nuxeo.lib.stream.codec.Codec;
+import org.nuxeo.lib.stream.log.LogOffset;
+import org.nuxeo.lib.stream.log.LogRecord;
+
+/**
+ * A LogRecord holding the encoded message, the message is decoded on first access.
+ *
+ * @since 11.5
+ */
+public class LazyLogRecord<M extends Externalizable> extends LogRecord<M> {
+
+    protected final Codec<M> codec;
+
+    protected byte[] data;
+
+    protected M decoded;
+
+    public LazyLogRecord(Codec<M> codec, byte[] data, LogOffset offset) {
+        super(null, offset);
+        this.codec = codec;
+        this.data = data;
+    }
+
+    /**
+     * Decodes the message on first call.
+     *
+     * @throws IllegalArgumentException if data are invalid
+     */
+    @Override
+    public M message() {
+        if (decoded == null) {
+            decoded = codec.decode(data);
+            data = null;
+        }
+        return decoded;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyLogRecord{" + "message=" + (decoded == null ? "<encoded>" : decoded) + ", offset=" + offset + '}';
+    }
+
+}
@@ -22,7 +22,9 @@ import static org.nuxeo.lib.stream.codec.NoCodec.NO_CODEC;
 
 import java.io.Externalizable;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -159,6 +161,32 @@ public class KafkaLogAppender<M extends Externalizable> implements CloseableLogA
         return ret;
     }
 
+    @Override
+    public List<LogOffset> appendAll(int partition, List<M> messages) {
+        String key = String.valueOf(partition);
+        // send the whole batch before waiting for acknowledgments so the producer can group records
+        List<Future<RecordMetadata>> futures = new ArrayList<>(messages.size());
+        for (M message : messages) {
+            Bytes value = Bytes.wrap(encodingCodec.encode(message));
+            futures.add(producer.send(new ProducerRecord<>(topic, partition, key, value)));
+        }
+        List<LogOffset> ret = new ArrayList<>(messages.size());
+        try {
+            for (Future<RecordMetadata> future : futures) {
+                ret.add(new LogOffsetImpl(name, partition, future.get().offset()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StreamRuntimeException("Unable to send records to: " + name + "-" + partition, e);
+        } catch (ExecutionException e) {
+            throw new StreamRuntimeException("Unable to send records to: " + name + "-" + partition, e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Append %d records to %s-%02d", messages.size(), name, partition));
+        }
+        return ret;
+    }
+
     @Override
     public boolean waitFor(LogOffset offset, Name group, Duration timeout) throws InterruptedException {
         boolean ret = false;
@@ -23,11 +23,13 @@ import static org.nuxeo.lib.stream.codec.NoCodec.NO_CODEC;
 
 import java.io.Externalizable;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
@@ -59,6 +61,7 @@ import org.nuxeo.lib.stream.log.Name;
 import org.nuxeo.lib.stream.log.NameResolver;
 import org.nuxeo.lib.stream.log.RebalanceException;
 import org.nuxeo.lib.stream.log.RebalanceListener;
+import org.nuxeo.lib.stream.log.internals.LazyLogRecord;
 import org.nuxeo.lib.stream.log.internals.LogOffsetImpl;
 
 /**
@@ -168,6 +171,42 @@ public class KafkaLogTailer<M extends Externalizable> implements LogTailer<M>, C
 
     @Override
     public LogRecord<M> read(Duration timeout) throws InterruptedException {
+        if (!fetch(timeout)) {
+            return null;
+        }
+        ConsumerRecord<String, Bytes> record = records.poll();
+        LogOffset offset = consume(record);
+        M value = decodeCodec.decode(record.value().get());
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Read from %s/%s, key: %s, value: %s", offset, group, record.key(), value));
+        }
+        return new LogRecord<>(value, offset);
+    }
+
+    @Override
+    public List<LogRecord<M>> readBatch(int maxRecords, Duration timeout) throws InterruptedException {
+        if (!fetch(timeout)) {
+            return Collections.emptyList();
+        }
+        // returns what remains of the last poll, messages are decoded on demand
+        List<LogRecord<M>> ret = new ArrayList<>(Math.min(maxRecords, records.size()));
+        while (ret.size() < maxRecords && !records.isEmpty()) {
+            ConsumerRecord<String, Bytes> record = records.poll();
+            ret.add(new LazyLogRecord<>(decodeCodec, record.value().get(), consume(record)));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Read batch of %d records from %s, last: %s", ret.size(), group,
+                    ret.get(ret.size() - 1).offset()));
+        }
+        return ret;
+    }
+
+    /**
+     * Polls new records if there are no more records to read.
+     *
+     * @return {@code false} if there is no record available after the timeout
+     */
+    protected boolean fetch(Duration timeout) throws InterruptedException {
         if (closed) {
             throw new IllegalStateException("The tailer has been closed.");
         }
@@ -188,19 +227,20 @@ public class KafkaLogTailer<M extends Externalizable> implements LogTailer<M>, C
                 if (log.isTraceEnabled()) {
                     log.trace("No data " + id + " after " + timeout.toMillis() + " ms");
                 }
-                return null;
+                return false;
             }
         }
-        ConsumerRecord<String, Bytes> record = records.poll();
+        return true;
+    }
+
+    /**
+     * Marks the record as read and returns its offset.
+     */
+    protected LogOffset consume(ConsumerRecord<String, Bytes> record) {
         lastOffsets.put(new TopicPartition(record.topic(), record.partition()), record.offset());
-        M value = decodeCodec.decode(record.value().get());
         LogPartition partition = LogPartition.of(resolver.getName(record.topic()), record.partition());
-        LogOffset offset = new LogOffsetImpl(partition, record.offset());
         consumerMoved = false;
-        if (log.isDebugEnabled()) {
-            log.debug(String.format("Read from %s/%s, key: %s, value: %s", offset, group, record.key(), value));
-        }
-        return new LogRecord<>(value, offset);
+        return new LogOffsetImpl(partition, record.offset());
     }
 
     protected int poll(Duration timeout) throws InterruptedException {
@@ -0,0 +1,46 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.lib.stream.tests.computation;
+
+import org.nuxeo.lib.stream.computation.ComputationContext;
+import org.nuxeo.lib.stream.computation.Record;
+
+/**
+ * A batch computation that also flushes its batch after a record with the {@link #FLUSH_KEY} key.
+ *
+ * @since 11.5
+ */
+public class ComputationBatchFlushForward extends ComputationBatchForward {
+
+    public static final String FLUSH_KEY = "flush";
+
+    public ComputationBatchFlushForward(String name, int nbInputStream) {
+        super(name, nbInputStream);
+    }
+
+    @Override
+    public void processRecord(ComputationContext context, String inputStreamName, Record record) {
+        super.processRecord(context, inputStreamName, record);
+        if (FLUSH_KEY.equals(record.getKey()) && !batchRecords.isEmpty()) {
+            batchProcess(context, currentInputStream, batchRecords);
+            checkpointBatch(context);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * (C) Copyright 2021 Nuxeo SA (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Contributors:
+ *     bdelbosc
+ */
+package org.nuxeo.lib.stream.tests.computation;
+
+import static org.junit.Assert.assertEquals;
+import static org.nuxeo.lib.stream.computation.log.ComputationPoolScaler.getTargetConcurrency;
+
+import org.junit.Test;
+import org.nuxeo.lib.stream.computation.Settings;
+
+/**
+ * @since 11.5
+ */
+public class TestComputationPoolScaler {
+
+    protected static final long THRESHOLD = 5000;
+
+    @Test
+    public void testShrinkWhenNoLag() {
+        assertEquals(3, getTargetConcurrency(4, 1, 8, 16, 0, 0, 0, THRESHOLD));
+        // never below min
+        assertEquals(1, getTargetConcurrency(1, 1, 8, 16, 0, 10, 0, THRESHOLD));
+    }
+
+    @Test
+    public void testGrowWhenLatencyIsHighAndLagIsNotDecreasing() {
+        assertEquals(8, getTargetConcurrency(4, 1, 16, 16, 100, 100, THRESHOLD, THRESHOLD));
+        assertEquals(1, getTargetConcurrency(0, 0, 16, 16, 100, 50, THRESHOLD, THRESHOLD));
+        // never above max
+        assertEquals(6, getTargetConcurrency(4, 1, 6, 16, 200, 100, 2 * THRESHOLD, THRESHOLD));
+    }
+
+    @Test
+    public void testNeverAbovePartitions() {
+        assertEquals(6, getTargetConcurrency(4, 1, 16, 6, 200, 100, 2 * THRESHOLD, THRESHOLD));
+        // shrink a pool started with more threads than partitions
+        assertEquals(4, getTargetConcurrency(8, 1, 16, 4, 200, 200, THRESHOLD - 1, THRESHOLD));
+        // the min threads are above the number of partitions
+        assertEquals(2, getTargetConcurrency(2, 4, 16, 2, 0, 0, 0, THRESHOLD));
+        // unknown number of partitions
+        assertEquals(8, getTargetConcurrency(4, 1, 16, 0, 100, 100, THRESHOLD, THRESHOLD));
+    }
+
+    @Test
+    public void testKeepWhenDraining() {
+        // latency is high but the backlog decreases
+        assertEquals(4, getTargetConcurrency(4, 1, 8, 16, 50, 100, 2 * THRESHOLD, THRESHOLD));
+        // lag is increasing but the latency is acceptable
+        assertEquals(4, getTargetConcurrency(4, 1, 8, 16, 200, 100, THRESHOLD - 1, THRESHOLD));
+    }
+
+    @Test
+    public void testConcurrencyBounds() {
+        Settings settings = new Settings(4, 4).setConcurrencyBounds("C1", 2, 12);
+        assertEquals(4, settings.getConcurrency("C1"));
+        assertEquals(2, settings.getMinConcurrency("C1"));
+        assertEquals(12, settings.getMaxConcurrency("C1"));
+        // no autoscaling by default
+        assertEquals(4, settings.getMinConcurrency("C2"));
+        assertEquals(4, settings.getMaxConcurrency("C2"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrencyBounds() {
+        new Settings(4, 4).setConcurrencyBounds("C1", 8, 2);
+    }
+
+}
@@ -19,9 +19,11 @@
 package org.nuxeo.lib.stream.tests.computation;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 import static org.nuxeo.lib.stream.codec.NoCodec.NO_CODEC;
 
 import java.nio.charset.StandardCharsets;
@@ -38,6 +40,7 @@ import org.nuxeo.lib.stream.codec.AvroJsonCodec;
 import org.nuxeo.lib.stream.codec.AvroMessageCodec;
 import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.lib.stream.codec.SerializableCodec;
+import org.nuxeo.lib.stream.computation.ComputationMetadataMapping;
 import org.nuxeo.lib.stream.computation.ComputationPolicy;
 import org.nuxeo.lib.stream.computation.ComputationPolicyBuilder;
 import org.nuxeo.lib.stream.computation.Record;
@@ -46,7 +49,10 @@ import org.nuxeo.lib.stream.computation.StreamManager;
 import org.nuxeo.lib.stream.computation.StreamProcessor;
 import org.nuxeo.lib.stream.computation.Topology;
 import org.nuxeo.lib.stream.computation.Watermark;
+import org.nuxeo.lib.stream.computation.log.ComputationPool;
+import org.nuxeo.lib.stream.computation.log.ComputationPoolScaler;
 import org.nuxeo.lib.stream.computation.log.LogStreamManager;
+import org.nuxeo.lib.stream.computation.log.VirtualThreads;
 import org.nuxeo.lib.stream.log.Latency;
 import org.nuxeo.lib.stream.log.LogAppender;
 import org.nuxeo.lib.stream.log.LogLag;
@@ -55,6 +61,7 @@ import org.nuxeo.lib.stream.log.LogPartition;
 import org.nuxeo.lib.stream.log.LogRecord;
 import org.nuxeo.lib.stream.log.LogTailer;
 import org.nuxeo.lib.stream.log.Name;
+import org.nuxeo.lib.stream.log.kafka.KafkaUtils;
 
 import net.jodah.failsafe.RetryPolicy;
 
@@ -69,6 +76,8 @@ public abstract class TestStreamProcessor {
 
     public Codec<Record> codec = new AvroMessageCodec<>(Record.class);
 
+    public ComputationPolicy policy = ComputationPolicy.NONE;
+
     public abstract LogManager getLogManager() throws Exception;
 
     public abstract LogManager getSameLogManager();
@@ -91,7 +100,7 @@ public abstract class TestStreamProcessor {
                                             Arrays.asList("i1:s4", "o1:" + OUTPUT_STREAM))
                                     .build();
         // one thread for each computation
-        Settings settings = new Settings(concurrency, concurrency, codec).setConcurrency("GENERATOR", 1);
+        Settings settings = new Settings(concurrency, concurrency, codec, policy).setConcurrency("GENERATOR", 1);
         // uncomment to get the plantuml diagram
         // System.out.println(topology.toPlantuml(settings));
         try (LogManager manager = getLogManager()) {
@@ -182,6 +191,19 @@ public abstract class TestStreamProcessor {
         }
     }
 
+    @Test
+    public void testSimpleTopoFewRecordsVirtualThreads() throws Exception {
+        // fallback on platform threads when the JVM does not support virtual threads
+        policy = new ComputationPolicyBuilder().virtualThreads(true).build();
+        try {
+            testSimpleTopo(17, 1);
+            // the JFR stream of pinned events is closed with the pools
+            assertFalse(VirtualThreads.isPinnedMonitorRunning());
+        } finally {
+            policy = ComputationPolicy.NONE;
+        }
+    }
+
     protected void restoreDefaultCodec() {
         codec = new AvroMessageCodec<>(Record.class);
     }
@@ -656,6 +678,33 @@ public abstract class TestStreamProcessor {
 
     }
 
+    @Test
+    public void testBatchComputationFlushWithinReadAhead() throws Exception {
+        Topology topology = Topology.builder()
+                                    .addComputation(() -> new ComputationBatchFlushForward("C1", 1),
+                                            Arrays.asList("i1:input", "o1:output"))
+                                    .build();
+        // records are read ahead by batch of 10, the batch is never flushed on capacity or threshold
+        ComputationPolicy policy = new ComputationPolicyBuilder().batchPolicy(10, Duration.ofHours(1)).build();
+        try (LogManager manager = getLogManager()) {
+            StreamManager streamManager = new LogStreamManager(manager);
+            Settings settings = new Settings(1, 1, policy);
+            StreamProcessor processor = streamManager.registerAndCreateProcessor("processor", topology, settings);
+            streamManager.append("input", Record.of("foo", null));
+            streamManager.append("input", Record.of(ComputationBatchFlushForward.FLUSH_KEY, null));
+            streamManager.append("input", Record.of("bar", null));
+            streamManager.append("input", Record.of("foo", null));
+            streamManager.append("input", Record.of("bar", null));
+            processor.start();
+            processor.waitForAssignments(Duration.ofSeconds(10));
+            assertTrue(processor.drainAndStop(Duration.ofSeconds(20)));
+            // only the flushed records are checkpointed, the others are still in the computation batch
+            assertEquals(2, countRecordIn(manager, OUTPUT_STREAM));
+            LogLag lag = manager.getLag(Name.ofUrn("input"), Name.ofUrn("C1"));
+            assertEquals(lag.toString(), 3, lag.lag());
+        }
+    }
+
     @Test
     public void testRegisterWithoutExecution() throws Exception {
         Topology topology = Topology.builder()
@@ -681,6 +730,88 @@ public abstract class TestStreamProcessor {
         }
     }
 
+    @Test
+    public void testScalePool() throws Exception {
+        Topology topology = Topology.builder()
+                                    .addComputation(() -> new ComputationForward("C1", 1, 1),
+                                            Arrays.asList("i1:input", "o1:output"))
+                                    .build();
+        // one runner at start, can scale between 1 and 8 runners
+        Settings settings = new Settings(1, 4).setConcurrencyBounds("C1", 1, 8);
+        try (LogManager manager = getLogManager()) {
+            LogStreamManager streamManager = new LogStreamManager(manager);
+            ComputationPool pool = newPool(streamManager, topology, settings);
+            pool.start();
+            try {
+                assertTrue(pool.waitForAssignments(Duration.ofSeconds(10)));
+                if (!manager.supportSubscribe()) {
+                    // partitions are statically assigned, the pool keeps its runners
+                    assertFalse(pool.isScalable());
+                    assertEquals(1, pool.scale(4));
+                    assertEquals(1, pool.getActiveThreads());
+                    return;
+                }
+                assertTrue(pool.isScalable());
+                // add runners
+                assertEquals(3, pool.scale(3));
+                assertEquals(3, pool.getActiveThreads());
+                // never above max
+                assertEquals(8, pool.scale(20));
+                assertEquals(8, pool.getActiveThreads());
+                // stop runners, never below min
+                assertEquals(1, pool.scale(0));
+                assertEquals(1, pool.getActiveThreads());
+
+                // the stopped runners left the group, the remaining runner processes all the partitions
+                for (int i = 0; i < 20; i++) {
+                    streamManager.append("input", Record.of("key" + i, null));
+                }
+                LogLag lag = manager.getLag(Name.ofUrn("input"), Name.ofUrn("C1"));
+                long deadline = System.currentTimeMillis() + 30_000;
+                while (lag.lag() > 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(100);
+                    lag = manager.getLag(Name.ofUrn("input"), Name.ofUrn("C1"));
+                }
+                assertEquals(lag.toString(), 0, lag.lag());
+            } finally {
+                pool.stop(Duration.ofSeconds(10));
+            }
+        }
+    }
+
+    @Test
+    public void testScalePoolNeverAbovePartitions() throws Exception {
+        Topology topology = Topology.builder()
+                                    .addComputation(() -> new ComputationForwardSlow("C1", 1, 1, 5_000),
+                                            Arrays.asList("i1:input", "o1:output"))
+                                    .build();
+        // 4 partitions, one runner at start, can scale up to 8 runners
+        Settings settings = new Settings(1, 4).setConcurrencyBounds("C1", 1, 8);
+        try (LogManager manager = getLogManager()) {
+            assumeTrue("Scaling requires subscribe", manager.supportSubscribe());
+            LogStreamManager streamManager = new LogStreamManager(manager);
+            for (int i = 0; i < 20; i++) {
+                streamManager.append("input", Record.of("key" + i, null));
+            }
+            ComputationPool pool = newPool(streamManager, topology, settings);
+            pool.start();
+            try {
+                // records are slow to process: the lag doesn't decrease and any latency is above the threshold
+                ComputationPoolScaler scaler = new ComputationPoolScaler(manager, settings,
+                        Collections.singletonList(pool), Duration.ZERO);
+                scaler.run();
+                assertEquals(2, pool.getActiveThreads());
+                scaler.run();
+                assertEquals(4, pool.getActiveThreads());
+                // capped to the number of partitions
+                scaler.run();
+                assertEquals(4, pool.getActiveThreads());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
     @Test
     public void testJsonRepresentation() throws Exception {
         Topology topology = Topology.builder()
@@ -705,6 +836,17 @@ public abstract class TestStreamProcessor {
 
     // ---------------------------------
     // helpers
+    protected ComputationPool newPool(LogStreamManager streamManager, Topology topology, Settings settings) {
+        streamManager.register("processor", topology, settings);
+        ComputationMetadataMapping metadata = topology.metadataList().get(0);
+        String name = metadata.name();
+        return new ComputationPool(topology.getSupplier(name), metadata,
+                KafkaUtils.roundRobinAssignments(settings.getConcurrency(name),
+                        Collections.singletonMap("input", settings.getPartitions("input"))),
+                streamManager, settings.getPolicy(name), settings.getMinConcurrency(name),
+                settings.getMaxConcurrency(name));
+    }
+
     protected int readOutputCounter(LogManager manager) throws InterruptedException {
         int partitions = manager.size(Name.ofUrn(OUTPUT_STREAM));
         int ret = 0;
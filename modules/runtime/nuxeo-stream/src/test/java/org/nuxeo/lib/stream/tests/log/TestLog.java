@@ -297,6 +297,70 @@ public abstract class TestLog {
         assertEquals(LogLag.of(3), manager.getLag(logName, GROUP));
     }
 
+    @Test
+    public void testAppendAll() throws Exception {
+        final int LOG_SIZE = 2;
+        final int NB_MSG = 10;
+        final Name GROUP = Name.ofUrn("test/defaultTest");
+
+        Codec<KeyValueMessage> codec = new AvroMessageCodec<>(KeyValueMessage.class);
+        manager.createIfNotExists(logName, LOG_SIZE);
+        LogAppender<KeyValueMessage> appender = manager.getAppender(logName, codec);
+        List<KeyValueMessage> messages = new ArrayList<>(NB_MSG);
+        for (int i = 0; i < NB_MSG; i++) {
+            messages.add(KeyValueMessage.of("id" + i));
+        }
+        List<LogOffset> offsets = appender.appendAll(1, messages);
+        assertEquals(NB_MSG, offsets.size());
+        for (int i = 1; i < NB_MSG; i++) {
+            assertEquals(1, offsets.get(i).partition().partition());
+            assertTrue(offsets.get(i).offset() > offsets.get(i - 1).offset());
+        }
+        assertTrue(appender.appendAll(1, Collections.emptyList()).isEmpty());
+
+        try (LogTailer<KeyValueMessage> tailer = manager.createTailer(GROUP, LogPartition.of(logName, 1), codec)) {
+            for (int i = 0; i < NB_MSG; i++) {
+                LogRecord<KeyValueMessage> record = tailer.read(DEF_TIMEOUT);
+                assertEquals(messages.get(i), record.message());
+                assertEquals(offsets.get(i), record.offset());
+            }
+            assertNull(tailer.read(SMALL_TIMEOUT));
+        }
+        assertEquals(LogLag.of(NB_MSG), manager.getLag(logName, GROUP));
+    }
+
+    @Test
+    public void testReadBatch() throws Exception {
+        final int NB_MSG = 5;
+        final Name GROUP = Name.ofUrn("test/defaultTest");
+        Codec<KeyValueMessage> codec = new AvroMessageCodec<>(KeyValueMessage.class);
+        manager.createIfNotExists(logName, 1);
+        LogAppender<KeyValueMessage> appender = manager.getAppender(logName, codec);
+        for (int i = 0; i < NB_MSG; i++) {
+            appender.append(0, KeyValueMessage.of("id" + i));
+        }
+
+        try (LogTailer<KeyValueMessage> tailer = manager.createTailer(GROUP, LogPartition.of(logName, 0), codec)) {
+            List<LogRecord<KeyValueMessage>> records = new ArrayList<>();
+            List<LogRecord<KeyValueMessage>> batch = tailer.readBatch(3, DEF_TIMEOUT);
+            assertFalse(batch.isEmpty());
+            assertTrue(batch.size() <= 3);
+            records.addAll(batch);
+            while (records.size() < NB_MSG) {
+                batch = tailer.readBatch(3, DEF_TIMEOUT);
+                assertFalse(batch.isEmpty());
+                records.addAll(batch);
+            }
+            assertEquals(NB_MSG, records.size());
+            for (int i = 0; i < NB_MSG; i++) {
+                assertEquals(KeyValueMessage.of("id" + i), records.get(i).message());
+            }
+            assertTrue(tailer.readBatch(3, SMALL_TIMEOUT).isEmpty());
+            tailer.commit();
+        }
+        assertEquals(LogLag.of(0), manager.getLag(logName, GROUP));
+    }
+
     @Test
     public void testCommitAndSeek() throws Exception {
         final int LOG_SIZE = 5;
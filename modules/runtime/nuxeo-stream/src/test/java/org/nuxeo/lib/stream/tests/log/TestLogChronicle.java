@@ -18,7 +18,9 @@
  */
 package org.nuxeo.lib.stream.tests.log;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.nuxeo.lib.stream.tests.TestLibChronicle.IS_WIN;
@@ -28,7 +30,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -38,9 +42,14 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.nuxeo.lib.stream.codec.AvroMessageCodec;
+import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.lib.stream.log.LogAppender;
 import org.nuxeo.lib.stream.log.LogLag;
 import org.nuxeo.lib.stream.log.LogManager;
+import org.nuxeo.lib.stream.log.LogOffset;
+import org.nuxeo.lib.stream.log.LogPartition;
+import org.nuxeo.lib.stream.log.LogRecord;
 import org.nuxeo.lib.stream.log.LogTailer;
 import org.nuxeo.lib.stream.log.Name;
 import org.nuxeo.lib.stream.log.chronicle.ChronicleLogManager;
@@ -160,6 +169,53 @@ public class TestLogChronicle extends TestLog {
         assertEquals(LogLag.of(NB_APPENDERS * RETENTION_CYCLES), manager.getLag(logName, Name.ofUrn("test/counter")));
     }
 
+    @Test
+    public void testAppendAllBetweenAppends() throws Exception {
+        final Name GROUP = Name.ofUrn("test/group");
+        Codec<KeyValueMessage> codec = new AvroMessageCodec<>(KeyValueMessage.class);
+        manager.createIfNotExists(logName, 2);
+        LogAppender<KeyValueMessage> appender = manager.getAppender(logName, codec);
+        List<KeyValueMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            messages.add(KeyValueMessage.of("id" + i, ("value" + i).getBytes(UTF_8)));
+        }
+        KeyValueMessage before = KeyValueMessage.of("before");
+        KeyValueMessage after = KeyValueMessage.of("after");
+        List<LogOffset> offsets = new ArrayList<>();
+        offsets.add(appender.append(0, before));
+        offsets.addAll(appender.appendAll(0, messages));
+        offsets.add(appender.append(0, after));
+        List<LogOffset> otherOffsets = appender.appendAll(1, messages.subList(0, 2));
+
+        List<KeyValueMessage> expected = new ArrayList<>();
+        expected.add(before);
+        expected.addAll(messages);
+        expected.add(after);
+        for (int i = 1; i < offsets.size(); i++) {
+            assertEquals(0, offsets.get(i).partition().partition());
+            assertTrue(offsets.get(i).offset() > offsets.get(i - 1).offset());
+        }
+        // the batch is written in order without any gap between the surrounding appends
+        try (LogTailer<KeyValueMessage> tailer = manager.createTailer(GROUP, LogPartition.of(logName, 0), codec)) {
+            for (int i = 0; i < expected.size(); i++) {
+                LogRecord<KeyValueMessage> record = tailer.read(DEF_TIMEOUT);
+                assertEquals(expected.get(i), record.message());
+                assertEquals(offsets.get(i), record.offset());
+            }
+            assertNull(tailer.read(SMALL_TIMEOUT));
+        }
+        // the other partition only has its own batch
+        try (LogTailer<KeyValueMessage> tailer = manager.createTailer(GROUP, LogPartition.of(logName, 1), codec)) {
+            for (int i = 0; i < 2; i++) {
+                LogRecord<KeyValueMessage> record = tailer.read(DEF_TIMEOUT);
+                assertEquals(messages.get(i), record.message());
+                assertEquals(otherOffsets.get(i), record.offset());
+                assertEquals(1, record.offset().partition().partition());
+            }
+            assertNull(tailer.read(SMALL_TIMEOUT));
+        }
+    }
+
     @Test
     public void testRollCycle() throws Exception {
         KeyValueMessage msg1 = KeyValueMessage.of("id1");